@@ -0,0 +1,72 @@
+package org.mappinganalysis.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.io.impl.csv.CSVDataSource;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+import org.mappinganalysis.model.functions.merge.MergeTupleCreator;
+import org.mappinganalysis.util.Constants;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Load benchmark input from the test data sets in analysis-core.
+ *
+ * The data directory can be set with -Dbenchmark.data.dir=..., default is
+ * analysis-core/src/test/resources/data relative to project or module directory.
+ */
+public class BenchmarkData {
+  private static final String DATA_DIR_PROPERTY = "benchmark.data.dir";
+  private static final String DATA_DIR = "analysis-core/src/test/resources/data";
+  private static final String MUSIC_PATH = "musicbrainz/";
+  private static final String MUSIC_FILE = "musicbrainz-20000-A01.csv.dapo";
+
+  private static List<Vertex<Long, ObjectMap>> musicVertices;
+
+  /**
+   * Get all musicbrainz input vertices, read once per JVM with a local Flink environment.
+   */
+  public static synchronized List<Vertex<Long, ObjectMap>> getMusicVertices() throws Exception {
+    if (musicVertices == null) {
+      ExecutionEnvironment env = ExecutionEnvironment.createLocalEnvironment(1);
+      env.getConfig().disableSysoutLogging();
+
+      musicVertices = new CSVDataSource(getDataDir() + MUSIC_PATH, MUSIC_FILE, env)
+          .getVertices()
+          .collect();
+    }
+
+    return musicVertices;
+  }
+
+  /**
+   * Get the first count musicbrainz vertices as merge tuples.
+   */
+  public static List<MergeTuple> getMusicMergeTuples(int count) throws Exception {
+    MergeTupleCreator creator = new MergeTupleCreator(
+        BlockingStrategy.STANDARD_BLOCKING, DataDomain.MUSIC, 4);
+    List<MergeTuple> result = Lists.newArrayListWithCapacity(count);
+
+    for (Vertex<Long, ObjectMap> vertex : getMusicVertices().subList(0, count)) {
+      ObjectMap properties = new ObjectMap(Constants.MUSIC);
+      properties.putAll(vertex.getValue());
+      result.add(creator.map(new Vertex<>(vertex.getId(), properties)));
+    }
+
+    return result;
+  }
+
+  private static String getDataDir() {
+    String dataDir = System.getProperty(DATA_DIR_PROPERTY);
+    if (dataDir == null) {
+      dataDir = new File(DATA_DIR).isDirectory() ? DATA_DIR : "../" + DATA_DIR;
+    }
+
+    return dataDir.endsWith("/") ? dataDir : dataDir + "/";
+  }
+}
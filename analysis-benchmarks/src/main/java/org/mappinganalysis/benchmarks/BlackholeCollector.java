@@ -0,0 +1,24 @@
+package org.mappinganalysis.benchmarks;
+
+import org.apache.flink.util.Collector;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Collector which hands all records to the JMH blackhole.
+ */
+public class BlackholeCollector<T> implements Collector<T> {
+  private final Blackhole blackhole;
+
+  public BlackholeCollector(Blackhole blackhole) {
+    this.blackhole = blackhole;
+  }
+
+  @Override
+  public void collect(T record) {
+    blackhole.consume(record);
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,66 @@
+package org.mappinganalysis.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.BloomFilter;
+import org.mappinganalysis.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Add the trigrams of musicbrainz labels to bloom filters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BloomFilterBenchmark {
+  private static final int VALUE_COUNT = 200;
+  private static final int FILTER_SIZE = 3200;
+
+  @Param({"5", "15"})
+  public int hashFunctions;
+
+  private List<List<String>> trigrams;
+
+  @Setup
+  public void setup() throws Exception {
+    trigrams = Lists.newArrayListWithCapacity(VALUE_COUNT);
+    for (Vertex<Long, ObjectMap> vertex
+        : BenchmarkData.getMusicVertices().subList(0, VALUE_COUNT)) {
+      String value = Utils.simplify(vertex.getValue().getArtistTitleAlbum());
+      List<String> valueTrigrams = Lists.newArrayList();
+      for (int i = 0; i < value.length() - 2; i++) {
+        valueTrigrams.add(value.substring(i, i + 3));
+      }
+      trigrams.add(valueTrigrams);
+    }
+  }
+
+  @Benchmark
+  public void addElement(Blackhole blackhole) {
+    for (List<String> valueTrigrams : trigrams) {
+      BloomFilter filter = new BloomFilter(FILTER_SIZE, hashFunctions);
+      for (String trigram : valueTrigrams) {
+        blackhole.consume(filter.addElement(trigram));
+      }
+      blackhole.consume(filter);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.mappinganalysis.benchmarks;
+
+import org.mappinganalysis.util.HungarianAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hungarian algorithm on random similarity based cost matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HungarianAlgorithmBenchmark {
+  @Param({"10", "50", "100"})
+  public int size;
+
+  private double[][] costMatrix;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    costMatrix = new double[size][size];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        costMatrix[i][j] = 1D - random.nextDouble();
+      }
+    }
+  }
+
+  @Benchmark
+  public void execute(Blackhole blackhole) {
+    blackhole.consume(new HungarianAlgorithm(costMatrix).execute());
+  }
+}
@@ -0,0 +1,67 @@
+package org.mappinganalysis.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.types.NullValue;
+import org.mappinganalysis.graph.utils.AllEdgesCreateGroupReducer;
+import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.functions.merge.MergeMusicTripletCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group reduce functions creating all pairs within a block or cluster.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+  @Param({"10", "50", "200"})
+  public int blockSize;
+
+  private List<MergeTuple> mergeTuples;
+  private List<Tuple2<Long, Long>> clusterVertices;
+  private MergeMusicTripletCreator tripletCreator;
+  private AllEdgesCreateGroupReducer<Tuple2<Long, Long>> edgesCreator;
+
+  @Setup
+  public void setup() throws Exception {
+    mergeTuples = BenchmarkData.getMusicMergeTuples(blockSize);
+    clusterVertices = Lists.newArrayListWithCapacity(blockSize);
+    for (MergeTuple tuple : mergeTuples) {
+      clusterVertices.add(new Tuple2<>(tuple.getId(), 0L));
+    }
+
+    tripletCreator = new MergeMusicTripletCreator(5);
+    edgesCreator = new AllEdgesCreateGroupReducer<>();
+  }
+
+  @Benchmark
+  public void mergeMusicTripletCreator(Blackhole blackhole) throws Exception {
+    tripletCreator.reduce(mergeTuples, new BlackholeCollector<MergeMusicTriplet>(blackhole));
+  }
+
+  @Benchmark
+  public void allEdgesCreateGroupReducer(Blackhole blackhole) throws Exception {
+    edgesCreator.reduce(clusterVertices,
+        new BlackholeCollector<Edge<Long, NullValue>>(blackhole));
+  }
+}
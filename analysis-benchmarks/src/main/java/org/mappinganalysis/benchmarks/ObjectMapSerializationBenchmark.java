@@ -0,0 +1,89 @@
+package org.mappinganalysis.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.typeinfo.ObjectMapSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization round trip of musicbrainz vertex values, schema aware
+ * serializer compared to the generic Kryo serializer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectMapSerializationBenchmark {
+  private static final int VALUE_COUNT = 1000;
+
+  @Param({"objectMap", "kryo"})
+  public String serializerType;
+
+  private List<ObjectMap> values;
+  private TypeSerializer<ObjectMap> serializer;
+  private DataOutputSerializer output;
+  private DataInputDeserializer input;
+  private byte[] serialized;
+
+  @Setup
+  public void setup() throws Exception {
+    values = Lists.newArrayListWithCapacity(VALUE_COUNT);
+    for (Vertex<Long, ObjectMap> vertex
+        : BenchmarkData.getMusicVertices().subList(0, VALUE_COUNT)) {
+      values.add(vertex.getValue());
+    }
+
+    ExecutionConfig config = new ExecutionConfig();
+    if (serializerType.equals("kryo")) {
+      serializer = new KryoSerializer<>(ObjectMap.class, config);
+    } else {
+      serializer = new ObjectMapSerializer(config);
+    }
+
+    output = new DataOutputSerializer(64 * 1024);
+    for (ObjectMap value : values) {
+      serializer.serialize(value, output);
+    }
+    serialized = output.getCopyOfBuffer();
+    input = new DataInputDeserializer();
+  }
+
+  @Benchmark
+  public void serialize(Blackhole blackhole) throws Exception {
+    output.clear();
+    for (ObjectMap value : values) {
+      serializer.serialize(value, output);
+    }
+    blackhole.consume(output.length());
+  }
+
+  @Benchmark
+  public void deserialize(Blackhole blackhole) throws Exception {
+    input.setBuffer(serialized, 0, serialized.length);
+    for (int i = 0; i < VALUE_COUNT; i++) {
+      blackhole.consume(serializer.deserialize(input));
+    }
+  }
+}
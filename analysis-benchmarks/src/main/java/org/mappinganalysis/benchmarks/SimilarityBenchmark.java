@@ -0,0 +1,106 @@
+package org.mappinganalysis.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Triplet;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.types.NullValue;
+import org.mappinganalysis.model.EdgeObjectMapTriplet;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.simcomputation.CachedStringSimilarity;
+import org.mappinganalysis.model.functions.simcomputation.ops.SinglePropertySimilarity;
+import org.mappinganalysis.util.Constants;
+import org.mappinganalysis.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String similarity on musicbrainz artist title album values, each value is
+ * compared with its successors as in a candidate block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityBenchmark {
+  private static final int VALUE_COUNT = 200;
+  private static final int PAIRS_PER_VALUE = 10;
+
+  @Param({Constants.COSINE_TRIGRAM, Constants.COSINE_TRIGRAM_PACKED, Constants.JARO_WINKLER})
+  public String metric;
+
+  private List<String> values;
+  private List<Vertex<Long, ObjectMap>> vertices;
+
+  @Setup
+  public void setup() throws Exception {
+    vertices = BenchmarkData.getMusicVertices().subList(0, VALUE_COUNT);
+    values = Lists.newArrayListWithCapacity(VALUE_COUNT);
+    for (Vertex<Long, ObjectMap> vertex : vertices) {
+      values.add(vertex.getValue().getArtistTitleAlbum());
+    }
+  }
+
+  @Benchmark
+  public void simplify(Blackhole blackhole) {
+    for (String value : values) {
+      blackhole.consume(Utils.simplify(value));
+    }
+  }
+
+  @Benchmark
+  public void uncachedSimilarity(Blackhole blackhole) {
+    for (int i = 0; i < VALUE_COUNT; i++) {
+      for (int j = 1; j <= PAIRS_PER_VALUE; j++) {
+        blackhole.consume(Utils.getSimilarityAndSimplifyForMetric(
+            values.get(i), values.get((i + j) % VALUE_COUNT), metric));
+      }
+    }
+  }
+
+  /**
+   * New instance per invocation, cache is filled within the invocation as in a task.
+   */
+  @Benchmark
+  public void cachedSimilarity(Blackhole blackhole) {
+    CachedStringSimilarity similarity = new CachedStringSimilarity(metric);
+    for (int i = 0; i < VALUE_COUNT; i++) {
+      for (int j = 1; j <= PAIRS_PER_VALUE; j++) {
+        blackhole.consume(similarity.compare(
+            values.get(i), values.get((i + j) % VALUE_COUNT)));
+      }
+    }
+  }
+
+  @Benchmark
+  public void singlePropertySimilarity(Blackhole blackhole) {
+    CachedStringSimilarity similarity = new CachedStringSimilarity(metric);
+    for (int i = 0; i < VALUE_COUNT; i++) {
+      for (int j = 1; j <= PAIRS_PER_VALUE; j++) {
+        Vertex<Long, ObjectMap> src = vertices.get(i);
+        Vertex<Long, ObjectMap> trg = vertices.get((i + j) % VALUE_COUNT);
+        EdgeObjectMapTriplet triplet = new EdgeObjectMapTriplet(
+            new Triplet<>(src, trg, new Edge<>(src.getId(), trg.getId(), NullValue.getInstance())),
+            Constants.MUSIC);
+
+        blackhole.consume(triplet.runOperation(new SinglePropertySimilarity(
+            Constants.ARTIST_TITLE_ALBUM, similarity)));
+      }
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.mappinganalysis.graph;
 
 import org.apache.flink.api.common.functions.MapFunction;
+import org.mappinganalysis.model.functions.simcomputation.CachedStringSimilarity;
 
 /**
  * Abstract class for all similarity functions.
@@ -8,4 +9,16 @@ import org.apache.flink.api.common.functions.MapFunction;
 public abstract class SimilarityFunction<T, O>
     implements MapFunction<T, O> {
   public String metric;
+  private transient CachedStringSimilarity stringSimilarity;
+
+  /**
+   * Get string similarity for the chosen metric, prepared values are cached per task.
+   */
+  public CachedStringSimilarity getStringSimilarity() {
+    if (stringSimilarity == null) {
+      stringSimilarity = new CachedStringSimilarity(metric);
+    }
+
+    return stringSimilarity;
+  }
 }
@@ -1,5 +1,6 @@
 package org.mappinganalysis.graph.utils;
 
+import org.apache.flink.api.common.functions.MapFunction;
 import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.ExecutionEnvironment;
@@ -14,14 +15,24 @@ import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.CcIdVertexJoinFunction;
 
 /**
- * Add connected component ids to vertices in graph based on flink connected components.
+ * Add connected component ids to vertices in graph based on flink connected components,
+ * alternatively based on union-find, see {@link ConnectedComponentStrategy}.
  */
 public class ConnectedComponentIdAdder<T>
     implements GraphAlgorithm<Long, ObjectMap, T, Graph<Long, ObjectMap, T>> {
   private ExecutionEnvironment env;
+  private ConnectedComponentStrategy strategy;
 
   public ConnectedComponentIdAdder(ExecutionEnvironment env) {
+    this(env, ConnectedComponentStrategy.GSA);
+  }
+
+  /**
+   * @param strategy union-find for graphs with many small components
+   */
+  public ConnectedComponentIdAdder(ExecutionEnvironment env, ConnectedComponentStrategy strategy) {
     this.env = env;
+    this.strategy = strategy;
   }
 
   /**
@@ -33,8 +44,7 @@ public class ConnectedComponentIdAdder<T>
   public Graph<Long, ObjectMap, T> run(Graph<Long, ObjectMap, T> graph) throws Exception {
     Graph<Long, Long, NullValue> workingGraph = prepareForCc(graph, env);
 
-    DataSet<Tuple2<Long, Long>> verticesWithMinIds = workingGraph
-        .run(new GSAConnectedComponents<>(Integer.MAX_VALUE))
+    DataSet<Tuple2<Long, Long>> verticesWithMinIds = computeComponents(workingGraph, strategy)
         .map(vertex -> new Tuple2<>(vertex.getId(), vertex.getValue()))
         .returns(new TypeHint<Tuple2<Long, Long>>() {});
 
@@ -42,6 +52,42 @@ public class ConnectedComponentIdAdder<T>
         .joinWithVertices(verticesWithMinIds, new CcIdVertexJoinFunction());
   }
 
+  /**
+   * Connected component ids (min vertex id) for all vertices of the edges,
+   * without creating ObjectMap vertices, e.g., for candidate graphs.
+   */
+  public static DataSet<Vertex<Long, Long>> getComponentIds(
+      DataSet<Edge<Long, NullValue>> edges,
+      ExecutionEnvironment env) throws Exception {
+    return getComponentIds(edges, env, ConnectedComponentStrategy.GSA);
+  }
+
+  /**
+   * Connected component ids (min vertex id) for all vertices of the edges,
+   * computed with the given strategy.
+   */
+  public static DataSet<Vertex<Long, Long>> getComponentIds(
+      DataSet<Edge<Long, NullValue>> edges,
+      ExecutionEnvironment env,
+      ConnectedComponentStrategy strategy) throws Exception {
+    return computeComponents(Graph.fromDataSet(edges, new VertexIdInitializer(), env), strategy);
+  }
+
+  private static DataSet<Vertex<Long, Long>> computeComponents(
+      Graph<Long, Long, NullValue> graph,
+      ConnectedComponentStrategy strategy) throws Exception {
+    if (strategy == ConnectedComponentStrategy.GSA) {
+      return graph.run(new GSAConnectedComponents<>(Integer.MAX_VALUE));
+    } else if (strategy == ConnectedComponentStrategy.UNION_FIND) {
+      return graph.run(new UnionFindConnectedComponents<>(
+          UnionFindConnectedComponents.DEFAULT_MERGE_ROUNDS));
+    } else if (strategy == ConnectedComponentStrategy.LOCAL_UNION_FIND) {
+      return graph.run(new UnionFindConnectedComponents<>(0));
+    } else {
+      throw new IllegalArgumentException("Unsupported connected component strategy: " + strategy);
+    }
+  }
+
   /**
    * Replace the vertex values for an existing graph by the vertex id as
    * starting value for connected components computation.
@@ -59,4 +105,11 @@ public class ConnectedComponentIdAdder<T>
 
     return Graph.fromDataSet(vertices, edges, env);
   }
+
+  private static class VertexIdInitializer implements MapFunction<Long, Long> {
+    @Override
+    public Long map(Long id) throws Exception {
+      return id;
+    }
+  }
 }
@@ -0,0 +1,19 @@
+package org.mappinganalysis.graph.utils;
+
+/**
+ * Connected components computation strategies
+ */
+public enum ConnectedComponentStrategy {
+  /*
+   Gelly gather-sum-apply connected components, default
+   */
+  GSA,
+  /*
+   union-find per partition, some merge rounds over boundary links, last round in a single task
+   */
+  UNION_FIND,
+  /*
+   union-find over all edges in a single task, graph needs to fit on one task manager
+   */
+  LOCAL_UNION_FIND
+}
@@ -0,0 +1,287 @@
+package org.mappinganalysis.graph.utils;
+
+import com.google.common.base.Preconditions;
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.CoGroupFunction;
+import org.apache.flink.api.common.functions.FlatJoinFunction;
+import org.apache.flink.api.common.functions.JoinFunction;
+import org.apache.flink.api.common.functions.RichMapFunction;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.functions.FunctionAnnotation;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.GraphAlgorithm;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.graph.library.GSAConnectedComponents;
+import org.apache.flink.types.NullValue;
+import org.apache.flink.util.Collector;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.CcIdVertexJoinFunction;
+import org.mappinganalysis.util.Constants;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Update connected component ids after edges were removed or added, instead of
+ * computing all components from scratch like {@link ConnectedComponentIdAdder}.
+ *
+ * Vertices need the cc id computed on the previous edges. Only components which
+ * lost an edge (or vertex) or which are connected by a new edge are computed again,
+ * other vertices keep their cc id. Components with removed edges start from the
+ * vertex ids, components only merged by new edges start from their previous cc id.
+ * Vertices without cc id are handled as new single vertex components.
+ *
+ * If the share of touched vertices is above the max touched share (e.g., link
+ * filtering removes edges from most components), all components are computed
+ * from the vertex ids like plain connected components. Recomputed vertices are
+ * counted in {@value Constants#CC_RECOMPUTED_VERTICES_ACCUMULATOR}.
+ */
+public class IncrementalConnectedComponentIdAdder<T>
+    implements GraphAlgorithm<Long, ObjectMap, T, Graph<Long, ObjectMap, T>> {
+  public static final double DEFAULT_MAX_TOUCHED_SHARE = 0.5;
+  private static final String TOUCHED_COUNT = "touchedCount";
+
+  private final DataSet<Edge<Long, T>> previousEdges;
+  private final double maxTouchedShare;
+  private final ExecutionEnvironment env;
+
+  /**
+   * @param previousEdges edges the current cc ids are based on
+   */
+  public IncrementalConnectedComponentIdAdder(DataSet<Edge<Long, T>> previousEdges,
+                                              ExecutionEnvironment env) {
+    this(previousEdges, DEFAULT_MAX_TOUCHED_SHARE, env);
+  }
+
+  /**
+   * @param previousEdges edges the current cc ids are based on
+   * @param maxTouchedShare all components are computed again above this share of vertices
+   */
+  public IncrementalConnectedComponentIdAdder(DataSet<Edge<Long, T>> previousEdges,
+                                              double maxTouchedShare,
+                                              ExecutionEnvironment env) {
+    Preconditions.checkArgument(maxTouchedShare >= 0 && maxTouchedShare <= 1,
+        "Max touched share must be within [0, 1]: " + maxTouchedShare);
+    this.previousEdges = previousEdges;
+    this.maxTouchedShare = maxTouchedShare;
+    this.env = env;
+  }
+
+  @Override
+  public Graph<Long, ObjectMap, T> run(Graph<Long, ObjectMap, T> graph) throws Exception {
+    // (vertex id, previous cc id)
+    DataSet<Tuple2<Long, Long>> previousIds = graph.getVertices()
+        .map(vertex -> {
+          Long ccId = vertex.getValue().getCcId();
+          return new Tuple2<>(vertex.getId(), ccId == null ? vertex.getId() : ccId);
+        })
+        .returns(new TypeHint<Tuple2<Long, Long>>() {});
+
+    DataSet<Tuple2<Long, Long>> currentPairs = toPairs(graph.getEdges());
+
+    // (source, target, is removed)
+    DataSet<Tuple3<Long, Long, Boolean>> changedEdges = toPairs(previousEdges)
+        .coGroup(currentPairs)
+        .where(0, 1)
+        .equalTo(0, 1)
+        .with(new EdgeChangeCoGroupFunction());
+
+    // removed edges: component of each remaining end point needs to be split
+    DataSet<Tuple2<Long, Boolean>> splitComponents = changedEdges
+        .filter(edge -> edge.f2)
+        .flatMap((Tuple3<Long, Long, Boolean> edge, Collector<Tuple2<Long, Boolean>> out) -> {
+          out.collect(new Tuple2<>(edge.f0, true));
+          out.collect(new Tuple2<>(edge.f1, true));
+        })
+        .returns(new TypeHint<Tuple2<Long, Boolean>>() {})
+        .join(previousIds)
+        .where(0)
+        .equalTo(0)
+        .with((endPoint, vertex) -> new Tuple2<>(vertex.f1, true))
+        .returns(new TypeHint<Tuple2<Long, Boolean>>() {});
+
+    // added edges: both components are merged if they differ
+    DataSet<Tuple2<Long, Boolean>> mergedComponents = changedEdges
+        .filter(edge -> !edge.f2)
+        .join(previousIds)
+        .where(0)
+        .equalTo(0)
+        .with((edge, vertex) -> new Tuple2<>(vertex.f1, edge.f1))
+        .returns(new TypeHint<Tuple2<Long, Long>>() {})
+        .join(previousIds)
+        .where(1)
+        .equalTo(0)
+        .with(new MergedComponentsFunction());
+
+    DataSet<Tuple2<Long, Boolean>> touchedComponents = splitComponents
+        .union(mergedComponents)
+        .groupBy(0)
+        .reduce((left, right) -> new Tuple2<>(left.f0, left.f1 || right.f1))
+        .returns(new TypeHint<Tuple2<Long, Boolean>>() {});
+
+    // (vertex id, initial cc id, is touched)
+    DataSet<Tuple3<Long, Long, Boolean>> incrementalIds = previousIds
+        .leftOuterJoin(touchedComponents)
+        .where(1)
+        .equalTo(0)
+        .with(new InitialIdJoinFunction());
+
+    // (touched vertex count, vertex count)
+    DataSet<Tuple2<Long, Long>> touchedCount = incrementalIds
+        .map(vertex -> new Tuple2<>(vertex.f2 ? 1L : 0L, 1L))
+        .returns(new TypeHint<Tuple2<Long, Long>>() {})
+        .sum(0)
+        .andSum(1);
+
+    DataSet<Tuple3<Long, Long, Boolean>> initialIds = incrementalIds
+        .map(new TouchedShareFallbackFunction(maxTouchedShare))
+        .withBroadcastSet(touchedCount, TOUCHED_COUNT);
+
+    DataSet<Tuple2<Long, Long>> keptIds = initialIds
+        .filter(vertex -> !vertex.f2)
+        .project(0, 1);
+
+    DataSet<Vertex<Long, Long>> touchedVertices = initialIds
+        .filter(vertex -> vertex.f2)
+        .map(new TouchedVertexMapFunction());
+
+    DataSet<Edge<Long, NullValue>> touchedEdges = currentPairs
+        .join(touchedVertices)
+        .where(0)
+        .equalTo(0)
+        .with((pair, vertex) -> new Edge<>(pair.f0, pair.f1, NullValue.getInstance()))
+        .returns(new TypeHint<Edge<Long, NullValue>>() {});
+
+    DataSet<Tuple2<Long, Long>> recomputedIds = Graph
+        .fromDataSet(touchedVertices, touchedEdges, env)
+        .run(new GSAConnectedComponents<>(Integer.MAX_VALUE))
+        .map(vertex -> new Tuple2<>(vertex.getId(), vertex.getValue()))
+        .returns(new TypeHint<Tuple2<Long, Long>>() {});
+
+    return graph.joinWithVertices(keptIds.union(recomputedIds), new CcIdVertexJoinFunction());
+  }
+
+  private static <T> DataSet<Tuple2<Long, Long>> toPairs(DataSet<Edge<Long, T>> edges) {
+    return edges
+        .map(edge -> new Tuple2<>(edge.getSource(), edge.getTarget()))
+        .returns(new TypeHint<Tuple2<Long, Long>>() {});
+  }
+
+  /**
+   * Edges only contained in the previous (removed) or the current edges (added).
+   */
+  private static class EdgeChangeCoGroupFunction
+      implements CoGroupFunction<Tuple2<Long, Long>, Tuple2<Long, Long>,
+      Tuple3<Long, Long, Boolean>> {
+    @Override
+    public void coGroup(Iterable<Tuple2<Long, Long>> previous,
+                        Iterable<Tuple2<Long, Long>> current,
+                        Collector<Tuple3<Long, Long, Boolean>> out) throws Exception {
+      Iterator<Tuple2<Long, Long>> previousIterator = previous.iterator();
+      Iterator<Tuple2<Long, Long>> currentIterator = current.iterator();
+      if (previousIterator.hasNext() && !currentIterator.hasNext()) {
+        Tuple2<Long, Long> edge = previousIterator.next();
+        out.collect(new Tuple3<>(edge.f0, edge.f1, true));
+      } else if (!previousIterator.hasNext() && currentIterator.hasNext()) {
+        Tuple2<Long, Long> edge = currentIterator.next();
+        out.collect(new Tuple3<>(edge.f0, edge.f1, false));
+      }
+    }
+  }
+
+  /**
+   * (source cc id, target) and (target, target cc id) to both cc ids if they differ.
+   */
+  private static class MergedComponentsFunction
+      implements FlatJoinFunction<Tuple2<Long, Long>, Tuple2<Long, Long>, Tuple2<Long, Boolean>> {
+    @Override
+    public void join(Tuple2<Long, Long> source,
+                     Tuple2<Long, Long> target,
+                     Collector<Tuple2<Long, Boolean>> out) throws Exception {
+      if (!source.f0.equals(target.f1)) {
+        out.collect(new Tuple2<>(source.f0, false));
+        out.collect(new Tuple2<>(target.f1, false));
+      }
+    }
+  }
+
+  /**
+   * All vertices start from the vertex id if the share of touched vertices
+   * is above the max touched share.
+   */
+  @FunctionAnnotation.ForwardedFields("f0")
+  private static class TouchedShareFallbackFunction
+      extends RichMapFunction<Tuple3<Long, Long, Boolean>, Tuple3<Long, Long, Boolean>> {
+    private final double maxTouchedShare;
+    private boolean isFallback;
+
+    TouchedShareFallbackFunction(double maxTouchedShare) {
+      this.maxTouchedShare = maxTouchedShare;
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+      super.open(parameters);
+      List<Tuple2<Long, Long>> count = getRuntimeContext().getBroadcastVariable(TOUCHED_COUNT);
+      isFallback = !count.isEmpty() && count.get(0).f0 > maxTouchedShare * count.get(0).f1;
+    }
+
+    @Override
+    public Tuple3<Long, Long, Boolean> map(Tuple3<Long, Long, Boolean> vertex) throws Exception {
+      if (isFallback) {
+        return new Tuple3<>(vertex.f0, vertex.f0, true);
+      }
+
+      return vertex;
+    }
+  }
+
+  /**
+   * Vertex with initial cc id for connected components, vertices are counted.
+   */
+  private static class TouchedVertexMapFunction
+      extends RichMapFunction<Tuple3<Long, Long, Boolean>, Vertex<Long, Long>> {
+    private final LongCounter recomputedCounter = new LongCounter();
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+      super.open(parameters);
+      getRuntimeContext().addAccumulator(
+          Constants.CC_RECOMPUTED_VERTICES_ACCUMULATOR, recomputedCounter);
+    }
+
+    @Override
+    public Vertex<Long, Long> map(Tuple3<Long, Long, Boolean> vertex) throws Exception {
+      recomputedCounter.add(1L);
+
+      return new Vertex<>(vertex.f0, vertex.f1);
+    }
+  }
+
+  /**
+   * Split components start from the vertex id, merged components from the
+   * previous cc id, untouched components keep the previous cc id.
+   */
+  @FunctionAnnotation.ForwardedFieldsFirst("f0")
+  private static class InitialIdJoinFunction
+      implements JoinFunction<Tuple2<Long, Long>, Tuple2<Long, Boolean>,
+      Tuple3<Long, Long, Boolean>> {
+    @Override
+    public Tuple3<Long, Long, Boolean> join(Tuple2<Long, Long> vertex,
+                                            Tuple2<Long, Boolean> component) throws Exception {
+      if (component == null) {
+        return new Tuple3<>(vertex.f0, vertex.f1, false);
+      } else if (component.f1) {
+        return new Tuple3<>(vertex.f0, vertex.f0, true);
+      } else {
+        return new Tuple3<>(vertex.f0, vertex.f1, true);
+      }
+    }
+  }
+}
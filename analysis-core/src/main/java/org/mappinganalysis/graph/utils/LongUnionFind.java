@@ -0,0 +1,132 @@
+package org.mappinganalysis.graph.utils;
+
+import java.util.Arrays;
+
+/**
+ * Union-find over long vertex ids on primitive arrays. Ids are mapped to dense
+ * indexes by an open addressing hash table, each set keeps its minimum id.
+ */
+class LongUnionFind {
+  private static final int EMPTY = -1;
+
+  private long[] keys;
+  private int[] slots;
+  private int mask;
+
+  private long[] ids;
+  private int[] parents;
+  private int[] sizes;
+  private long[] minIds;
+  private int size = 0;
+
+  LongUnionFind(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+    keys = new long[capacity];
+    slots = new int[capacity];
+    Arrays.fill(slots, EMPTY);
+    mask = capacity - 1;
+
+    int elements = Math.max(16, expectedSize);
+    ids = new long[elements];
+    parents = new int[elements];
+    sizes = new int[elements];
+    minIds = new long[elements];
+  }
+
+  /**
+   * Add both ids and merge their sets.
+   */
+  void union(long first, long second) {
+    int firstRoot = find(indexOf(first));
+    int secondRoot = find(indexOf(second));
+    if (firstRoot == secondRoot) {
+      return;
+    }
+    if (sizes[firstRoot] < sizes[secondRoot]) {
+      int swap = firstRoot;
+      firstRoot = secondRoot;
+      secondRoot = swap;
+    }
+    parents[secondRoot] = firstRoot;
+    sizes[firstRoot] += sizes[secondRoot];
+    minIds[firstRoot] = Math.min(minIds[firstRoot], minIds[secondRoot]);
+  }
+
+  /**
+   * Count of contained ids.
+   */
+  int size() {
+    return size;
+  }
+
+  long getId(int index) {
+    return ids[index];
+  }
+
+  /**
+   * Minimum id of the set of the id at the index.
+   */
+  long getComponentId(int index) {
+    return minIds[find(index)];
+  }
+
+  private int find(int index) {
+    while (parents[index] != index) {
+      parents[index] = parents[parents[index]];
+      index = parents[index];
+    }
+    return index;
+  }
+
+  private int indexOf(long id) {
+    int slot = hash(id) & mask;
+    while (slots[slot] != EMPTY) {
+      if (keys[slot] == id) {
+        return slots[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    if (size == ids.length) {
+      int capacity = ids.length * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      parents = Arrays.copyOf(parents, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+      minIds = Arrays.copyOf(minIds, capacity);
+    }
+    int index = size++;
+    ids[index] = id;
+    parents[index] = index;
+    sizes[index] = 1;
+    minIds[index] = id;
+    keys[slot] = id;
+    slots[slot] = index;
+
+    if (size * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+    return index;
+  }
+
+  private void rehash(int capacity) {
+    keys = new long[capacity];
+    slots = new int[capacity];
+    Arrays.fill(slots, EMPTY);
+    mask = capacity - 1;
+    for (int index = 0; index < size; index++) {
+      int slot = hash(ids[index]) & mask;
+      while (slots[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = ids[index];
+      slots[slot] = index;
+    }
+  }
+
+  private static int hash(long id) {
+    id ^= id >>> 33;
+    id *= 0xff51afd7ed558ccdL;
+    id ^= id >>> 33;
+    return (int) id;
+  }
+}
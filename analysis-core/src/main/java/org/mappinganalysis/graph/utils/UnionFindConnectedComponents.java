@@ -0,0 +1,171 @@
+package org.mappinganalysis.graph.utils;
+
+import org.apache.flink.api.common.functions.GroupReduceFunction;
+import org.apache.flink.api.common.functions.JoinFunction;
+import org.apache.flink.api.common.functions.MapPartitionFunction;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.functions.FunctionAnnotation;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.GraphAlgorithm;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.util.Collector;
+import org.mappinganalysis.model.LongSet;
+
+/**
+ * Connected components with union-find instead of message passing, result is
+ * the minimum vertex id of each component like for Gelly connected components
+ * with vertex ids as initial values.
+ *
+ * Each partition runs union-find over its edges. For vertices with different
+ * labels in several partitions, the labels are linked to the minimum label. These
+ * label links are solved the same way in the next merge round, the last round runs
+ * union-find over all remaining links in a single task. With 0 merge rounds all
+ * edges are processed in a single task.
+ */
+public class UnionFindConnectedComponents<VV, EV>
+    implements GraphAlgorithm<Long, VV, EV, DataSet<Vertex<Long, Long>>> {
+  public static final int DEFAULT_MERGE_ROUNDS = 2;
+
+  private final int mergeRounds;
+
+  /**
+   * @param mergeRounds distributed rounds before the single task round
+   */
+  public UnionFindConnectedComponents(int mergeRounds) {
+    this.mergeRounds = mergeRounds;
+  }
+
+  @Override
+  public DataSet<Vertex<Long, Long>> run(Graph<Long, VV, EV> graph) throws Exception {
+    DataSet<Tuple2<Long, Long>> links = graph.getEdges()
+        .map(edge -> new Tuple2<>(edge.getSource(), edge.getTarget()))
+        .returns(new TypeHint<Tuple2<Long, Long>>() {});
+
+    return graph.getVertices()
+        .leftOuterJoin(resolve(links, mergeRounds))
+        .where(0)
+        .equalTo(0)
+        .with(new ComponentIdJoinFunction<>());
+  }
+
+  /**
+   * (id, component id) for all ids contained in the links
+   */
+  private static DataSet<Tuple2<Long, Long>> resolve(
+      DataSet<Tuple2<Long, Long>> links, int rounds) {
+    if (rounds <= 0) {
+      return links.reduceGroup(new UnionFindFunction())
+          .name("union-find");
+    }
+
+    // (vertex id, min label, is vertex label) or (label, min label, is label link)
+    DataSet<Tuple3<Long, Long, Boolean>> labels = links
+        .mapPartition(new UnionFindFunction())
+        .name("partition union-find")
+        .groupBy(0)
+        .reduceGroup(new LabelLinkFunction());
+
+    DataSet<Tuple2<Long, Long>> vertexLabels = labels
+        .filter(label -> label.f2)
+        .project(0, 1);
+    DataSet<Tuple2<Long, Long>> labelLinks = labels
+        .filter(label -> !label.f2)
+        .<Tuple2<Long, Long>>project(0, 1)
+        .partitionByHash(1);
+
+    return vertexLabels
+        .leftOuterJoin(resolve(labelLinks, rounds - 1))
+        .where(1)
+        .equalTo(0)
+        .with(new LabelJoinFunction());
+  }
+
+  /**
+   * Union-find over all links of the partition (or group),
+   * emits (id, min id of component) for each contained id.
+   */
+  private static class UnionFindFunction
+      implements MapPartitionFunction<Tuple2<Long, Long>, Tuple2<Long, Long>>,
+      GroupReduceFunction<Tuple2<Long, Long>, Tuple2<Long, Long>> {
+    @Override
+    public void mapPartition(Iterable<Tuple2<Long, Long>> links,
+                             Collector<Tuple2<Long, Long>> out) throws Exception {
+      LongUnionFind unionFind = new LongUnionFind(1024);
+      for (Tuple2<Long, Long> link : links) {
+        unionFind.union(link.f0, link.f1);
+      }
+
+      Tuple2<Long, Long> reuseTuple = new Tuple2<>();
+      for (int index = 0; index < unionFind.size(); index++) {
+        reuseTuple.f0 = unionFind.getId(index);
+        reuseTuple.f1 = unionFind.getComponentId(index);
+        out.collect(reuseTuple);
+      }
+    }
+
+    @Override
+    public void reduce(Iterable<Tuple2<Long, Long>> links,
+                       Collector<Tuple2<Long, Long>> out) throws Exception {
+      mapPartition(links, out);
+    }
+  }
+
+  /**
+   * All partition labels of a vertex, emit the vertex with its min label and
+   * a link from each other label to the min label.
+   */
+  private static class LabelLinkFunction
+      implements GroupReduceFunction<Tuple2<Long, Long>, Tuple3<Long, Long, Boolean>> {
+    @Override
+    public void reduce(Iterable<Tuple2<Long, Long>> vertexLabels,
+                       Collector<Tuple3<Long, Long, Boolean>> out) throws Exception {
+      LongSet labels = new LongSet();
+      Long vertexId = null;
+      long minLabel = Long.MAX_VALUE;
+      for (Tuple2<Long, Long> vertexLabel : vertexLabels) {
+        vertexId = vertexLabel.f0;
+        minLabel = Math.min(minLabel, vertexLabel.f1);
+        labels.add(vertexLabel.f1);
+      }
+
+      out.collect(new Tuple3<>(vertexId, minLabel, true));
+      for (int i = 0; i < labels.size(); i++) {
+        if (labels.get(i) != minLabel) {
+          out.collect(new Tuple3<>(labels.get(i), minLabel, false));
+        }
+      }
+    }
+  }
+
+  /**
+   * Replace the min label of a vertex by the component id of the label, if any.
+   */
+  @FunctionAnnotation.ForwardedFieldsFirst("f0")
+  private static class LabelJoinFunction
+      implements JoinFunction<Tuple2<Long, Long>, Tuple2<Long, Long>, Tuple2<Long, Long>> {
+    @Override
+    public Tuple2<Long, Long> join(Tuple2<Long, Long> vertexLabel,
+                                   Tuple2<Long, Long> labelComponent) throws Exception {
+      if (labelComponent != null) {
+        vertexLabel.f1 = labelComponent.f1;
+      }
+      return vertexLabel;
+    }
+  }
+
+  /**
+   * Vertices without edges are their own component.
+   */
+  @FunctionAnnotation.ForwardedFieldsFirst("f0")
+  private static class ComponentIdJoinFunction<VV>
+      implements JoinFunction<Vertex<Long, VV>, Tuple2<Long, Long>, Vertex<Long, Long>> {
+    @Override
+    public Vertex<Long, Long> join(Vertex<Long, VV> vertex,
+                                   Tuple2<Long, Long> component) throws Exception {
+      return new Vertex<>(vertex.getId(), component == null ? vertex.getId() : component.f1);
+    }
+  }
+}
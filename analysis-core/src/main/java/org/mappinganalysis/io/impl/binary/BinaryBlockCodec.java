@@ -0,0 +1,497 @@
+package org.mappinganalysis.io.impl.binary;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.types.NullValue;
+import org.mappinganalysis.model.LongSet;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.typeinfo.ObjectMapSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encode and decode a block of vertices (one id column) or edges (source and
+ * target id column) in the binary step format.
+ *
+ * Block layout: record count, value kind, id columns (zig-zag varint deltas),
+ * value columns. For {@link ObjectMap} values there is a mode column, a slot mask
+ * column and a count column for other keys, followed by one column per used
+ * {@link ObjectMapSerializer#SLOTS} key (values of records having this key) and
+ * the (key, value) pairs of other keys. Strings are dictionary encoded, the
+ * dictionary is local to the block, so each block can be decoded on its own.
+ */
+class BinaryBlockCodec {
+  /**
+   * Value kinds
+   */
+  static final byte NULL_VALUE = 0;
+  static final byte LONG_VALUE = 1;
+  static final byte OBJECT_MAP_VALUE = 2;
+
+  /**
+   * Property value type tags
+   */
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte STRING_SET = 6;
+  private static final byte LONG_SET = 7;
+  private static final byte STRING_DOUBLE_MAP = 8;
+  private static final byte GENERIC = 9;
+
+  private static final HashMap<String, Integer> SLOT_INDEX;
+  static {
+    SLOT_INDEX = Maps.newHashMapWithExpectedSize(ObjectMapSerializer.SLOTS.length);
+    for (int i = 0; i < ObjectMapSerializer.SLOTS.length; i++) {
+      SLOT_INDEX.put(ObjectMapSerializer.SLOTS[i], i);
+    }
+  }
+
+  private BinaryBlockCodec() {
+  }
+
+  /**
+   * Encode vertices (idCount 1) or edges (idCount 2), the value is the field
+   * after the ids.
+   */
+  static byte[] encode(List<? extends Tuple> records, int idCount) throws IOException {
+    Output out = new Output();
+    out.writeVarLong(records.size());
+    byte kind = getValueKind(records, idCount);
+    out.writeByte(kind);
+
+    for (int field = 0; field < idCount; field++) {
+      long previous = 0L;
+      for (Tuple record : records) {
+        long id = record.<Long>getField(field);
+        out.writeSignedVarLong(id - previous);
+        previous = id;
+      }
+    }
+
+    if (kind == LONG_VALUE) {
+      long previous = 0L;
+      for (Tuple record : records) {
+        long value = record.<Long>getField(idCount);
+        out.writeSignedVarLong(value - previous);
+        previous = value;
+      }
+    } else if (kind == OBJECT_MAP_VALUE) {
+      List<ObjectMap> values = Lists.newArrayListWithCapacity(records.size());
+      for (Tuple record : records) {
+        values.add(record.<ObjectMap>getField(idCount));
+      }
+      writeObjectMaps(values, out);
+    }
+
+    return out.toByteArray();
+  }
+
+  /**
+   * Decode a block, vertices for idCount 1, edges for idCount 2.
+   */
+  static <T extends Tuple> List<T> decode(byte[] block, int length, int idCount)
+      throws IOException {
+    Input in = new Input(block, length);
+    int count = (int) in.readVarLong();
+    byte kind = in.readByte();
+
+    long[][] ids = new long[idCount][count];
+    for (int field = 0; field < idCount; field++) {
+      long previous = 0L;
+      for (int i = 0; i < count; i++) {
+        previous += in.readSignedVarLong();
+        ids[field][i] = previous;
+      }
+    }
+
+    Object[] values = new Object[count];
+    if (kind == NULL_VALUE) {
+      Arrays.fill(values, NullValue.getInstance());
+    } else if (kind == LONG_VALUE) {
+      long previous = 0L;
+      for (int i = 0; i < count; i++) {
+        previous += in.readSignedVarLong();
+        values[i] = previous;
+      }
+    } else if (kind == OBJECT_MAP_VALUE) {
+      readObjectMaps(values, in);
+    } else {
+      throw new IOException("Unsupported value kind: " + kind);
+    }
+
+    List<T> result = Lists.newArrayListWithCapacity(count);
+    for (int i = 0; i < count; i++) {
+      Tuple record = idCount == 1
+          ? new Vertex<>(ids[0][i], values[i])
+          : new Edge<>(ids[0][i], ids[1][i], values[i]);
+      @SuppressWarnings("unchecked")
+      T typed = (T) record;
+      result.add(typed);
+    }
+
+    return result;
+  }
+
+  private static byte getValueKind(List<? extends Tuple> records, int idCount) {
+    if (records.isEmpty() || records.get(0).getField(idCount) instanceof NullValue) {
+      return NULL_VALUE;
+    }
+    Object value = records.get(0).getField(idCount);
+    if (value instanceof Long) {
+      return LONG_VALUE;
+    } else if (value instanceof ObjectMap) {
+      return OBJECT_MAP_VALUE;
+    } else {
+      throw new IllegalArgumentException("Unsupported value type: " + value.getClass());
+    }
+  }
+
+  private static void writeObjectMaps(List<ObjectMap> values, Output out)
+      throws IOException {
+    long[] masks = new long[values.size()];
+    long usedSlots = 0L;
+    for (int i = 0; i < values.size(); i++) {
+      ObjectMap value = values.get(i);
+      out.writeString(value.getMode());
+      int otherCount = 0;
+      for (String key : value.keySet()) {
+        Integer slot = SLOT_INDEX.get(key);
+        if (slot == null) {
+          ++otherCount;
+        } else {
+          masks[i] |= 1L << slot;
+        }
+      }
+      usedSlots |= masks[i];
+      out.writeVarLong(masks[i]);
+      out.writeVarLong(otherCount);
+    }
+
+    for (int slot = 0; slot < ObjectMapSerializer.SLOTS.length; slot++) {
+      if ((usedSlots & (1L << slot)) != 0) {
+        for (int i = 0; i < values.size(); i++) {
+          if ((masks[i] & (1L << slot)) != 0) {
+            writeValue(values.get(i).get(ObjectMapSerializer.SLOTS[slot]), out);
+          }
+        }
+      }
+    }
+
+    for (ObjectMap value : values) {
+      for (Map.Entry<String, Object> entry : value.entrySet()) {
+        if (!SLOT_INDEX.containsKey(entry.getKey())) {
+          out.writeString(entry.getKey());
+          writeValue(entry.getValue(), out);
+        }
+      }
+    }
+  }
+
+  private static void readObjectMaps(Object[] values, Input in) throws IOException {
+    long[] masks = new long[values.length];
+    int[] otherCounts = new int[values.length];
+    long usedSlots = 0L;
+    for (int i = 0; i < values.length; i++) {
+      values[i] = new ObjectMap(in.readString());
+      masks[i] = in.readVarLong();
+      otherCounts[i] = (int) in.readVarLong();
+      usedSlots |= masks[i];
+    }
+
+    for (int slot = 0; slot < ObjectMapSerializer.SLOTS.length; slot++) {
+      if ((usedSlots & (1L << slot)) != 0) {
+        for (int i = 0; i < values.length; i++) {
+          if ((masks[i] & (1L << slot)) != 0) {
+            ((ObjectMap) values[i]).put(ObjectMapSerializer.SLOTS[slot], readValue(in));
+          }
+        }
+      }
+    }
+
+    for (int i = 0; i < values.length; i++) {
+      for (int j = 0; j < otherCounts[i]; j++) {
+        String key = in.readString();
+        ((ObjectMap) values[i]).put(key, readValue(in));
+      }
+    }
+  }
+
+  private static void writeValue(Object value, Output out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      out.writeString((String) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INT);
+      out.writeSignedVarLong((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeSignedVarLong((Long) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeByte((Boolean) value ? 1 : 0);
+    } else if (value instanceof LongSet
+        || value instanceof Set && isSetOf((Set<?>) value, Long.class)) {
+      Set<?> set = (Set<?>) value;
+      long[] ids = new long[set.size()];
+      int i = 0;
+      for (Object element : set) {
+        ids[i++] = (Long) element;
+      }
+      Arrays.sort(ids);
+      out.writeByte(LONG_SET);
+      out.writeVarLong(ids.length);
+      long previous = 0L;
+      for (long id : ids) {
+        out.writeSignedVarLong(id - previous);
+        previous = id;
+      }
+    } else if (value instanceof Set && isSetOf((Set<?>) value, String.class)) {
+      Set<?> set = (Set<?>) value;
+      out.writeByte(STRING_SET);
+      out.writeVarLong(set.size());
+      for (Object element : set) {
+        out.writeString((String) element);
+      }
+    } else if (value instanceof HashMap && isStringDoubleMap((Map<?, ?>) value)) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      out.writeByte(STRING_DOUBLE_MAP);
+      out.writeVarLong(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        out.writeString((String) entry.getKey());
+        out.writeDouble((Double) entry.getValue());
+      }
+    } else {
+      out.writeByte(GENERIC);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+        objectOut.writeObject(value);
+      }
+      out.writeBytes(bytes.toByteArray());
+    }
+  }
+
+  private static Object readValue(Input in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return in.readString();
+      case DOUBLE:
+        return in.readDouble();
+      case INT:
+        return (int) in.readSignedVarLong();
+      case LONG:
+        return in.readSignedVarLong();
+      case BOOLEAN:
+        return in.readByte() != 0;
+      case STRING_SET: {
+        int size = (int) in.readVarLong();
+        Set<String> set = Sets.newHashSetWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+          set.add(in.readString());
+        }
+        return set;
+      }
+      case LONG_SET: {
+        int size = (int) in.readVarLong();
+        LongSet set = new LongSet();
+        long previous = 0L;
+        for (int i = 0; i < size; i++) {
+          previous += in.readSignedVarLong();
+          set.add(previous);
+        }
+        return set;
+      }
+      case STRING_DOUBLE_MAP: {
+        int size = (int) in.readVarLong();
+        HashMap<String, Double> map = Maps.newHashMapWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+          String key = in.readString();
+          map.put(key, in.readDouble());
+        }
+        return map;
+      }
+      case GENERIC: {
+        byte[] bytes = in.readBytes();
+        try (ObjectInputStream objectIn
+                 = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+          return objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+          throw new IOException("Unsupported property value", e);
+        }
+      }
+      default:
+        throw new IOException("Unsupported type tag: " + tag);
+    }
+  }
+
+  private static boolean isSetOf(Set<?> set, Class<?> elementClass) {
+    for (Object element : set) {
+      if (element == null || element.getClass() != elementClass) {
+        return false;
+      }
+    }
+    return !set.isEmpty() || elementClass == String.class;
+  }
+
+  private static boolean isStringDoubleMap(Map<?, ?> map) {
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof Double)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Growing byte buffer with varint and dictionary string encoding.
+   */
+  private static class Output extends ByteArrayOutputStream {
+    private final HashMap<String, Integer> dictionary = Maps.newHashMap();
+
+    Output() {
+      super(4096);
+    }
+
+    void writeByte(int value) {
+      write(value);
+    }
+
+    void writeVarLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      write((int) value);
+    }
+
+    void writeSignedVarLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeDouble(double value) {
+      long bits = Double.doubleToLongBits(value);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        write((int) (bits >>> shift));
+      }
+    }
+
+    void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 0 for null, 1 followed by the string for a new dictionary entry,
+     * otherwise dictionary index + 2.
+     */
+    void writeString(String value) {
+      if (value == null) {
+        writeVarLong(0);
+        return;
+      }
+      Integer index = dictionary.get(value);
+      if (index == null) {
+        dictionary.put(value, dictionary.size());
+        writeVarLong(1);
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+      } else {
+        writeVarLong(index + 2);
+      }
+    }
+  }
+
+  /**
+   * Reader for {@link Output} encoded bytes.
+   */
+  private static class Input {
+    private final byte[] bytes;
+    private final int length;
+    private final List<String> dictionary = Lists.newArrayList();
+    private int position = 0;
+
+    Input(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+
+    byte readByte() throws IOException {
+      if (position >= length) {
+        throw new IOException("Unexpected end of block");
+      }
+      return bytes[position++];
+    }
+
+    long readVarLong() throws IOException {
+      long result = 0L;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+      throw new IOException("Malformed varint");
+    }
+
+    long readSignedVarLong() throws IOException {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    double readDouble() throws IOException {
+      long bits = 0L;
+      for (int i = 0; i < 8; i++) {
+        bits = (bits << 8) | (readByte() & 0xFF);
+      }
+      return Double.longBitsToDouble(bits);
+    }
+
+    byte[] readBytes() throws IOException {
+      int size = (int) readVarLong();
+      if (size < 0 || position + size > length) {
+        throw new IOException("Unexpected end of block");
+      }
+      byte[] result = Arrays.copyOfRange(bytes, position, position + size);
+      position += size;
+      return result;
+    }
+
+    String readString() throws IOException {
+      long code = readVarLong();
+      if (code == 0) {
+        return null;
+      } else if (code == 1) {
+        String value = new String(readBytes(), StandardCharsets.UTF_8);
+        dictionary.add(value);
+        return value;
+      } else {
+        return dictionary.get((int) code - 2);
+      }
+    }
+  }
+}
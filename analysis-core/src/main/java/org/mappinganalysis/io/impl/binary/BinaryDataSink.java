@@ -0,0 +1,89 @@
+package org.mappinganalysis.io.impl.binary;
+
+import org.apache.flink.api.common.io.FileOutputFormat;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.util.Constants;
+
+/**
+ * Write Gelly graphs or vertices in the binary step format, same directory
+ * layout as {@link org.mappinganalysis.io.impl.json.JSONDataSink}.
+ * Vertex and edge values can be ObjectMap, Long or NullValue.
+ */
+public class BinaryDataSink {
+
+  private final String vertexPath;
+  private final String edgePath;
+  private final boolean isCompressed;
+
+  /**
+   * Constructor for testing, absolute path, not compressed
+   */
+  public BinaryDataSink(String path) {
+    this(path, null, true, false);
+  }
+
+  /**
+   * Default constructor, not compressed
+   * @param path default file path
+   * @param step step name
+   */
+  public BinaryDataSink(String path, String step) {
+    this(path, step, false, false);
+  }
+
+  /**
+   * @param path default file path
+   * @param step step name
+   * @param isCompressed deflate blocks
+   */
+  public BinaryDataSink(String path, String step, boolean isCompressed) {
+    this(path, step, false, isCompressed);
+  }
+
+  private BinaryDataSink(String path, String step, Boolean isAbsolutePath,
+                         boolean isCompressed) {
+    if (!path.endsWith(Constants.SLASH)) {
+      path = path.concat(Constants.SLASH);
+    }
+    if (isAbsolutePath) { // no need to care for step
+      this.vertexPath = path.concat(Constants.VERTICES);
+      this.edgePath = path.concat(Constants.EDGES);
+    } else {
+      this.vertexPath = path.concat(Constants.OUTPUT)
+          .concat(step).concat(Constants.SLASH)
+          .concat(Constants.VERTICES);
+      this.edgePath = path.concat(Constants.OUTPUT)
+          .concat(step).concat(Constants.SLASH)
+          .concat(Constants.EDGES);
+    }
+    this.isCompressed = isCompressed;
+  }
+
+  public <VV, EV> void writeGraph(Graph<Long, VV, EV> graph) {
+    writeVertices(graph.getVertices());
+    writeEdges(graph.getEdges());
+  }
+
+  public <VV> void writeVertices(DataSet<Vertex<Long, VV>> vertices) {
+    vertices.output(createOutputFormat(vertexPath, 1));
+  }
+
+  public <EV> void writeEdges(DataSet<Edge<Long, EV>> edges) {
+    edges.output(createOutputFormat(edgePath, 2));
+  }
+
+  private <T extends Tuple> BinaryOutputFormat<T> createOutputFormat(String path, int idCount) {
+    BinaryOutputFormat<T> format
+        = new BinaryOutputFormat<>(new Path(path), idCount, isCompressed);
+    format.setWriteMode(FileSystem.WriteMode.OVERWRITE);
+    format.setOutputDirectoryMode(FileOutputFormat.OutputDirectoryMode.ALWAYS);
+
+    return format;
+  }
+}
@@ -0,0 +1,142 @@
+package org.mappinganalysis.io.impl.binary;
+
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.typeutils.TupleTypeInfo;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.api.DataSource;
+import org.mappinganalysis.util.Constants;
+
+/**
+ * Read graphs written by {@link BinaryDataSink}, same directory layout
+ * as {@link org.mappinganalysis.io.impl.json.JSONDataSource}.
+ */
+public class BinaryDataSource implements DataSource {
+  private final String vertexPath;
+  private final String edgePath;
+  private final ExecutionEnvironment environment;
+
+  /**
+   * Constructor for data source, optionally with absolute file path (tests)
+   */
+  public BinaryDataSource(String path,
+                          Boolean isAbsolutePath,
+                          ExecutionEnvironment environment) {
+    this(path, null, isAbsolutePath, environment);
+  }
+
+  /**
+   * Binary data source for reading graphs from a previous step
+   * @param path general path
+   * @param step working step
+   * @param env env
+   */
+  public BinaryDataSource(String path, String step, ExecutionEnvironment env) {
+    this(path, step, false, env);
+  }
+
+  /**
+   * Constructor with all parameters
+   * @param path path to files
+   * @param step name of current working step
+   * @param isAbsolutePath absolute is for testing only
+   * @param environment env
+   */
+  public BinaryDataSource(String path,
+                          String step,
+                          Boolean isAbsolutePath,
+                          ExecutionEnvironment environment) {
+    this.environment = environment;
+    if (!path.endsWith(Constants.SLASH)) {
+      path = path.concat(Constants.SLASH);
+    }
+
+    if (isAbsolutePath) { // no need to care for step
+      this.vertexPath = path.concat(Constants.VERTICES);
+      this.edgePath = path.concat(Constants.EDGES);
+    } else if (step == null || step.isEmpty()) {
+      vertexPath = path.concat(Constants.INPUT.concat(Constants.VERTICES));
+      edgePath = path.concat(Constants.INPUT.concat(Constants.EDGES));
+    } else {
+      vertexPath = path.concat(Constants.OUTPUT)
+          .concat(step).concat(Constants.SLASH)
+          .concat(Constants.VERTICES);
+      edgePath = path.concat(Constants.OUTPUT)
+          .concat(step).concat(Constants.SLASH)
+          .concat(Constants.EDGES);
+    }
+  }
+
+  public String getVertexPath() {
+    return vertexPath;
+  }
+
+  public String getEdgePath() {
+    return edgePath;
+  }
+
+  /**
+   * Generic return graph, specify return value
+   * @param vertexClass vertex value to return
+   * @param edgeClass edge value to return
+   * @return generic graph
+   */
+  public <VV, EV> Graph<Long, VV, EV> getGraph(Class<VV> vertexClass, Class<EV> edgeClass) {
+    return Graph.fromDataSet(getVertices(vertexClass), getEdges(edgeClass), environment);
+  }
+
+  /**
+   * Get default graph
+   * @return both edge as well as vertex value are ObjectMap
+   */
+  @Override
+  public Graph<Long, ObjectMap, ObjectMap> getGraph() {
+    return this.getGraph(ObjectMap.class, ObjectMap.class);
+  }
+
+  public <VV> DataSet<Vertex<Long, VV>> getVertices(Class<VV> vertexClass) {
+    TypeInformation<Vertex<Long, VV>> typeInfo = getVertexType(vertexClass);
+
+    return environment.createInput(
+        new BinaryInputFormat<>(new Path(vertexPath), 1, typeInfo), typeInfo);
+  }
+
+  public <EV> DataSet<Edge<Long, EV>> getEdges(Class<EV> edgeClass) {
+    TypeInformation<Edge<Long, EV>> typeInfo = getEdgeType(edgeClass);
+
+    return environment.createInput(
+        new BinaryInputFormat<>(new Path(edgePath), 2, typeInfo), typeInfo);
+  }
+
+  /**
+   * Default implementation, get ObjectMap value vertices
+   */
+  @Override
+  public DataSet<Vertex<Long, ObjectMap>> getVertices() {
+    return this.getVertices(ObjectMap.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <VV> TypeInformation<Vertex<Long, VV>> getVertexType(Class<VV> vertexClass) {
+    return new TupleTypeInfo<>(
+        (Class<Vertex<Long, VV>>) (Class<?>) Vertex.class,
+        BasicTypeInfo.LONG_TYPE_INFO,
+        TypeExtractor.getForClass(vertexClass));
+  }
+
+  @SuppressWarnings("unchecked")
+  static <EV> TypeInformation<Edge<Long, EV>> getEdgeType(Class<EV> edgeClass) {
+    return new TupleTypeInfo<>(
+        (Class<Edge<Long, EV>>) (Class<?>) Edge.class,
+        BasicTypeInfo.LONG_TYPE_INFO,
+        BasicTypeInfo.LONG_TYPE_INFO,
+        TypeExtractor.getForClass(edgeClass));
+  }
+}
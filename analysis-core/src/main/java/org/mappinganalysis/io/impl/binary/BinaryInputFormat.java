@@ -0,0 +1,135 @@
+package org.mappinganalysis.io.impl.binary;
+
+import org.apache.flink.api.common.io.FileInputFormat;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.core.fs.FileInputSplit;
+import org.apache.flink.core.fs.Path;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read vertices or edges written by {@link BinaryOutputFormat}. Files are not
+ * split, each file is read block by block.
+ */
+public class BinaryInputFormat<T extends Tuple>
+    extends FileInputFormat<T> implements ResultTypeQueryable<T> {
+  private static final long serialVersionUID = 42L;
+
+  private final int idCount;
+  private final TypeInformation<T> typeInfo;
+
+  private transient DataInputStream in;
+  private transient Inflater inflater;
+  private transient boolean isCompressed;
+  private transient Iterator<T> blockIterator;
+  private transient byte[] stored;
+  private transient byte[] raw;
+
+  /**
+   * @param idCount 1 for vertices, 2 for edges
+   */
+  public BinaryInputFormat(Path filePath, int idCount, TypeInformation<T> typeInfo) {
+    super(filePath);
+    this.idCount = idCount;
+    this.typeInfo = typeInfo;
+    this.unsplittable = true;
+  }
+
+  @Override
+  public void open(FileInputSplit split) throws IOException {
+    super.open(split);
+    in = new DataInputStream(stream);
+    blockIterator = null;
+
+    if (in.readInt() != BinaryOutputFormat.MAGIC) {
+      throw new IOException("Unsupported file format: " + split.getPath());
+    }
+    byte version = in.readByte();
+    if (version != BinaryOutputFormat.VERSION) {
+      throw new IOException("Unsupported format version: " + version);
+    }
+    isCompressed = in.readBoolean();
+    if (isCompressed && inflater == null) {
+      inflater = new Inflater();
+    }
+  }
+
+  @Override
+  public boolean reachedEnd() throws IOException {
+    while (blockIterator == null || !blockIterator.hasNext()) {
+      if (!readBlock()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public T nextRecord(T reuse) throws IOException {
+    return reachedEnd() ? null : blockIterator.next();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (inflater != null) {
+      inflater.end();
+      inflater = null;
+    }
+    super.close();
+  }
+
+  @Override
+  public TypeInformation<T> getProducedType() {
+    return typeInfo;
+  }
+
+  private boolean readBlock() throws IOException {
+    int storedLength;
+    try {
+      storedLength = in.readInt();
+    } catch (EOFException e) {
+      return false;
+    }
+    int rawLength = in.readInt();
+
+    stored = ensureCapacity(stored, storedLength);
+    in.readFully(stored, 0, storedLength);
+
+    byte[] block = stored;
+    if (isCompressed) {
+      raw = ensureCapacity(raw, rawLength);
+      inflater.reset();
+      inflater.setInput(stored, 0, storedLength);
+      try {
+        int length = 0;
+        while (length < rawLength && !inflater.finished()) {
+          int inflated = inflater.inflate(raw, length, rawLength - length);
+          if (inflated == 0 && inflater.needsInput()) {
+            throw new EOFException("Truncated block in " + currentSplit.getPath());
+          }
+          length += inflated;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("Corrupt block in " + currentSplit.getPath(), e);
+      }
+      block = raw;
+    }
+
+    List<T> records = BinaryBlockCodec.decode(block, rawLength, idCount);
+    blockIterator = records.iterator();
+
+    return true;
+  }
+
+  private static byte[] ensureCapacity(byte[] bytes, int length) {
+    return bytes == null || bytes.length < length ? new byte[length] : bytes;
+  }
+}
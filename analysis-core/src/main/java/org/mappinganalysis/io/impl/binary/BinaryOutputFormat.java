@@ -0,0 +1,109 @@
+package org.mappinganalysis.io.impl.binary;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.api.common.io.FileOutputFormat;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.core.fs.Path;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Write vertices or edges in blocks of {@link #BLOCK_SIZE} records, optionally
+ * deflate compressed.
+ *
+ * File layout: magic number, version, compression flag, then for each block the
+ * stored length, the raw length and the (compressed) block
+ * from {@link BinaryBlockCodec}.
+ */
+public class BinaryOutputFormat<T extends Tuple> extends FileOutputFormat<T> {
+  private static final long serialVersionUID = 42L;
+
+  static final int MAGIC = 0x4D414246;
+  static final byte VERSION = 1;
+  static final int BLOCK_SIZE = 4096;
+
+  private final int idCount;
+  private final boolean isCompressed;
+
+  private transient List<T> buffer;
+  private transient DataOutputStream out;
+  private transient Deflater deflater;
+
+  /**
+   * @param idCount 1 for vertices, 2 for edges
+   */
+  public BinaryOutputFormat(Path outputPath, int idCount, boolean isCompressed) {
+    super(outputPath);
+    this.idCount = idCount;
+    this.isCompressed = isCompressed;
+  }
+
+  @Override
+  public void open(int taskNumber, int numTasks) throws IOException {
+    super.open(taskNumber, numTasks);
+    buffer = Lists.newArrayListWithCapacity(BLOCK_SIZE);
+    out = new DataOutputStream(stream);
+    if (isCompressed) {
+      deflater = new Deflater(Deflater.BEST_SPEED);
+    }
+
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeBoolean(isCompressed);
+  }
+
+  @Override
+  public void writeRecord(T record) throws IOException {
+    buffer.add(record);
+    if (buffer.size() >= BLOCK_SIZE) {
+      writeBlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (buffer != null && !buffer.isEmpty()) {
+        writeBlock();
+      }
+      if (out != null) {
+        out.flush();
+      }
+      if (deflater != null) {
+        deflater.end();
+      }
+    } finally {
+      super.close();
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    byte[] block = BinaryBlockCodec.encode(buffer, idCount);
+    buffer.clear();
+
+    if (isCompressed) {
+      deflater.reset();
+      deflater.setInput(block);
+      deflater.finish();
+      byte[] compressed = new byte[Math.max(64, block.length + block.length / 8 + 64)];
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == compressed.length) {
+          compressed = Arrays.copyOf(compressed, compressed.length * 2);
+        }
+        length += deflater.deflate(compressed, length, compressed.length - length);
+      }
+      out.writeInt(length);
+      out.writeInt(block.length);
+      out.write(compressed, 0, length);
+    } else {
+      out.writeInt(block.length);
+      out.writeInt(block.length);
+      out.write(block);
+    }
+  }
+}
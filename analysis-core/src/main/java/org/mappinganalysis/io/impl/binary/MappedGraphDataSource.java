@@ -0,0 +1,70 @@
+package org.mappinganalysis.io.impl.binary;
+
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.api.DataSource;
+
+/**
+ * Read a prebuilt {@link MappedGraphFile} for local and test runs, instead of
+ * parsing JSON input line by line on each start. The file needs to be on the
+ * local file system of the (single) task manager.
+ */
+public class MappedGraphDataSource implements DataSource {
+  private final String file;
+  private final ExecutionEnvironment environment;
+
+  /**
+   * @param file local graph file, see {@link MappedGraphFile#write(Graph, String)}
+   * @param environment env
+   */
+  public MappedGraphDataSource(String file, ExecutionEnvironment environment) {
+    this.file = file;
+    this.environment = environment;
+  }
+
+  /**
+   * Generic return graph, specify return value
+   * @param vertexClass vertex value to return
+   * @param edgeClass edge value to return
+   * @return generic graph
+   */
+  public <VV, EV> Graph<Long, VV, EV> getGraph(Class<VV> vertexClass, Class<EV> edgeClass) {
+    return Graph.fromDataSet(getVertices(vertexClass), getEdges(edgeClass), environment);
+  }
+
+  /**
+   * Get default graph
+   * @return both edge as well as vertex value are ObjectMap
+   */
+  @Override
+  public Graph<Long, ObjectMap, ObjectMap> getGraph() {
+    return this.getGraph(ObjectMap.class, ObjectMap.class);
+  }
+
+  public <VV> DataSet<Vertex<Long, VV>> getVertices(Class<VV> vertexClass) {
+    TypeInformation<Vertex<Long, VV>> typeInfo = BinaryDataSource.getVertexType(vertexClass);
+
+    return environment.createInput(
+        new MappedGraphInputFormat<>(file, false, typeInfo), typeInfo);
+  }
+
+  public <EV> DataSet<Edge<Long, EV>> getEdges(Class<EV> edgeClass) {
+    TypeInformation<Edge<Long, EV>> typeInfo = BinaryDataSource.getEdgeType(edgeClass);
+
+    return environment.createInput(
+        new MappedGraphInputFormat<>(file, true, typeInfo), typeInfo);
+  }
+
+  /**
+   * Default implementation, get ObjectMap value vertices
+   */
+  @Override
+  public DataSet<Vertex<Long, ObjectMap>> getVertices() {
+    return this.getVertices(ObjectMap.class);
+  }
+}
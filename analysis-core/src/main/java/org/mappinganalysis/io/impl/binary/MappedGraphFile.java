@@ -0,0 +1,219 @@
+package org.mappinganalysis.io.impl.binary;
+
+import com.google.common.collect.Lists;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.mappinganalysis.model.ObjectMap;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Prebuilt graph file for local runs, read via a memory mapped buffer.
+ *
+ * Layout: header (magic, version, vertex count, edge count, block size, block count),
+ * sorted vertex ids, CSR offsets into the edges sorted by source, vertex block offsets,
+ * edge block offsets, vertex property blocks and edge blocks. Blocks are encoded with
+ * {@link BinaryBlockCodec}, edge block i contains the edges of the sources in vertex block i.
+ */
+public class MappedGraphFile {
+  private static final int MAGIC = 0x4D414747;
+  private static final byte VERSION = 1;
+  private static final int HEADER_SIZE = 4 + 1 + 4 * 4;
+  static final int BLOCK_SIZE = 1024;
+
+  private final MappedByteBuffer buffer;
+  private final int vertexCount;
+  private final int edgeCount;
+  private final int blockCount;
+  private final int idsPosition;
+  private final int csrPosition;
+  private final int vertexBlocksPosition;
+  private final int edgeBlocksPosition;
+
+  private MappedGraphFile(MappedByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+      throw new IOException("Unsupported graph file format");
+    }
+    this.vertexCount = buffer.getInt(5);
+    this.edgeCount = buffer.getInt(9);
+    this.blockCount = buffer.getInt(17);
+    this.idsPosition = HEADER_SIZE;
+    this.csrPosition = idsPosition + 8 * vertexCount;
+    this.vertexBlocksPosition = csrPosition + 4 * (vertexCount + 1);
+    this.edgeBlocksPosition = vertexBlocksPosition + 8 * (blockCount + 1);
+  }
+
+  /**
+   * Map an existing graph file, read only.
+   */
+  public static MappedGraphFile open(String file) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Unsupported graph file size: " + channel.size());
+      }
+      return new MappedGraphFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Build a graph file from a (small) graph, e.g., read once from JSON input.
+   */
+  public static <EV> void write(Graph<Long, ObjectMap, EV> graph, String file)
+      throws Exception {
+    write(graph.getVertices().collect(), graph.getEdges().collect(), file);
+  }
+
+  /**
+   * Build a graph file, all edge sources need to be contained in the vertices.
+   */
+  public static <EV> void write(Collection<Vertex<Long, ObjectMap>> vertices,
+                                Collection<Edge<Long, EV>> edges,
+                                String file) throws IOException {
+    List<Vertex<Long, ObjectMap>> sortedVertices = Lists.newArrayList(vertices);
+    sortedVertices.sort(Comparator.comparing(Vertex::getId));
+    List<Edge<Long, EV>> sortedEdges = Lists.newArrayList(edges);
+    sortedEdges.sort(Comparator.comparing((Edge<Long, EV> edge) -> edge.getSource())
+        .thenComparing(Edge::getTarget));
+
+    long[] ids = new long[sortedVertices.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = sortedVertices.get(i).getId();
+    }
+
+    int[] csr = new int[ids.length + 1];
+    for (Edge<Long, EV> edge : sortedEdges) {
+      int source = Arrays.binarySearch(ids, edge.getSource());
+      if (source < 0) {
+        throw new IllegalArgumentException("Unsupported edge, source not in vertices: " + edge);
+      }
+      ++csr[source + 1];
+    }
+    for (int i = 0; i < ids.length; i++) {
+      csr[i + 1] += csr[i];
+    }
+
+    int blockCount = (ids.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    List<byte[]> vertexBlocks = Lists.newArrayListWithCapacity(blockCount);
+    List<byte[]> edgeBlocks = Lists.newArrayListWithCapacity(blockCount);
+    for (int block = 0; block < blockCount; block++) {
+      int from = block * BLOCK_SIZE;
+      int to = Math.min(ids.length, from + BLOCK_SIZE);
+      vertexBlocks.add(BinaryBlockCodec.encode(sortedVertices.subList(from, to), 1));
+      edgeBlocks.add(BinaryBlockCodec.encode(sortedEdges.subList(csr[from], csr[to]), 2));
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeByte(VERSION);
+      out.writeInt(ids.length);
+      out.writeInt(sortedEdges.size());
+      out.writeInt(BLOCK_SIZE);
+      out.writeInt(blockCount);
+      for (long id : ids) {
+        out.writeLong(id);
+      }
+      for (int offset : csr) {
+        out.writeInt(offset);
+      }
+
+      long position = HEADER_SIZE + 8L * ids.length + 4L * (ids.length + 1)
+          + 2 * 8L * (blockCount + 1);
+      position = writeOffsets(vertexBlocks, position, out);
+      writeOffsets(edgeBlocks, position, out);
+      for (byte[] block : vertexBlocks) {
+        out.write(block);
+      }
+      for (byte[] block : edgeBlocks) {
+        out.write(block);
+      }
+    }
+  }
+
+  private static long writeOffsets(List<byte[]> blocks, long position, DataOutputStream out)
+      throws IOException {
+    for (byte[] block : blocks) {
+      out.writeLong(position);
+      position += block.length;
+    }
+    out.writeLong(position);
+
+    return position;
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  public int getEdgeCount() {
+    return edgeCount;
+  }
+
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  /**
+   * Position of the vertex in the sorted id index, negative if not contained.
+   */
+  public int indexOf(long id) {
+    int low = 0;
+    int high = vertexCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midId = buffer.getLong(idsPosition + 8 * mid);
+      if (midId < id) {
+        low = mid + 1;
+      } else if (midId > id) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Count of edges with the vertex as source.
+   */
+  public int getOutDegree(long id) {
+    int index = indexOf(id);
+    return index < 0 ? 0
+        : buffer.getInt(csrPosition + 4 * (index + 1)) - buffer.getInt(csrPosition + 4 * index);
+  }
+
+  <T extends Tuple> List<T> readVertexBlock(int block) throws IOException {
+    return readBlock(vertexBlocksPosition, block, 1);
+  }
+
+  <T extends Tuple> List<T> readEdgeBlock(int block) throws IOException {
+    return readBlock(edgeBlocksPosition, block, 2);
+  }
+
+  private <T extends Tuple> List<T> readBlock(int offsetsPosition, int block, int idCount)
+      throws IOException {
+    int from = (int) buffer.getLong(offsetsPosition + 8 * block);
+    int to = (int) buffer.getLong(offsetsPosition + 8 * (block + 1));
+    byte[] bytes = new byte[to - from];
+    ByteBuffer view = buffer.duplicate(); // keep position of shared buffer
+    view.position(from);
+    view.get(bytes);
+
+    return BinaryBlockCodec.decode(bytes, bytes.length, idCount);
+  }
+}
@@ -0,0 +1,80 @@
+package org.mappinganalysis.io.impl.binary;
+
+import org.apache.flink.api.common.io.GenericInputFormat;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.core.io.GenericInputSplit;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Parallel input format for vertices or edges of a {@link MappedGraphFile}.
+ * Split i of n reads the blocks [i * blocks / n, (i + 1) * blocks / n),
+ * the edges of a split belong to the sources of its vertex blocks.
+ */
+public class MappedGraphInputFormat<T extends Tuple>
+    extends GenericInputFormat<T> implements ResultTypeQueryable<T> {
+  private static final long serialVersionUID = 42L;
+
+  private final String file;
+  private final boolean isEdgeInput;
+  private final TypeInformation<T> typeInfo;
+
+  private transient MappedGraphFile graphFile;
+  private transient Iterator<T> blockIterator;
+  private transient int nextBlock;
+  private transient int endBlock;
+
+  public MappedGraphInputFormat(String file,
+                                boolean isEdgeInput,
+                                TypeInformation<T> typeInfo) {
+    this.file = file;
+    this.isEdgeInput = isEdgeInput;
+    this.typeInfo = typeInfo;
+  }
+
+  @Override
+  public void open(GenericInputSplit split) throws IOException {
+    super.open(split);
+    graphFile = MappedGraphFile.open(file);
+
+    long blocks = graphFile.getBlockCount();
+    int splits = split.getTotalNumberOfSplits();
+    nextBlock = (int) (blocks * split.getSplitNumber() / splits);
+    endBlock = (int) (blocks * (split.getSplitNumber() + 1) / splits);
+    blockIterator = Collections.emptyIterator();
+  }
+
+  @Override
+  public boolean reachedEnd() throws IOException {
+    while (!blockIterator.hasNext()) {
+      if (nextBlock >= endBlock) {
+        return true;
+      }
+      blockIterator = isEdgeInput
+          ? graphFile.<T>readEdgeBlock(nextBlock).iterator()
+          : graphFile.<T>readVertexBlock(nextBlock).iterator();
+      ++nextBlock;
+    }
+    return false;
+  }
+
+  @Override
+  public T nextRecord(T reuse) throws IOException {
+    return reachedEnd() ? null : blockIterator.next();
+  }
+
+  @Override
+  public void close() throws IOException {
+    graphFile = null;
+    super.close();
+  }
+
+  @Override
+  public TypeInformation<T> getProducedType() {
+    return typeInfo;
+  }
+}
@@ -101,10 +101,9 @@ public class JSONDataSource implements DataSource {
     System.out.println("JSONDataSource: edgePath: " + edgePath);
 
     System.out.println("JSONDataSource step: " + step);
-    DataSet<Vertex<Long, VV>> vertices = environment.readTextFile(vertexPath)
-        .map(new JSONToVertexFormatter<>(vertexClass));
-    DataSet<Edge<Long, EV>> edges = environment.readTextFile(edgePath)
-        .map(new JSONToEdgeFormatter<>(edgeClass));
+    DataSet<Vertex<Long, VV>> vertices = getVertices(vertexClass);
+    DataSet<Edge<Long, EV>> edges = environment.createInput(
+        JSONEntityInputFormat.createEdgeFormat(edgePath, edgeClass));
 
     return Graph.fromDataSet(vertices, edges, environment);
   }
@@ -119,8 +118,8 @@ public class JSONDataSource implements DataSource {
   }
 
   public <VV> DataSet<Vertex<Long, VV>> getVertices(Class<VV> vertexClass) {
-    return environment.readTextFile(vertexPath)
-        .map(new JSONToVertexFormatter<>(vertexClass));
+    return environment.createInput(
+        JSONEntityInputFormat.createVertexFormat(vertexPath, vertexClass));
   }
 
   /**
@@ -0,0 +1,82 @@
+package org.mappinganalysis.io.impl.json;
+
+import org.apache.flink.api.common.io.DelimitedInputFormat;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.api.java.typeutils.TupleTypeInfo;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.core.fs.FileInputSplit;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Vertex;
+
+import java.io.IOException;
+
+/**
+ * Read JSON vertex or edge lines without building a JSON DOM and without
+ * creating a String per line, see {@link JSONEntityParser}.
+ *
+ * Uncompressed files are split by the delimited input format. Compressed files
+ * (by file extension) are decompressed and read as a single split: gzip and
+ * deflate can not be split, split reading of bzip2 blocks is not implemented.
+ */
+public class JSONEntityInputFormat<T extends Tuple>
+    extends DelimitedInputFormat<T> implements ResultTypeQueryable<T> {
+  private static final long serialVersionUID = 42L;
+
+  private final int idCount;
+  private final Class<?> valueClass;
+
+  private transient JSONEntityParser parser;
+
+  private JSONEntityInputFormat(Path filePath, int idCount, Class<?> valueClass) {
+    super(filePath, null);
+    this.idCount = idCount;
+    this.valueClass = valueClass;
+  }
+
+  /**
+   * @param valueClass ObjectMap, Long or NullValue
+   */
+  public static <VV> JSONEntityInputFormat<Vertex<Long, VV>> createVertexFormat(
+      String path, Class<VV> valueClass) {
+    return new JSONEntityInputFormat<>(new Path(path), 1, valueClass);
+  }
+
+  /**
+   * @param valueClass ObjectMap, Long or NullValue
+   */
+  public static <EV> JSONEntityInputFormat<Edge<Long, EV>> createEdgeFormat(
+      String path, Class<EV> valueClass) {
+    return new JSONEntityInputFormat<>(new Path(path), 2, valueClass);
+  }
+
+  @Override
+  public void open(FileInputSplit split) throws IOException {
+    if (parser == null) {
+      parser = new JSONEntityParser(valueClass);
+    }
+    super.open(split);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T readRecord(T reuse, byte[] bytes, int offset, int numBytes) throws IOException {
+    return (T) parser.parse(bytes, offset, numBytes, idCount);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public TypeInformation<T> getProducedType() {
+    if (idCount == 1) {
+      return new TupleTypeInfo(Vertex.class, BasicTypeInfo.LONG_TYPE_INFO,
+          TypeExtractor.getForClass(valueClass));
+    } else {
+      return new TupleTypeInfo(Edge.class, BasicTypeInfo.LONG_TYPE_INFO,
+          BasicTypeInfo.LONG_TYPE_INFO,
+          TypeExtractor.getForClass(valueClass));
+    }
+  }
+}
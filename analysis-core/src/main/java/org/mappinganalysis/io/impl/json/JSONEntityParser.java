@@ -0,0 +1,442 @@
+package org.mappinganalysis.io.impl.json;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.types.NullValue;
+import org.mappinganalysis.model.LongSet;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.util.Constants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Token level parser for a single JSON vertex or edge line, the properties are
+ * decoded directly from the UTF-8 bytes into an {@link ObjectMap}.
+ *
+ * Value types are the same as in {@link JSONToEntity}: array properties become
+ * (Long)Sets, id properties Long, other numbers Integer, Long or Double. Keys and
+ * data source values are interned, repeated strings are not allocated again.
+ */
+class JSONEntityParser {
+  private static final int INTERN_CAPACITY = 1 << 12;
+  private static final int INTERN_PROBES = 8;
+
+  private static final Set<String> ARRAY_OPTIONS = Sets.newHashSet(
+      Constants.TYPE_INTERN,
+      Constants.COMP_TYPE,
+      Constants.DATA_SOURCES,
+      Constants.CL_VERTICES,
+      Constants.TYPE);
+
+  private static final Set<String> LONG_OPTIONS = Sets.newHashSet(
+      Constants.HASH_CC,
+      Constants.CC_ID,
+      Constants.SOURCE,
+      Constants.TARGET);
+
+  private static final Set<String> INTERN_OPTIONS = Sets.newHashSet(
+      Constants.DATA_SOURCE,
+      Constants.DATA_SOURCES,
+      Constants.TYPE_INTERN,
+      Constants.TYPE);
+
+  private final Class<?> valueClass;
+  private final String[] internTable = new String[INTERN_CAPACITY];
+  private final StringBuilder builder = new StringBuilder();
+
+  private byte[] bytes;
+  private int position;
+  private int end;
+
+  /**
+   * @param valueClass ObjectMap, Long or NullValue
+   */
+  JSONEntityParser(Class<?> valueClass) {
+    this.valueClass = valueClass;
+  }
+
+  /**
+   * Parse a vertex (idCount 1) or an edge (idCount 2), null for blank lines.
+   * Vertices need an id, edges a source and a target.
+   */
+  Tuple parse(byte[] bytes, int offset, int length, int idCount) throws IOException {
+    this.bytes = bytes;
+    this.position = offset;
+    this.end = offset + length;
+
+    if (!skipWhitespace()) {
+      return null;
+    }
+    expect('{');
+    long id = 0L;
+    long source = 0L;
+    long target = 0L;
+    boolean hasId = false;
+    boolean hasSource = false;
+    boolean hasTarget = false;
+    Object value = null;
+    boolean hasValue = false;
+
+    if (!consume('}')) {
+      do {
+        String key = readString(true);
+        expect(':');
+        if (Constants.ID.equals(key)) {
+          id = readLong();
+          hasId = true;
+        } else if (Constants.SOURCE.equals(key)) {
+          source = readLong();
+          hasSource = true;
+        } else if (Constants.TARGET.equals(key)) {
+          target = readLong();
+          hasTarget = true;
+        } else if (Constants.DATA.equals(key)) {
+          value = readData();
+          hasValue = true;
+        } else {
+          readAny(false);
+        }
+      } while (consume(','));
+      expect('}');
+    }
+    if (idCount == 1 ? !hasId : !hasSource || !hasTarget) {
+      throw malformed();
+    }
+
+    if (!hasValue) {
+      value = valueClass.equals(ObjectMap.class) ? new ObjectMap()
+          : valueClass.equals(NullValue.class) ? NullValue.getInstance()
+          : null;
+    }
+
+    return idCount == 1
+        ? new Vertex<>(id, value)
+        : new Edge<>(source, target, value);
+  }
+
+  private Object readData() throws IOException {
+    if (valueClass.equals(ObjectMap.class)) {
+      HashMap<String, Object> properties = Maps.newHashMapWithExpectedSize(16);
+      expect('{');
+      if (!consume('}')) {
+        do {
+          String key = readString(true);
+          expect(':');
+          properties.put(key, readProperty(key));
+        } while (consume(','));
+        expect('}');
+      }
+      return new ObjectMap(properties);
+    } else if (valueClass.equals(Long.class)) {
+      return readLong();
+    } else {
+      readAny(false);
+      return valueClass.equals(NullValue.class) ? NullValue.getInstance() : null;
+    }
+  }
+
+  private Object readProperty(String key) throws IOException {
+    char next = peek();
+    if (next == '[' && ARRAY_OPTIONS.contains(key)) {
+      ++position;
+      Set<?> values = key.equals(Constants.CL_VERTICES) ? new LongSet() : new HashSet<String>();
+      if (!consume(']')) {
+        boolean isIntern = INTERN_OPTIONS.contains(key);
+        do {
+          if (values instanceof LongSet) {
+            ((LongSet) values).add(readLong());
+          } else {
+            @SuppressWarnings("unchecked")
+            Set<String> strings = (Set<String>) values;
+            strings.add(readScalarString(isIntern));
+          }
+        } while (consume(','));
+        expect(']');
+      }
+      return values;
+    } else if (LONG_OPTIONS.contains(key) && next == '"') {
+      return readLong();
+    } else if (LONG_OPTIONS.contains(key) && (next == '-' || isDigit(next))) {
+      return ((Number) readNumber()).longValue();
+    } else if (next == '"') {
+      return readString(INTERN_OPTIONS.contains(key));
+    }
+
+    return readAny(false);
+  }
+
+  private Object readAny(boolean isIntern) throws IOException {
+    char next = peek();
+    if (next == '"') {
+      return readString(isIntern);
+    } else if (next == '{') {
+      ++position;
+      HashMap<String, Object> map = Maps.newHashMap();
+      if (!consume('}')) {
+        do {
+          String key = readString(true);
+          expect(':');
+          map.put(key, readAny(false));
+        } while (consume(','));
+        expect('}');
+      }
+      return map;
+    } else if (next == '[') {
+      ++position;
+      List<Object> list = Lists.newArrayList();
+      if (!consume(']')) {
+        do {
+          list.add(readAny(false));
+        } while (consume(','));
+        expect(']');
+      }
+      return list;
+    } else if (readLiteral("true")) {
+      return Boolean.TRUE;
+    } else if (readLiteral("false")) {
+      return Boolean.FALSE;
+    } else if (readLiteral("null")) {
+      return null;
+    }
+
+    return readNumber();
+  }
+
+  /**
+   * Array element as string, numbers are kept as written.
+   */
+  private String readScalarString(boolean isIntern) throws IOException {
+    if (peek() == '"') {
+      return readString(isIntern);
+    }
+    int start = position;
+    while (position < end && isNumberChar(bytes[position])) {
+      ++position;
+    }
+    if (start == position) {
+      throw malformed();
+    }
+    return new String(bytes, start, position - start, StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Numbers with fraction or exponent are Double, others Integer if possible, else Long.
+   */
+  private Object readNumber() throws IOException {
+    skipWhitespace();
+    int start = position;
+    boolean isDecimal = false;
+    while (position < end && isNumberChar(bytes[position])) {
+      byte b = bytes[position];
+      isDecimal |= b == '.' || b == 'e' || b == 'E';
+      ++position;
+    }
+    if (start == position) {
+      throw malformed();
+    }
+    String number = new String(bytes, start, position - start, StandardCharsets.US_ASCII);
+    try {
+      if (isDecimal) {
+        return Double.valueOf(number);
+      }
+      long value = Long.parseLong(number);
+      return value == (int) value ? (Object) (int) value : (Object) value;
+    } catch (NumberFormatException e) {
+      throw malformed();
+    }
+  }
+
+  /**
+   * Long value, also quoted.
+   */
+  private long readLong() throws IOException {
+    skipWhitespace();
+    boolean isQuoted = consume('"');
+    int start = position;
+    if (position < end && bytes[position] == '-') {
+      ++position;
+    }
+    while (position < end && isDigit((char) bytes[position])) {
+      ++position;
+    }
+    long value;
+    try {
+      value = Long.parseLong(new String(bytes, start, position - start, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw malformed();
+    }
+    if (isQuoted) {
+      expect('"');
+    }
+    return value;
+  }
+
+  private String readString(boolean isIntern) throws IOException {
+    expect('"');
+    int start = position;
+    boolean isAscii = true;
+    while (position < end && bytes[position] != '"') {
+      byte b = bytes[position];
+      if (b == '\\') {
+        return readEscapedString(start);
+      }
+      isAscii &= b >= 0;
+      ++position;
+    }
+    if (position >= end) {
+      throw malformed();
+    }
+    int length = position - start;
+    ++position;
+
+    if (!isAscii) {
+      return new String(bytes, start, length, StandardCharsets.UTF_8);
+    }
+    return isIntern
+        ? intern(start, length)
+        : new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+  }
+
+  private String readEscapedString(int start) throws IOException {
+    builder.setLength(0);
+    int segment = start;
+    while (position < end && bytes[position] != '"') {
+      if (bytes[position] != '\\') {
+        ++position;
+        continue;
+      }
+      builder.append(new String(bytes, segment, position - segment, StandardCharsets.UTF_8));
+      if (position + 1 >= end) {
+        throw malformed();
+      }
+      char escaped = (char) bytes[position + 1];
+      position += 2;
+      switch (escaped) {
+        case 'b': builder.append('\b'); break;
+        case 'f': builder.append('\f'); break;
+        case 'n': builder.append('\n'); break;
+        case 'r': builder.append('\r'); break;
+        case 't': builder.append('\t'); break;
+        case 'u':
+          if (position + 4 > end) {
+            throw malformed();
+          }
+          builder.append((char) Integer.parseInt(
+              new String(bytes, position, 4, StandardCharsets.US_ASCII), 16));
+          position += 4;
+          break;
+        default: builder.append(escaped);
+      }
+      segment = position;
+    }
+    if (position >= end) {
+      throw malformed();
+    }
+    builder.append(new String(bytes, segment, position - segment, StandardCharsets.UTF_8));
+    ++position;
+
+    return builder.toString();
+  }
+
+  /**
+   * Lookup of an ASCII string in a small open addressing table, no allocation on hit.
+   */
+  private String intern(int start, int length) {
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    int slot = (hash ^ (hash >>> 16)) & (INTERN_CAPACITY - 1);
+    for (int probe = 0; probe < INTERN_PROBES; probe++) {
+      int index = (slot + probe) & (INTERN_CAPACITY - 1);
+      String candidate = internTable[index];
+      if (candidate == null) {
+        return internTable[index] = new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+      } else if (isEqual(candidate, start, length)) {
+        return candidate;
+      }
+    }
+
+    return internTable[slot] = new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+  }
+
+  private boolean isEqual(String candidate, int start, int length) {
+    if (candidate.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (candidate.charAt(i) != bytes[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean readLiteral(String literal) {
+    int length = literal.length();
+    if (position + length > end) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (bytes[position + i] != literal.charAt(i)) {
+        return false;
+      }
+    }
+    position += length;
+    return true;
+  }
+
+  /**
+   * @return false if the end is reached
+   */
+  private boolean skipWhitespace() {
+    while (position < end && bytes[position] <= ' ' && bytes[position] >= 0) {
+      ++position;
+    }
+    return position < end;
+  }
+
+  private char peek() throws IOException {
+    if (!skipWhitespace()) {
+      throw malformed();
+    }
+    return (char) bytes[position];
+  }
+
+  private boolean consume(char expected) throws IOException {
+    if (skipWhitespace() && bytes[position] == expected) {
+      ++position;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(char expected) throws IOException {
+    if (!consume(expected)) {
+      throw malformed();
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isNumberChar(byte b) {
+    return isDigit((char) b) || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+  }
+
+  private IOException malformed() {
+    return new IOException("Malformed JSON at position " + position + ": "
+        + new String(bytes, Math.max(0, position - 20),
+        Math.min(end, position + 20) - Math.max(0, position - 20), StandardCharsets.UTF_8));
+  }
+}
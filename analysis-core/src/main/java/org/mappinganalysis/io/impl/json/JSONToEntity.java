@@ -6,6 +6,7 @@ import org.apache.log4j.Logger;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
+import org.mappinganalysis.model.LongSet;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.util.Constants;
 
@@ -76,18 +77,20 @@ public class JSONToEntity {
   }
 
   private Set getArrayValues(String key, JSONArray array) throws JSONException {
-    HashSet values = new HashSet<>();
-
     if (key.equals(Constants.CL_VERTICES)) {
+      LongSet vertexIds = new LongSet();
       for (int i = 0; i < array.length(); i++) {
-        values.add(array.getLong(i));
+        vertexIds.add(array.getLong(i));
       }
+
+      return vertexIds;
     } else {
+      HashSet<String> values = new HashSet<>();
       for (int i = 0; i < array.length(); i++) {
         values.add(array.getString(i));
       }
-    }
 
-    return values;
+      return values;
+    }
   }
 }
@@ -2,106 +2,221 @@ package org.mappinganalysis.model;
 
 
 import com.google.common.base.Joiner;
-import com.google.common.collect.Sets;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.flink.api.common.typeinfo.TypeInfo;
+import org.mappinganalysis.model.typeinfo.LongSetTypeInfoFactory;
 
 import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 /**
- * tmp helper class
+ * Set of vertex ids backed by a sorted primitive long array.
+ *
+ * Cluster id sets are small, binary search and array copy are cheap here and
+ * no id is boxed while stored. Union with another LongSet is a linear merge.
+ * Serialized with {@link org.mappinganalysis.model.typeinfo.LongSetSerializer}.
  */
-public class LongSet implements Set<Long>, Serializable {
-  private static final long serialVersionUID = 23L;
+@TypeInfo(LongSetTypeInfoFactory.class)
+public class LongSet extends AbstractSet<Long> implements Serializable {
+  private static final long serialVersionUID = 24L;
+  private static final int DEFAULT_CAPACITY = 4;
 
-  private Set<Long> set;
+  private long[] values;
+  private int size;
 
   public LongSet() {
-    this.set = Sets.newHashSet();
+    this.values = new long[DEFAULT_CAPACITY];
   }
 
-  public LongSet(Long id) {
-    this.set = Sets.newHashSet(id);
+  public LongSet(long id) {
+    this();
+    this.values[0] = id;
+    this.size = 1;
   }
 
-  public String toString() {
-    return Joiner.on(";").join(set);
+  public LongSet(Collection<Long> ids) {
+    if (ids instanceof LongSet) {
+      LongSet other = (LongSet) ids;
+      this.values = Arrays.copyOf(other.values, Math.max(other.size, DEFAULT_CAPACITY));
+      this.size = other.size;
+    } else {
+      this.values = new long[Math.max(ids.size(), DEFAULT_CAPACITY)];
+      for (Long id : ids) {
+        add(id.longValue());
+      }
+    }
   }
 
-  private Set<Long> getLongSet() {
-    return set;
+  public String toString() {
+    return Joiner.on(";").join(this);
   }
 
-  @Override
-  public int size() {
-    return set.size();
+  /**
+   * Get the id at the given position, ids are sorted ascending.
+   */
+  public long get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return values[index];
   }
 
-  @Override
-  public boolean isEmpty() {
-    return set.isEmpty();
+  public boolean contains(long value) {
+    return Arrays.binarySearch(values, 0, size, value) >= 0;
   }
 
-  @Override
-  public boolean contains(Object o) {
-    return set.contains(o);
-  }
+  public boolean add(long value) {
+    if (size == 0 || value > values[size - 1]) {
+      ensureCapacity(size + 1);
+      values[size++] = value;
 
-  @Override
-  public Iterator<Long> iterator() {
-    return set.iterator();
+      return true;
+    }
+
+    int pos = Arrays.binarySearch(values, 0, size, value);
+    if (pos >= 0) {
+      return false;
+    }
+    pos = -(pos + 1);
+    ensureCapacity(size + 1);
+    System.arraycopy(values, pos, values, pos + 1, size - pos);
+    values[pos] = value;
+    ++size;
+
+    return true;
   }
 
-  /**
-   * not working
-   */
-  @Override
-  public Object[] toArray() {
-    return new Object[0];
+  public boolean remove(long value) {
+    int pos = Arrays.binarySearch(values, 0, size, value);
+    if (pos < 0) {
+      return false;
+    }
+    removeAt(pos);
+
+    return true;
   }
 
   /**
-   * not working
+   * Union with another id set, linear merge of both sorted arrays.
    */
-  @Override
-  public <T> T[] toArray(T[] a) {
-    return null;
+  public boolean addAll(LongSet other) {
+    if (other.size == 0) {
+      return false;
+    }
+    long[] merged = new long[size + other.size];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < size && j < other.size) {
+      long left = values[i];
+      long right = other.values[j];
+      if (left < right) {
+        merged[k++] = left;
+        ++i;
+      } else if (left > right) {
+        merged[k++] = right;
+        ++j;
+      } else {
+        merged[k++] = left;
+        ++i;
+        ++j;
+      }
+    }
+    while (i < size) {
+      merged[k++] = values[i++];
+    }
+    while (j < other.size) {
+      merged[k++] = other.values[j++];
+    }
+
+    boolean changed = k != size;
+    values = merged;
+    size = k;
+
+    return changed;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > values.length) {
+      values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+    }
+  }
+
+  private void removeAt(int pos) {
+    System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+    --size;
   }
 
   @Override
-  public boolean add(Long aLong) {
-    return set.add(aLong);
+  public int size() {
+    return size;
   }
 
   @Override
-  public boolean remove(Object o) {
-    return set.remove(o);
+  public boolean contains(Object o) {
+    return o instanceof Long && contains(((Long) o).longValue());
   }
 
   @Override
-  public boolean containsAll(Collection<?> c) {
-    return set.containsAll(c);
+  public Iterator<Long> iterator() {
+    return new Iterator<Long>() {
+      private int next = 0;
+      private boolean canRemove = false;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public Long next() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        canRemove = true;
+
+        return values[next++];
+      }
+
+      @Override
+      public void remove() {
+        if (!canRemove) {
+          throw new IllegalStateException();
+        }
+        removeAt(--next);
+        canRemove = false;
+      }
+    };
   }
 
   @Override
-  public boolean addAll(Collection<? extends Long> c) {
-    return set.addAll(c);
+  public boolean add(Long value) {
+    return add(value.longValue());
   }
 
   @Override
-  public boolean retainAll(Collection<?> c) {
-    return set.retainAll(c);
+  public boolean remove(Object o) {
+    return o instanceof Long && remove(((Long) o).longValue());
   }
 
   @Override
-  public boolean removeAll(Collection<?> c) {
-    return set.removeAll(c);
+  public boolean addAll(Collection<? extends Long> c) {
+    if (c instanceof LongSet) {
+      return addAll((LongSet) c);
+    }
+    boolean changed = false;
+    for (Long value : c) {
+      changed |= add(value.longValue());
+    }
+
+    return changed;
   }
 
   @Override
   public void clear() {
-
+    size = 0;
   }
 }
@@ -1,7 +1,6 @@
 package org.mappinganalysis.model;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 import com.google.common.primitives.Doubles;
 import org.apache.flink.api.java.tuple.Tuple13;
 import org.apache.flink.graph.Vertex;
@@ -84,8 +83,7 @@ public class MergeTuple
       properties.setFinalBlockingKey(getBlockingLabel());
       properties.setClusterDataSources(
           AbstractionUtils.getSourcesStringSet(mode, getIntSources()));
-      properties.setClusterVertices(
-          Sets.newHashSet(getClusteredElements()));
+      properties.setClusterVertices(new LongSet(f9));
 
       return new Vertex<>(getId(), properties);
     } else {
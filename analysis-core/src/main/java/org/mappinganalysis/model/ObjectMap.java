@@ -6,11 +6,13 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Ints;
+import org.apache.flink.api.common.typeinfo.TypeInfo;
 import org.apache.flink.util.StringUtils;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.io.impl.DataDomain;
 import org.mappinganalysis.model.api.CustomOperation;
 import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+import org.mappinganalysis.model.typeinfo.ObjectMapTypeInfoFactory;
 import org.mappinganalysis.util.AbstractionUtils;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.Utils;
@@ -21,7 +23,10 @@ import java.util.*;
 /**
  * Custom map for representing properties for vertices. This is needed
  * because a Flink Vertex can only have POJOs as value.
+ *
+ * Serialized with {@link org.mappinganalysis.model.typeinfo.ObjectMapSerializer}.
  */
+@TypeInfo(ObjectMapTypeInfoFactory.class)
 public class ObjectMap
     implements Map<String, Object>, Serializable {
   private static final long serialVersionUID = 42L;
@@ -396,11 +401,11 @@ public class ObjectMap
     Object clusteredVertices = map.get(Constants.CL_VERTICES);
 
     if (clusteredVertices == null) {
-      return Sets.newHashSet();
+      return new LongSet();
     } else if (clusteredVertices instanceof Set) {
       return (Set<Long>) clusteredVertices;
     } else {
-      return Sets.newHashSet((long) clusteredVertices);
+      return new LongSet((long) clusteredVertices);
     }
   }
 
@@ -408,16 +413,21 @@ public class ObjectMap
     return getVerticesList().size();
   }
 
+  /**
+   * Set vertex ids contained in a cluster, stored as primitive {@link LongSet}.
+   */
   public void setClusterVertices(Set<Long> vertexIds) {
     if (!vertexIds.isEmpty()) {
-      map.put(Constants.CL_VERTICES, vertexIds);
+      map.put(Constants.CL_VERTICES,
+          vertexIds instanceof LongSet ? vertexIds : new LongSet(vertexIds));
     }
   }
 
   public void addClusterVertices(Set<Long> vertexIds) {
     if (vertexIds != null && !vertexIds.isEmpty()) {
-      map.put(Constants.CL_VERTICES,
-          Sets.newHashSet(Sets.union(getVerticesList(), vertexIds)));
+      LongSet union = new LongSet(getVerticesList());
+      union.addAll(vertexIds);
+      map.put(Constants.CL_VERTICES, union);
     }
   }
 
@@ -755,7 +765,9 @@ public class ObjectMap
           Utils.getBlockingKey(
               strategy,
               mode,
-              Utils.getNcBlockingLabel(
+              strategy == BlockingStrategy.SORTED_NEIGHBORHOOD
+                  ? getArtistTitleAlbum()
+                  : Utils.getNcBlockingLabel(
                   getArtist(), getLabel(), blockingLength),
               blockingLength));
     } else {
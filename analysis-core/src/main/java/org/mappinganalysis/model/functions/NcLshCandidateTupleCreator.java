@@ -11,18 +11,16 @@ import org.apache.flink.api.java.operators.MapOperator;
 import org.apache.flink.api.java.tuple.Tuple1;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.graph.Edge;
-import org.apache.flink.graph.Graph;
 import org.apache.flink.graph.Vertex;
 import org.apache.flink.types.NullValue;
 import org.apache.flink.util.Collector;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.graph.utils.ConnectedComponentIdAdder;
+import org.mappinganalysis.graph.utils.ConnectedComponentStrategy;
 import org.mappinganalysis.model.MergeMusicTriplet;
 import org.mappinganalysis.model.MergeTuple;
-import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.blocking.lsh.LshCandidateCreator;
 import org.mappinganalysis.model.functions.blocking.lsh.utils.CandidateNcMergeTripletCreator;
-import org.mappinganalysis.model.functions.blocking.lsh.utils.VertexWithNewObjectMapFunction;
 import org.mappinganalysis.model.functions.simcomputation.SimilarityComputation;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.Utils;
@@ -37,6 +35,11 @@ public class NcLshCandidateTupleCreator
   private int numberOfFamilies;
   private int numberOfHashesPerFamily;
 
+  private boolean isAutoTuneEnabled = false;
+  private double targetSimilarity;
+  private double targetRecall;
+  private boolean isMultiProbeEnabled;
+
   /**
    * Constructor for incremental clustering, ids are not (???)
    */
@@ -61,6 +64,23 @@ public class NcLshCandidateTupleCreator
     this.env = env;
   }
 
+  /**
+   * LSH parameters are tuned on a sample, see {@link LshCandidateCreator}.
+   */
+  public NcLshCandidateTupleCreator(
+      SimilarityComputation<MergeMusicTriplet, MergeMusicTriplet> similarityComputation,
+      double targetSimilarity,
+      double targetRecall,
+      boolean isMultiProbeEnabled,
+      ExecutionEnvironment env) {
+    this.similarityComputation = similarityComputation;
+    this.isAutoTuneEnabled = true;
+    this.targetSimilarity = targetSimilarity;
+    this.targetRecall = targetRecall;
+    this.isMultiProbeEnabled = isMultiProbeEnabled;
+    this.env = env;
+  }
+
   @Override
   public void setInput(DataSet<MergeTuple> inputData) {
     inputTuples = inputData;
@@ -88,11 +108,17 @@ public class NcLshCandidateTupleCreator
           return new Tuple2<>(tuple.getId(), Utils.simplify(lshString));
         })
         .returns(new TypeHint<Tuple2<Long, String>>() {})
-        .runOperation(new LshCandidateCreator(
-            isIdfOptimizeEnabled,
-            valueRangeLsh,
-            numberOfFamilies,
-            numberOfHashesPerFamily));
+        .runOperation(isAutoTuneEnabled
+            ? new LshCandidateCreator(
+                isIdfOptimizeEnabled,
+                targetSimilarity,
+                targetRecall,
+                isMultiProbeEnabled)
+            : new LshCandidateCreator(
+                isIdfOptimizeEnabled,
+                valueRangeLsh,
+                numberOfFamilies,
+                numberOfHashesPerFamily));
 
     DataSet<MergeMusicTriplet> mergeMusicTriplets = lshCandidates
 //          .map(x -> {
@@ -242,12 +268,11 @@ public class NcLshCandidateTupleCreator
         })
         .returns(new TypeHint<Edge<Long, NullValue>>() {});
 
-    DataSet<Vertex<Long, ObjectMap>> vertices = null;
+    DataSet<Vertex<Long, Long>> vertices = null;
     try {
-      vertices = Graph.fromDataSet(edges, env)
-          .mapVertices(new VertexWithNewObjectMapFunction())
-          .run(new ConnectedComponentIdAdder<>(env))
-          .getVertices();
+      // candidate graphs are new each time and have many small components
+      vertices = ConnectedComponentIdAdder.getComponentIds(
+          edges, env, ConnectedComponentStrategy.UNION_FIND);
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -256,12 +281,12 @@ public class NcLshCandidateTupleCreator
     return mergeMusicTriplets.join(vertices)
         .where(0)
         .equalTo(0)
-        .with(new JoinFunction<MergeMusicTriplet, Vertex<Long,ObjectMap>, MergeMusicTriplet>() {
+        .with(new JoinFunction<MergeMusicTriplet, Vertex<Long, Long>, MergeMusicTriplet>() {
           @Override
-          public MergeMusicTriplet join(MergeMusicTriplet triplet, Vertex<Long, ObjectMap> vertex) throws Exception {
-            triplet.setBlockingLabel(vertex.getValue().getCcId().toString());
-            triplet.getSrcTuple().setBlockingLabel(vertex.getValue().getCcId().toString());
-            triplet.getTrgTuple().setBlockingLabel(vertex.getValue().getCcId().toString());
+          public MergeMusicTriplet join(MergeMusicTriplet triplet, Vertex<Long, Long> vertex) throws Exception {
+            triplet.setBlockingLabel(vertex.getValue().toString());
+            triplet.getSrcTuple().setBlockingLabel(vertex.getValue().toString());
+            triplet.getTrgTuple().setBlockingLabel(vertex.getValue().toString());
 
             return triplet;
           }
@@ -8,5 +8,11 @@ public enum BlockingStrategy {
   IDF_BLOCKING,
   NO_BLOCKING,
   LSH_BLOCKING,
-  BLOCK_SPLIT
+  BLOCK_SPLIT,
+  SORTED_NEIGHBORHOOD,
+  PREFIX_FILTERING,
+  /**
+   * chosen on a sample by {@link org.mappinganalysis.model.functions.blocking.planner.BlockingStrategyPlanner}
+   */
+  AUTO
 }
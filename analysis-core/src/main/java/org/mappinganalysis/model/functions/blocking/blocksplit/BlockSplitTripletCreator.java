@@ -15,12 +15,21 @@ import org.mappinganalysis.model.MergeTuple;
 import org.mappinganalysis.model.functions.stats.StatisticsCountElementsRichMapFunction;
 import org.mappinganalysis.util.Constants;
 
+/**
+ * Block split: pairs of all blocks are enumerated globally and split into
+ * equal pair ranges, large blocks are spread over all tasks. The number of
+ * ranges is fixed when the plan is created (default: parallelism of the execution
+ * environment), both the replication and the pairing operator use the same value.
+ * Pairs per task are counted in the accumulators
+ * {@value Constants#BLOCK_SPLIT_REDUCER_PAIRS_ACCUMULATOR}[task index].
+ */
 public class BlockSplitTripletCreator
     implements CustomUnaryOperation<MergeTuple, MergeMusicTriplet> {
   private static final Logger LOG = Logger.getLogger(BlockSplitTripletCreator.class);
   private DataSet<MergeTuple> inputTuples;
   private DataDomain dataDomain;
   private String newSource = Constants.EMPTY_STRING;
+  private int numberOfRanges = 0;
 
   /**
    * Source based addition constructor
@@ -36,6 +45,13 @@ public class BlockSplitTripletCreator
   public BlockSplitTripletCreator() {
   }
 
+  /**
+   * Constructor for a fixed number of pair ranges.
+   */
+  public BlockSplitTripletCreator(int numberOfRanges) {
+    this.numberOfRanges = numberOfRanges;
+  }
+
   @Override
   public void setInput(DataSet<MergeTuple> inputData) {
     inputTuples = inputData;
@@ -86,18 +102,21 @@ public class BlockSplitTripletCreator
         .where(1).equalTo(0)
         .with(new ConcatAllInfoToVertex());
 
-    /* Load Balancing */
-    DataSet<Tuple5<Long, String, Long, Boolean, Integer>> tupleBkeyVindexIsLastReducerId
+    int ranges = numberOfRanges > 0 ? numberOfRanges : getDefaultNumberOfRanges();
+
+    /* Load Balancing - equal pair ranges, one per reducer */
+    DataSet<Tuple7<Long, String, Long, Integer, Long, Long, Long>> tupleBkeyVindexReducerId
         = tupleBkeyVindexBlockSizePrevBlockPairsAllPairs
-        .flatMap(new ReplicateAndAssignReducerId())
-        .partitionCustom(new PartitionVertices(), 4);
+        .flatMap(new ReplicateAndAssignReducerId(ranges));
 
     /* Make pairs */
     DataSet<Tuple2<Long, Long>> tripletCandidates
-        = tupleBkeyVindexIsLastReducerId
-        .groupBy(1)
+        = tupleBkeyVindexReducerId
+        .groupBy(3)
+        .withPartitioner(new PartitionVertices())
+        .sortGroup(1, Order.ASCENDING)
         .sortGroup(2, Order.ASCENDING)
-        .combineGroup(new CreatePairedVertices())
+        .reduceGroup(new CreatePairedVertices(ranges))
         .map(new StatisticsCountElementsRichMapFunction<>(
             Constants.BLOCK_SPLIT_TRIPLET_ACCUMULATOR));
 
@@ -115,4 +134,13 @@ public class BlockSplitTripletCreator
         .where(1).equalTo(0)
         .with(new TripletCandidateRestrictor(dataDomain, newSource));
   }
-}
\ No newline at end of file
+
+  /**
+   * Parallelism of the environment, available processors if not set.
+   */
+  private int getDefaultNumberOfRanges() {
+    int parallelism = inputTuples.getExecutionEnvironment().getParallelism();
+
+    return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+  }
+}
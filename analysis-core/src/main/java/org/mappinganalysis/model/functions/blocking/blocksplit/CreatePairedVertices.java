@@ -1,31 +1,119 @@
 package org.mappinganalysis.model.functions.blocking.blocksplit;
 
-import org.apache.flink.api.common.functions.GroupCombineFunction;
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
 import org.apache.flink.api.java.tuple.Tuple2;
-import org.apache.flink.api.java.tuple.Tuple5;
+import org.apache.flink.api.java.tuple.Tuple7;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.util.Collector;
+import org.mappinganalysis.util.Constants;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 
+/**
+ * Create all pairs of the pair range of one reducer. Input group is a single
+ * reducer id sorted by blocking key and vertex index, see
+ * {@link ReplicateAndAssignReducerId}. The number of created pairs is added
+ * to a per reducer accumulator.
+ */
 public class CreatePairedVertices
-    implements GroupCombineFunction<
-    Tuple5<Long, String, Long, Boolean, Integer>,
+    extends RichGroupReduceFunction<
+    Tuple7<Long, String, Long, Integer, Long, Long, Long>,
     Tuple2<Long, Long>> {
+  private LongCounter pairCounter = new LongCounter();
+  private final int numberOfRanges;
+
+  private long[] indices = new long[64];
+  private long[] ids = new long[64];
+
+  /**
+   * @param numberOfRanges number of pair ranges, has to be the same value as
+   *                       for {@link ReplicateAndAssignReducerId}
+   */
+  public CreatePairedVertices(int numberOfRanges) {
+    this.numberOfRanges = numberOfRanges;
+  }
+
+  @Override
+  public void open(final Configuration parameters) throws Exception {
+    super.open(parameters);
+    getRuntimeContext().addAccumulator(
+        Constants.BLOCK_SPLIT_REDUCER_PAIRS_ACCUMULATOR
+            + getRuntimeContext().getIndexOfThisSubtask(),
+        pairCounter);
+  }
+
   @Override
-  public void combine(Iterable<Tuple5<Long, String, Long, Boolean, Integer>> input,
-                      Collector<Tuple2<Long, Long>> out) throws Exception {
-    Collection<Tuple2<Long, Boolean>> tuples = new ArrayList<>();
-    for (Tuple5<Long, String, Long, Boolean, Integer> i : input){
-      tuples.add(Tuple2.of(i.f0, i.f3));
+  public void reduce(Iterable<Tuple7<Long, String, Long, Integer, Long, Long, Long>> input,
+                     Collector<Tuple2<Long, Long>> out) throws Exception {
+    String blockingKey = null;
+    int size = 0;
+    int reducerId = 0;
+    long blockSize = 0L;
+    long prevPairs = 0L;
+    long allPairs = 0L;
+
+    for (Tuple7<Long, String, Long, Integer, Long, Long, Long> tuple : input) {
+      if (blockingKey != null && !blockingKey.equals(tuple.f1)) {
+        createPairs(reducerId, blockSize, prevPairs, allPairs, size, out);
+        size = 0;
+      }
+      if (size == indices.length) {
+        indices = Arrays.copyOf(indices, size * 2);
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      indices[size] = tuple.f2;
+      ids[size] = tuple.f0;
+      ++size;
+      blockingKey = tuple.f1;
+      reducerId = tuple.f3;
+      blockSize = tuple.f4;
+      prevPairs = tuple.f5;
+      allPairs = tuple.f6;
     }
 
-    Tuple2<Long, Boolean>[] tuplesArray = tuples.toArray(new Tuple2[tuples.size()]);
-    for (int i = 0; i< tuplesArray.length && tuplesArray [i].f1; i++) {
-      for (int j = i+1; j< tuplesArray.length ; j++) {
-        out.collect(new Tuple2<>(tuplesArray[i].f0, tuplesArray[j].f0));
+    if (size > 0) {
+      createPairs(reducerId, blockSize, prevPairs, allPairs, size, out);
+    }
+  }
+
+  /**
+   * Emit pairs (x, y) of the block with pair index in the range of the reducer.
+   */
+  private void createPairs(int reducerId,
+                           long blockSize,
+                           long prevPairs,
+                           long allPairs,
+                           int size,
+                           Collector<Tuple2<Long, Long>> out) {
+    int ranges = ReplicateAndAssignReducerId.getNumberOfRanges(numberOfRanges, allPairs);
+    long rangeStart = ReplicateAndAssignReducerId
+        .getRangeStart(reducerId, ranges, allPairs);
+    long rangeEnd = ReplicateAndAssignReducerId
+        .getRangeStart(reducerId + 1, ranges, allPairs) - 1;
+
+    for (int i = 0; i < size; i++) {
+      long x = indices[i];
+      if (x >= blockSize - 1) {
+        continue;
+      }
+      // pair index of (x, y) is rowBase + y
+      long rowBase = ReplicateAndAssignReducerId.getPairIndex(x, 0, blockSize, prevPairs);
+      long from = Math.max(rowBase + x + 1, rangeStart);
+      long to = Math.min(rowBase + blockSize - 1, rangeEnd);
+      if (from > to) {
+        continue;
+      }
+
+      long yMax = to - rowBase;
+      int pos = Arrays.binarySearch(indices, i + 1, size, from - rowBase);
+      if (pos < 0) {
+        pos = -(pos + 1);
+      }
+      for (; pos < size && indices[pos] <= yMax; pos++) {
+        pairCounter.add(1L);
+        out.collect(new Tuple2<>(ids[i], ids[pos]));
       }
     }
   }
 }
-
@@ -2,9 +2,12 @@ package org.mappinganalysis.model.functions.blocking.blocksplit;
 
 import org.apache.flink.api.common.functions.Partitioner;
 
+/**
+ * Send each vertex replica to the reducer of its pair range.
+ */
 public class PartitionVertices implements Partitioner<Integer> {
   @Override
   public int partition(Integer key, int numPartitions) {
-    return  key;
+    return key % numPartitions;
   }
 }
\ No newline at end of file
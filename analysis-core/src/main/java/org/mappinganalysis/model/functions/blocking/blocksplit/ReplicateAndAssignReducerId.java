@@ -1,67 +1,85 @@
 package org.mappinganalysis.model.functions.blocking.blocksplit;
 
 import org.apache.flink.api.common.functions.RichFlatMapFunction;
-import org.apache.flink.api.java.tuple.Tuple5;
 import org.apache.flink.api.java.tuple.Tuple6;
-import org.apache.flink.configuration.Configuration;
+import org.apache.flink.api.java.tuple.Tuple7;
 import org.apache.flink.util.Collector;
 
 //input: Tuple6<Vertex, String, Long, Long, Long, Long> ~ Tuple6<Vertex, Key, VIndex, BlkSize, PrevPairs, allPairs>
-// output: Tuple5<Vertex, String, Long, Boolean, Integer> ~ Tuple5<Vertex, Key, VertexIndex, IsLast, ReducerId>
+// output: Tuple7<Vertex, String, Long, Integer, Long, Long, Long> ~ Tuple7<Vertex, Key, VIndex, ReducerId, BlkSize, PrevPairs, allPairs>
 
 /**
+ * All pairs of all blocks are enumerated globally, the pair index space is
+ * split into equal ranges, one per reducer. The number of ranges is given
+ * (usually the parallelism), but not more than the number of pairs. Each vertex is
+ * replicated to all reducers whose range overlaps its first and last pair,
+ * oversized blocks are spread over all reducers. Blocks with a single vertex
+ * have no pairs and are dropped.
+ *
  * input and output tuple f0 is tuple id
  */
 public class ReplicateAndAssignReducerId
     extends RichFlatMapFunction<
     Tuple6<Long, String, Long, Long, Long, Long>,
-    Tuple5<Long, String, Long, Boolean, Integer>> {
-  private int parallelism;
+    Tuple7<Long, String, Long, Integer, Long, Long, Long>> {
+  private final int numberOfRanges;
 
-  @Override
-  public void open(final Configuration parameters) throws Exception {
-    super.open(parameters);
-    this.parallelism = getRuntimeContext().getNumberOfParallelSubtasks();
+  /**
+   * @param numberOfRanges number of pair ranges, has to be the same value as
+   *                       for {@link CreatePairedVertices}
+   */
+  public ReplicateAndAssignReducerId(int numberOfRanges) {
+    this.numberOfRanges = numberOfRanges;
   }
 
   public void flatMap(Tuple6<Long, String, Long, Long, Long, Long> input,
-                      Collector<Tuple5<Long, String, Long, Boolean, Integer>> out) {
-    //p (x,y) = x/2 (2 * blkSize -x-3) + y-1 + prvBlkSize
-    long xMin, yMin, xMax, yMax;
-    xMin = 0;
-    if (input.f2 == 0) {
-      xMax = 0;
-      yMin = 1;
-      yMax = input.f3 - 1;
-    } else if (input.f2 == input.f3 - 1) {
-      xMax = input.f2 - 1;
-      yMin = input.f3 - 1;
-      yMax = input.f3 - 1;
-    } else {
-      xMax = input.f2;
-      yMin = input.f2;
-      yMax = input.f3 - 1;
+                      Collector<Tuple7<Long, String, Long, Integer, Long, Long, Long>> out) {
+    long vertexIndex = input.f2;
+    long blockSize = input.f3;
+    long prevPairs = input.f4;
+    long allPairs = input.f5;
+    if (blockSize < 2) {
+      return;
     }
-    Long pMin, pMax;
-    if (xMin % 2 == 0) {
-      pMin = ((xMin / 2) * (2 * input.f3 - xMin - 3)) + yMin - 1 + input.f4;
-    } else {
-      pMin = ((xMin) * ((2 * input.f3 - xMin - 3) / 2)) + yMin - 1 + input.f4;
-    }
-    if (xMax % 2 == 0) {
-      pMax = ((xMax / 2) * (2 * input.f3 - xMax - 3)) + yMax - 1 + input.f4;
-    } else {
-      pMax = ((xMax) * ((2 * input.f3 - xMax - 3) / 2)) + yMax - 1 + input.f4;
+
+    // first pair is (0, x) or (0, 1), last pair is (x, n-1) or (n-2, n-1)
+    long pMin = vertexIndex == 0
+        ? getPairIndex(0, 1, blockSize, prevPairs)
+        : getPairIndex(0, vertexIndex, blockSize, prevPairs);
+    long pMax = vertexIndex == blockSize - 1
+        ? getPairIndex(blockSize - 2, blockSize - 1, blockSize, prevPairs)
+        : getPairIndex(vertexIndex, blockSize - 1, blockSize, prevPairs);
+
+    int ranges = getNumberOfRanges(numberOfRanges, allPairs);
+    int minReducerId = getReducerId(pMin, ranges, allPairs);
+    int maxReducerId = getReducerId(pMax, ranges, allPairs);
+
+    for (int i = minReducerId; i <= maxReducerId; i++) {
+      out.collect(new Tuple7<>(input.f0, input.f1, vertexIndex, i,
+          blockSize, prevPairs, allPairs));
     }
+  }
 
-    int minReducerId = Math.toIntExact(parallelism * pMin / input.f5);
-    int maxReducerId = Math.toIntExact(parallelism * pMax / input.f5);
+  /**
+   * Global index of pair (x, y), x < y, within a block of the given size.
+   * x * (2n - x - 3) is always even.
+   */
+  static long getPairIndex(long x, long y, long blockSize, long prevPairs) {
+    return x * (2 * blockSize - x - 3) / 2 + y - 1 + prevPairs;
+  }
+
+  static int getNumberOfRanges(int numberOfRanges, long allPairs) {
+    return (int) Math.max(1L, Math.min(numberOfRanges, allPairs));
+  }
 
-    if (minReducerId != maxReducerId)
-      for (int i = minReducerId; i < maxReducerId; i++){
-        out.collect(Tuple5.of(input.f0, input.f1, input.f2, false, i));
-      }
+  static int getReducerId(long pairIndex, int ranges, long allPairs) {
+    return Math.toIntExact(ranges * pairIndex / allPairs);
+  }
 
-    out.collect(Tuple5.of(input.f0, input.f1, input.f2, true, maxReducerId));
+  /**
+   * First pair index of the given range.
+   */
+  static long getRangeStart(int reducerId, int ranges, long allPairs) {
+    return (reducerId * allPairs + ranges - 1) / ranges;
   }
 }
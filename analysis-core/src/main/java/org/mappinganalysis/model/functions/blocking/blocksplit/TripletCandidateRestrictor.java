@@ -12,7 +12,7 @@ import org.mappinganalysis.util.Constants;
 /**
  * Within max both triplet creation, create the final music triplets.
  */
-class TripletCandidateRestrictor
+public class TripletCandidateRestrictor
     implements FlatJoinFunction<
     Tuple2<MergeTuple,Long>,
     MergeTuple,
@@ -0,0 +1,81 @@
+package org.mappinganalysis.model.functions.blocking.lsh;
+
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.common.functions.RuntimeContext;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * GroupReducer for (packed LSH key, vertex id) blocks, emits each candidate
+ * pair within the block once as (smaller id, bigger id).
+ *
+ * Multi-probe entries have a negative id (~vertex id), they are paired with
+ * the regular entries of the block, but not with each other.
+ */
+public class LongKeyBlockReducer
+    extends RichGroupReduceFunction<Tuple2<Long, Long>, Tuple2<Long, Long>> {
+  private static final Logger LOG = Logger.getLogger(LongKeyBlockReducer.class);
+  private static final long serialVersionUID = 1L;
+
+  private LongCounter blockCounter = new LongCounter();
+  private LongCounter candidateCounter = new LongCounter();
+  private long[] ids = new long[16];
+  private long[] probeIds = new long[16];
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    final RuntimeContext context = getRuntimeContext();
+    context.addAccumulator("block-counter", this.blockCounter);
+    context.addAccumulator("candidate-counter", this.candidateCounter);
+  }
+
+  @Override
+  public void reduce(Iterable<Tuple2<Long, Long>> values,
+                     Collector<Tuple2<Long, Long>> out) throws Exception {
+    int size = 0;
+    int probeSize = 0;
+    for (Tuple2<Long, Long> value : values) {
+      if (value.f1 < 0) {
+        if (probeSize == probeIds.length) {
+          probeIds = Arrays.copyOf(probeIds, probeSize * 2);
+        }
+        probeIds[probeSize++] = ~value.f1;
+      } else {
+        if (size == ids.length) {
+          ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = value.f1;
+      }
+    }
+    this.blockCounter.add(1L);
+
+    // sorted ids give ordered pairs, duplicate ids in a block are skipped
+    Arrays.sort(ids, 0, size);
+    for (int i = 0; i < size; i++) {
+      if (i > 0 && ids[i] == ids[i - 1]) {
+        continue;
+      }
+      for (int j = i + 1; j < size; j++) {
+        if (ids[j] == ids[j - 1]) {
+          continue;
+        }
+        this.candidateCounter.add(1L);
+        out.collect(new Tuple2<>(ids[i], ids[j]));
+      }
+      for (int j = 0; j < probeSize; j++) {
+        long probeId = probeIds[j];
+        if (probeId != ids[i]) {
+          this.candidateCounter.add(1L);
+          out.collect(probeId < ids[i]
+              ? new Tuple2<>(probeId, ids[i])
+              : new Tuple2<>(ids[i], probeId));
+        }
+      }
+    }
+  }
+}
@@ -20,6 +20,11 @@ public class LshCandidateCreator
   private int numberOfFamilies;
   private int numberOfHashesPerFamily;
 
+  private boolean isAutoTuneEnabled = false;
+  private double targetSimilarity;
+  private double targetRecall;
+  private boolean isMultiProbeEnabled;
+
   public LshCandidateCreator(boolean isIdfOptimizeEnabled) {
     this.isIdfOptimizeEnabled = isIdfOptimizeEnabled;
     // good in tests: 3200 55 75
@@ -38,6 +43,23 @@ public class LshCandidateCreator
     this.numberOfHashesPerFamily = numberOfHashesPerFamily;
   }
 
+  /**
+   * LSH parameters are tuned on a sample of the input.
+   * @param targetSimilarity min trigram similarity of pairs which should be found
+   * @param targetRecall share of those pairs which should become candidates
+   * @param isMultiProbeEnabled allow multi-probe keys to reduce the family count
+   */
+  public LshCandidateCreator(boolean isIdfOptimizeEnabled,
+                             double targetSimilarity,
+                             double targetRecall,
+                             boolean isMultiProbeEnabled) {
+    this.isIdfOptimizeEnabled = isIdfOptimizeEnabled;
+    this.isAutoTuneEnabled = true;
+    this.targetSimilarity = targetSimilarity;
+    this.targetRecall = targetRecall;
+    this.isMultiProbeEnabled = isMultiProbeEnabled;
+  }
+
   @Override
   public void setInput(DataSet<Tuple2<Long, String>> inputData) {
     this.tuples = inputData;
@@ -45,6 +67,15 @@ public class LshCandidateCreator
 
   @Override
   public DataSet<Tuple2<Long, Long>> createResult() {
+    if (isAutoTuneEnabled) {
+      return tuples
+          .runOperation(new TrigramBasedLinkageTupleCreator(isIdfOptimizeEnabled))
+          .runOperation(new LshComputation(
+              targetSimilarity,
+              targetRecall,
+              isMultiProbeEnabled));
+    }
+
     return tuples
         .runOperation(new TrigramBasedLinkageTupleCreator(isIdfOptimizeEnabled))
         .runOperation(new LshComputation(
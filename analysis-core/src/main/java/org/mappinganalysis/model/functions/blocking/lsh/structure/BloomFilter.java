@@ -1,6 +1,6 @@
 package org.mappinganalysis.model.functions.blocking.lsh.structure;
 
-import org.mappinganalysis.model.functions.blocking.lsh.utils.HashUtils;
+import org.mappinganalysis.model.functions.blocking.lsh.utils.HashStrategy;
 
 import java.util.BitSet;
 
@@ -10,6 +10,8 @@ import java.util.BitSet;
  * k independent hash functions are defined, which produce a output between 0 and l − 1. 
  * To store a element in the Bloom filter, it is hash coded using the k hash functions. 
  * All bits at the position corresponding to each hash value is set to one.
+ * The k hash values are derived from two base hash values of the chosen
+ * {@link HashStrategy}, default is {@link HashStrategy#MURMUR3}.
  *
  * @author mfranke
  *
@@ -18,6 +20,7 @@ public class BloomFilter {
 
   protected int size;
   private int hashFunctions;
+  private HashStrategy hashStrategy = HashStrategy.MURMUR3;
   protected BitSet bitset;
 
   /**
@@ -49,10 +52,25 @@ public class BloomFilter {
     this(size, hashFunctions, new BitSet(size));
   }
 
+  /**
+   * Creates a new Bloom filter.
+   * @param size size of the bloom filter.
+   * @param hashFunctions number of hash functions.
+   * @param hashStrategy base hash functions
+   */
+  public BloomFilter(int size, int hashFunctions, HashStrategy hashStrategy){
+    this(size, hashFunctions, new BitSet(size), hashStrategy);
+  }
+
   private BloomFilter(int size, int hashFunctions, BitSet bitset){
+    this(size, hashFunctions, bitset, HashStrategy.MURMUR3);
+  }
+
+  private BloomFilter(int size, int hashFunctions, BitSet bitset, HashStrategy hashStrategy){
     this.size = size;
     this.hashFunctions = hashFunctions;
     this.bitset = bitset;
+    this.hashStrategy = hashStrategy;
   }
 
   /**
@@ -60,25 +78,29 @@ public class BloomFilter {
    * @return int[] with the positions set to one.
    */
   public int[] addElement(String element){
+    long hash = this.hashStrategy.hash(element);
+    int hash1 = HashStrategy.getFirst(hash);
+    int hash2 = HashStrategy.getSecond(hash);
+
     int[] positions = new int[this.hashFunctions];
     for (int hashNumber = 0; hashNumber < this.hashFunctions; hashNumber++){
-      int position = this.hashElement(element, hashNumber);
+      int position = this.hashElement(hash1, hash2, hashNumber);
       this.bitset.set(position);
       positions[hashNumber] = position;
     }
     return positions;
   }
 
-  private int hashElement(String element, int hashNumber){
-    return (Math.abs(this.hash1(element) + hashNumber * this.hash2(element))) % this.size;
-  }
-
-  private int hash1(String element){
-    return Math.abs(HashUtils.getMD5(element));
+  private int hashElement(int hash1, int hash2, int hashNumber){
+    if (this.hashStrategy == HashStrategy.MD5_SHA) {
+      return (Math.abs(hash1 + hashNumber * hash2)) % this.size;
+    } else {
+      return Math.floorMod(hash1 + hashNumber * hash2, this.size);
+    }
   }
 
-  private int hash2(String element){
-    return Math.abs(HashUtils.getSHA(element));
+  public HashStrategy getHashStrategy() {
+    return hashStrategy;
   }
 
 
@@ -115,13 +137,13 @@ public class BloomFilter {
    * Merge this bloom filter with another and return the result.
    * This bloom filter is not changed.
    * @param other the other bloom filter.
-   * @return the merged bloom filter result.
+   * @return the merged bloom filter result with the hash strategy of this filter.
    */
   public BloomFilter merge(BloomFilter other){
     if (other != null && other.bitset != null && this.size == other.size){
       BitSet bitset = (BitSet) this.bitset.clone();
       bitset.or(other.bitset);
-      return new BloomFilter(this.size, this.hashFunctions, bitset);
+      return new BloomFilter(this.size, this.hashFunctions, bitset, this.hashStrategy);
     }
     else{
       return null;
@@ -154,7 +176,7 @@ public class BloomFilter {
     if (other != null && other.bitset != null && this.size == other.size){
       BitSet bitset = (BitSet) this.bitset.clone();
       bitset.and(other.bitset);
-      return new BloomFilter(this.size, this.hashFunctions, bitset);
+      return new BloomFilter(this.size, this.hashFunctions, bitset, this.hashStrategy);
     }
     else{
       return null;
@@ -177,7 +199,7 @@ public class BloomFilter {
     if (other != null && other.bitset != null && this.size == other.size){
       BitSet bitset = (BitSet) this.bitset.clone();
       bitset.xor(other.bitset);
-      return new BloomFilter(this.size, this.hashFunctions, bitset);
+      return new BloomFilter(this.size, this.hashFunctions, bitset, this.hashStrategy);
     }
     else{
       return null;
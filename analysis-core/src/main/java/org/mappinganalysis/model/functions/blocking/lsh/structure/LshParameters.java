@@ -0,0 +1,35 @@
+package org.mappinganalysis.model.functions.blocking.lsh.structure;
+
+import org.apache.flink.api.java.tuple.Tuple4;
+
+/**
+ * LSH blocking parameters: bloom filter value range, number of hash families,
+ * number of hashes per family and multi-probe flag.
+ */
+public class LshParameters extends Tuple4<Integer, Integer, Integer, Boolean> {
+  public LshParameters() {
+  }
+
+  public LshParameters(int valueRange,
+                       int numberOfFamilies,
+                       int numberOfHashesPerFamily,
+                       boolean isMultiProbe) {
+    super(valueRange, numberOfFamilies, numberOfHashesPerFamily, isMultiProbe);
+  }
+
+  public int getValueRange() {
+    return f0;
+  }
+
+  public int getNumberOfFamilies() {
+    return f1;
+  }
+
+  public int getNumberOfHashesPerFamily() {
+    return f2;
+  }
+
+  public boolean isMultiProbe() {
+    return f3;
+  }
+}
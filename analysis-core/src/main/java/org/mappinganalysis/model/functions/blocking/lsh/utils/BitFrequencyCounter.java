@@ -4,8 +4,8 @@ import com.google.common.math.DoubleMath;
 import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.functions.GroupReduceFunction;
 import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.common.functions.MapPartitionFunction;
 import org.apache.flink.api.common.functions.ReduceFunction;
-import org.apache.flink.api.common.operators.Order;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.util.Collector;
@@ -14,9 +14,15 @@ import org.mappinganalysis.model.functions.blocking.lsh.structure.LinkageTuple;
 
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 
+/**
+ * Bit statistics for bloom filters. Frequencies are summed per partition into
+ * a single int[] and combined with a parallel reduce, infrequent bits are
+ * selected from the one resulting histogram.
+ */
 public class BitFrequencyCounter {
   private static final Logger LOG = Logger.getLogger(BitFrequencyCounter.class);
 
@@ -29,22 +35,73 @@ public class BitFrequencyCounter {
 	}
 	
 	public DataSet<Integer> getNonFrequentBitPositions(DataSet<LinkageTuple> linkageTuples) throws Exception{
-		DataSet<Tuple2<Integer, Integer>> bitFrequencies = linkageTuples
-			.flatMap(new BitSplitter())
-			.groupBy(0)
-			.sum(1);
-
-		int pruningPortionBits = DoubleMath.roundToInt(
-        (double) pruningPortionFrequentBits / 200 * this.bloomFilterLength,
-        RoundingMode.HALF_UP);
-
-		DataSet<Tuple2<Integer, Integer>> infrequentBitFrequencies = bitFrequencies
-			.sortPartition(1, Order.ASCENDING).setParallelism(1)
-			.reduceGroup(new BitPruner(
-					bloomFilterLength,
-					pruningPortionBits));
-
-		return infrequentBitFrequencies.map(new PositionExtractor());
+		final int length = this.bloomFilterLength;
+		final int pruningPortionBits = getPruningPortionBits();
+
+		return getBitFrequencies(linkageTuples)
+			.flatMap((FlatMapFunction<int[], Integer>) (frequencies, out) -> {
+				for (int position : getInfrequentPositions(frequencies, length, pruningPortionBits)) {
+					out.collect(position);
+				}
+			})
+			.returns(Integer.class);
+	}
+
+	/**
+	 * Count the 1-bits per position over all bloom filters.
+	 * @return single histogram, index is the bit position
+	 */
+	public DataSet<int[]> getBitFrequencies(DataSet<LinkageTuple> linkageTuples) {
+		return linkageTuples
+			.mapPartition(new BitCounter(bloomFilterLength))
+			.reduce(new BitCountReducer());
+	}
+
+	/**
+	 * Number of bits to prune at each end of the frequency ordered bit positions.
+	 */
+	public int getPruningPortionBits() {
+		return DoubleMath.roundToInt(
+				(double) pruningPortionFrequentBits / 200 * this.bloomFilterLength,
+				RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * Positions of set bits ordered by frequency (ties by position) without the
+	 * most and the least frequent ones, same selection as {@link BitPruner}.
+	 * @return infrequent bit positions, sorted ascending
+	 */
+	public static int[] getInfrequentPositions(int[] frequencies,
+																						 int bloomFilterLength,
+																						 int pruningPortionBits) {
+		int setBits = 0;
+		for (int frequency : frequencies) {
+			if (frequency > 0) {
+				++setBits;
+			}
+		}
+		// frequency in upper, position in lower 32 bits, sorts by (frequency, position)
+		long[] ordered = new long[setBits];
+		int k = 0;
+		for (int i = 0; i < frequencies.length; i++) {
+			if (frequencies[i] > 0) {
+				ordered[k++] = ((long) frequencies[i] << 32) | i;
+			}
+		}
+		Arrays.sort(ordered);
+
+		int endIndex = bloomFilterLength - pruningPortionBits;
+		int[] result = new int[ordered.length];
+		int count = 0;
+		for (int counter = pruningPortionBits + 1;
+				 counter < endIndex && counter < ordered.length;
+				 counter++) {
+			result[count++] = (int) ordered[counter];
+		}
+		result = Arrays.copyOf(result, count);
+		Arrays.sort(result);
+
+		return result;
 	}
 
 //	@Unused
@@ -81,6 +138,58 @@ public class BitFrequencyCounter {
         }
     }
 	
+	/**
+	 * Sum 1-bits per position for all bloom filters of a partition.
+	 */
+	public static class BitCounter
+			implements MapPartitionFunction<LinkageTuple, int[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final int bloomFilterLength;
+
+		public BitCounter(int bloomFilterLength) {
+			this.bloomFilterLength = bloomFilterLength;
+		}
+
+		@Override
+		public void mapPartition(Iterable<LinkageTuple> values, Collector<int[]> out)
+				throws Exception {
+			int[] frequencies = new int[bloomFilterLength];
+			for (LinkageTuple value : values) {
+				final BitSet bs = value.getBloomFilter().getBitset();
+				for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) {
+					if (i >= frequencies.length) {
+						frequencies = Arrays.copyOf(frequencies, Math.max(i + 1, frequencies.length * 2));
+					}
+					++frequencies[i];
+
+					if (i == Integer.MAX_VALUE) {
+						break;
+					}
+				}
+			}
+			out.collect(frequencies);
+		}
+	}
+
+	/**
+	 * Combinable sum of two bit histograms.
+	 */
+	public static class BitCountReducer implements ReduceFunction<int[]> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int[] reduce(int[] left, int[] right) throws Exception {
+			int[] result = left.length >= right.length ? left : right;
+			int[] other = result == left ? right : left;
+			for (int i = 0; i < other.length; i++) {
+				result[i] += other[i];
+			}
+
+			return result;
+		}
+	}
+
 	public static class BitPruner
       implements GroupReduceFunction<Tuple2<Integer, Integer>, Tuple2<Integer, Integer>> {
 		private static final long serialVersionUID = -7590248223942801089L;
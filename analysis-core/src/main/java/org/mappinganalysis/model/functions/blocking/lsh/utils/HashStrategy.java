@@ -0,0 +1,43 @@
+package org.mappinganalysis.model.functions.blocking.lsh.utils;
+
+/**
+ * Hash strategy for bloom filter double hashing. Both base hash values
+ * are computed once per element, position i is derived as h1 + i * h2.
+ */
+public enum HashStrategy {
+  /**
+   * MD5 and SHA based hashing, slow, only for comparison with old results.
+   */
+  MD5_SHA {
+    @Override
+    public long hash(String element) {
+      return pack(Math.abs(HashUtils.getMD5(element)), Math.abs(HashUtils.getSHA(element)));
+    }
+  },
+  /**
+   * Non cryptographic 128 bit MurmurHash3, default.
+   */
+  MURMUR3 {
+    @Override
+    public long hash(String element) {
+      return HashUtils.getMurmur3(element);
+    }
+  };
+
+  /**
+   * Get both base hash values for an element, h1 in the upper, h2 in the lower 32 bits.
+   */
+  public abstract long hash(String element);
+
+  public static int getFirst(long hash) {
+    return (int) (hash >>> 32);
+  }
+
+  public static int getSecond(long hash) {
+    return (int) hash;
+  }
+
+  private static long pack(int first, int second) {
+    return ((long) first << 32) | (second & 0xFFFFFFFFL);
+  }
+}
@@ -1,5 +1,8 @@
 package org.mappinganalysis.model.functions.blocking.lsh.utils;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -14,26 +17,45 @@ public class HashUtils {
 	
 	private static final String MD5 = "MD5";
 	private static final String SHA = "SHA";
+	private static final HashFunction MURMUR3 = Hashing.murmur3_128();
+
+	private static final ThreadLocal<MessageDigest> MD5_DIGEST =
+			ThreadLocal.withInitial(() -> getDigest(MD5));
+	private static final ThreadLocal<MessageDigest> SHA_DIGEST =
+			ThreadLocal.withInitial(() -> getDigest(SHA));
 	
 	private HashUtils(){
 		throw new RuntimeException();
 	}
 	
+	private static MessageDigest getDigest(String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Get the lowest 32 bits of a digest, equal to the int value of the
+	 * unsigned {@link BigInteger} representation.
+	 */
+	private static int getLowestInt(byte[] digest) {
+		int length = digest.length;
+		return (digest[length - 4] & 0xFF) << 24
+				| (digest[length - 3] & 0xFF) << 16
+				| (digest[length - 2] & 0xFF) << 8
+				| (digest[length - 1] & 0xFF);
+	}
+
 	/**
 	 * Calculates the MD5 hash for a string input. 
 	 * @param input a String value. 
 	 * @return the {@link int} representation of the MDH5 hash value.
 	 */
 	public static int getMD5(String input) {
-		try {
-			MessageDigest md = MessageDigest.getInstance(MD5);
-			byte[] messageDigest = md.digest(input.getBytes());            
-			BigInteger number = new BigInteger(1, messageDigest);
-			return number.intValue();
-		}
-		catch (NoSuchAlgorithmException e) {
-			throw new RuntimeException(e);
-		}
+		return getLowestInt(MD5_DIGEST.get().digest(input.getBytes()));
 	}
 
 	/**
@@ -42,15 +64,17 @@ public class HashUtils {
 	 * @return the {@link int} representation of the SHA hash value.
 	 */
 	public static int getSHA(String input) {
-		try {
-			MessageDigest md = MessageDigest.getInstance(SHA);
-			byte[] messageDigest = md.digest(input.getBytes());            
-			BigInteger number = new BigInteger(1, messageDigest);
-			return number.intValue();
-		}
-		catch (NoSuchAlgorithmException e) {
-			throw new RuntimeException(e);
-		}
+		return getLowestInt(SHA_DIGEST.get().digest(input.getBytes()));
+	}
+
+	/**
+	 * Calculates the 128 bit MurmurHash3 for a string input, chars are hashed
+	 * without encoding.
+	 * @param input a String value.
+	 * @return the first 64 bits of the hash value.
+	 */
+	public static long getMurmur3(String input) {
+		return MURMUR3.hashUnencodedChars(input).asLong();
 	}
 	
 	/**
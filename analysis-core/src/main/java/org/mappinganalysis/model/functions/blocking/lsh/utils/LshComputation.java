@@ -1,24 +1,74 @@
 package org.mappinganalysis.model.functions.blocking.lsh.utils;
 
+import org.apache.flink.api.common.operators.base.ReduceOperatorBase.CombineHint;
 import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.operators.CustomUnaryOperation;
+import org.apache.flink.api.java.tuple.Tuple1;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.utils.DataSetUtils;
 import org.apache.log4j.Logger;
-import org.mappinganalysis.model.functions.blocking.lsh.BlockReducer;
-import org.mappinganalysis.model.functions.blocking.lsh.structure.*;
+import org.mappinganalysis.model.functions.blocking.lsh.LongKeyBlockReducer;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.HashFamilyGroup;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LinkageTuple;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LshParameters;
 
+/**
+ * LSH blocking on bloom filters, result are distinct candidate pairs
+ * (smaller id, bigger id).
+ *
+ * LSH keys are packed into primitive longs ({@link LshKeyCreator}), blocks are
+ * grouped on the key only and duplicate pairs are removed with a hash combiner
+ * before the global shuffle. Optional infrequent bit pruning uses a combinable
+ * bit histogram, there is no operator with parallelism 1.
+ *
+ * In auto tuning mode, value range, number of families, hashes per family
+ * and multi-probe are chosen by {@link LshParameterTuner} on a sample.
+ */
 public class LshComputation implements CustomUnaryOperation<LinkageTuple, Tuple2<Long, Long>> {
   private static final Logger LOG = Logger.getLogger(LshComputation.class);
+  private static final int TUNING_SAMPLE_SIZE = 300;
+  private static final long TUNING_SEED = 42L;
+
   private DataSet<LinkageTuple> verticesWithTrigramBitSet;
-  private final int valueRangeLsh;
-  private final int numberOfFamilies;
-  private final int numberOfHashesPerFamily;
+  private int valueRangeLsh;
+  private int numberOfFamilies;
+  private int numberOfHashesPerFamily;
+  private int pruningPercentage;
+
+  private boolean isAutoTuneEnabled = false;
+  private double targetSimilarity;
+  private double targetRecall;
+  private boolean isMultiProbeEnabled;
 
   public LshComputation(int valueRangeLsh, int numberOfFamilies, int numberOfHashesPerFamily) {
+    this(valueRangeLsh, numberOfFamilies, numberOfHashesPerFamily, 0);
+  }
+
+  /**
+   * @param pruningPercentage percentage of frequent and non frequent bits which
+   *                          are not used for LSH keys, 0 disables pruning
+   */
+  public LshComputation(int valueRangeLsh, int numberOfFamilies,
+                        int numberOfHashesPerFamily, int pruningPercentage) {
     this.valueRangeLsh = valueRangeLsh;
     this.numberOfFamilies = numberOfFamilies;
     this.numberOfHashesPerFamily = numberOfHashesPerFamily;
+    this.pruningPercentage = pruningPercentage;
+  }
+
+  /**
+   * Auto tuning mode.
+   * @param targetSimilarity min trigram similarity of pairs which should be found
+   * @param targetRecall share of those pairs which should become candidates
+   * @param isMultiProbeEnabled allow multi-probe keys to reduce the family count
+   */
+  public LshComputation(double targetSimilarity, double targetRecall,
+                        boolean isMultiProbeEnabled) {
+    this.isAutoTuneEnabled = true;
+    this.targetSimilarity = targetSimilarity;
+    this.targetRecall = targetRecall;
+    this.isMultiProbeEnabled = isMultiProbeEnabled;
   }
 
   @Override
@@ -28,49 +78,50 @@ public class LshComputation implements CustomUnaryOperation<LinkageTuple, Tuple2
 
   @Override
   public DataSet<Tuple2<Long, Long>> createResult() {
-//    int valueRangeLsh = 3200;
-//    55,
-//        75,
+    if (isAutoTuneEnabled) {
+      DataSet<LshParameters> parameters = DataSetUtils
+          .sampleWithSize(verticesWithTrigramBitSet, false, TUNING_SAMPLE_SIZE, TUNING_SEED)
+          .reduceGroup(new LshParameterTuner(targetSimilarity, targetRecall, isMultiProbeEnabled))
+          .withBroadcastSet(DataSetUtils.countElementsPerPartition(verticesWithTrigramBitSet)
+              .sum(1), LshParameterTuner.VERTEX_COUNT)
+          .withBroadcastSet(verticesWithTrigramBitSet
+              .map(tuple -> new Tuple1<>(Math.max(tuple.getBloomFilter().getSize(),
+                  tuple.getBloomFilter().getBitset().length())))
+              .returns(new TypeHint<Tuple1<Integer>>() {})
+              .max(0), LshParameterTuner.VALUE_RANGE);
+
+      return createCandidates(verticesWithTrigramBitSet
+          .flatMap(new LshKeyCreator())
+          .withBroadcastSet(parameters, LshKeyCreator.LSH_PARAMETERS));
+    }
+
     final Integer[][] lshKeyPositions = HashFamilyGroup.selectRandomPositions(
         numberOfFamilies,
         numberOfHashesPerFamily,
         valueRangeLsh);
 
-    // TODO get frequent bit positions, min value is default setting
-    final BitFrequencyCounter bfc = new BitFrequencyCounter(
-        valueRangeLsh,  10);
+    DataSet<Tuple2<Long, Long>> keysWithIds;
+    if (pruningPercentage > 0) {
+      BitFrequencyCounter bfc = new BitFrequencyCounter(valueRangeLsh, pruningPercentage);
 
-    DataSet<Integer> nonFrequentBitPositions = null;
-    try {
-      nonFrequentBitPositions = bfc
-          .getNonFrequentBitPositions(verticesWithTrigramBitSet);
-    } catch (Exception e) {
-      e.printStackTrace();
+      keysWithIds = verticesWithTrigramBitSet
+          .flatMap(new LshKeyCreator(lshKeyPositions, bfc.getPruningPortionBits()))
+          .withBroadcastSet(bfc.getBitFrequencies(verticesWithTrigramBitSet),
+              LshKeyCreator.BIT_FREQUENCIES);
+    } else {
+      keysWithIds = verticesWithTrigramBitSet
+          .flatMap(new LshKeyCreator(lshKeyPositions));
     }
 
-    assert nonFrequentBitPositions != null;
-    DataSet<Tuple2<LshKey, LinkageTupleWithLshKeys>> keyBloomFilterPairs =
-        verticesWithTrigramBitSet
-            .flatMap(new BloomFilterLshBlocker(lshKeyPositions))
-            .withBroadcastSet(nonFrequentBitPositions, "infrequentBits");
-
-    DataSet<Tuple2<LshKey, CandidateLinkageTupleWithLshKeys>> keysWithCandidatePair =
-        keyBloomFilterPairs
-            .groupBy("f0.id", "f0.bits")
-            .reduceGroup(new BlockReducer());
-
-    return keysWithCandidatePair
-        .map(pair -> {
-          Long left = pair.f1.getCandidateOne().getId();
-          Long right = pair.f1.getCandidateTwo().getId();
+    return createCandidates(keysWithIds);
+  }
 
-          if (left < right) {
-            return new Tuple2<>(left, right);
-          } else {
-            return new Tuple2<>(right, left);
-          }
-        })
-        .returns(new TypeHint<Tuple2<Long, Long>>() {})
-        .distinct();
+  private static DataSet<Tuple2<Long, Long>> createCandidates(
+      DataSet<Tuple2<Long, Long>> keysWithIds) {
+    return keysWithIds
+        .groupBy(0)
+        .reduceGroup(new LongKeyBlockReducer())
+        .distinct()
+        .setCombineHint(CombineHint.HASH);
   }
 }
@@ -0,0 +1,199 @@
+package org.mappinganalysis.model.functions.blocking.lsh.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.flink.api.common.functions.RichFlatMapFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.HashFamilyGroup;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LinkageTuple;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LshParameters;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compute the LSH keys for a bloom filter as primitive longs.
+ *
+ * The hash family index is stored in the upper 8 bits, the key bits of the
+ * family in the lower 56 bits. Families with more than 56 hash functions are
+ * folded with murmur3, collisions only add candidates. Keys without any set
+ * bit are skipped like in {@link BloomFilterLshBlocker}.
+ *
+ * Output is (key, vertex id). With multi-probe, each key is additionally
+ * emitted with one flipped bit as (probe key, ~vertex id), see
+ * {@link org.mappinganalysis.model.functions.blocking.lsh.LongKeyBlockReducer}.
+ */
+public class LshKeyCreator
+    extends RichFlatMapFunction<LinkageTuple, Tuple2<Long, Long>> {
+  private static final Logger LOG = Logger.getLogger(LshKeyCreator.class);
+  private static final long serialVersionUID = 1L;
+
+  public static final String BIT_FREQUENCIES = "bitFrequencies";
+  public static final String LSH_PARAMETERS = "lshParameters";
+  /**
+   * Returned by {@link #createKey} if no key bit is set, never a valid key.
+   */
+  public static final long NO_KEY = 0L;
+
+  private static final int FAMILY_SHIFT = 56;
+  private static final int MAX_FAMILIES = 1 << (Long.SIZE - FAMILY_SHIFT);
+  private static final long VALUE_MASK = (1L << FAMILY_SHIFT) - 1;
+
+  private final Integer[][] lshKeyPositions;
+  private final int pruningPortionBits;
+  private int[][] positions;
+  private boolean isMultiProbe = false;
+
+  /**
+   * Key positions and multi-probe setting are taken from the
+   * {@value #LSH_PARAMETERS} broadcast {@link LshParameters}.
+   */
+  public LshKeyCreator() {
+    this.lshKeyPositions = null;
+    this.pruningPortionBits = 0;
+  }
+
+  /**
+   * Key positions are used as given.
+   */
+  public LshKeyCreator(Integer[][] lshKeyPositions) {
+    this(lshKeyPositions, 0);
+  }
+
+  /**
+   * If pruningPortionBits is greater than 0, key positions are mapped to the
+   * infrequent bits of the {@value #BIT_FREQUENCIES} broadcast histogram.
+   */
+  public LshKeyCreator(Integer[][] lshKeyPositions, int pruningPortionBits) {
+    Preconditions.checkArgument(lshKeyPositions.length <= MAX_FAMILIES,
+        "Too many hash families: " + lshKeyPositions.length);
+    this.lshKeyPositions = lshKeyPositions;
+    this.pruningPortionBits = pruningPortionBits;
+  }
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+    if (lshKeyPositions == null) {
+      List<LshParameters> tuned = getRuntimeContext()
+          .getBroadcastVariable(LSH_PARAMETERS);
+      LshParameters lshParameters = tuned.get(0);
+      this.positions = toPrimitive(HashFamilyGroup.selectRandomPositions(
+          lshParameters.getNumberOfFamilies(),
+          lshParameters.getNumberOfHashesPerFamily(),
+          lshParameters.getValueRange()));
+      this.isMultiProbe = lshParameters.isMultiProbe()
+          && lshParameters.getNumberOfHashesPerFamily() <= FAMILY_SHIFT;
+    } else {
+      this.positions = toPrimitive(lshKeyPositions);
+    }
+
+    if (pruningPortionBits > 0) {
+      List<int[]> frequencies = getRuntimeContext()
+          .getBroadcastVariable(BIT_FREQUENCIES);
+      if (!frequencies.isEmpty()) {
+        mapToInfrequentBits(frequencies.get(0));
+      }
+    }
+  }
+
+  /**
+   * Select the key positions within the infrequent bits, all parallel
+   * instances get the same positions for the same histogram.
+   */
+  private void mapToInfrequentBits(int[] frequencies) {
+    int hashesPerFamily = positions.length == 0 ? 0 : positions[0].length;
+    int[] infrequentBits = BitFrequencyCounter.getInfrequentPositions(
+        frequencies, frequencies.length, pruningPortionBits);
+
+    if (infrequentBits.length < hashesPerFamily) {
+      LOG.warn("Only " + infrequentBits.length + " infrequent bits, keep key positions");
+      return;
+    }
+
+    Integer[][] selected = HashFamilyGroup.selectRandomPositions(
+        positions.length, hashesPerFamily, infrequentBits.length);
+    for (int family = 0; family < selected.length; family++) {
+      for (int i = 0; i < selected[family].length; i++) {
+        positions[family][i] = infrequentBits[selected[family][i]];
+      }
+    }
+  }
+
+  @Override
+  public void flatMap(LinkageTuple value, Collector<Tuple2<Long, Long>> out)
+      throws Exception {
+    final BitSet bitset = value.getBloomFilter().getBitset();
+
+    for (int family = 0; family < positions.length; family++) {
+      long key = createKey(bitset, positions[family], family);
+      if (key != NO_KEY) {
+        out.collect(new Tuple2<>(key, value.getId()));
+
+        if (isMultiProbe) {
+          for (int i = 0; i < positions[family].length; i++) {
+            long probeKey = key ^ (1L << i);
+            if ((probeKey & VALUE_MASK) != 0L) {
+              out.collect(new Tuple2<>(probeKey, ~value.getId()));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Create the packed key for a single hash family.
+   */
+  public static long createKey(BitSet bitset, int[] familyPositions, int family) {
+    long value;
+    if (familyPositions.length <= FAMILY_SHIFT) {
+      value = 0L;
+      for (int i = 0; i < familyPositions.length; i++) {
+        if (bitset.get(familyPositions[i])) {
+          value |= 1L << i;
+        }
+      }
+    } else {
+      boolean isEmpty = true;
+      long word = 0L;
+      Hasher hasher = Hashing.murmur3_128().newHasher();
+      for (int i = 0; i < familyPositions.length; i++) {
+        if (bitset.get(familyPositions[i])) {
+          word |= 1L << (i & 63);
+          isEmpty = false;
+        }
+        if ((i & 63) == 63) {
+          hasher.putLong(word);
+          word = 0L;
+        }
+      }
+      if (isEmpty) {
+        return NO_KEY;
+      }
+      value = hasher.putLong(word).hash().asLong() | 1L;
+    }
+
+    if (value == 0L) {
+      return NO_KEY;
+    }
+
+    return ((long) family << FAMILY_SHIFT) | (value & VALUE_MASK);
+  }
+
+  private static int[][] toPrimitive(Integer[][] positions) {
+    int[][] result = new int[positions.length][];
+    for (int i = 0; i < positions.length; i++) {
+      result[i] = new int[positions[i].length];
+      for (int j = 0; j < positions[i].length; j++) {
+        result[i][j] = positions[i][j];
+      }
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,303 @@
+package org.mappinganalysis.model.functions.blocking.lsh.utils;
+
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple1;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LinkageTuple;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LshParameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Choose LSH parameters on a sample of bloom filters.
+ *
+ * For bit sampling LSH with k hashes, two bloom filters get the same non empty
+ * key with probability q^k - z^k (q: share of equal bits, z: share of bits 0 in
+ * both), multi-probe (key distance at most 1) adds k * d/L * (q^(k-1) - z^(k-1)).
+ * True pairs are the sample pairs with trigram cosine similarity at least the
+ * target similarity plus, for each sampled bloom filter, a pair of its size
+ * exactly at the target similarity. Random pairs are all sample pairs.
+ *
+ * The cheapest setting which reaches the target recall on the true pairs is
+ * chosen, cost is the estimated candidate count for all vertices plus the
+ * number of emitted key records. If no setting reaches the target recall, the
+ * one with the highest recall is used. Recall, candidates and key records grow
+ * with the number of families, so per hash count only the smallest family count
+ * reaching the target recall is evaluated on the random pairs.
+ *
+ * The value range is the bloom filter size of all vertices ({@value #VALUE_RANGE}
+ * broadcast), not only of the sample, key positions are chosen from this range.
+ */
+public class LshParameterTuner
+    extends RichGroupReduceFunction<LinkageTuple, LshParameters> {
+  private static final Logger LOG = Logger.getLogger(LshParameterTuner.class);
+  private static final long serialVersionUID = 1L;
+
+  public static final String VERTEX_COUNT = "vertexCount";
+  public static final String VALUE_RANGE = "valueRange";
+
+  private static final int MAX_HASHES_PER_FAMILY = 56;
+  private static final int MAX_FAMILIES = 100;
+  private static final int MIN_VALUE_RANGE = 64;
+
+  private final double targetSimilarity;
+  private final double targetRecall;
+  private final boolean isMultiProbeEnabled;
+  private long vertexCount;
+  private int bloomFilterSize;
+
+  private double estimatedRecall;
+  private double estimatedCandidates;
+  private double estimatedCost;
+
+  /**
+   * @param targetSimilarity min cosine trigram similarity of true pairs
+   * @param targetRecall share of true pairs which should become candidates
+   * @param isMultiProbeEnabled allow multi-probe keys
+   */
+  public LshParameterTuner(double targetSimilarity,
+                           double targetRecall,
+                           boolean isMultiProbeEnabled) {
+    this.targetSimilarity = targetSimilarity;
+    this.targetRecall = targetRecall;
+    this.isMultiProbeEnabled = isMultiProbeEnabled;
+  }
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+    List<Tuple2<Integer, Long>> counts = getRuntimeContext()
+        .getBroadcastVariable(VERTEX_COUNT);
+    vertexCount = counts.isEmpty() ? 0L : counts.get(0).f1;
+    List<Tuple1<Integer>> sizes = getRuntimeContext()
+        .getBroadcastVariable(VALUE_RANGE);
+    bloomFilterSize = sizes.isEmpty() ? 0 : sizes.get(0).f0;
+  }
+
+  @Override
+  public void reduce(Iterable<LinkageTuple> values, Collector<LshParameters> out)
+      throws Exception {
+    List<BitSet> sample = new ArrayList<>();
+    int valueRange = Math.max(MIN_VALUE_RANGE, bloomFilterSize);
+    for (LinkageTuple value : values) {
+      BitSet bits = value.getBloomFilter().getBitset();
+      sample.add(bits);
+      valueRange = Math.max(valueRange, bits.length());
+    }
+
+    out.collect(tune(sample, valueRange, Math.max(vertexCount, sample.size())));
+  }
+
+  /**
+   * Evaluate all settings for the given sample.
+   */
+  public LshParameters tune(List<BitSet> sample, int valueRange, long totalCount) {
+    PairStatistics truePairs = new PairStatistics();
+    PairStatistics randomPairs = new PairStatistics();
+
+    for (int i = 0; i < sample.size(); i++) {
+      BitSet left = sample.get(i);
+      int leftSize = left.cardinality();
+      if (leftSize == 0) {
+        continue;
+      }
+      int sharedAtTarget = (int) Math.ceil(targetSimilarity * leftSize);
+      truePairs.add(2 * (leftSize - sharedAtTarget), 2 * leftSize - sharedAtTarget, valueRange);
+
+      for (int j = i + 1; j < sample.size(); j++) {
+        BitSet right = sample.get(j);
+        int rightSize = right.cardinality();
+        if (rightSize == 0) {
+          continue;
+        }
+        BitSet shared = (BitSet) left.clone();
+        shared.and(right);
+        int sharedSize = shared.cardinality();
+
+        int distance = leftSize + rightSize - 2 * sharedSize;
+        int union = leftSize + rightSize - sharedSize;
+        randomPairs.add(distance, union, valueRange);
+        if (sharedSize / Math.sqrt((double) leftSize * rightSize) >= targetSimilarity) {
+          truePairs.add(distance, union, valueRange);
+        }
+      }
+    }
+
+    if (truePairs.size == 0 || randomPairs.size == 0) {
+      LOG.info("LSH tuning sample too small, use defaults");
+      estimatedRecall = 0d;
+      estimatedCandidates = 0d;
+      estimatedCost = Double.MAX_VALUE;
+      return new LshParameters(3200, 15, 15, false);
+    }
+
+    double pairCount = (double) totalCount * (totalCount - 1) / 2;
+    LshParameters best = null;
+    double bestCost = Double.MAX_VALUE;
+    double bestRecall = -1d;
+    double bestCandidates = 0d;
+
+    for (int probe = 0; probe <= (isMultiProbeEnabled ? 1 : 0); probe++) {
+      boolean isMultiProbe = probe == 1;
+      for (int hashes = 1; hashes <= MAX_HASHES_PER_FAMILY; hashes++) {
+        double[] trueMisses = truePairs.familyMisses(hashes, isMultiProbe);
+        int families = getMinFamilies(trueMisses);
+        double recall = getHitShare(trueMisses, families);
+        double keyCost = (double) totalCount * families * (isMultiProbe ? hashes + 1 : 1);
+
+        boolean isReached = recall >= targetRecall;
+        boolean isBestReached = bestRecall >= targetRecall;
+        boolean isCostDecisive = isReached ? isBestReached : recall == bestRecall;
+        if (!isReached && (isBestReached || recall < bestRecall)
+            || isCostDecisive && keyCost >= bestCost) {
+          continue;
+        }
+
+        double candidates = pairCount
+            * getHitShare(randomPairs.familyMisses(hashes, isMultiProbe), families);
+        double cost = candidates + keyCost;
+        if (!isCostDecisive || cost < bestCost) {
+          best = new LshParameters(valueRange, families, hashes, isMultiProbe);
+          bestCost = cost;
+          bestRecall = recall;
+          bestCandidates = candidates;
+        }
+      }
+    }
+
+    LOG.info("LSH tuning: " + best + " est. recall: " + bestRecall
+        + " est. cost: " + bestCost);
+    estimatedRecall = bestRecall;
+    estimatedCandidates = bestCandidates;
+    estimatedCost = bestCost;
+
+    return best;
+  }
+
+  /**
+   * Estimated recall of the last chosen setting.
+   */
+  public double getEstimatedRecall() {
+    return estimatedRecall;
+  }
+
+  /**
+   * Estimated candidate pairs of the last chosen setting for all vertices.
+   */
+  public double getEstimatedCandidates() {
+    return estimatedCandidates;
+  }
+
+  /**
+   * Estimated cost (candidates and key records) of the last chosen setting.
+   */
+  public double getEstimatedCost() {
+    return estimatedCost;
+  }
+
+  /**
+   * Estimated share of the given sample pairs which become candidates with the
+   * given parameters, for true pairs which are not defined by the trigram cosine.
+   * @param pairs sample index pairs
+   * @return estimated recall, 1 for no pairs
+   */
+  public static double getRecall(List<BitSet> sample, List<int[]> pairs,
+                                 LshParameters parameters) {
+    if (pairs.isEmpty()) {
+      return 1d;
+    }
+    PairStatistics statistics = new PairStatistics();
+    for (int[] pair : pairs) {
+      BitSet left = sample.get(pair[0]);
+      BitSet right = sample.get(pair[1]);
+      BitSet shared = (BitSet) left.clone();
+      shared.and(right);
+      int leftSize = left.cardinality();
+      int rightSize = right.cardinality();
+      int sharedSize = shared.cardinality();
+
+      statistics.add(leftSize + rightSize - 2 * sharedSize,
+          leftSize + rightSize - sharedSize,
+          parameters.getValueRange());
+    }
+
+    return getHitShare(statistics.familyMisses(
+        parameters.getNumberOfHashesPerFamily(), parameters.isMultiProbe()),
+        parameters.getNumberOfFamilies());
+  }
+
+  /**
+   * Smallest number of families reaching the target recall, max families if
+   * the target recall is not reachable. Recall grows with the family count.
+   */
+  private int getMinFamilies(double[] trueMisses) {
+    int low = 1;
+    int high = MAX_FAMILIES;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (getHitShare(trueMisses, middle) >= targetRecall) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Share of pairs which become candidates in at least one of the families.
+   */
+  private static double getHitShare(double[] familyMisses, int families) {
+    double misses = 0d;
+    for (double miss : familyMisses) {
+      misses += Math.pow(miss, families);
+    }
+
+    return 1d - misses / familyMisses.length;
+  }
+
+  /**
+   * Per pair share of differing bits and of bits 0 in both bloom filters.
+   */
+  private static class PairStatistics {
+    private double[] different = new double[64];
+    private double[] bothZero = new double[64];
+    private int size = 0;
+
+    void add(int distance, int union, int valueRange) {
+      if (size == different.length) {
+        different = Arrays.copyOf(different, size * 2);
+        bothZero = Arrays.copyOf(bothZero, size * 2);
+      }
+      different[size] = (double) distance / valueRange;
+      bothZero[size] = 1d - (double) union / valueRange;
+      ++size;
+    }
+
+    /**
+     * Probability that a single family with the given number of hashes does
+     * not create the pair as candidate.
+     */
+    double[] familyMisses(int hashes, boolean isMultiProbe) {
+      double[] misses = new double[size];
+      for (int i = 0; i < size; i++) {
+        double equal = 1d - different[i];
+        double hit = Math.pow(equal, hashes) - Math.pow(bothZero[i], hashes);
+        if (isMultiProbe) {
+          hit += hashes * different[i]
+              * (Math.pow(equal, hashes - 1) - Math.pow(bothZero[i], hashes - 1));
+        }
+        misses[i] = 1d - Math.min(1d, Math.max(0d, hit));
+      }
+
+      return misses;
+    }
+  }
+}
@@ -0,0 +1,421 @@
+package org.mappinganalysis.model.functions.blocking.planner;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.common.accumulators.DoubleCounter;
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.graph.SimilarityFunction;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+import org.mappinganalysis.model.functions.blocking.lsh.structure.LshParameters;
+import org.mappinganalysis.model.functions.blocking.lsh.utils.LshParameterTuner;
+import org.mappinganalysis.model.functions.blocking.prefixfiltering.PrefixTokenCreator;
+import org.mappinganalysis.model.functions.blocking.prefixfiltering.TrigramTokenExtractor;
+import org.mappinganalysis.model.functions.blocking.tfidf.IdfBlockingOperation;
+import org.mappinganalysis.model.functions.merge.MergeMusicSimilarity;
+import org.mappinganalysis.model.functions.merge.MergeNcSimilarity;
+import org.mappinganalysis.util.AbstractionUtils;
+import org.mappinganalysis.util.Constants;
+import org.mappinganalysis.util.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+/**
+ * Estimate candidate pairs, recall and cost of the blocking strategies on a
+ * sample of merge tuples.
+ *
+ * True pairs are the sample pairs without source overlap whose merge similarity
+ * (domain similarity function like in the merge step) is at least the merge
+ * threshold.
+ * Candidate pairs of the sample are scaled by n * (n - 1) / (s * (s - 1)).
+ * - standard blocking: equal blocking key, the biggest block is processed by
+ * a single worker, its pairs times parallelism are a lower bound for the cost
+ * - block split: candidates like standard blocking, additional records for
+ * block enumeration and replication instead of the skew penalty
+ * - sorted neighborhood: records between two tuples are estimated from the
+ * sampled records between them
+ * - LSH: {@link LshParameterTuner} on bit sets of a sample trigram dictionary,
+ * recall of the tuned parameters is estimated on the true pairs
+ * - idf blocking: tuples sharing at least support high idf words (idf from
+ * the sample), tuples with less high idf words fall back to standard blocking
+ * - prefix filtering: tuples sharing a prefix trigram (order by sample
+ * frequency) for the prefix filtering threshold and passing the length filter,
+ * only estimated if the threshold is configured
+ *
+ * Estimations are added to accumulators per strategy
+ * ({@value Constants#BLOCKING_PLANNER_CANDIDATES_ACCUMULATOR},
+ * {@value Constants#BLOCKING_PLANNER_RECALL_ACCUMULATOR}).
+ */
+public class BlockingCostEstimator
+    extends RichGroupReduceFunction<MergeTuple, BlockingEstimate> {
+  private static final Logger LOG = Logger.getLogger(BlockingCostEstimator.class);
+  private static final long serialVersionUID = 1L;
+
+  public static final String VERTEX_COUNT = "vertexCount";
+
+  /**
+   * Block split needs block sizes, enumeration and replication of each record.
+   */
+  private static final int BLOCK_SPLIT_RECORD_OVERHEAD = 3;
+  private static final Set<String> STOP_WORDS
+      = Sets.newHashSet(IdfBlockingOperation.STOP_WORDS);
+
+  private final DataDomain domain;
+  private final int blockingLength;
+  private final int windowSize;
+  private final String metric;
+  private final double mergeThreshold;
+  private final double prefixThreshold;
+  private final double recallTarget;
+  private final int idfSupport;
+  private final boolean isLshMultiProbeEnabled;
+  private final int parallelism;
+  private long vertexCount;
+
+  /**
+   * @param metric string metric of the merge similarity
+   * @param mergeThreshold min merge similarity of true pairs
+   * @param prefixThreshold min trigram set cosine for prefix filtering, 0 if
+   *                        not configured
+   * @param recallTarget target recall for LSH parameter tuning
+   * @param parallelism number of workers sharing the blocks
+   */
+  public BlockingCostEstimator(DataDomain domain,
+                               String metric,
+                               int blockingLength,
+                               int windowSize,
+                               double mergeThreshold,
+                               double prefixThreshold,
+                               double recallTarget,
+                               int idfSupport,
+                               boolean isLshMultiProbeEnabled,
+                               int parallelism) {
+    this.domain = domain;
+    this.blockingLength = blockingLength;
+    this.windowSize = windowSize;
+    this.metric = metric;
+    this.mergeThreshold = mergeThreshold;
+    this.prefixThreshold = prefixThreshold;
+    this.recallTarget = recallTarget;
+    this.idfSupport = idfSupport;
+    this.isLshMultiProbeEnabled = isLshMultiProbeEnabled;
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+    List<Tuple2<Integer, Long>> counts = getRuntimeContext()
+        .getBroadcastVariable(VERTEX_COUNT);
+    vertexCount = counts.isEmpty() ? 0L : counts.get(0).f1;
+  }
+
+  @Override
+  public void reduce(Iterable<MergeTuple> values, Collector<BlockingEstimate> out)
+      throws Exception {
+    for (BlockingEstimate estimate : estimate(Lists.newArrayList(values), vertexCount)) {
+      LongCounter candidates = new LongCounter();
+      candidates.add(Math.round(estimate.getCandidates()));
+      getRuntimeContext().addAccumulator(
+          Constants.BLOCKING_PLANNER_CANDIDATES_ACCUMULATOR + estimate.f0, candidates);
+      DoubleCounter recall = new DoubleCounter();
+      recall.add(estimate.getRecall());
+      getRuntimeContext().addAccumulator(
+          Constants.BLOCKING_PLANNER_RECALL_ACCUMULATOR + estimate.f0, recall);
+
+      out.collect(estimate);
+    }
+  }
+
+  /**
+   * Estimate all strategies on the sample.
+   * @param totalCount number of tuples in the complete input
+   * @return estimations, empty if the sample is too small
+   */
+  public List<BlockingEstimate> estimate(List<MergeTuple> sample, long totalCount)
+      throws Exception {
+    int size = sample.size();
+    if (size < 2) {
+      LOG.info("Blocking planner sample too small: " + size);
+      return Collections.emptyList();
+    }
+    long total = Math.max(totalCount, size);
+    double pairScale = (double) total * (total - 1) / ((double) size * (size - 1));
+    double recordScale = (double) total / size;
+
+    List<Set<String>> trigrams = new ArrayList<>(size);
+    List<List<String>> words = new ArrayList<>(size);
+    String[] keys = new String[size];
+    String[] sortKeys = new String[size];
+    HashMap<String, Integer> trigramFrequencies = Maps.newHashMap();
+    HashMap<String, Integer> wordFrequencies = Maps.newHashMap();
+    HashMap<String, Integer> blockSizes = Maps.newHashMap();
+
+    for (int i = 0; i < size; i++) {
+      MergeTuple tuple = sample.get(i);
+      trigrams.add(TrigramTokenExtractor.getTrigrams(tuple));
+      words.add(getWords(tuple.getArtistTitleAlbum()));
+      keys[i] = getStandardBlockingKey(tuple);
+      sortKeys[i] = getSortKey(tuple);
+
+      for (String trigram : trigrams.get(i)) {
+        trigramFrequencies.merge(trigram, 1, Integer::sum);
+      }
+      for (String word : words.get(i)) {
+        wordFrequencies.merge(word, 1, Integer::sum);
+      }
+      blockSizes.merge(keys[i], 1, Integer::sum);
+    }
+
+    // rare trigrams / words (high idf) first
+    List<Set<String>> prefixes = new ArrayList<>(size);
+    List<Set<String>> highIdfWords = new ArrayList<>(size);
+    double prefixTokens = 0d;
+    double highIdfTokens = 0d;
+    for (int i = 0; i < size; i++) {
+      List<String> orderedTrigrams = new ArrayList<>(trigrams.get(i));
+      orderedTrigrams.sort(getFrequencyOrder(trigramFrequencies));
+      int prefixLength = orderedTrigrams.isEmpty()
+          ? 0
+          : PrefixTokenCreator.getPrefixLength(orderedTrigrams.size(), prefixThreshold);
+      prefixes.add(new HashSet<>(orderedTrigrams.subList(0, prefixLength)));
+      prefixTokens += prefixLength;
+
+      List<String> orderedWords = words.get(i);
+      orderedWords.sort(getFrequencyOrder(wordFrequencies));
+      int limit = Math.max(2, (int) Math.ceil((double) orderedWords.size() / 2));
+      highIdfWords.add(new HashSet<>(
+          orderedWords.subList(0, Math.min(limit, orderedWords.size()))));
+      highIdfTokens += highIdfWords.get(i).size();
+    }
+
+    // sorted neighborhood ranks
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator
+        .<Integer, String>comparing(index -> sortKeys[index])
+        .thenComparing(index -> sample.get(index).getId()));
+    int[] ranks = new int[size];
+    for (int rank = 0; rank < size; rank++) {
+      ranks[order[rank]] = rank;
+    }
+    double maxSampleGap = (windowSize - 1) / recordScale;
+
+    SimilarityFunction<MergeMusicTriplet, MergeMusicTriplet> similarity
+        = createSimilarityFunction();
+    List<int[]> truePairIndexes = new ArrayList<>();
+    long truePairs = 0L;
+    PairCounter standard = new PairCounter();
+    PairCounter sortedNeighborhood = new PairCounter();
+    PairCounter idf = new PairCounter();
+    PairCounter prefix = new PairCounter();
+
+    for (int i = 0; i < size; i++) {
+      Integer leftSources = sample.get(i).getIntSources();
+      for (int j = i + 1; j < size; j++) {
+        if (AbstractionUtils.hasOverlap(leftSources, sample.get(j).getIntSources())) {
+          continue;
+        }
+        boolean isTrue = similarity
+            .map(new MergeMusicTriplet(sample.get(i), sample.get(j)))
+            .getSimilarity() >= mergeThreshold;
+        if (isTrue) {
+          ++truePairs;
+          truePairIndexes.add(new int[] {i, j});
+        }
+
+        boolean isStandard = keys[i].equals(keys[j]);
+        standard.add(isStandard, isTrue);
+
+        sortedNeighborhood.add(Math.abs(ranks[i] - ranks[j]) - 1 < maxSampleGap, isTrue);
+
+        boolean isIdf = Sets.intersection(highIdfWords.get(i), highIdfWords.get(j))
+            .size() >= idfSupport
+            || isStandard
+            && highIdfWords.get(i).size() < idfSupport
+            && highIdfWords.get(j).size() < idfSupport;
+        idf.add(isIdf, isTrue);
+
+        int leftSize = trigrams.get(i).size();
+        int rightSize = trigrams.get(j).size();
+        boolean isPrefix = leftSize > 0 && rightSize > 0
+            && Math.min(leftSize, rightSize)
+            >= PrefixTokenCreator.getMinSize(Math.max(leftSize, rightSize), prefixThreshold)
+            && !Collections.disjoint(prefixes.get(i), prefixes.get(j));
+        prefix.add(isPrefix, isTrue);
+      }
+    }
+
+    List<BlockingEstimate> result = Lists.newArrayList();
+
+    double standardCandidates = standard.candidates * pairScale;
+    double biggestBlock = Collections.max(blockSizes.values()) * recordScale;
+    double biggestBlockPairs = biggestBlock * (biggestBlock - 1) / 2;
+    double standardRecall = standard.getRecall(truePairs);
+    result.add(new BlockingEstimate(BlockingStrategy.STANDARD_BLOCKING,
+        standardCandidates,
+        standardRecall,
+        total + Math.max(standardCandidates, parallelism * biggestBlockPairs)));
+    result.add(new BlockingEstimate(BlockingStrategy.BLOCK_SPLIT,
+        standardCandidates,
+        standardRecall,
+        (1 + BLOCK_SPLIT_RECORD_OVERHEAD) * total + standardCandidates));
+
+    double windowCandidates = Math.min((double) total * (windowSize - 1),
+        (double) total * (total - 1) / 2);
+    result.add(new BlockingEstimate(BlockingStrategy.SORTED_NEIGHBORHOOD,
+        windowCandidates,
+        sortedNeighborhood.getRecall(truePairs),
+        total + windowCandidates));
+
+    result.add(estimateLsh(trigrams, truePairIndexes, total));
+
+    double idfCandidates = idf.candidates * pairScale;
+    result.add(new BlockingEstimate(BlockingStrategy.IDF_BLOCKING,
+        idfCandidates,
+        idf.getRecall(truePairs),
+        total * (highIdfTokens / size + 1) + idfCandidates));
+
+    if (prefixThreshold > 0) {
+      double prefixCandidates = prefix.candidates * pairScale;
+      result.add(new BlockingEstimate(BlockingStrategy.PREFIX_FILTERING,
+          prefixCandidates,
+          prefix.getRecall(truePairs),
+          total * (prefixTokens / size + 1) + prefixCandidates));
+    }
+
+    LOG.info("Blocking planner sample: " + size + " of " + total
+        + " tuples, true pairs: " + truePairs);
+
+    return result;
+  }
+
+  /**
+   * Bit set per tuple based on a trigram dictionary of the sample, parameters
+   * are tuned for the merge threshold like in the merge step.
+   */
+  private BlockingEstimate estimateLsh(List<Set<String>> trigrams,
+                                       List<int[]> truePairIndexes,
+                                       long total) {
+    HashMap<String, Integer> dictionary = Maps.newHashMap();
+    List<BitSet> bitSets = new ArrayList<>(trigrams.size());
+    for (Set<String> tupleTrigrams : trigrams) {
+      BitSet bits = new BitSet();
+      for (String trigram : tupleTrigrams) {
+        bits.set(dictionary.computeIfAbsent(trigram, key -> dictionary.size()));
+      }
+      bitSets.add(bits);
+    }
+
+    LshParameterTuner tuner = new LshParameterTuner(
+        mergeThreshold, recallTarget, isLshMultiProbeEnabled);
+    LshParameters parameters = tuner.tune(bitSets, Math.max(1, dictionary.size()), total);
+
+    return new BlockingEstimate(BlockingStrategy.LSH_BLOCKING,
+        tuner.getEstimatedCandidates(),
+        LshParameterTuner.getRecall(bitSets, truePairIndexes, parameters),
+        tuner.getEstimatedCost());
+  }
+
+  /**
+   * Merge similarity of the domain, string comparisons are skipped for pairs
+   * which can not reach the merge threshold.
+   */
+  private SimilarityFunction<MergeMusicTriplet, MergeMusicTriplet> createSimilarityFunction() {
+    if (domain == DataDomain.MUSIC) {
+      return new MergeMusicSimilarity(metric, mergeThreshold);
+    } else if (domain == DataDomain.NC) {
+      return new MergeNcSimilarity(metric, mergeThreshold);
+    } else {
+      throw new IllegalArgumentException("Unsupported domain: " + domain);
+    }
+  }
+
+  /**
+   * Key like in {@link org.mappinganalysis.model.functions.merge.MergeTupleCreator}
+   * for standard blocking.
+   */
+  private String getStandardBlockingKey(MergeTuple tuple) {
+    if (domain == DataDomain.MUSIC) {
+      return Utils.getBlockingKey(BlockingStrategy.STANDARD_BLOCKING,
+          Constants.MUSIC, tuple.getArtistTitleAlbum(), blockingLength);
+    } else if (domain == DataDomain.NC) {
+      return Utils.getBlockingKey(BlockingStrategy.STANDARD_BLOCKING, Constants.NC,
+          Utils.getNcBlockingLabel(tuple.getArtist(), tuple.getLabel(), blockingLength),
+          blockingLength);
+    } else {
+      throw new IllegalArgumentException("Unsupported domain: " + domain);
+    }
+  }
+
+  private String getSortKey(MergeTuple tuple) {
+    return Utils.getBlockingKey(BlockingStrategy.SORTED_NEIGHBORHOOD,
+        domain == DataDomain.NC ? Constants.NC : Constants.MUSIC,
+        tuple.getArtistTitleAlbum(),
+        blockingLength);
+  }
+
+  /**
+   * Distinct words like in idf blocking, stop words and single chars are skipped.
+   */
+  private static List<String> getWords(String value) {
+    Set<String> result = Sets.newLinkedHashSet();
+    if (value == null) {
+      return new ArrayList<>(result);
+    }
+    StringTokenizer tokenizer = new StringTokenizer(value);
+    while (tokenizer.hasMoreTokens()) {
+      String word = tokenizer.nextToken().toLowerCase();
+      if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+        result.add(word);
+      }
+    }
+
+    return new ArrayList<>(result);
+  }
+
+  private static Comparator<String> getFrequencyOrder(HashMap<String, Integer> frequencies) {
+    return Comparator.<String>comparingInt(frequencies::get)
+        .thenComparing(Comparator.naturalOrder());
+  }
+
+  /**
+   * Sample candidate pairs and found true pairs of a strategy.
+   */
+  private static class PairCounter {
+    private long candidates = 0L;
+    private long foundTruePairs = 0L;
+
+    void add(boolean isCandidate, boolean isTrue) {
+      if (isCandidate) {
+        ++candidates;
+        if (isTrue) {
+          ++foundTruePairs;
+        }
+      }
+    }
+
+    double getRecall(long truePairs) {
+      return truePairs == 0L ? 1d : (double) foundTruePairs / truePairs;
+    }
+  }
+}
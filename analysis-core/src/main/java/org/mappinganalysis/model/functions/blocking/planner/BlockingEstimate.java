@@ -0,0 +1,42 @@
+package org.mappinganalysis.model.functions.blocking.planner;
+
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+
+/**
+ * Estimation for a single blocking strategy: strategy name, candidate pairs,
+ * recall and cost for the complete input.
+ */
+public class BlockingEstimate extends Tuple4<String, Double, Double, Double> {
+  public BlockingEstimate() {
+  }
+
+  public BlockingEstimate(BlockingStrategy strategy,
+                          double candidates,
+                          double recall,
+                          double cost) {
+    super(strategy.name(), candidates, recall, cost);
+  }
+
+  public BlockingStrategy getStrategy() {
+    return BlockingStrategy.valueOf(f0);
+  }
+
+  public double getCandidates() {
+    return f1;
+  }
+
+  public double getRecall() {
+    return f2;
+  }
+
+  public double getCost() {
+    return f3;
+  }
+
+  @Override
+  public String toString() {
+    return f0 + " est. candidates: " + Math.round(f1)
+        + " est. recall: " + f2 + " est. cost: " + Math.round(f3);
+  }
+}
@@ -0,0 +1,133 @@
+package org.mappinganalysis.model.functions.blocking.planner;
+
+import com.google.common.base.Preconditions;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.utils.DataSetUtils;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+
+import java.util.List;
+
+/**
+ * Choose the blocking strategy for the merge step before the job is built.
+ *
+ * Candidate pairs, recall and cost of each strategy are estimated by
+ * {@link BlockingCostEstimator} on a sample of the merge tuples, true pairs
+ * are defined by the merge similarity and merge threshold of the merge step.
+ * The cheapest strategy which reaches the recall target is chosen, if no
+ * strategy reaches it, the one with the highest recall.
+ */
+public class BlockingStrategyPlanner {
+  private static final Logger LOG = Logger.getLogger(BlockingStrategyPlanner.class);
+  private static final long SAMPLE_SEED = 42L;
+
+  private final DataDomain domain;
+  private final int blockingLength;
+  private final int windowSize;
+  private final String metric;
+  private final double mergeThreshold;
+  private final double prefixThreshold;
+  private final double recallTarget;
+  private final int sampleSize;
+  private final int idfSupport;
+  private final boolean isLshMultiProbeEnabled;
+  private final int parallelism;
+
+  /**
+   * @param metric string metric of the merge similarity
+   * @param mergeThreshold merge threshold of the merge step, min merge
+   *                       similarity of true pairs
+   * @param prefixThreshold prefix filtering threshold of the merge step, 0 if
+   *                        not configured, prefix filtering is not planned then
+   * @param recallTarget share of true pairs which should become candidates
+   * @param sampleSize number of sampled merge tuples
+   * @param parallelism job parallelism, values below 1 are treated as 1
+   */
+  public BlockingStrategyPlanner(DataDomain domain,
+                                 String metric,
+                                 int blockingLength,
+                                 int windowSize,
+                                 double mergeThreshold,
+                                 double prefixThreshold,
+                                 double recallTarget,
+                                 int sampleSize,
+                                 int idfSupport,
+                                 boolean isLshMultiProbeEnabled,
+                                 int parallelism) {
+    Preconditions.checkArgument(domain == DataDomain.MUSIC || domain == DataDomain.NC,
+        "Unsupported domain: " + domain);
+    Preconditions.checkArgument(sampleSize > 1, "Unsupported sample size: " + sampleSize);
+    this.domain = domain;
+    this.blockingLength = blockingLength;
+    this.windowSize = windowSize;
+    this.metric = metric;
+    this.mergeThreshold = mergeThreshold;
+    this.prefixThreshold = prefixThreshold;
+    this.recallTarget = recallTarget;
+    this.sampleSize = sampleSize;
+    this.idfSupport = idfSupport;
+    this.isLshMultiProbeEnabled = isLshMultiProbeEnabled;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Estimate all strategies on a sample of the tuples and choose one.
+   *
+   * This executes an additional Flink job (collect) before the merge job is
+   * built: sample and count share one evaluation of the pipeline producing the
+   * tuples, the merge job evaluates this pipeline again. Pass materialized
+   * tuples (e.g. read from a file) if this pipeline is expensive. The
+   * estimation itself runs in a single task and compares all sample pairs
+   * (quadratic in the sample size) and tunes the LSH parameters, keep the
+   * sample size small.
+   */
+  public BlockingStrategy plan(DataSet<MergeTuple> tuples) {
+    DataSet<BlockingEstimate> estimates = DataSetUtils
+        .sampleWithSize(tuples, false, sampleSize, SAMPLE_SEED)
+        .reduceGroup(createEstimator())
+        .withBroadcastSet(DataSetUtils.countElementsPerPartition(tuples).sum(1),
+            BlockingCostEstimator.VERTEX_COUNT);
+
+    try {
+      return choose(estimates.collect());
+    } catch (Exception e) {
+      throw new IllegalStateException("Blocking strategy planning failed", e);
+    }
+  }
+
+  BlockingCostEstimator createEstimator() {
+    return new BlockingCostEstimator(domain, metric, blockingLength, windowSize,
+        mergeThreshold, prefixThreshold, recallTarget, idfSupport,
+        isLshMultiProbeEnabled, parallelism);
+  }
+
+  /**
+   * Cheapest strategy reaching the recall target, block split if there are no estimations.
+   */
+  public BlockingStrategy choose(List<BlockingEstimate> estimates) {
+    BlockingEstimate best = null;
+    for (BlockingEstimate estimate : estimates) {
+      LOG.info("Blocking planner: " + estimate);
+      boolean isReached = estimate.getRecall() >= recallTarget;
+      boolean isBestReached = best != null && best.getRecall() >= recallTarget;
+      if (best == null
+          || isReached && (!isBestReached || estimate.getCost() < best.getCost())
+          || !isReached && !isBestReached
+          && (estimate.getRecall() > best.getRecall()
+          || estimate.getRecall() == best.getRecall() && estimate.getCost() < best.getCost())) {
+        best = estimate;
+      }
+    }
+
+    if (best == null) {
+      LOG.info("Blocking planner without estimations, use " + BlockingStrategy.BLOCK_SPLIT);
+      return BlockingStrategy.BLOCK_SPLIT;
+    }
+    LOG.info("Blocking planner chose " + best.getStrategy()
+        + (best.getRecall() >= recallTarget ? "" : ", recall target not reached"));
+
+    return best.getStrategy();
+  }
+}
@@ -0,0 +1,61 @@
+package org.mappinganalysis.model.functions.blocking.prefixfiltering;
+
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.mappinganalysis.util.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Create the candidate pairs of all tuples sharing a prefix trigram, input
+ * (trigram, id, number of trigrams) is sorted by number of trigrams. Pairs
+ * failing the length filter are skipped, output is (smaller id, bigger id).
+ */
+class PrefixCandidatePairCreator
+    extends RichGroupReduceFunction<Tuple3<String, Long, Integer>, Tuple2<Long, Long>> {
+  private static final long serialVersionUID = 1L;
+
+  private final double threshold;
+  private final LongCounter pairCounter = new LongCounter();
+
+  private long[] ids = new long[16];
+  private int[] sizes = new int[16];
+
+  PrefixCandidatePairCreator(double threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+    getRuntimeContext().addAccumulator(
+        Constants.PREFIX_FILTERING_PAIRS_ACCUMULATOR, pairCounter);
+  }
+
+  @Override
+  public void reduce(Iterable<Tuple3<String, Long, Integer>> values,
+                     Collector<Tuple2<Long, Long>> out) throws Exception {
+    int count = 0;
+    for (Tuple3<String, Long, Integer> value : values) {
+      double minSize = PrefixTokenCreator.getMinSize(value.f2, threshold);
+      for (int i = count - 1; i >= 0 && sizes[i] >= minSize; i--) {
+        pairCounter.add(1L);
+        out.collect(ids[i] < value.f1
+            ? new Tuple2<>(ids[i], value.f1)
+            : new Tuple2<>(value.f1, ids[i]));
+      }
+
+      if (count == ids.length) {
+        ids = Arrays.copyOf(ids, count * 2);
+        sizes = Arrays.copyOf(sizes, count * 2);
+      }
+      ids[count] = value.f1;
+      sizes[count] = value.f2;
+      ++count;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package org.mappinganalysis.model.functions.blocking.prefixfiltering;
+
+import com.google.common.base.Preconditions;
+import org.apache.flink.api.common.functions.JoinFunction;
+import org.apache.flink.api.common.operators.Order;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.operators.CustomUnaryOperation;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.graph.library.GSAConnectedComponents;
+import org.apache.flink.types.NullValue;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.functions.blocking.blocksplit.TripletCandidateRestrictor;
+import org.mappinganalysis.util.Constants;
+
+/**
+ * Blocking free candidate creation: exact similarity join on the trigram sets
+ * of the artist title album values with prefix filtering. Result are exactly
+ * the triplets with trigram set cosine similarity >= threshold.
+ *
+ * Trigrams are ordered by global document frequency (like the word statistics
+ * in the tf idf blocking), rare trigrams first. Only tuples sharing one of
+ * their prefix trigrams are candidate pairs, candidates are additionally
+ * length filtered and verified. Candidate pairs are counted in
+ * {@value Constants#PREFIX_FILTERING_PAIRS_ACCUMULATOR}.
+ *
+ * Like LSH blocking, the connected component id of the candidate graph is used
+ * as blocking label for the merge iteration.
+ *
+ * The join is exact for the trigram set cosine only, not for the merge: the
+ * merge compares the label values with the configured metric and averages
+ * several property similarities. The threshold has to be configured, recall
+ * for the merge is approximate. Low thresholds make (nearly) all trigrams
+ * prefix trigrams and the candidates (nearly) all pairs.
+ */
+public class PrefixFilteringTripletCreator
+    implements CustomUnaryOperation<MergeTuple, MergeMusicTriplet> {
+  private static final Logger LOG = Logger.getLogger(PrefixFilteringTripletCreator.class);
+
+  private DataSet<MergeTuple> inputTuples;
+  private final double threshold;
+  private final ExecutionEnvironment env;
+  private DataDomain dataDomain;
+  private String newSource = Constants.EMPTY_STRING;
+
+  /**
+   * Source based addition constructor
+   */
+  public PrefixFilteringTripletCreator(DataDomain dataDomain,
+                                       String newSource,
+                                       double threshold,
+                                       ExecutionEnvironment env) {
+    this(threshold, env);
+    this.dataDomain = dataDomain;
+    this.newSource = newSource;
+  }
+
+  /**
+   * Default constructor
+   * @param threshold min trigram set cosine similarity, greater than 0
+   */
+  public PrefixFilteringTripletCreator(double threshold, ExecutionEnvironment env) {
+    Preconditions.checkArgument(threshold > 0 && threshold <= 1,
+        "Unsupported threshold: " + threshold);
+    this.threshold = threshold;
+    this.env = env;
+  }
+
+  @Override
+  public void setInput(DataSet<MergeTuple> inputData) {
+    inputTuples = inputData;
+  }
+
+  @Override
+  public DataSet<MergeMusicTriplet> createResult() {
+    DataSet<Tuple2<Long, String>> trigrams = inputTuples
+        .flatMap(new TrigramTokenExtractor());
+
+    DataSet<Tuple2<String, Integer>> frequencies = trigrams
+        .map(trigram -> new Tuple2<>(trigram.f1, 1))
+        .returns(new TypeHint<Tuple2<String, Integer>>() {})
+        .groupBy(0)
+        .sum(1);
+
+    /* (prefix trigram, id, number of trigrams) */
+    DataSet<Tuple3<String, Long, Integer>> prefixTrigrams = trigrams
+        .join(frequencies)
+        .where(1).equalTo(0)
+        .with((trigram, frequency) -> new Tuple3<>(trigram.f0, trigram.f1, frequency.f1))
+        .returns(new TypeHint<Tuple3<Long, String, Integer>>() {})
+        .groupBy(0)
+        .reduceGroup(new PrefixTokenCreator(threshold));
+
+    DataSet<Tuple2<Long, Long>> candidates = prefixTrigrams
+        .groupBy(0)
+        .sortGroup(2, Order.ASCENDING)
+        .reduceGroup(new PrefixCandidatePairCreator(threshold))
+        .distinct();
+
+    DataSet<MergeMusicTriplet> triplets = candidates.join(inputTuples)
+        .where(0).equalTo(0)
+        .with(new JoinFunction<Tuple2<Long, Long>, MergeTuple,
+            Tuple2<MergeTuple, Long>>() {
+          @Override
+          public Tuple2<MergeTuple, Long> join(
+              Tuple2<Long, Long> left, MergeTuple right) throws Exception {
+            return new Tuple2<>(right, left.f1);
+          }
+        })
+        .join(inputTuples)
+        .where(1).equalTo(0)
+        .with(new TripletCandidateRestrictor(dataDomain, newSource))
+        .filter(new TrigramSetCosineFilter(threshold));
+
+    return triplets.join(createCcBlockingLabels(triplets))
+        .where(0)
+        .equalTo(0)
+        .with(new JoinFunction<MergeMusicTriplet, Vertex<Long, Long>, MergeMusicTriplet>() {
+          @Override
+          public MergeMusicTriplet join(MergeMusicTriplet triplet,
+                                        Vertex<Long, Long> vertex) throws Exception {
+            String label = vertex.getValue().toString();
+            triplet.setBlockingLabel(label);
+            triplet.getSrcTuple().setBlockingLabel(label);
+            triplet.getTrgTuple().setBlockingLabel(label);
+
+            return triplet;
+          }
+        });
+  }
+
+  /**
+   * Connected component id for each vertex of the verified triplets.
+   */
+  private DataSet<Vertex<Long, Long>> createCcBlockingLabels(
+      DataSet<MergeMusicTriplet> triplets) {
+    DataSet<Edge<Long, NullValue>> edges = triplets
+        .map(triplet -> new Edge<>(triplet.getSrcId(), triplet.getTrgId(),
+            NullValue.getInstance()))
+        .returns(new TypeHint<Edge<Long, NullValue>>() {});
+
+    DataSet<Vertex<Long, Long>> vertices = triplets
+        .flatMap((MergeMusicTriplet triplet, Collector<Vertex<Long, Long>> out) -> {
+          out.collect(new Vertex<>(triplet.getSrcId(), triplet.getSrcId()));
+          out.collect(new Vertex<>(triplet.getTrgId(), triplet.getTrgId()));
+        })
+        .returns(new TypeHint<Vertex<Long, Long>>() {})
+        .distinct(0);
+
+    try {
+      return Graph.fromDataSet(vertices, edges, env)
+          .run(new GSAConnectedComponents<>(Integer.MAX_VALUE));
+    } catch (Exception e) {
+      throw new IllegalStateException("Connected components failed for prefix filtering", e);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.mappinganalysis.model.functions.blocking.prefixfiltering;
+
+import org.apache.flink.api.common.functions.GroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.util.Collector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Select the prefix tokens of a tuple, input are the (id, trigram, frequency)
+ * tuples of a single id. Trigrams are ordered by global frequency (rare first)
+ * and trigram, output are (trigram, id, number of trigrams) for the prefix.
+ *
+ * Two trigram sets x, y with cosine >= t have an overlap of at least
+ * t * sqrt(|x| * |y|) >= t^2 * max(|x|, |y|), so the first
+ * |x| - ceil(t^2 * |x|) + 1 trigrams of both sets share a trigram.
+ */
+public class PrefixTokenCreator
+    implements GroupReduceFunction<Tuple3<Long, String, Integer>, Tuple3<String, Long, Integer>> {
+  private static final long serialVersionUID = 1L;
+  private static final double EPSILON = 0.000000001;
+
+  private static final Comparator<Tuple3<Long, String, Integer>> TOKEN_ORDER
+      = Comparator.<Tuple3<Long, String, Integer>>comparingInt(token -> token.f2)
+      .thenComparing(token -> token.f1);
+
+  private final double threshold;
+
+  PrefixTokenCreator(double threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void reduce(Iterable<Tuple3<Long, String, Integer>> values,
+                     Collector<Tuple3<String, Long, Integer>> out) throws Exception {
+    ArrayList<Tuple3<Long, String, Integer>> tokens = new ArrayList<>();
+    for (Tuple3<Long, String, Integer> value : values) {
+      tokens.add(value);
+    }
+    tokens.sort(TOKEN_ORDER);
+
+    int size = tokens.size();
+    for (int i = 0; i < getPrefixLength(size, threshold); i++) {
+      out.collect(new Tuple3<>(tokens.get(i).f1, tokens.get(i).f0, size));
+    }
+  }
+
+  /**
+   * Number of prefix tokens for a trigram set of the given size.
+   */
+  public static int getPrefixLength(int size, double threshold) {
+    int minOverlap = (int) Math.ceil(threshold * threshold * size - EPSILON);
+
+    return Math.min(size, Math.max(1, size - minOverlap + 1));
+  }
+
+  /**
+   * Min size of a trigram set which can reach the threshold with a set of the given size.
+   */
+  public static double getMinSize(int size, double threshold) {
+    return threshold * threshold * size - EPSILON;
+  }
+}
@@ -0,0 +1,43 @@
+package org.mappinganalysis.model.functions.blocking.prefixfiltering;
+
+import org.apache.flink.api.common.functions.FilterFunction;
+import org.mappinganalysis.model.MergeMusicTriplet;
+
+import java.util.Set;
+
+/**
+ * Verify candidate pairs, keep triplets whose trigram sets have a cosine
+ * similarity of at least the threshold.
+ */
+class TrigramSetCosineFilter implements FilterFunction<MergeMusicTriplet> {
+  private static final long serialVersionUID = 1L;
+
+  private final double threshold;
+
+  TrigramSetCosineFilter(double threshold) {
+    this.threshold = threshold;
+  }
+
+  @Override
+  public boolean filter(MergeMusicTriplet triplet) throws Exception {
+    Set<String> left = TrigramTokenExtractor.getTrigrams(triplet.getSrcTuple());
+    Set<String> right = TrigramTokenExtractor.getTrigrams(triplet.getTrgTuple());
+    if (left.isEmpty() || right.isEmpty()) {
+      return false;
+    }
+    if (left.size() > right.size()) {
+      Set<String> tmp = left;
+      left = right;
+      right = tmp;
+    }
+
+    int overlap = 0;
+    for (String trigram : left) {
+      if (right.contains(trigram)) {
+        ++overlap;
+      }
+    }
+
+    return overlap / Math.sqrt((double) left.size() * right.size()) >= threshold;
+  }
+}
@@ -0,0 +1,44 @@
+package org.mappinganalysis.model.functions.blocking.prefixfiltering;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.util.Collector;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.util.Utils;
+import org.simmetrics.tokenizers.Tokenizer;
+import org.simmetrics.tokenizers.Tokenizers;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Create (id, trigram) tuples for the distinct padded trigrams of the
+ * simplified artist title album value of a merge tuple.
+ */
+public class TrigramTokenExtractor
+    implements FlatMapFunction<MergeTuple, Tuple2<Long, String>> {
+  private static final Tokenizer TRIGRAM_TOKENIZER = Tokenizers.qGramWithPadding(3);
+
+  @Override
+  public void flatMap(MergeTuple tuple, Collector<Tuple2<Long, String>> out) throws Exception {
+    for (String trigram : getTrigrams(tuple)) {
+      out.collect(new Tuple2<>(tuple.getId(), trigram));
+    }
+  }
+
+  /**
+   * Get the trigram set used for the similarity join, empty for values which are not sane.
+   */
+  public static Set<String> getTrigrams(MergeTuple tuple) {
+    String value = tuple.getArtistTitleAlbum();
+    if (value == null || !Utils.isSane(value)) {
+      return Collections.emptySet();
+    }
+    String simplified = Utils.simplify(value);
+    if (simplified.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    return TRIGRAM_TOKENIZER.tokenizeToSet(simplified);
+  }
+}
@@ -0,0 +1,107 @@
+package org.mappinganalysis.model.functions.blocking.sortedneighborhood;
+
+import com.google.common.base.Preconditions;
+import org.apache.flink.api.common.functions.JoinFunction;
+import org.apache.flink.api.common.operators.Order;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.operators.CustomUnaryOperation;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.utils.DataSetUtils;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.functions.blocking.blocksplit.TripletCandidateRestrictor;
+import org.mappinganalysis.util.Constants;
+
+/**
+ * Sorted neighborhood blocking: tuples are range partitioned and sorted by
+ * blocking label (sort key), each tuple is compared with the (window size - 1)
+ * following tuples in global sort order, independent of the partition
+ * boundaries. Comparisons are bounded by n * (window size - 1).
+ *
+ * The global rank is split into buckets, the window predecessors of the first
+ * tuples in a bucket are replicated from the previous bucket. Created pairs
+ * are counted in {@value Constants#SORTED_NEIGHBORHOOD_PAIRS_ACCUMULATOR}.
+ */
+public class SortedNeighborhoodTripletCreator
+    implements CustomUnaryOperation<MergeTuple, MergeMusicTriplet> {
+  private static final Logger LOG = Logger.getLogger(SortedNeighborhoodTripletCreator.class);
+  private static final long MIN_BUCKET_SIZE = 1000L;
+
+  private DataSet<MergeTuple> inputTuples;
+  private final int windowSize;
+  private long bucketSize;
+  private DataDomain dataDomain;
+  private String newSource = Constants.EMPTY_STRING;
+
+  /**
+   * Source based addition constructor
+   */
+  public SortedNeighborhoodTripletCreator(DataDomain dataDomain,
+                                          String newSource,
+                                          int windowSize) {
+    this(windowSize);
+    this.dataDomain = dataDomain;
+    this.newSource = newSource;
+  }
+
+  /**
+   * Default constructor
+   * @param windowSize number of tuples in a window, at least 2
+   */
+  public SortedNeighborhoodTripletCreator(int windowSize) {
+    Preconditions.checkArgument(windowSize >= 2,
+        "Window size too small: " + windowSize);
+    this.windowSize = windowSize;
+    this.bucketSize = Math.max(windowSize - 1, MIN_BUCKET_SIZE);
+  }
+
+  /**
+   * Constructor with custom bucket size.
+   * @param windowSize number of tuples in a window, at least 2
+   * @param bucketSize number of ranks per pairing group, at least window size - 1
+   */
+  public SortedNeighborhoodTripletCreator(int windowSize, long bucketSize) {
+    this(windowSize);
+    Preconditions.checkArgument(bucketSize >= windowSize - 1,
+        "Bucket size too small: " + bucketSize);
+    this.bucketSize = bucketSize;
+  }
+
+  @Override
+  public void setInput(DataSet<MergeTuple> inputData) {
+    inputTuples = inputData;
+  }
+
+  @Override
+  public DataSet<MergeMusicTriplet> createResult() {
+    /* (id, sort key) in global order, partitions are ordered key ranges */
+    DataSet<Tuple2<Long, String>> sortedTuples = inputTuples
+        .<Tuple2<Long, String>>project(0, 10)
+        .partitionByRange(1)
+        .sortPartition(1, Order.ASCENDING)
+        .sortPartition(0, Order.ASCENDING);
+
+    DataSet<Tuple2<Long, Long>> tripletCandidates = DataSetUtils
+        .zipWithIndex(sortedTuples)
+        .flatMap(new WindowBucketAssigner(windowSize, bucketSize))
+        .groupBy(0)
+        .sortGroup(1, Order.ASCENDING)
+        .reduceGroup(new WindowPairCreator(windowSize, bucketSize));
+
+    return tripletCandidates.join(inputTuples)
+        .where(0).equalTo(0)
+        .with(new JoinFunction<Tuple2<Long, Long>, MergeTuple,
+            Tuple2<MergeTuple, Long>>() {
+          @Override
+          public Tuple2<MergeTuple, Long> join(
+              Tuple2<Long, Long> left, MergeTuple right) throws Exception {
+            return new Tuple2<>(right, left.f1);
+          }
+        })
+        .join(inputTuples)
+        .where(1).equalTo(0)
+        .with(new TripletCandidateRestrictor(dataDomain, newSource));
+  }
+}
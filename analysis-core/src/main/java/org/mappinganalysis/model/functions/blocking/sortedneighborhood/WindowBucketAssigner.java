@@ -0,0 +1,44 @@
+package org.mappinganalysis.model.functions.blocking.sortedneighborhood;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.util.Collector;
+
+/**
+ * Assign a ranked tuple to the bucket of its rank. The last (window size - 1)
+ * tuples of a bucket are additionally sent to the following bucket, there
+ * they are the window predecessors of the first tuples.
+ *
+ * Output is (bucket, rank, id).
+ */
+class WindowBucketAssigner
+    implements FlatMapFunction<Tuple2<Long, Tuple2<Long, String>>,
+    Tuple3<Long, Long, Long>> {
+  private static final long serialVersionUID = 1L;
+
+  private final int windowSize;
+  private final long bucketSize;
+
+  /**
+   * @param windowSize number of tuples in a window
+   * @param bucketSize number of ranks per bucket, at least window size - 1
+   */
+  WindowBucketAssigner(int windowSize, long bucketSize) {
+    this.windowSize = windowSize;
+    this.bucketSize = bucketSize;
+  }
+
+  @Override
+  public void flatMap(Tuple2<Long, Tuple2<Long, String>> rankedTuple,
+                      Collector<Tuple3<Long, Long, Long>> out) throws Exception {
+    long rank = rankedTuple.f0;
+    long id = rankedTuple.f1.f0;
+    long bucket = rank / bucketSize;
+
+    out.collect(new Tuple3<>(bucket, rank, id));
+    if (rank % bucketSize >= bucketSize - (windowSize - 1)) {
+      out.collect(new Tuple3<>(bucket + 1, rank, id));
+    }
+  }
+}
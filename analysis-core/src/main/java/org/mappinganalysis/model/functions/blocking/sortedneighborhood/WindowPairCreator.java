@@ -0,0 +1,72 @@
+package org.mappinganalysis.model.functions.blocking.sortedneighborhood;
+
+import org.apache.flink.api.common.accumulators.LongCounter;
+import org.apache.flink.api.common.functions.RichGroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
+import org.mappinganalysis.util.Constants;
+
+/**
+ * Create the window pairs of one bucket, input group is sorted by rank, see
+ * {@link WindowBucketAssigner}. Each tuple owned by the bucket is paired with
+ * its (window size - 1) predecessors, replicated tuples of the previous
+ * bucket are only used as predecessors. Only the last predecessors are kept,
+ * memory is bounded by the window size.
+ */
+class WindowPairCreator
+    extends RichGroupReduceFunction<Tuple3<Long, Long, Long>, Tuple2<Long, Long>> {
+  private static final long serialVersionUID = 1L;
+
+  private final int windowSize;
+  private final long bucketSize;
+  private final LongCounter pairCounter = new LongCounter();
+
+  private long[] ranks;
+  private long[] ids;
+
+  WindowPairCreator(int windowSize, long bucketSize) {
+    this.windowSize = windowSize;
+    this.bucketSize = bucketSize;
+  }
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+    getRuntimeContext().addAccumulator(
+        Constants.SORTED_NEIGHBORHOOD_PAIRS_ACCUMULATOR, pairCounter);
+    // ring buffer for the predecessors
+    ranks = new long[Math.max(1, windowSize - 1)];
+    ids = new long[Math.max(1, windowSize - 1)];
+  }
+
+  @Override
+  public void reduce(Iterable<Tuple3<Long, Long, Long>> values,
+                     Collector<Tuple2<Long, Long>> out) throws Exception {
+    int size = 0;
+    int next = 0;
+
+    for (Tuple3<Long, Long, Long> value : values) {
+      long bucket = value.f0;
+      long rank = value.f1;
+      long id = value.f2;
+
+      if (rank / bucketSize == bucket) {
+        for (int i = 0; i < size; i++) {
+          if (rank - ranks[i] < windowSize) {
+            pairCounter.add(1L);
+            out.collect(new Tuple2<>(ids[i], id));
+          }
+        }
+      }
+
+      if (windowSize > 1) {
+        ranks[next] = rank;
+        ids[next] = id;
+        next = (next + 1) % ranks.length;
+        size = Math.min(size + 1, ranks.length);
+      }
+    }
+  }
+}
@@ -12,12 +12,12 @@ import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.api.java.tuple.Tuple4;
 import org.apache.flink.api.java.utils.DataSetUtils;
 import org.apache.flink.graph.Edge;
-import org.apache.flink.graph.Graph;
 import org.apache.flink.graph.Vertex;
-import org.apache.flink.graph.library.GSAConnectedComponents;
 import org.apache.flink.types.NullValue;
 import org.apache.flink.util.Collector;
 import org.apache.log4j.Logger;
+import org.mappinganalysis.graph.utils.ConnectedComponentIdAdder;
+import org.mappinganalysis.graph.utils.ConnectedComponentStrategy;
 import org.mappinganalysis.model.MergeMusicTriplet;
 import org.mappinganalysis.model.MergeTuple;
 import org.mappinganalysis.model.ObjectMap;
@@ -29,7 +29,7 @@ public class IdfBlockingOperation
     implements CustomUnaryOperation<MergeTuple, MergeMusicTriplet> {
   private static final Logger LOG = Logger.getLogger(IdfBlockingOperation.class);
   private DataSet<MergeTuple> inputData;
-  private final static String[] STOP_WORDS = {
+  public final static String[] STOP_WORDS = {
       "the", "i", "a", "an", "at", "are", "am", "for", "and", "or", "is",
       "there", "it", "this", "that", "on", "was", "by", "of", "to", "in",
       "to", "not", "be", "with", "you", "have", "as", "can", "me", "my", "la",
@@ -120,20 +120,11 @@ public class IdfBlockingOperation
       }
     });
 
-    DataSet<Vertex<Long, Long>> vertices = edges
-        .flatMap(new FlatMapFunction<Edge<Long, NullValue>, Vertex<Long, Long>>() {
-      @Override
-      public void flatMap(Edge<Long, NullValue> value, Collector<Vertex<Long, Long>> out) throws Exception {
-        out.collect(new Vertex<>(value.getSource(), value.getSource()));
-        out.collect(new Vertex<>(value.getTarget(), value.getTarget()));
-      }
-    }).distinct();
-
-    Graph<Long, Long, NullValue> ccGraph = Graph.fromDataSet(vertices, edges, env);
-
     DataSet<Vertex<Long, Long>> ccVertices = null;
     try {
-      ccVertices = ccGraph.run(new GSAConnectedComponents<>(Integer.MAX_VALUE));
+      // candidate graphs are new each time and have many small components
+      ccVertices = ConnectedComponentIdAdder.getComponentIds(
+          edges, env, ConnectedComponentStrategy.UNION_FIND);
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -1,16 +1,23 @@
 package org.mappinganalysis.model.functions.clusterstrategies;
 
+import org.apache.flink.api.common.functions.ReduceFunction;
 import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.operators.CustomUnaryOperation;
 import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.api.java.tuple.Tuple4;
 import org.apache.flink.graph.Triplet;
+import org.apache.flink.util.Collector;
 import org.mappinganalysis.model.ObjectMap;
 
 /**
  * For a set of triplets with similarities (from a bipartite graph based on
  * data sources), select all links where the link is the maximum from right
  * as well as left side.
+ *
+ * Each (src, trg, sim) projection is emitted once per side, the best link of
+ * each left and right vertex is determined in a single combinable reduce.
+ * Links which are best for both sides are joined back to the triplets.
  */
 class MaxBothSelection
     implements CustomUnaryOperation<
@@ -25,54 +32,27 @@ class MaxBothSelection
 
   @Override
   public DataSet<Triplet<Long, ObjectMap, ObjectMap>> createResult() {
-    DataSet<Tuple3<Long, Long, Double>> inputTuples = input
-        .map(triplet -> new Tuple3<>(
-            triplet.f0,
-            triplet.f1,
-            triplet.f4.getEdgeSimilarity()))
-        .returns(new TypeHint<Tuple3<Long, Long, Double>>() {
-    });
-
-    // multiple entities may have same similarity, decision currently based on min id
-    DataSet<Tuple3<Long, Long, Double>> leftSide = inputTuples
-        .groupBy(0)
-        .max(2)
-        .join(inputTuples)
-        .where(0, 2).equalTo(0, 2)
-        .with((left, right) -> right)
-        .returns(new TypeHint<Tuple3<Long, Long, Double>>() {
-        })
-        .groupBy(0)
-        .min(1);
-
-    DataSet<Tuple3<Long, Long, Double>> rightSide = inputTuples
-        .groupBy(1)
-        .max(2)
-        .join(inputTuples)
-        .where(1, 2).equalTo(1, 2)
-        .with((left, right) -> right)
-        .returns(new TypeHint<Tuple3<Long, Long, Double>>() {
+    /* (vertex id, other vertex id, sim, is left side) */
+    DataSet<Tuple4<Long, Long, Double, Boolean>> sideTuples = input
+        .flatMap((Triplet<Long, ObjectMap, ObjectMap> triplet,
+                  Collector<Tuple4<Long, Long, Double, Boolean>> out) -> {
+          double similarity = triplet.f4.getEdgeSimilarity();
+          out.collect(new Tuple4<>(triplet.f0, triplet.f1, similarity, true));
+          out.collect(new Tuple4<>(triplet.f1, triplet.f0, similarity, false));
         })
-        .groupBy(1)
-        .min(0);
-
-    DataSet<Tuple3<Long, Long, Double>> resultTuple = leftSide
-        .join(rightSide)
-        .where(0, 1).equalTo(0, 1)
-        .with((left, right) -> left)
-        .returns(new TypeHint<Tuple3<Long, Long, Double>>() {
-    });
+        .returns(new TypeHint<Tuple4<Long, Long, Double, Boolean>>() {});
 
-//    return input.join(leftSide.union(rightSide)
-//        .distinct(0,1)
-//        .filter(x -> x.f2 > 0.6))
-//        .where(0,1)
-//        .equalTo(0,1)
-//        .with((inputTriplet, tuple) -> {
-//          System.out.println("mb: " + inputTriplet.toString());
-//        return inputTriplet;
-//        })
-//        .returns(new TypeHint<Triplet<Long, ObjectMap, ObjectMap>>() {});
+    // (src, trg, number of sides where the link is the best one)
+    DataSet<Tuple3<Long, Long, Integer>> resultTuple = sideTuples
+        .groupBy(0, 3)
+        .reduce(new BestLinkReducer())
+        .map(tuple -> tuple.f3
+            ? new Tuple3<>(tuple.f0, tuple.f1, 1)
+            : new Tuple3<>(tuple.f1, tuple.f0, 1))
+        .returns(new TypeHint<Tuple3<Long, Long, Integer>>() {})
+        .groupBy(0, 1)
+        .sum(2)
+        .filter(tuple -> tuple.f2 == 2);
 
     return input.join(resultTuple)
         .where(0,1)
@@ -80,4 +60,23 @@ class MaxBothSelection
         .with((inputTriplet, tuple) -> inputTriplet)
         .returns(new TypeHint<Triplet<Long, ObjectMap, ObjectMap>>() {});
   }
+
+  /**
+   * Keep the link with the highest similarity, multiple entities may have the
+   * same similarity, decision is based on min id of the other vertex.
+   */
+  private static class BestLinkReducer
+      implements ReduceFunction<Tuple4<Long, Long, Double, Boolean>> {
+    @Override
+    public Tuple4<Long, Long, Double, Boolean> reduce(
+        Tuple4<Long, Long, Double, Boolean> left,
+        Tuple4<Long, Long, Double, Boolean> right) throws Exception {
+      int result = Double.compare(left.f2, right.f2);
+      if (result == 0) {
+        return left.f1 <= right.f1 ? left : right;
+      }
+
+      return result > 0 ? left : right;
+    }
+  }
 }
@@ -13,8 +13,11 @@ import org.apache.log4j.Logger;
 import org.mappinganalysis.graph.SimilarityFunction;
 import org.mappinganalysis.io.impl.DataDomain;
 import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
 import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
 import org.mappinganalysis.model.functions.blocking.blocksplit.BlockSplitTripletCreator;
+import org.mappinganalysis.model.functions.blocking.sortedneighborhood.SortedNeighborhoodTripletCreator;
 import org.mappinganalysis.model.functions.incremental.HungarianAlgorithmReduceFunction;
 import org.mappinganalysis.model.functions.incremental.MatchStrategy;
 import org.mappinganalysis.model.functions.incremental.RepresentativeCreator;
@@ -88,12 +91,18 @@ class SourceAdditionClustering
         .build();
 
     /*
-      block split triplet creator
+      block split triplet creator, sorted neighborhood if configured
      */
+    CustomUnaryOperation<MergeTuple, MergeMusicTriplet> tripletCreator
+        = config.getBlockingStrategy() == BlockingStrategy.SORTED_NEIGHBORHOOD
+        ? new SortedNeighborhoodTripletCreator(config.getDataDomain(),
+            config.getNewSource(), config.getWindowSize())
+        : new BlockSplitTripletCreator(config.getDataDomain(),
+            config.getNewSource());
+
     DataSet<Triplet<Long, ObjectMap, ObjectMap>> simTriplets = input
         .map(new MergeTupleCreator(config))
-        .runOperation(new BlockSplitTripletCreator(config.getDataDomain(),
-            config.getNewSource()))
+        .runOperation(tripletCreator)
 //        .map(x -> {
 //          System.out.println("+bs: " + x.toString());
 //          return x;
@@ -126,7 +135,7 @@ class SourceAdditionClustering
       System.out.println("running hungarian");
       return simTriplets
           .groupBy(new BlockingKeyFromAnyElementKeySelector())
-          .reduceGroup(new HungarianAlgorithmReduceFunction())
+          .reduceGroup(new HungarianAlgorithmReduceFunction(config.getHungarianMaxSize()))
           .flatMap(new DualVertexMergeFlatMapper(
               config.getDataDomain(),
               config.getMinResultSimilarity()))
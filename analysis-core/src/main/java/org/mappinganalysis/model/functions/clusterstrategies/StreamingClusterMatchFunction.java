@@ -0,0 +1,304 @@
+package org.mappinganalysis.model.functions.clusterstrategies;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.graph.Triplet;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.streaming.api.TimeDomain;
+import org.apache.flink.streaming.api.functions.co.CoProcessFunction;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.graph.SimilarityFunction;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+import org.mappinganalysis.model.functions.incremental.HungarianAlgorithmReduceFunction;
+import org.mappinganalysis.model.functions.incremental.IntermediateVertexReprMapFunction;
+import org.mappinganalysis.model.functions.incremental.MatchStrategy;
+import org.mappinganalysis.model.functions.merge.MergeTupleCreator;
+import org.mappinganalysis.model.functions.simcomputation.GeoTripletSimilarityFunction;
+import org.mappinganalysis.model.functions.simcomputation.MusicTripletSimilarityFunction;
+import org.mappinganalysis.util.AbstractionUtils;
+import org.mappinganalysis.util.config.IncrementalConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Keyed by blocking key: first input are existing cluster representatives,
+ * second input are new vertices. Representatives are kept in keyed state.
+ *
+ * New vertices are compared with all representatives of the block without
+ * source overlap, like in the batch source addition, links below the min
+ * result similarity are dropped and MAX_BOTH or HUNGARIAN selects the links.
+ * Selected links are merged, all other new vertices are new clusters. Each
+ * changed or new representative is emitted, a merged cluster gets the
+ * smaller id, the replaced representative is contained in its vertices list.
+ *
+ * New vertices are kept per blocking key until the watermark advances, the
+ * watermark of the operator is the min watermark of both inputs, so no new
+ * vertex is matched before all existing clusters are read. The cluster input
+ * must therefore not emit watermarks before it is finished (like a bounded
+ * source without timestamp assigner), the new vertex input has ingestion time
+ * watermarks (see {@link StreamingIncrementalClustering}). With a match delay,
+ * new vertices are additionally collected until a processing time timer fires.
+ */
+class StreamingClusterMatchFunction extends CoProcessFunction<
+    Vertex<Long, ObjectMap>, Vertex<Long, ObjectMap>, Vertex<Long, ObjectMap>> {
+  private static final Logger LOG = Logger.getLogger(StreamingClusterMatchFunction.class);
+  private static final long serialVersionUID = 1L;
+
+  private final DataDomain domain;
+  private final BlockingStrategy blockingStrategy;
+  private final int blockingLength;
+  private final String metric;
+  private final double minResultSimilarity;
+  private final MatchStrategy matchStrategy;
+  private final int hungarianMaxSize;
+  private final long matchDelay;
+
+  private transient MapState<Long, ObjectMap> representatives;
+  private transient MapState<Long, MergeTuple> representativeTuples;
+  private transient ListState<Vertex<Long, ObjectMap>> pendingVertices;
+  private transient ValueState<Long> timer;
+
+  private transient MergeTupleCreator tupleCreator;
+  private transient SimilarityFunction<MergeMusicTriplet, MergeMusicTriplet> similarityFunction;
+  private transient DualVertexMergeFlatMapper merger;
+  private transient IntermediateVertexReprMapFunction representativeFunction;
+
+  StreamingClusterMatchFunction(IncrementalConfig config) {
+    this.domain = config.getDataDomain();
+    this.blockingStrategy = config.getBlockingStrategy();
+    this.blockingLength = config.getBlockingLength();
+    this.metric = config.getMetric();
+    this.minResultSimilarity = config.getMinResultSimilarity();
+    this.matchStrategy = config.getMatchStrategy() == null
+        ? MatchStrategy.MAX_BOTH
+        : config.getMatchStrategy();
+    this.hungarianMaxSize = config.getHungarianMaxSize();
+    this.matchDelay = config.getStreamingMatchDelay();
+  }
+
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+    representatives = getRuntimeContext().getMapState(new MapStateDescriptor<>(
+        "representatives", Long.class, ObjectMap.class));
+    representativeTuples = getRuntimeContext().getMapState(new MapStateDescriptor<>(
+        "representativeTuples", Long.class, MergeTuple.class));
+    pendingVertices = getRuntimeContext().getListState(new ListStateDescriptor<>(
+        "pendingVertices",
+        TypeInformation.of(new TypeHint<Vertex<Long, ObjectMap>>() {})));
+    timer = getRuntimeContext().getState(new ValueStateDescriptor<>("timer", Long.class));
+
+    tupleCreator = new MergeTupleCreator(blockingStrategy, domain, blockingLength);
+    if (domain == DataDomain.MUSIC || domain == DataDomain.NC) {
+      similarityFunction = new MusicTripletSimilarityFunction(metric);
+    } else if (domain == DataDomain.GEOGRAPHY) {
+      similarityFunction = new GeoTripletSimilarityFunction(metric);
+    } else {
+      throw new IllegalArgumentException("illegal domain: " + domain);
+    }
+    merger = new DualVertexMergeFlatMapper(domain, minResultSimilarity);
+    representativeFunction = new IntermediateVertexReprMapFunction(
+        domain, blockingStrategy, blockingLength);
+  }
+
+  @Override
+  public void processElement1(Vertex<Long, ObjectMap> cluster,
+                              Context ctx,
+                              Collector<Vertex<Long, ObjectMap>> out) throws Exception {
+    putRepresentative(cluster);
+  }
+
+  @Override
+  public void processElement2(Vertex<Long, ObjectMap> vertex,
+                              Context ctx,
+                              Collector<Vertex<Long, ObjectMap>> out) throws Exception {
+    pendingVertices.add(vertex);
+    // fires with the next watermark, at the earliest when the cluster input is finished
+    ctx.timerService().registerEventTimeTimer(ctx.timerService().currentWatermark() + 1);
+  }
+
+  @Override
+  public void onTimer(long timestamp,
+                      OnTimerContext ctx,
+                      Collector<Vertex<Long, ObjectMap>> out) throws Exception {
+    if (ctx.timeDomain() == TimeDomain.EVENT_TIME
+        && matchDelay > 0
+        && ctx.timerService().currentWatermark() < Long.MAX_VALUE) {
+      if (timer.value() == null) {
+        long time = ctx.timerService().currentProcessingTime() + matchDelay;
+        ctx.timerService().registerProcessingTimeTimer(time);
+        timer.update(time);
+      }
+
+      return;
+    }
+
+    Iterable<Vertex<Long, ObjectMap>> pending = pendingVertices.get();
+    ArrayList<Vertex<Long, ObjectMap>> newVertices = pending == null
+        ? Lists.newArrayList()
+        : Lists.newArrayList(pending);
+    pendingVertices.clear();
+    if (ctx.timeDomain() == TimeDomain.PROCESSING_TIME) {
+      timer.clear();
+    }
+
+    if (!newVertices.isEmpty()) {
+      match(newVertices, out);
+    }
+  }
+
+  /**
+   * Match new vertices with the representatives of the current block.
+   */
+  private void match(List<Vertex<Long, ObjectMap>> newVertices,
+                     Collector<Vertex<Long, ObjectMap>> out) throws Exception {
+    HashSet<Long> matchedIds = Sets.newHashSet();
+    for (Triplet<Long, ObjectMap, ObjectMap> triplet : select(createTriplets(newVertices))) {
+      List<Vertex<Long, ObjectMap>> merged = Lists.newArrayList();
+      merger.flatMap(triplet, new ListCollector<>(merged));
+
+      representatives.remove(triplet.getTrgVertex().getId());
+      representativeTuples.remove(triplet.getTrgVertex().getId());
+      matchedIds.add(triplet.getSrcVertex().getId());
+      for (Vertex<Long, ObjectMap> vertex : merged) {
+        emit(vertex, out);
+      }
+    }
+
+    for (Vertex<Long, ObjectMap> vertex : newVertices) {
+      if (!matchedIds.contains(vertex.getId())) {
+        emit(vertex, out);
+      }
+    }
+  }
+
+  /**
+   * Triplets from new vertex (src) to representative (trg) with similarity
+   * above min result similarity, representative tuples are read from state.
+   */
+  private List<Triplet<Long, ObjectMap, ObjectMap>> createTriplets(
+      List<Vertex<Long, ObjectMap>> newVertices) throws Exception {
+    List<Triplet<Long, ObjectMap, ObjectMap>> triplets = Lists.newArrayList();
+    for (Vertex<Long, ObjectMap> vertex : newVertices) {
+      MergeTuple newTuple = tupleCreator.map(vertex);
+      for (MergeTuple representative : representativeTuples.values()) {
+        if (AbstractionUtils.hasOverlap(newTuple.getIntSources(),
+            representative.getIntSources())) {
+          continue;
+        }
+        double similarity = similarityFunction
+            .map(new MergeMusicTriplet(newTuple, representative, 0d))
+            .getSimilarity();
+        if (similarity < minResultSimilarity) {
+          continue;
+        }
+
+        ObjectMap edgeProperties = new ObjectMap(domain);
+        edgeProperties.setEdgeSimilarity(similarity);
+        triplets.add(new Triplet<>(vertex.getId(),
+            representative.getId(),
+            vertex.getValue(),
+            representatives.get(representative.getId()),
+            edgeProperties));
+      }
+    }
+
+    return triplets;
+  }
+
+  /**
+   * Links selected by the match strategy, single vertex results are skipped.
+   */
+  private List<Triplet<Long, ObjectMap, ObjectMap>> select(
+      List<Triplet<Long, ObjectMap, ObjectMap>> triplets) throws Exception {
+    if (triplets.isEmpty()) {
+      return triplets;
+    }
+
+    List<Triplet<Long, ObjectMap, ObjectMap>> result = Lists.newArrayList();
+    if (matchStrategy == MatchStrategy.HUNGARIAN) {
+      new HungarianAlgorithmReduceFunction(hungarianMaxSize)
+          .reduce(triplets, new ListCollector<>(result));
+      result.removeIf(triplet -> triplet.getSrcVertex().getId()
+          .equals(triplet.getTrgVertex().getId()));
+    } else if (matchStrategy == MatchStrategy.MAX_BOTH) {
+      HashMap<Long, Triplet<Long, ObjectMap, ObjectMap>> bestForNew = Maps.newHashMap();
+      HashMap<Long, Triplet<Long, ObjectMap, ObjectMap>> bestForCluster = Maps.newHashMap();
+      for (Triplet<Long, ObjectMap, ObjectMap> triplet : triplets) {
+        bestForNew.merge(triplet.getSrcVertex().getId(), triplet,
+            (left, right) -> getBest(left, right, false));
+        bestForCluster.merge(triplet.getTrgVertex().getId(), triplet,
+            (left, right) -> getBest(left, right, true));
+      }
+      for (Triplet<Long, ObjectMap, ObjectMap> triplet : bestForNew.values()) {
+        if (bestForCluster.get(triplet.getTrgVertex().getId()) == triplet) {
+          result.add(triplet);
+        }
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported match strategy: " + matchStrategy);
+    }
+    LOG.debug("Selected " + result.size() + " of " + triplets.size() + " links");
+
+    return result;
+  }
+
+  /**
+   * Like in {@link MaxBothSelection}, ties are decided by the min id of the other vertex.
+   */
+  private static Triplet<Long, ObjectMap, ObjectMap> getBest(
+      Triplet<Long, ObjectMap, ObjectMap> left,
+      Triplet<Long, ObjectMap, ObjectMap> right,
+      boolean isClusterSide) {
+    int result = Double.compare(left.getEdge().getValue().getEdgeSimilarity(),
+        right.getEdge().getValue().getEdgeSimilarity());
+    if (result == 0) {
+      long leftOther = isClusterSide ? left.getSrcVertex().getId() : left.getTrgVertex().getId();
+      long rightOther = isClusterSide ? right.getSrcVertex().getId() : right.getTrgVertex().getId();
+
+      return leftOther <= rightOther ? left : right;
+    }
+
+    return result > 0 ? left : right;
+  }
+
+  /**
+   * Update blocking key, clustered vertices and sources, keep and emit the representative.
+   */
+  private void emit(Vertex<Long, ObjectMap> vertex,
+                    Collector<Vertex<Long, ObjectMap>> out) throws Exception {
+    Vertex<Long, ObjectMap> representative = representativeFunction.map(vertex);
+    Vertex<Long, ObjectMap> result = new Vertex<>(
+        representative.getId(), representative.getValue());
+
+    putRepresentative(result);
+    out.collect(result);
+  }
+
+  /**
+   * Keep the representative and its merge tuple for the comparison with new vertices.
+   */
+  private void putRepresentative(Vertex<Long, ObjectMap> representative) throws Exception {
+    representatives.put(representative.getId(), representative.getValue());
+    representativeTuples.put(representative.getId(), tupleCreator.map(representative));
+  }
+}
@@ -0,0 +1,75 @@
+package org.mappinganalysis.model.functions.clusterstrategies;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.functions.IngestionTimeExtractor;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.incremental.BlockingKeySelector;
+import org.mappinganalysis.model.functions.incremental.IntermediateVertexReprMapFunction;
+import org.mappinganalysis.util.config.IncrementalConfig;
+
+/**
+ * Incremental clustering on a stream of new vertices, instead of a batch job
+ * over all existing clusters for each increment.
+ *
+ * Existing clusters and new vertices are mapped to representatives like in
+ * {@link org.mappinganalysis.model.functions.incremental.RepresentativeCreator}
+ * and partitioned by blocking key. Representatives are kept in keyed state,
+ * new vertices are matched with them using the configured match strategy
+ * (MAX_BOTH default, HUNGARIAN), metric and min result similarity. The result
+ * stream contains each new or changed cluster representative.
+ *
+ * New vertices are buffered until the watermark of both inputs advances, so
+ * they are matched only after all existing clusters are read. Existing
+ * clusters have to come from a source which does not emit watermarks before
+ * it is finished (e.g., a bounded source without timestamp assigner). New
+ * vertices get ingestion time watermarks, so cluster updates are emitted
+ * continuously for an unbounded stream of new vertices, independent of the
+ * time characteristic. Use a match delay to collect more new vertices per
+ * block. A cluster stays in the block of the representative it was created
+ * from.
+ */
+public class StreamingIncrementalClustering {
+  /**
+   * watermark interval in ms if none is configured (processing time default)
+   */
+  private static final long WATERMARK_INTERVAL = 200L;
+
+  private final IncrementalConfig config;
+
+  public StreamingIncrementalClustering(IncrementalConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * @param clusters existing clusters, must not emit watermarks before all are read
+   * @param newVertices new vertices to add, timestamps are replaced by ingestion time
+   * @return cluster updates
+   */
+  public DataStream<Vertex<Long, ObjectMap>> run(
+      DataStream<Vertex<Long, ObjectMap>> clusters,
+      DataStream<Vertex<Long, ObjectMap>> newVertices) {
+    // periodic watermarks are disabled for processing time
+    ExecutionConfig executionConfig = newVertices.getExecutionEnvironment().getConfig();
+    if (executionConfig.getAutoWatermarkInterval() <= 0) {
+      executionConfig.setAutoWatermarkInterval(WATERMARK_INTERVAL);
+    }
+
+    return clusters
+        .map(createRepresentativeFunction())
+        .connect(newVertices
+            .assignTimestampsAndWatermarks(new IngestionTimeExtractor<>())
+            .map(createRepresentativeFunction()))
+        .keyBy(new BlockingKeySelector(), new BlockingKeySelector())
+        .process(new StreamingClusterMatchFunction(config))
+        .name("streaming incremental clustering");
+  }
+
+  private IntermediateVertexReprMapFunction createRepresentativeFunction() {
+    return new IntermediateVertexReprMapFunction(
+        config.getDataDomain(),
+        config.getBlockingStrategy(),
+        config.getBlockingLength());
+  }
+}
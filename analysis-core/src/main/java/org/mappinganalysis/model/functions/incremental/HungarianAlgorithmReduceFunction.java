@@ -1,22 +1,28 @@
 package org.mappinganalysis.model.functions.incremental;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import org.apache.commons.collections.MapUtils;
 import org.apache.flink.api.common.functions.GroupReduceFunction;
 import org.apache.flink.graph.Triplet;
 import org.apache.flink.util.Collector;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.HungarianAlgorithm;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 
 /**
  * Transform triplets to simple double weights and determine assignment according to
  * hungarian algorithm. Afterwards, create new set of triplets with the resulting edges.
+ *
+ * Left (src) and right (trg) vertices are enumerated, triplets are kept as
+ * index arrays. The block is split into connected components, each one is
+ * solved on its own left x right cost matrix. Components with more than max
+ * size vertices on one side are matched greedy (similarity descending).
+ * Vertices without a matched triplet are returned as single vertex triplets.
  */
 public class HungarianAlgorithmReduceFunction
     implements GroupReduceFunction<
@@ -24,159 +30,234 @@ public class HungarianAlgorithmReduceFunction
     Triplet<Long, ObjectMap, ObjectMap>> {
   private static final Logger LOG = Logger.getLogger(HungarianAlgorithmReduceFunction.class);
 
+  private final int maxSize;
+
+  public HungarianAlgorithmReduceFunction() {
+    this(Constants.HUNGARIAN_MAX_SIZE_DEFAULT_VALUE);
+  }
+
+  /**
+   * @param maxSize max vertices per side of a component solved with hungarian
+   */
+  public HungarianAlgorithmReduceFunction(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
   @Override
   public void reduce(Iterable<Triplet<Long, ObjectMap, ObjectMap>> values,
                      Collector<Triplet<Long, ObjectMap, ObjectMap>> out) throws Exception {
-    HashSet<Triplet<Long, ObjectMap, ObjectMap>> triplets = Sets.newHashSet(values);
+    ArrayList<Triplet<Long, ObjectMap, ObjectMap>> triplets = Lists.newArrayList(values);
     // if only one triplet is there, no hungarian needed
     if (triplets.size() == 1) {
-      out.collect(triplets.iterator().next());
+      out.collect(triplets.get(0));
 
       return;
     }
 
-    double[][] tmpWeights = new double[triplets.size()][triplets.size()];
-    for (double[] weight : tmpWeights) {
-      Arrays.fill(weight, 1.0);
+    int size = triplets.size();
+    HashMap<Long, Integer> leftIndex = Maps.newHashMapWithExpectedSize(size);
+    HashMap<Long, Integer> rightIndex = Maps.newHashMapWithExpectedSize(size);
+    int[] lefts = new int[size];
+    int[] rights = new int[size];
+    double[] sims = new double[size];
+    long[] srcIds = new long[size];
+    long[] trgIds = new long[size];
+    // first triplet of each vertex, used for single vertex result
+    int[] leftTriplet = new int[size];
+    int[] rightTriplet = new int[size];
+
+    for (int i = 0; i < size; i++) {
+      Triplet<Long, ObjectMap, ObjectMap> triplet = triplets.get(i);
+      Integer left = leftIndex.get(triplet.getSrcVertex().getId());
+      if (left == null) {
+        left = leftIndex.size();
+        leftIndex.put(triplet.getSrcVertex().getId(), left);
+        leftTriplet[left] = i;
+      }
+      Integer right = rightIndex.get(triplet.getTrgVertex().getId());
+      if (right == null) {
+        right = rightIndex.size();
+        rightIndex.put(triplet.getTrgVertex().getId(), right);
+        rightTriplet[right] = i;
+      }
+      lefts[i] = left;
+      rights[i] = right;
+      sims[i] = triplet.getEdge().getValue().getEdgeSimilarity();
+      srcIds[i] = triplet.getSrcVertex().getId();
+      trgIds[i] = triplet.getTrgVertex().getId();
+    }
+    int leftCount = leftIndex.size();
+    int rightCount = rightIndex.size();
+
+    int[] component = getComponents(lefts, rights, leftCount, rightCount);
+    int[] matchedTriplet = new int[leftCount];
+    Arrays.fill(matchedTriplet, -1);
+    boolean[] isRightMatched = new boolean[rightCount];
+
+    // triplet indexes grouped by component root
+    HashMap<Integer, ArrayList<Integer>> componentTriplets = Maps.newHashMap();
+    for (int i = 0; i < size; i++) {
+      componentTriplets
+          .computeIfAbsent(component[lefts[i]], root -> new ArrayList<>())
+          .add(i);
     }
-    HashMap<Long, Integer> leftSource = Maps.newHashMapWithExpectedSize(triplets.size());
-    HashMap<Long, Integer> rightSource = Maps.newHashMapWithExpectedSize(triplets.size());
-    int leftCounter = 0;
-    int rightCounter = 0;
 
-    for (Triplet<Long, ObjectMap, ObjectMap> triplet : triplets) {
-//      LOG.info("inTrip: " + triplet.toString());
-      int leftThisRound;
-      int rightThisRound;
+    for (ArrayList<Integer> tripletIndexes : componentTriplets.values()) {
+      match(tripletIndexes, lefts, rights, sims, srcIds, trgIds, matchedTriplet, isRightMatched);
+    }
 
-      if (!leftSource.containsKey(triplet.getSrcVertex().getId())) {
-        leftSource.put(triplet.getSrcVertex().getId(), leftCounter);
-        leftThisRound = leftCounter;
-        ++leftCounter;
+    for (int left = 0; left < leftCount; left++) {
+      if (matchedTriplet[left] != -1) {
+        out.collect(triplets.get(matchedTriplet[left]));
       } else {
-        leftThisRound = leftSource.get(triplet.getSrcVertex().getId());
+        // no (left side) match for vertex
+        Triplet<Long, ObjectMap, ObjectMap> triplet = triplets.get(leftTriplet[left]);
+        out.collect(createSingleVertexTriplet(
+            triplet.getSrcVertex().getId(), triplet.getSrcVertex().getValue()));
       }
-      if (!rightSource.containsKey(triplet.getTrgVertex().getId())) {
-        rightSource.put(triplet.getTrgVertex().getId(), rightCounter);
-        rightThisRound = rightCounter;
-        ++rightCounter;
-      } else {
-        rightThisRound = rightSource.get(triplet.getTrgVertex().getId());
+    }
+    for (int right = 0; right < rightCount; right++) {
+      if (!isRightMatched[right]) {
+        // no (right side) match for vertex
+        Triplet<Long, ObjectMap, ObjectMap> triplet = triplets.get(rightTriplet[right]);
+        out.collect(createSingleVertexTriplet(
+            triplet.getTrgVertex().getId(), triplet.getTrgVertex().getValue()));
       }
+    }
+  }
+
+  /**
+   * Match the triplets of a single component, hungarian on the component
+   * sized cost matrix or greedy for big components.
+   */
+  private void match(ArrayList<Integer> tripletIndexes,
+                     int[] lefts,
+                     int[] rights,
+                     double[] sims,
+                     long[] srcIds,
+                     long[] trgIds,
+                     int[] matchedTriplet,
+                     boolean[] isRightMatched) {
+    if (tripletIndexes.size() == 1) {
+      int index = tripletIndexes.get(0);
+      matchedTriplet[lefts[index]] = index;
+      isRightMatched[rights[index]] = true;
 
-      tmpWeights[leftThisRound][rightThisRound]
-          = 1 - triplet.getEdge().getValue().getEdgeSimilarity();
+      return;
     }
 
-    double[][] weights = new double[leftCounter][rightCounter];
-    // reduce array size to max counted candidate size
-    for (int leftIndex = 0; leftIndex < leftCounter; ++leftIndex) {
-      System.arraycopy(tmpWeights[leftIndex], 0,
-          weights[leftIndex], 0,
-          rightCounter);
+    // component local positions
+    HashMap<Integer, Integer> leftPositions = Maps.newHashMap();
+    HashMap<Integer, Integer> rightPositions = Maps.newHashMap();
+    for (int index : tripletIndexes) {
+      leftPositions.putIfAbsent(lefts[index], leftPositions.size());
+      rightPositions.putIfAbsent(rights[index], rightPositions.size());
     }
 
-    HungarianAlgorithm algorithm = new HungarianAlgorithm(weights);
-    int[] matrixResult = algorithm.execute();
+    if (Math.max(leftPositions.size(), rightPositions.size()) > maxSize) {
+      LOG.info("Greedy match for component: " + leftPositions.size()
+          + " x " + rightPositions.size());
+      matchGreedy(tripletIndexes, lefts, rights, sims, srcIds, trgIds,
+          matchedTriplet, isRightMatched);
 
-    /*
-     iterate over all matrix elements and assign original ids
-      */
-    HashMap<Long, Long> resultMap = Maps.newHashMap();
-    for (int leftPos = 0; leftPos < matrixResult.length; leftPos++) {
-      Long key = (long) MapUtils.invertMap(leftSource).get(leftPos);
+      return;
+    }
 
-      if (matrixResult[leftPos] != -1) {
-        Long value = (long) MapUtils.invertMap(rightSource)
-            .get(matrixResult[leftPos]);
-        // remove processed elements, in the end only not matched elements remain
-        rightSource.remove(value);
-        leftSource.remove(key);
-        resultMap.put(key, value);
+    double[][] weights = new double[leftPositions.size()][rightPositions.size()];
+    int[][] cellTriplet = new int[leftPositions.size()][rightPositions.size()];
+    for (int row = 0; row < weights.length; row++) {
+      Arrays.fill(weights[row], 1.0);
+      Arrays.fill(cellTriplet[row], -1);
+    }
+    for (int index : tripletIndexes) {
+      int row = leftPositions.get(lefts[index]);
+      int column = rightPositions.get(rights[index]);
+      double weight = 1 - sims[index];
+      if (cellTriplet[row][column] == -1 || weight < weights[row][column]) {
+        weights[row][column] = weight;
+        cellTriplet[row][column] = index;
       }
     }
 
-    HashSet<Long> checkSet = Sets.newHashSet();
-    HashSet<Triplet<Long, ObjectMap, ObjectMap>> secondRound = Sets.newHashSet();
+    int[] matrixResult = new HungarianAlgorithm(weights).execute();
+    for (int row = 0; row < matrixResult.length; row++) {
+      // assignments to cells without triplet are no matches
+      if (matrixResult[row] != -1 && cellTriplet[row][matrixResult[row]] != -1) {
+        int index = cellTriplet[row][matrixResult[row]];
+        matchedTriplet[lefts[index]] = index;
+        isRightMatched[rights[index]] = true;
+      }
+    }
+  }
 
-    /*
-    First iteration on triplets, only if src and target are in result, its collected.
-     */
-    for (Triplet<Long, ObjectMap, ObjectMap> triplet : triplets) {
-      long srcId = triplet.getSrcVertex().getId();
-      long trgId = triplet.getTrgVertex().getId();
+  /**
+   * Select triplets by similarity descending if both vertices are not matched yet,
+   * equal similarities are ordered by left id and right id.
+   */
+  private void matchGreedy(ArrayList<Integer> tripletIndexes,
+                           int[] lefts,
+                           int[] rights,
+                           double[] sims,
+                           long[] srcIds,
+                           long[] trgIds,
+                           int[] matchedTriplet,
+                           boolean[] isRightMatched) {
+    Integer[] order = tripletIndexes.toArray(new Integer[tripletIndexes.size()]);
+    Arrays.sort(order, (left, right) -> {
+      int result = Double.compare(sims[right], sims[left]);
+      if (result == 0) {
+        result = Long.compare(srcIds[left], srcIds[right]);
+      }
+      return result != 0 ? result : Long.compare(trgIds[left], trgIds[right]);
+    });
 
-      // triplet is in result, can be collected.
-      // elements are added to check set, do not collect them again.
-      if (resultMap.get(srcId) != null && resultMap.get(srcId) == trgId) {
-//        LOG.info("(1) triplet in result: " + triplet.toString());
-        checkSet.add(srcId);
-        checkSet.add(trgId);
+    for (int index : order) {
+      if (matchedTriplet[lefts[index]] == -1 && !isRightMatched[rights[index]]) {
+        matchedTriplet[lefts[index]] = index;
+        isRightMatched[rights[index]] = true;
+      }
+    }
+  }
 
-        out.collect(triplet);
-      } else {
-//        LOG.info("(1a) added for second round: " + triplet.toString());
-        secondRound.add(triplet);
+  /**
+   * Union find on left (0 .. leftCount - 1) and right (leftCount ..) vertices.
+   * @return component root for each left vertex
+   */
+  private static int[] getComponents(int[] lefts, int[] rights, int leftCount, int rightCount) {
+    int[] parents = new int[leftCount + rightCount];
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+    }
+    for (int i = 0; i < lefts.length; i++) {
+      int leftRoot = find(parents, lefts[i]);
+      int rightRoot = find(parents, leftCount + rights[i]);
+      if (leftRoot != rightRoot) {
+        parents[rightRoot] = leftRoot;
       }
     }
 
-    for (Triplet<Long, ObjectMap, ObjectMap> triplet : secondRound) {
-      long srcId = triplet.getSrcVertex().getId();
-      long trgId = triplet.getTrgVertex().getId();
+    int[] result = new int[leftCount];
+    for (int left = 0; left < leftCount; left++) {
+      result[left] = find(parents, left);
+    }
 
-      if (checkSet.contains(srcId) && checkSet.contains(trgId)) {
-        // don't do sth if both src and trg are already handled
-      }
-      // no (left side) match for vertex
-      else if (leftSource.containsKey(srcId)) {
-        leftSource.remove(srcId);
-        ObjectMap edgeValue = triplet.getEdge().getValue();
-        edgeValue.setEdgeSimilarity(1D);
-
-        Triplet<Long, ObjectMap, ObjectMap> resultTriplet = new Triplet<>(
-            triplet.getSrcVertex().getId(),
-            triplet.getSrcVertex().getId(),
-            triplet.getSrcVertex().getValue(),
-            triplet.getSrcVertex().getValue(),
-            edgeValue);
-
-//        LOG.info("(2) no (left side) match: " + resultTriplet.toString());
-        out.collect(resultTriplet);
-      }
-//      else if (resultMap.get(srcId) == null && !checkSet.contains(srcId)) {
-//        checkSet.add(srcId);
-//        ObjectMap edgeValue = triplet.getEdge().getValue();
-//        edgeValue.setEdgeSimilarity(1D);
-//
-//        Triplet<Long, ObjectMap, ObjectMap> resultTriplet = new Triplet<>(
-//            triplet.getSrcVertex().getId(),
-//            triplet.getSrcVertex().getId(),
-//            triplet.getSrcVertex().getValue(),
-//            triplet.getSrcVertex().getValue(),
-//            edgeValue);
-//
-//        LOG.info("(2) no (left side) match: "  +resultTriplet.toString());
-//        out.collect(resultTriplet);
-//      }
-      // no (right side) match for vertex
-      else if (rightSource.containsKey(trgId)) {
-        rightSource.remove(trgId);
-        ObjectMap edgeValue = triplet.getEdge().getValue();
-        edgeValue.setEdgeSimilarity(1D);
-
-        Triplet<Long, ObjectMap, ObjectMap> resultTriplet = new Triplet<>(
-            triplet.getTrgVertex().getId(),
-            triplet.getTrgVertex().getId(),
-            triplet.getTrgVertex().getValue(),
-            triplet.getTrgVertex().getValue(),
-            edgeValue);
-
-//        LOG.info("(3) no (right side) match: " + resultTriplet.toString());
-        out.collect(resultTriplet);
-      }
-//      else { // unhandled should not occur
-//        throw new IllegalStateException("Should be handled: " + triplet.toString());
-//      }
+    return result;
+  }
+
+  private static int find(int[] parents, int element) {
+    while (parents[element] != element) {
+      parents[element] = parents[parents[element]];
+      element = parents[element];
     }
+
+    return element;
+  }
+
+  private static Triplet<Long, ObjectMap, ObjectMap> createSingleVertexTriplet(
+      Long id, ObjectMap value) {
+    ObjectMap edgeValue = new ObjectMap();
+    edgeValue.setEdgeSimilarity(1D);
+
+    return new Triplet<>(id, id, value, value, edgeValue);
   }
 }
@@ -13,7 +13,7 @@ import org.mappinganalysis.util.Constants;
 /**
  * Map single vertex value to intermediate representative representation.
  */
-class IntermediateVertexReprMapFunction
+public class IntermediateVertexReprMapFunction
     implements MapFunction<Vertex<Long, ObjectMap>, Vertex<Long, ObjectMap>> {
   private static final Logger LOG = Logger.getLogger(IntermediateVertexReprMapFunction.class);
 
@@ -25,7 +25,7 @@ class IntermediateVertexReprMapFunction
   /**
    * Map single vertex value to intermediate representative representation.
    */
-  IntermediateVertexReprMapFunction(
+  public IntermediateVertexReprMapFunction(
       DataDomain domain,
       BlockingStrategy blockingStrategy,
       int blockingLength) {
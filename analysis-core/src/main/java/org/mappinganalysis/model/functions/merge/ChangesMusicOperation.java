@@ -1,10 +1,9 @@
 package org.mappinganalysis.model.functions.merge;
 
-import org.apache.flink.api.common.functions.FlatJoinFunction;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.operators.CustomUnaryOperation;
 import org.apache.flink.api.java.tuple.Tuple2;
-import org.apache.flink.util.Collector;
+import org.apache.flink.api.java.tuple.Tuple4;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.io.impl.DataDomain;
 import org.mappinganalysis.model.MergeMusicTriplet;
@@ -13,87 +12,82 @@ import org.mappinganalysis.util.functions.LeftMinusRightSideJoinFunction;
 
 /**
  * Compute changes within one delta iteration step, music domain.
+ *
+ * Input are (src id, trg id, sim, blocking label) workset triplets, ids of
+ * merged clusters are replaced with the new cluster id. Only changed
+ * triplets get their tuples, changed clusters are taken from the delta,
+ * unchanged clusters from the solution set.
  */
 public class ChangesMusicOperation
-    implements CustomUnaryOperation<MergeMusicTriplet, MergeMusicTriplet> {
+    implements CustomUnaryOperation<Tuple4<Long, Long, Double, String>, MergeMusicTriplet> {
   private static final Logger LOG = Logger.getLogger(ChangesMusicOperation.class);
 
   private DataSet<MergeTuple> delta;
   private DataSet<Tuple2<Long, Long>> transitions;
+  private DataSet<MergeTuple> solutionSet;
   private DataDomain domain;
-  private DataSet<MergeMusicTriplet> workset;
+  private DataSet<Tuple4<Long, Long, Double, String>> workset;
 
   ChangesMusicOperation(DataSet<MergeTuple> delta,
                         DataSet<Tuple2<Long, Long>> transitions,
+                        DataSet<MergeTuple> solutionSet,
                         DataDomain domain) {
     this.delta = delta;
     this.transitions = transitions;
+    this.solutionSet = solutionSet;
     this.domain = domain;
   }
 
   @Override
-  public void setInput(DataSet<MergeMusicTriplet> inputData) {
+  public void setInput(DataSet<Tuple4<Long, Long, Double, String>> inputData) {
     this.workset = inputData;
   }
 
   @Override
   public DataSet<MergeMusicTriplet> createResult() {
-    DataSet<MergeMusicTriplet> leftChanges = workset.join(transitions)
+    DataSet<Tuple4<Long, Long, Double, String>> leftChanges = workset.join(transitions)
         .where(0)
         .equalTo(0)
-        .with(new TransitionMusicJoinFunction(0))
-        .distinct(0,1)
-        .join(delta.filter(new ActiveFilterFunction<>(domain)))
-        .where(0)
-        .equalTo(0)
-        .with(new TripletTupleMusicJoinFunction(0));
+        .with(new TransitionMusicJoinFunction(0));
 
-    DataSet<MergeMusicTriplet> notChangedLeftSide = workset.leftOuterJoin(transitions)
+    DataSet<Tuple4<Long, Long, Double, String>> notChangedLeftSide = workset
+        .leftOuterJoin(transitions)
         .where(0)
         .equalTo(0)
         .with(new LeftMinusRightSideJoinFunction<>());
-//        .map(x -> {
-//          if (x.getSrcId() == 9L && x.getTrgId() == 20L) {
-//            LOG.info(x.toString());
-//          }
-//        });
 
-    DataSet<MergeMusicTriplet> rightChanges = leftChanges.union(notChangedLeftSide)
-//        .where(0,1)
-//        .equalTo(0,1)
-//        .with((left, right) -> { // leftChanges could contain elements which are changed
-//          if (left == null) {    // on right side, too
-//            return right;
-//          } else {
-//            return left;
-//          }
-//        })
-//        .returns(new TypeHint<MergeMusicTriplet>() {})
+    DataSet<Tuple4<Long, Long, Double, String>> rightChanges = leftChanges
+        .union(notChangedLeftSide)
         .join(transitions)
         .where(1)
         .equalTo(0)
-        .with(new TransitionMusicJoinFunction(1))
+        .with(new TransitionMusicJoinFunction(1));
+
+    DataSet<MergeTuple> activeDelta = delta.filter(new ActiveFilterFunction<>(domain));
+
+    return leftChanges.leftOuterJoin(transitions)
+        .where(1)
+        .equalTo(0)
+        .with(new LeftMinusRightSideJoinFunction<>())
+        .union(rightChanges)
+        .map(new MergeTripletFromIdsMapFunction())
+        .filter(triplet -> !triplet.getSrcId().equals(triplet.getTrgId()))
         .distinct(0, 1)
-        .join(delta.filter(new ActiveFilterFunction<>(domain)))
+        .join(solutionSet)
+        .where(0)
+        .equalTo(0)
+        .with(new TripletTupleMusicJoinFunction(0))
+        .leftOuterJoin(activeDelta)
+        .where(0)
+        .equalTo(0)
+        .with(new TripletTupleMusicJoinFunction(0))
+        .join(solutionSet)
         .where(1)
         .equalTo(0)
-        .with(new TripletTupleMusicJoinFunction(1));
-
-    DataSet<Tuple2<Long, Long>> removeFromLeftChanges = rightChanges.leftOuterJoin(transitions)
+        .with(new TripletTupleMusicJoinFunction(1))
+        .leftOuterJoin(activeDelta)
         .where(1)
-        .equalTo(1)
-        .with(new FlatJoinFunction<MergeMusicTriplet, Tuple2<Long, Long>, Tuple2<Long, Long>>() {
-          @Override
-          public void join(MergeMusicTriplet first, Tuple2<Long, Long> second, Collector<Tuple2<Long, Long>> out) throws Exception {
-            out.collect(new Tuple2<>(first.f0, second.f0));
-          }
-        });
-
-    return leftChanges.leftOuterJoin(removeFromLeftChanges)
-        .where(0,1)
-        .equalTo(0,1)
-        .with(new LeftMinusRightSideJoinFunction<>())
-        .union(rightChanges);
-
+        .equalTo(0)
+        .with(new TripletTupleMusicJoinFunction(1));
   }
-}
\ No newline at end of file
+}
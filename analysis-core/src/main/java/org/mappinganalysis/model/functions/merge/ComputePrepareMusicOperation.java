@@ -25,9 +25,8 @@ public class ComputePrepareMusicOperation
 
   @Override
   public DataSet<MergeMusicTriplet> createResult() {
+    // ids are already sorted and distinct, see ChangesMusicOperation
     return triplets
-        .map(new SortMusicMapFunction())
-        .distinct(0,1) // needed
         .filter(new CheckRestrictionsFilterFunction<>(domain, sourcesCount));
   }
 
@@ -1,14 +1,12 @@
 package org.mappinganalysis.model.functions.merge;
 
-import com.google.common.collect.Sets;
-import org.apache.flink.api.common.functions.GroupReduceFunction;
 import org.apache.flink.api.common.functions.RichFilterFunction;
-import org.apache.flink.api.common.operators.Order;
 import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.operators.UnsortedGrouping;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple4;
 import org.apache.flink.configuration.Configuration;
-import org.apache.flink.util.Collector;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.io.impl.DataDomain;
 import org.mappinganalysis.model.MergeMusicTriplet;
@@ -16,40 +14,62 @@ import org.mappinganalysis.model.MergeTuple;
 import org.mappinganalysis.model.functions.simcomputation.SimilarityComputation;
 import org.mappinganalysis.util.functions.LeftMinusRightSideJoinFunction;
 
-import java.util.HashSet;
-
 /**
  * Flink delta iteration step function for music domain.
+ *
+ * The workset contains (src id, trg id, sim, blocking label) triplets only,
+ * tuples are looked up in the solution set for merged and changed triplets.
  */
 public class DeltaIterateMergeMusicStepFunction {
   private static final Logger LOG = Logger.getLogger(DeltaIterateMergeMusicStepFunction.class);
   private DataDomain domain;
-  private DataSet<MergeMusicTriplet> workset;
+  private DataSet<Tuple4<Long, Long, Double, String>> workset;
+  private DataSet<MergeTuple> solutionSet;
   private SimilarityComputation<MergeMusicTriplet, MergeMusicTriplet> similarityComputation;
   private int sourcesCount;
+  private boolean isBatchedMerge;
   private DataSet<MergeTuple> delta;
 
+  /**
+   * @param isBatchedMerge merge all mutually best triplets of each block per
+   *                       superstep instead of only the max similarity triplets
+   */
   DeltaIterateMergeMusicStepFunction(
-      DataSet<MergeMusicTriplet> workset,
+      DataSet<Tuple4<Long, Long, Double, String>> workset,
+      DataSet<MergeTuple> solutionSet,
       SimilarityComputation<MergeMusicTriplet, MergeMusicTriplet> similarityComputation,
       int sourcesCount,
-      DataDomain domain) {
+      DataDomain domain,
+      boolean isBatchedMerge) {
     this.workset = workset;
+    this.solutionSet = solutionSet;
     this.similarityComputation = similarityComputation;
     this.sourcesCount = sourcesCount;
     this.domain = domain;
+    this.isBatchedMerge = isBatchedMerge;
 
     this.compute(); // TODO REMOVE
   }
 
   public void compute() {
-    DataSet<MergeMusicTriplet> maxTriplets = getIterationMaxTriplets(workset);
+    DataSet<Tuple4<Long, Long, Double, String>> maxTriplets
+        = getIterationMaxTriplets(workset, isBatchedMerge);
 
     /*
       delta is the solution set which is changed over the iterations
       contains the resulting clusters per iteration
      */
-    delta = maxTriplets.flatMap(new DualMergeMusicMapper());
+    delta = maxTriplets
+        .map(new MergeTripletFromIdsMapFunction())
+        .join(solutionSet)
+        .where(0)
+        .equalTo(0)
+        .with(new TripletTupleMusicJoinFunction(0))
+        .join(solutionSet)
+        .where(1)
+        .equalTo(0)
+        .with(new TripletTupleMusicJoinFunction(1))
+        .flatMap(new DualMergeMusicMapper());
     // merge + fake LOG
 
     workset = printSuperstep(workset);
@@ -66,24 +86,20 @@ public class DeltaIterateMergeMusicStepFunction {
         .flatMap(new TransitionElementsFlatMapFunction<>(domain));
 
     // remove workset triples containing max element src or trg
-    DataSet<MergeMusicTriplet> nextUnchangedWorkset = workset
-        .runOperation(new WorksetNewClusterRemoveOperation<>(transitions))
-        .map(x -> {
-//          LOG.info("nextUnchanged: " + x.toString());
-          return x;
-        })
-        .returns(new TypeHint<MergeMusicTriplet>() {});
+    DataSet<Tuple4<Long, Long, Double, String>> nextUnchangedWorkset = workset
+        .runOperation(new WorksetNewClusterRemoveOperation<>(transitions));
     // HOLD EXCLUDE 2
 
     workset = workset
-        .runOperation(new ChangesMusicOperation(delta, transitions, domain))
+        .runOperation(new ChangesMusicOperation(delta, transitions, solutionSet, domain))
         .runOperation(new ComputePrepareMusicOperation(domain, sourcesCount))
         .runOperation(similarityComputation)
+        .map(new MergeTripletIdsMapFunction())
         .union(nextUnchangedWorkset)
     ;
   }
 
-  DataSet<MergeMusicTriplet> getWorkset() {
+  DataSet<Tuple4<Long, Long, Double, String>> getWorkset() {
     return workset;
   }
 
@@ -99,41 +115,22 @@ public class DeltaIterateMergeMusicStepFunction {
   /**
    * In each iteration, get the highest triplet similarity for each blocking key. If
    * more than one triplet has highest similarity, take lowest entity id.
+   *
+   * Selection runs combinable on the workset triplets.
+   *
+   * Batched merge selects all mutually best triplets of each block, see
+   * {@link MutualBestBlockMatchReducer}.
    * @return only maximal similarity triplet for each blocking key
    */
-  private static DataSet<MergeMusicTriplet> getIterationMaxTriplets(
-      DataSet<MergeMusicTriplet> workset) {
-
-    // max sim, blocking key
-    return workset.join(workset.groupBy(5).max(4))
-        .where(4,5)
-        .equalTo(4,5)
-        .with((first, second) -> first)
-        .returns(new TypeHint<MergeMusicTriplet>() {})
-        .groupBy(5)
-        .sortGroup(0, Order.ASCENDING)
-        .sortGroup(1, Order.ASCENDING)
-        .reduceGroup(new GroupReduceFunction<MergeMusicTriplet, MergeMusicTriplet>() {
-          @Override
-          public void reduce(Iterable<MergeMusicTriplet> values,
-                             Collector<MergeMusicTriplet> out) throws Exception {
-            HashSet<Long> processedSet = Sets.newHashSet();
-            for (MergeMusicTriplet value : values) {
-              if (!processedSet.contains(value.getSrcId())
-                  && !processedSet.contains(value.getTrgId())) {
-                processedSet.add(value.getTrgId());
-                processedSet.add(value.getSrcId());
-
-                out.collect(value);
-              }
-            }
-          }
-        });
-
-//
-//    return workset
-//        .groupBy(5)
-//        .reduce(new MaxSimMinIdMusicReducer());
+  private static DataSet<Tuple4<Long, Long, Double, String>> getIterationMaxTriplets(
+      DataSet<Tuple4<Long, Long, Double, String>> workset, boolean isBatchedMerge) {
+
+    UnsortedGrouping<Tuple4<Long, Long, Double, String>> blocks = workset
+        .groupBy(3); // blocking key
+
+    return isBatchedMerge
+        ? blocks.reduceGroup(new MutualBestBlockMatchReducer())
+        : blocks.reduceGroup(new MaxSimBlockGroupReducer());
   }
 
   /**
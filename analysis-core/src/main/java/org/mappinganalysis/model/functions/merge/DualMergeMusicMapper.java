@@ -42,8 +42,10 @@ public class DualMergeMusicMapper
         minor.getIntSources()));
 
     // attributes
-    //Constants.BLOCKING_LABEL, priority, minor);
-    if (Utils.isSane(priority.getBlockingLabel())) {
+    // blocking label of the triplet, tuples from the solution set keep their initial label
+    if (Utils.isSane(triplet.getBlockingLabel()) && !triplet.getBlockingLabel().isEmpty()) {
+      mergedCluster.setBlockingLabel(triplet.getBlockingLabel());
+    } else if (Utils.isSane(priority.getBlockingLabel())) {
       mergedCluster.setBlockingLabel(priority.getBlockingLabel());
     } else if (Utils.isSane(minor.getBlockingLabel())) {
       mergedCluster.setBlockingLabel(minor.getBlockingLabel());
@@ -1,9 +1,9 @@
 package org.mappinganalysis.model.functions.merge;
 
-import com.google.common.collect.Sets;
 import org.apache.flink.api.common.functions.RichFlatJoinFunction;
 import org.apache.flink.graph.Vertex;
 import org.apache.flink.util.Collector;
+import org.mappinganalysis.model.LongSet;
 import org.mappinganalysis.model.MergeGeoTuple;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.util.AbstractionUtils;
@@ -32,8 +32,7 @@ public class FinalMergeGeoVertexCreator
       properties.setTypes(
           Constants.TYPE_INTERN,
           AbstractionUtils.getTypesStringSet(tuple.getIntTypes()));
-      properties.setClusterVertices(
-          Sets.newHashSet(tuple.getClusteredElements()));
+      properties.setClusterVertices(new LongSet(tuple.getClusteredElements()));
 
       out.collect(new Vertex<>(tuple.getId(), properties));
     }
@@ -0,0 +1,102 @@
+package org.mappinganalysis.model.functions.merge;
+
+import org.apache.flink.api.common.functions.GroupCombineFunction;
+import org.apache.flink.api.common.functions.GroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.apache.flink.util.Collector;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Select the max similarity triplets of a blocking key on
+ * (src id, trg id, sim, blocking key) projections.
+ *
+ * Combine keeps all triplets with the max similarity of the partial group.
+ * Reduce takes the triplets with the overall max similarity ordered by
+ * src id, trg id and selects each one whose src and trg are not part of an
+ * already selected triplet.
+ */
+public class MaxSimBlockGroupReducer
+    implements GroupReduceFunction<Tuple4<Long, Long, Double, String>,
+    Tuple4<Long, Long, Double, String>>,
+    GroupCombineFunction<Tuple4<Long, Long, Double, String>,
+        Tuple4<Long, Long, Double, String>> {
+  private static final long serialVersionUID = 1L;
+
+  private long[] srcIds = new long[16];
+  private long[] trgIds = new long[16];
+  private Integer[] order = new Integer[16];
+  private double maxSim;
+
+  @Override
+  public void combine(Iterable<Tuple4<Long, Long, Double, String>> values,
+                      Collector<Tuple4<Long, Long, Double, String>> out) throws Exception {
+    String blockingKey = null;
+    int size = 0;
+    for (Tuple4<Long, Long, Double, String> value : values) {
+      blockingKey = value.f3;
+      size = addIfMax(value, size);
+    }
+
+    for (int i = 0; i < size; i++) {
+      out.collect(new Tuple4<>(srcIds[i], trgIds[i], maxSim, blockingKey));
+    }
+  }
+
+  @Override
+  public void reduce(Iterable<Tuple4<Long, Long, Double, String>> values,
+                     Collector<Tuple4<Long, Long, Double, String>> out) throws Exception {
+    String blockingKey = null;
+    int size = 0;
+    for (Tuple4<Long, Long, Double, String> value : values) {
+      blockingKey = value.f3;
+      size = addIfMax(value, size);
+    }
+
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, 0, size, (left, right) -> {
+      int result = Long.compare(srcIds[left], srcIds[right]);
+      return result != 0 ? result : Long.compare(trgIds[left], trgIds[right]);
+    });
+
+    HashSet<Long> processedSet = new HashSet<>();
+    for (int i = 0; i < size; i++) {
+      long srcId = srcIds[order[i]];
+      long trgId = trgIds[order[i]];
+      if (!processedSet.contains(srcId) && !processedSet.contains(trgId)) {
+        processedSet.add(srcId);
+        processedSet.add(trgId);
+
+        out.collect(new Tuple4<>(srcId, trgId, maxSim, blockingKey));
+      }
+    }
+  }
+
+  /**
+   * Collect ids of max similarity triplets, reset the collected ids if the
+   * value has a higher similarity than the current max.
+   * @return new number of collected triplets
+   */
+  private int addIfMax(Tuple4<Long, Long, Double, String> value, int size) {
+    int compare = size == 0 ? 1 : Double.compare(value.f2, maxSim);
+    if (compare < 0) {
+      return size;
+    } else if (compare > 0) {
+      maxSim = value.f2;
+      size = 0;
+    }
+
+    if (size == srcIds.length) {
+      srcIds = Arrays.copyOf(srcIds, size * 2);
+      trgIds = Arrays.copyOf(trgIds, size * 2);
+      order = Arrays.copyOf(order, size * 2);
+    }
+    srcIds[size] = value.f0;
+    trgIds[size] = value.f1;
+
+    return size + 1;
+  }
+}
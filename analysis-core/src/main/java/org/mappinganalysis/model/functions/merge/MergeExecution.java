@@ -1,5 +1,6 @@
 package org.mappinganalysis.model.functions.merge;
 
+import com.google.common.base.Preconditions;
 import org.apache.flink.api.common.functions.FlatJoinFunction;
 import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.java.DataSet;
@@ -8,6 +9,8 @@ import org.apache.flink.api.java.operators.CustomUnaryOperation;
 import org.apache.flink.api.java.operators.DeltaIteration;
 import org.apache.flink.api.java.tuple.Tuple1;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.apache.flink.core.fs.Path;
 import org.apache.flink.graph.Vertex;
 import org.apache.flink.util.Collector;
 import org.apache.log4j.Logger;
@@ -17,9 +20,13 @@ import org.mappinganalysis.model.*;
 import org.mappinganalysis.model.functions.NcLshCandidateTupleCreator;
 import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
 import org.mappinganalysis.model.functions.blocking.blocksplit.BlockSplitTripletCreator;
+import org.mappinganalysis.model.functions.blocking.planner.BlockingStrategyPlanner;
+import org.mappinganalysis.model.functions.blocking.prefixfiltering.PrefixFilteringTripletCreator;
+import org.mappinganalysis.model.functions.blocking.sortedneighborhood.SortedNeighborhoodTripletCreator;
 import org.mappinganalysis.model.functions.blocking.tfidf.IdfBlockingOperation;
 import org.mappinganalysis.model.functions.preprocessing.AddShadingTypeMapFunction;
 import org.mappinganalysis.model.functions.simcomputation.SimilarityComputation;
+import org.mappinganalysis.model.functions.simcomputation.SimilarityStore;
 import org.mappinganalysis.model.impl.SimilarityStrategy;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.config.IncrementalConfig;
@@ -33,6 +40,11 @@ public class MergeExecution
   private static final Logger LOG = Logger.getLogger(MergeExecution.class);
   private final String metric;
   private int blockingLength = 4; // fix default setting
+  private int windowSize = Constants.WINDOW_SIZE_DEFAULT_VALUE;
+  private int idfSupport = Constants.IDF_SUPPORT_DEFAULT_VALUE;
+  private double blockingRecallTarget = Constants.BLOCKING_RECALL_TARGET_DEFAULT_VALUE;
+  private int blockingSampleSize = Constants.BLOCKING_SAMPLE_SIZE_DEFAULT_VALUE;
+  private double prefixFilteringThreshold = 0D; // required for prefix filtering
   private DataDomain domain;
   private BlockingStrategy blockingStrategy;
   private double mergeThreshold;
@@ -45,6 +57,14 @@ public class MergeExecution
   private int numberOfFamilies;
   private int numberOfHashesPerFamily;
 
+  private boolean isLshAutoTuneEnabled = false;
+  private double lshTargetRecall;
+  private boolean isLshMultiProbeEnabled;
+
+  private boolean isBatchedMergeEnabled = false;
+  private boolean isEarlyTerminationEnabled = false;
+  private String similarityStorePath = null;
+
   /**
    * Try to use as default constructor, if possible.
    */
@@ -56,6 +76,17 @@ public class MergeExecution
         config.getSourcesCount(),
         config.getExecutionEnvironment(),
         config.getBlockingLength());
+    this.windowSize = config.getWindowSize();
+    this.idfSupport = config.getIdfSupport();
+    this.blockingRecallTarget = config.getBlockingRecallTarget();
+    this.blockingSampleSize = config.getBlockingSampleSize();
+    this.prefixFilteringThreshold = config.getPrefixFilteringThreshold();
+    this.isBatchedMergeEnabled = config.isBatchedMerge();
+    this.isEarlyTerminationEnabled = config.isEarlyTermination();
+    this.similarityStorePath = config.getSimilarityStorePath();
+    Preconditions.checkArgument(blockingStrategy != BlockingStrategy.PREFIX_FILTERING
+            || prefixFilteringThreshold > 0,
+        "Prefix filtering needs a configured prefix filtering threshold");
   }
 
   public MergeExecution(DataDomain domain,
@@ -126,6 +157,28 @@ public class MergeExecution
     this.env = env;
   }
 
+  /**
+   * Only LSH, parameters are tuned on a sample of the clusters to find
+   * the given share of cluster pairs with similarity above merge threshold.
+   */
+  public MergeExecution(DataDomain domain,
+                        BlockingStrategy blockingStrategy,
+                        double mergeThreshold,
+                        int sourcesCount,
+                        double lshTargetRecall,
+                        boolean isLshMultiProbeEnabled,
+                        ExecutionEnvironment env) {
+    this.metric = Constants.COSINE_TRIGRAM;
+    this.domain = domain;
+    this.blockingStrategy = blockingStrategy;
+    this.mergeThreshold = mergeThreshold;
+    this.sourcesCount = sourcesCount;
+    this.isLshAutoTuneEnabled = true;
+    this.lshTargetRecall = lshTargetRecall;
+    this.isLshMultiProbeEnabled = isLshMultiProbeEnabled;
+    this.env = env;
+  }
+
   @Override
   public void setInput(DataSet<Vertex<Long, ObjectMap>> vertices) {
     this.baseClusters = vertices;
@@ -147,7 +200,9 @@ public class MergeExecution
           .map(new MergeGeoTupleCreator()); // TODO add custom blocking strategy option
 
       SimilarityFunction<MergeGeoTriplet, MergeGeoTriplet> simFunction =
-          new MergeGeoSimilarity(metric);
+          isEarlyTerminationEnabled
+              ? new MergeGeoSimilarity(metric, mergeThreshold)
+              : new MergeGeoSimilarity(metric);
 
       SimilarityComputation<MergeGeoTriplet,
           MergeGeoTriplet> similarityComputation
@@ -164,7 +219,9 @@ public class MergeExecution
           .filter(new SourceCountRestrictionFilter<>(domain, sourcesCount))
           .groupBy(7) // MergeGeoTuple::getBlockingLabel not working
           .reduceGroup(new MergeGeoTripletCreator(sourcesCount))
-          .runOperation(similarityComputation);
+          // stored similarities only outside of the iteration
+          .runOperation(createInitialSimilarityComputation(
+              simFunction, Constants.MERGE_SIMILARITY_STORE));
 
       // initialize the iteration GEO
       DeltaIteration<MergeGeoTuple, MergeGeoTriplet> iteration = clusters
@@ -188,17 +245,29 @@ public class MergeExecution
       ########## MUSIC/NC ##############
      */
     if (domain == DataDomain.MUSIC || domain == DataDomain.NC) {
+      if (blockingStrategy == BlockingStrategy.AUTO) {
+        planBlockingStrategy();
+      }
+      // lsh and idf blocking use standard blocking keys for tuples without candidates
+      BlockingStrategy keyStrategy = blockingStrategy == BlockingStrategy.LSH_BLOCKING
+          || blockingStrategy == BlockingStrategy.IDF_BLOCKING
+          ? BlockingStrategy.STANDARD_BLOCKING
+          : blockingStrategy;
       DataSet<MergeTuple> initialSolutionSet = baseClusters
-            .map(new MergeTupleCreator(blockingStrategy, domain, blockingLength));
+            .map(new MergeTupleCreator(keyStrategy, domain, blockingLength));
 
       // prep phase initial working set
       DataSet<MergeTuple> preBlockingClusters = initialSolutionSet
           .filter(new SourceCountRestrictionFilter<>(domain, sourcesCount));
       SimilarityFunction<MergeMusicTriplet, MergeMusicTriplet> simFunction;
       if (domain == DataDomain.MUSIC) {
-        simFunction = new MergeMusicSimilarity(metric);
+        simFunction = isEarlyTerminationEnabled
+            ? new MergeMusicSimilarity(metric, mergeThreshold)
+            : new MergeMusicSimilarity(metric);
       } else if (domain == DataDomain.NC) {
-        simFunction = new MergeNcSimilarity(metric);
+        simFunction = isEarlyTerminationEnabled
+            ? new MergeNcSimilarity(metric, mergeThreshold)
+            : new MergeNcSimilarity(metric);
       } else {
         throw new IllegalArgumentException("simfunction: Unsupported domain: " + domain);
       }
@@ -213,6 +282,10 @@ public class MergeExecution
           .setThreshold(mergeThreshold)
           .build();
 
+      // stored similarities only outside of the iteration
+      SimilarityComputation<MergeMusicTriplet, MergeMusicTriplet> initialSimilarityComputation
+          = createInitialSimilarityComputation(simFunction, Constants.MERGE_SIMILARITY_STORE);
+
       // initial working set
       DataSet<MergeMusicTriplet> initialWorkingSet;
 
@@ -223,23 +296,37 @@ public class MergeExecution
         initialWorkingSet = preBlockingClusters
             .groupBy(10) // blocking key
             .reduceGroup(new MergeMusicTripletCreator(sourcesCount))
-            .runOperation(similarityComputation);
+            .runOperation(initialSimilarityComputation);
       } else if (blockingStrategy == BlockingStrategy.BLOCK_SPLIT) {
         initialWorkingSet = preBlockingClusters
             .runOperation(new BlockSplitTripletCreator())
-            .runOperation(similarityComputation);
+            .runOperation(initialSimilarityComputation);
+      } else if (blockingStrategy == BlockingStrategy.SORTED_NEIGHBORHOOD) {
+        initialWorkingSet = preBlockingClusters
+            .runOperation(new SortedNeighborhoodTripletCreator(windowSize))
+            .runOperation(initialSimilarityComputation);
+      } else if (blockingStrategy == BlockingStrategy.PREFIX_FILTERING) {
+        initialWorkingSet = preBlockingClusters
+            .runOperation(new PrefixFilteringTripletCreator(prefixFilteringThreshold, env))
+            .runOperation(initialSimilarityComputation);
       } else if (blockingStrategy == BlockingStrategy.LSH_BLOCKING) {
-        initialWorkingSet = preBlockingClusters.runOperation(
-            new NcLshCandidateTupleCreator(
-                similarityComputation,
+        initialWorkingSet = preBlockingClusters.runOperation(isLshAutoTuneEnabled
+            ? new NcLshCandidateTupleCreator(
+                initialSimilarityComputation,
+                mergeThreshold,
+                lshTargetRecall,
+                isLshMultiProbeEnabled,
+                env)
+            : new NcLshCandidateTupleCreator(
+                initialSimilarityComputation,
                 valueRangeLsh,
                 numberOfFamilies,
                 numberOfHashesPerFamily,
                 env));
       } else if (blockingStrategy == BlockingStrategy.IDF_BLOCKING) {
         DataSet<MergeMusicTriplet> idfPartTriplets = preBlockingClusters
-            .runOperation(new IdfBlockingOperation(2, env)) // TODO define support globally
-            .runOperation(similarityComputation);
+            .runOperation(new IdfBlockingOperation(idfSupport, env))
+            .runOperation(initialSimilarityComputation);
 
         DataSet<MergeTuple> simpleTuples = idfPartTriplets
             .<Tuple2<Long, Long>>project(0, 1)
@@ -264,25 +351,32 @@ public class MergeExecution
         DataSet<MergeMusicTriplet> simpleTriplets = simpleTuples
             .groupBy(10) // blocking key
             .reduceGroup(new MergeMusicTripletCreator(sourcesCount))
-            .runOperation(similarityComputation);
+            // a store path is written at most once per job
+            .runOperation(createInitialSimilarityComputation(
+                simFunction, Constants.MERGE_IDF_FALLBACK_SIMILARITY_STORE));
 
         initialWorkingSet = idfPartTriplets.union(simpleTriplets);
       } else  {
         throw new IllegalArgumentException("Unsupported strategy: " + blockingStrategy);
       }
 
-      // initialize the iteration
-      DeltaIteration<MergeTuple, MergeMusicTriplet> iteration = initialSolutionSet
-          .iterateDelta(initialWorkingSet, Integer.MAX_VALUE, 0);
+      // initialize the iteration, workset triplets contain ids only
+      DeltaIteration<MergeTuple, Tuple4<Long, Long, Double, String>> iteration
+          = initialSolutionSet.iterateDelta(
+              initialWorkingSet.map(new MergeTripletIdsMapFunction()),
+              Integer.MAX_VALUE,
+              0);
 
       /*
         start step function - creates changed vertices and merges clusters
        */
       DeltaIterateMergeMusicStepFunction stepFunction = new DeltaIterateMergeMusicStepFunction(
           iteration.getWorkset(),
+          iteration.getSolutionSet(),
           similarityComputation,
           sourcesCount,
-          domain);
+          domain,
+          isBatchedMergeEnabled);
 
       return iteration//.parallelism() // TODO CHECK THIS OUT
           // low iteration paralellism???? and high other one
@@ -295,4 +389,53 @@ public class MergeExecution
       throw new IllegalArgumentException("Unsupported domain: " + domain.toString());
     }
   }
+
+  /**
+   * Merge similarity computation for the initial working set, reuses stored
+   * similarities from the given store sub directory if a store path is set.
+   */
+  private <T, O> SimilarityComputation<T, O> createInitialSimilarityComputation(
+      SimilarityFunction<T, O> simFunction, String storeName) {
+    SimilarityComputation.SimilarityComputationBuilder<T, O> builder
+        = new SimilarityComputation.SimilarityComputationBuilder<T, O>()
+        .setSimilarityFunction(simFunction)
+        .setStrategy(SimilarityStrategy.MERGE)
+        .setThreshold(mergeThreshold);
+    if (similarityStorePath != null) {
+      builder.setSimilarityStore(new SimilarityStore(
+          new Path(similarityStorePath, storeName).toString()));
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Choose the blocking strategy on a sample of the merge tuples, a chosen
+   * LSH blocking is auto tuned for the same recall target. Planning runs as an
+   * additional job which evaluates the base clusters once more.
+   */
+  private void planBlockingStrategy() {
+    DataSet<MergeTuple> tuples = baseClusters
+        .map(new MergeTupleCreator(BlockingStrategy.STANDARD_BLOCKING, domain, blockingLength))
+        .filter(new SourceCountRestrictionFilter<>(domain, sourcesCount));
+
+    blockingStrategy = new BlockingStrategyPlanner(
+        domain,
+        metric,
+        blockingLength,
+        windowSize,
+        mergeThreshold,
+        prefixFilteringThreshold,
+        blockingRecallTarget,
+        blockingSampleSize,
+        idfSupport,
+        isLshMultiProbeEnabled,
+        env.getParallelism())
+        .plan(tuples);
+
+    if (blockingStrategy == BlockingStrategy.LSH_BLOCKING) {
+      isLshAutoTuneEnabled = true;
+      lshTargetRecall = blockingRecallTarget;
+    }
+  }
 }
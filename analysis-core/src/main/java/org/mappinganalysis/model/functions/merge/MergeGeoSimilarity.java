@@ -5,7 +5,9 @@ import org.mappinganalysis.graph.SimilarityFunction;
 import org.mappinganalysis.model.MergeGeoTriplet;
 import org.mappinganalysis.model.MergeGeoTuple;
 import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.simcomputation.CachedStringSimilarity;
 import org.mappinganalysis.model.functions.simcomputation.MeanAggregationFunction;
+import org.mappinganalysis.model.functions.simcomputation.MeanSimilarityBound;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.Utils;
 
@@ -20,6 +22,8 @@ public class MergeGeoSimilarity
   private static final Logger LOG = Logger.getLogger(MergeGeoSimilarity.class);
 
   private MeanAggregationFunction aggregationFunction;
+  private MeanSimilarityBound similarityBound = null;
+  private transient CachedStringSimilarity labelSimilarity;
 
   /**
    * Constructor for custom aggregation function
@@ -37,19 +41,50 @@ public class MergeGeoSimilarity
     this(metric, new MeanAggregationFunction());
   }
 
+  /**
+   * Early termination: the label comparison is skipped if the mean similarity
+   * can not reach the min similarity, such triplets get similarity 0.
+   */
+  public MergeGeoSimilarity(String metric, double minSimilarity) {
+    this(metric);
+    this.similarityBound = new MeanSimilarityBound(minSimilarity);
+  }
+
+  /**
+   * Labels are always compared with cosine trigram, the instance is used for
+   * similarity store sessions.
+   */
+  @Override
+  public CachedStringSimilarity getStringSimilarity() {
+    if (labelSimilarity == null) {
+      labelSimilarity = new CachedStringSimilarity(Constants.COSINE_TRIGRAM);
+    }
+
+    return labelSimilarity;
+  }
+
   @Override
   public MergeGeoTriplet map(MergeGeoTriplet triplet) throws Exception {
     MergeGeoTuple src = triplet.getSrcTuple();
     MergeGeoTuple trg = triplet.getTrgTuple();
 
-    Double labelSimilarity = Utils.getSimilarityAndSimplifyForMetric(src.getLabel(),
-        trg.getLabel(), Constants.COSINE_TRIGRAM);
-
     Double geoSimilarity = Utils.getGeoSimilarity(src.getLatitude(),
         src.getLongitude(),
         trg.getLatitude(),
         trg.getLongitude());
 
+    if (similarityBound != null) {
+      similarityBound.reset();
+      similarityBound.add(geoSimilarity);
+      if (!similarityBound.isReachable(
+          getStringSimilarity().getUpperBound(src.getLabel(), trg.getLabel()))) {
+        triplet.setSimilarity(0D);
+        return triplet;
+      }
+    }
+    Double labelSimilarity = getStringSimilarity()
+        .compare(Constants.LABEL, src.getLabel(), trg.getLabel());
+
     ObjectMap values = new ObjectMap(Constants.GEO);
     if (labelSimilarity != null) {
       values.setLabelSimilarity(labelSimilarity);
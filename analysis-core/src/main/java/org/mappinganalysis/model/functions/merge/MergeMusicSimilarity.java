@@ -5,6 +5,7 @@ import org.mappinganalysis.graph.SimilarityFunction;
 import org.mappinganalysis.model.MergeMusicTriplet;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.simcomputation.MeanAggregationFunction;
+import org.mappinganalysis.model.functions.simcomputation.MeanSimilarityBound;
 import org.mappinganalysis.model.functions.simcomputation.SimCompUtils;
 import org.mappinganalysis.util.Constants;
 
@@ -18,7 +19,7 @@ public class MergeMusicSimilarity
     implements Serializable {
   private static final Logger LOG = Logger.getLogger(MergeMusicSimilarity.class);
   private MeanAggregationFunction aggregationFunction;
-  private String metric;
+  private MeanSimilarityBound similarityBound = null;
 
   /**
    * Similarity function for MergeMusicTriplets, used in (old) Merge.
@@ -35,19 +36,40 @@ public class MergeMusicSimilarity
     this(metric, new MeanAggregationFunction());
   }
 
-  // TODO add min sim check
+  /**
+   * Early termination: the string comparison is skipped if the mean similarity
+   * can not reach the min similarity, such triplets get similarity 0.
+   */
+  public MergeMusicSimilarity(String metric, double minSimilarity) {
+    this(metric);
+    this.similarityBound = new MeanSimilarityBound(minSimilarity);
+  }
+
   /**
    * Compute similarities for MUSIC domain based on properties.
    * {@value Constants#ARTIST_TITLE_ALBUM} is chosen over single values due to more reliability.
+   * Cheap properties are computed first.
    * @param triplet triplet where similarity is added to
    * @return updated triplet
    */
   @Override
   public MergeMusicTriplet map(MergeMusicTriplet triplet) throws Exception {
-    Double artistLabelAlbumSim = getAttributeSimilarity(Constants.ARTIST_TITLE_ALBUM, triplet);
     Double yearSim = getAttributeSimilarity(Constants.YEAR, triplet);
     Double lengthSim = getAttributeSimilarity(Constants.LENGTH, triplet);
     Double numberSim = getAttributeSimilarity(Constants.NUMBER, triplet);
+
+    if (similarityBound != null) {
+      similarityBound.reset();
+      similarityBound.add(yearSim);
+      similarityBound.add(lengthSim);
+      similarityBound.add(numberSim);
+      if (!similarityBound.isReachable(SimCompUtils.getStringUpperBound(
+          Constants.LABEL, triplet, getStringSimilarity()))) {
+        triplet.setSimilarity(0D);
+        return triplet;
+      }
+    }
+    Double artistLabelAlbumSim = getAttributeSimilarity(Constants.ARTIST_TITLE_ALBUM, triplet);
 //    Double languageSim = getAttributeSimilarity(Constants.LANGUAGE, triplet);
 
     ObjectMap values = new ObjectMap(Constants.MUSIC);
@@ -77,15 +99,15 @@ public class MergeMusicSimilarity
   private Double getAttributeSimilarity(String attrName, MergeMusicTriplet triplet) {
     switch (attrName) {
       case Constants.ARTIST_TITLE_ALBUM:
-        return SimCompUtils.handleString(Constants.LABEL, triplet, metric);
+        return SimCompUtils.handleString(Constants.LABEL, triplet, getStringSimilarity());
       case Constants.LANGUAGE:
         return null;
       case Constants.LABEL:
-        return SimCompUtils.handleString(Constants.LABEL, triplet, metric);
+        return SimCompUtils.handleString(Constants.LABEL, triplet, getStringSimilarity());
       case Constants.ARTIST:
-        return SimCompUtils.handleString(Constants.ARTIST, triplet, metric);
+        return SimCompUtils.handleString(Constants.ARTIST, triplet, getStringSimilarity());
       case Constants.ALBUM:
-        return SimCompUtils.handleString(Constants.ALBUM, triplet, metric);
+        return SimCompUtils.handleString(Constants.ALBUM, triplet, getStringSimilarity());
       case Constants.YEAR:
         return SimCompUtils.handleYear(triplet);
       case Constants.LENGTH:
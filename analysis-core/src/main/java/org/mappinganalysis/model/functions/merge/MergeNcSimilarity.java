@@ -5,6 +5,7 @@ import org.mappinganalysis.graph.SimilarityFunction;
 import org.mappinganalysis.model.MergeMusicTriplet;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.simcomputation.MeanAggregationFunction;
+import org.mappinganalysis.model.functions.simcomputation.MeanSimilarityBound;
 import org.mappinganalysis.model.functions.simcomputation.SimCompUtils;
 import org.mappinganalysis.util.Constants;
 
@@ -18,7 +19,7 @@ public class MergeNcSimilarity
     implements Serializable {
   private static final Logger LOG = Logger.getLogger(MergeMusicSimilarity.class);
   private MeanAggregationFunction aggregationFunction;
-  private String metric;
+  private MeanSimilarityBound similarityBound = null;
 
   public MergeNcSimilarity(String metric, MeanAggregationFunction aggregationFunction) {
     this.metric = metric;
@@ -29,12 +30,24 @@ public class MergeNcSimilarity
     this(metric, new MeanAggregationFunction());
   }
 
+  /**
+   * Early termination: remaining string comparisons are skipped as soon as the
+   * mean similarity can not reach the min similarity, such triplets get similarity 0.
+   */
+  public MergeNcSimilarity(String metric, double minSimilarity) {
+    this(metric);
+    this.similarityBound = new MeanSimilarityBound(minSimilarity);
+  }
+
   @Override
   public MergeMusicTriplet map(MergeMusicTriplet triplet) throws Exception {
-    Double labelSimilarity = getAttributeSimilarity(Constants.LABEL, triplet, metric);
-    Double artistSimilarity = getAttributeSimilarity(Constants.ARTIST, triplet, metric);
-    Double albumSimilarity = getAttributeSimilarity(Constants.ALBUM, triplet, metric);
-    Double numberSim = getAttributeSimilarity(Constants.NUMBER, triplet, metric);
+    if (similarityBound != null) {
+      return mapWithEarlyTermination(triplet);
+    }
+    Double labelSimilarity = getAttributeSimilarity(Constants.LABEL, triplet);
+    Double artistSimilarity = getAttributeSimilarity(Constants.ARTIST, triplet);
+    Double albumSimilarity = getAttributeSimilarity(Constants.ALBUM, triplet);
+    Double numberSim = getAttributeSimilarity(Constants.NUMBER, triplet);
 
     ObjectMap values = new ObjectMap(Constants.NC);
 
@@ -72,14 +85,71 @@ public class MergeNcSimilarity
     return triplet;
   }
 
-  private Double getAttributeSimilarity(String attrName, MergeMusicTriplet triplet, String metric) {
+  /**
+   * Number first, then string properties, check before each string comparison
+   * if the threshold is still reachable.
+   */
+  private MergeMusicTriplet mapWithEarlyTermination(MergeMusicTriplet triplet) {
+    Double numberSim = getAttributeSimilarity(Constants.NUMBER, triplet);
+    similarityBound.reset();
+    similarityBound.add(numberSim);
+
+    double labelBound = SimCompUtils
+        .getStringUpperBound(Constants.LABEL, triplet, getStringSimilarity());
+    double artistBound = SimCompUtils
+        .getStringUpperBound(Constants.ARTIST, triplet, getStringSimilarity());
+    double albumBound = SimCompUtils
+        .getStringUpperBound(Constants.ALBUM, triplet, getStringSimilarity());
+
+    ObjectMap values = new ObjectMap(Constants.NC);
+    if (numberSim != null) {
+      values.put(Constants.SIM_NUMBER, numberSim);
+    }
+
+    if (!similarityBound.isReachable(labelBound, artistBound, albumBound)) {
+      triplet.setSimilarity(0D);
+      return triplet;
+    }
+    Double labelSimilarity = getAttributeSimilarity(Constants.LABEL, triplet);
+    similarityBound.add(labelSimilarity);
+    if (labelSimilarity != null) {
+      values.put(Constants.SIM_LABEL, labelSimilarity);
+    }
+
+    if (!similarityBound.isReachable(artistBound, albumBound)) {
+      triplet.setSimilarity(0D);
+      return triplet;
+    }
+    Double artistSimilarity = getAttributeSimilarity(Constants.ARTIST, triplet);
+    similarityBound.add(artistSimilarity);
+    if (artistSimilarity != null) {
+      values.put(Constants.SIM_ARTIST, artistSimilarity);
+    }
+
+    if (!similarityBound.isReachable(albumBound)) {
+      triplet.setSimilarity(0D);
+      return triplet;
+    }
+    Double albumSimilarity = getAttributeSimilarity(Constants.ALBUM, triplet);
+    if (albumSimilarity != null) {
+      values.put(Constants.SIM_ALBUM, albumSimilarity);
+    }
+
+    triplet.setSimilarity(values
+        .runOperation(aggregationFunction)
+        .getEdgeSimilarity());
+
+    return triplet;
+  }
+
+  private Double getAttributeSimilarity(String attrName, MergeMusicTriplet triplet) {
     switch (attrName) {
       case Constants.LABEL:
-        return SimCompUtils.handleString(Constants.LABEL, triplet, metric);
+        return SimCompUtils.handleString(Constants.LABEL, triplet, getStringSimilarity());
       case Constants.ARTIST:
-        return SimCompUtils.handleString(Constants.ARTIST, triplet, metric);
+        return SimCompUtils.handleString(Constants.ARTIST, triplet, getStringSimilarity());
       case Constants.ALBUM:
-        return SimCompUtils.handleString(Constants.ALBUM, triplet, metric);
+        return SimCompUtils.handleString(Constants.ALBUM, triplet, getStringSimilarity());
       case Constants.NUMBER:
         return SimCompUtils.handleNumber(triplet);
       default:
@@ -0,0 +1,25 @@
+package org.mappinganalysis.model.functions.merge;
+
+import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.mappinganalysis.model.MergeMusicTriplet;
+
+/**
+ * Create a triplet with fake tuples for a (src id, trg id, sim, blocking label)
+ * workset element, the smaller id is used as src. Real tuples are added with
+ * {@link TripletTupleMusicJoinFunction}.
+ */
+public class MergeTripletFromIdsMapFunction
+    implements MapFunction<Tuple4<Long, Long, Double, String>, MergeMusicTriplet> {
+
+  @Override
+  public MergeMusicTriplet map(Tuple4<Long, Long, Double, String> ids) throws Exception {
+    MergeMusicTriplet triplet = ids.f0 < ids.f1
+        ? new MergeMusicTriplet(ids.f0, ids.f1)
+        : new MergeMusicTriplet(ids.f1, ids.f0);
+    triplet.setSimilarity(ids.f2);
+    triplet.setBlockingLabel(ids.f3);
+
+    return triplet;
+  }
+}
@@ -0,0 +1,25 @@
+package org.mappinganalysis.model.functions.merge;
+
+import org.apache.flink.api.common.functions.MapFunction;
+import org.apache.flink.api.java.functions.FunctionAnnotation;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.mappinganalysis.model.MergeMusicTriplet;
+
+/**
+ * Reduce a triplet to the (src id, trg id, sim, blocking label) workset
+ * representation of the merge iteration, tuples are looked up in the solution
+ * set if needed.
+ */
+@FunctionAnnotation.ForwardedFields({"f0", "f1", "f4->f2", "f5->f3"})
+public class MergeTripletIdsMapFunction
+    implements MapFunction<MergeMusicTriplet, Tuple4<Long, Long, Double, String>> {
+
+  @Override
+  public Tuple4<Long, Long, Double, String> map(MergeMusicTriplet triplet) throws Exception {
+    return new Tuple4<>(
+        triplet.getSrcId(),
+        triplet.getTrgId(),
+        triplet.getSimilarity(),
+        triplet.getBlockingLabel());
+  }
+}
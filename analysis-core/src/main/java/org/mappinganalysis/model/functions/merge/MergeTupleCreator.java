@@ -124,7 +124,9 @@ public class MergeTupleCreator
           artistTitleAlbum,
           blockingLength));
     } else if (domain == DataDomain.NC) {
-      String ncBlocking = Utils.getNcBlockingLabel(
+      String ncBlocking = blockingStrategy == BlockingStrategy.SORTED_NEIGHBORHOOD
+          ? artistTitleAlbum
+          : Utils.getNcBlockingLabel(
           properties.getArtist(), properties.getLabel(), blockingLength);
 
       tuple.setBlockingLabel(Utils.getBlockingKey(
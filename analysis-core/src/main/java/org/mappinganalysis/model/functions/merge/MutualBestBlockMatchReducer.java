@@ -0,0 +1,80 @@
+package org.mappinganalysis.model.functions.merge;
+
+import org.apache.flink.api.common.functions.GroupReduceFunction;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.apache.flink.util.Collector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Batched merge: select all mutually best triplets of a blocking key on
+ * (src id, trg id, sim, blocking key) projections. Triplets are ordered by
+ * similarity descending, src id and trg id, the first triplet containing an
+ * id is the best triplet of this id. A triplet is selected if it is the best
+ * triplet of its src and of its trg, selected triplets never share an id.
+ *
+ * Example block (1, 2, 0.9), (2, 3, 0.8), (3, 4, 0.7), (5, 6, 0.6), (4, 5, 0.5):
+ * (1, 2) and (5, 6) are selected. (3, 4) is not, the best triplet of 3 is
+ * (2, 3), a greedy matching would select it anyway. It is decided in the next
+ * superstep with the similarities to the merged (1, 2) cluster.
+ *
+ * The first max similarity triplet is always selected, see
+ * {@link MaxSimBlockGroupReducer}.
+ * Not combinable, a partial group can not decide which triplet is the best one.
+ */
+public class MutualBestBlockMatchReducer
+    implements GroupReduceFunction<Tuple4<Long, Long, Double, String>,
+    Tuple4<Long, Long, Double, String>> {
+  private static final long serialVersionUID = 1L;
+
+  private long[] srcIds = new long[16];
+  private long[] trgIds = new long[16];
+  private double[] sims = new double[16];
+  private Integer[] order = new Integer[16];
+
+  @Override
+  public void reduce(Iterable<Tuple4<Long, Long, Double, String>> values,
+                     Collector<Tuple4<Long, Long, Double, String>> out) throws Exception {
+    String blockingKey = null;
+    int size = 0;
+    for (Tuple4<Long, Long, Double, String> value : values) {
+      if (size == srcIds.length) {
+        srcIds = Arrays.copyOf(srcIds, size * 2);
+        trgIds = Arrays.copyOf(trgIds, size * 2);
+        sims = Arrays.copyOf(sims, size * 2);
+        order = Arrays.copyOf(order, size * 2);
+      }
+      blockingKey = value.f3;
+      srcIds[size] = value.f0;
+      trgIds[size] = value.f1;
+      sims[size] = value.f2;
+      order[size] = size;
+      ++size;
+    }
+
+    Arrays.sort(order, 0, size, (left, right) -> {
+      int result = Double.compare(sims[right], sims[left]);
+      if (result == 0) {
+        result = Long.compare(srcIds[left], srcIds[right]);
+      }
+      return result != 0 ? result : Long.compare(trgIds[left], trgIds[right]);
+    });
+
+    // id -> index of its best triplet
+    HashMap<Long, Integer> bestTriplets = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      int index = order[i];
+      bestTriplets.putIfAbsent(srcIds[index], index);
+      bestTriplets.putIfAbsent(trgIds[index], index);
+    }
+
+    for (int i = 0; i < size; i++) {
+      int index = order[i];
+      if (bestTriplets.get(srcIds[index]) == index
+          && bestTriplets.get(trgIds[index]) == index) {
+        out.collect(new Tuple4<>(srcIds[index], trgIds[index], sims[index], blockingKey));
+      }
+    }
+  }
+}
@@ -1,12 +1,12 @@
 package org.mappinganalysis.model.functions.merge;
 
 import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.java.tuple.Tuple;
 import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.util.Collector;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.io.impl.DataDomain;
 import org.mappinganalysis.model.MergeGeoTriplet;
-import org.mappinganalysis.model.MergeMusicTriplet;
 
 /**
  */
@@ -35,13 +35,15 @@ public class TransitionElementsFlatMapFunction<T>
       out.collect(new Tuple2<>(triplet.getSrcId(), min));
       out.collect(new Tuple2<>(triplet.getTrgId(), min));
     } else {
-      MergeMusicTriplet triplet = (MergeMusicTriplet) input;
-      Long min = triplet.getSrcId() < triplet.getTrgId()
-          ? triplet.getSrcId() : triplet.getTrgId();
-//            LOG.info("Transision: " + triplet.getSrcId() + " " + triplet.getTrgId() + " " + min);
-
-      out.collect(new Tuple2<>(triplet.getSrcId(), min));
-      out.collect(new Tuple2<>(triplet.getTrgId(), min));
+      // music triplet or (src id, trg id, ..) workset triplet
+      Tuple triplet = (Tuple) input;
+      Long srcId = triplet.getField(0);
+      Long trgId = triplet.getField(1);
+      Long min = srcId < trgId ? srcId : trgId;
+//            LOG.info("Transision: " + srcId + " " + trgId + " " + min);
+
+      out.collect(new Tuple2<>(srcId, min));
+      out.collect(new Tuple2<>(trgId, min));
     }
 
 
@@ -2,14 +2,16 @@ package org.mappinganalysis.model.functions.merge;
 
 import org.apache.flink.api.common.functions.JoinFunction;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple4;
 import org.apache.log4j.Logger;
-import org.mappinganalysis.model.MergeMusicTriplet;
 
 /**
- * Join to create triplet.
+ * Join to replace a merged cluster id in a (src id, trg id, sim, blocking label)
+ * workset triplet with the id of the new cluster.
  */
 public class TransitionMusicJoinFunction
-    implements JoinFunction<MergeMusicTriplet, Tuple2<Long, Long>, MergeMusicTriplet> {
+    implements JoinFunction<Tuple4<Long, Long, Double, String>, Tuple2<Long, Long>,
+    Tuple4<Long, Long, Double, String>> {
   private static final Logger LOG = Logger.getLogger(TransitionMusicJoinFunction.class);
 
   private Integer position;
@@ -19,14 +21,14 @@ public class TransitionMusicJoinFunction
   }
 
   @Override
-  public MergeMusicTriplet join(
-      MergeMusicTriplet triplet,
+  public Tuple4<Long, Long, Double, String> join(
+      Tuple4<Long, Long, Double, String> triplet,
       Tuple2<Long, Long> transition) throws Exception {
 //    LOG.info("transitionjoins" + transition + " for " + triplet.toString());
     if (position == 0) {
-      triplet.setSrcId(transition.f1);
+      triplet.f0 = transition.f1;
     } else if (position == 1) {
-      triplet.setTrgId(transition.f1);
+      triplet.f1 = transition.f1;
     } else {
       throw new IllegalArgumentException("Unsupported position: " + position);
     }
@@ -6,7 +6,8 @@ import org.mappinganalysis.model.MergeMusicTriplet;
 import org.mappinganalysis.model.MergeTuple;
 
 /**
- * Created by markus on 4/28/17.
+ * Set the src or trg tuple of a triplet. Within outer joins, the triplet is
+ * returned unchanged if there is no tuple.
  */
 public class TripletTupleMusicJoinFunction
     implements JoinFunction<MergeMusicTriplet, MergeTuple, MergeMusicTriplet> {
@@ -20,7 +21,9 @@ public class TripletTupleMusicJoinFunction
   @Override
   public MergeMusicTriplet join(MergeMusicTriplet triplet,
                               MergeTuple newTuple) throws Exception {
-    if (position == 0) {
+    if (newTuple == null) {
+      return triplet;
+    } else if (position == 0) {
       triplet.setSrcTuple(newTuple);
     } else if (position == 1) {
       triplet.setTrgTuple(newTuple);
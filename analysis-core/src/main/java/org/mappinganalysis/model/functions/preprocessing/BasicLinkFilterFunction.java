@@ -12,6 +12,7 @@ import org.apache.flink.graph.Vertex;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.graph.LinkFilterFunction;
 import org.mappinganalysis.graph.utils.ConnectedComponentIdAdder;
+import org.mappinganalysis.graph.utils.IncrementalConnectedComponentIdAdder;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.preprocessing.utils.EdgeSourceSimTuple;
 import org.mappinganalysis.model.functions.preprocessing.utils.LinkSelectionWithCcIdFunction;
@@ -74,8 +75,9 @@ public class BasicLinkFilterFunction
       resultVertices = graph.getVertices();
     }
 
+    // CC needed, only components which lost edges are computed again
     return Graph.fromDataSet(resultVertices, newEdges, env)
-        .run(new ConnectedComponentIdAdder<>(env)); // CC needed
+        .run(new IncrementalConnectedComponentIdAdder<>(graph.getEdges(), env));
   }
 
   private String getModeFromSources(List<String> sources) {
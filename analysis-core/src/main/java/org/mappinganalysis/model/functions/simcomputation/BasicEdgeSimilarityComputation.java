@@ -2,6 +2,7 @@ package org.mappinganalysis.model.functions.simcomputation;
 
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.core.fs.Path;
 import org.apache.flink.graph.*;
 import org.apache.flink.types.NullValue;
 import org.apache.log4j.Logger;
@@ -85,6 +86,12 @@ public class BasicEdgeSimilarityComputation
   @Override
   public Graph<Long, ObjectMap, ObjectMap> run(Graph<Long, ObjectMap, NullValue> graph)
       throws Exception {
+    SimilarityStore similarityStore = null;
+    if (config != null && config.getSimilarityStorePath() != null) {
+      similarityStore = new SimilarityStore(new Path(
+          config.getSimilarityStorePath(), Constants.EDGE_SIMILARITY_STORE).toString());
+    }
+
     SimilarityComputation<Triplet<Long, ObjectMap, NullValue>,
         Triplet<Long, ObjectMap, ObjectMap>> similarityComputation
         = new SimilarityComputation
@@ -92,6 +99,7 @@ public class BasicEdgeSimilarityComputation
         Triplet<Long, ObjectMap, ObjectMap>>()
         .setSimilarityFunction(simFunction)
         .setStrategy(SimilarityStrategy.EDGE_SIM)
+        .setSimilarityStore(similarityStore)
         .build();
 
     boolean checkSourceOverlap = false;
@@ -0,0 +1,265 @@
+package org.mappinganalysis.model.functions.simcomputation;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Multiset;
+import com.google.common.hash.Hashing;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.mappinganalysis.util.Constants;
+import org.mappinganalysis.util.Utils;
+import org.simmetrics.StringMetric;
+import org.simmetrics.metrics.CosineSimilarity;
+import org.simmetrics.tokenizers.Tokenizer;
+import org.simmetrics.tokenizers.Tokenizers;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * String similarity for a fixed metric which simplifies and tokenizes each
+ * property value only once per task. A vertex value is part of many candidate
+ * pairs, the prepared value (simplified string, trigram multiset for cosine) is
+ * kept in a bounded LRU cache and metric instances are shared. For
+ * {@value Constants#COSINE_TRIGRAM_PACKED} the cached {@link TrigramVector}s are
+ * compared without any allocation.
+ *
+ * Results are equal to {@link Utils#getSimilarityAndSimplifyForMetric}.
+ * Not thread safe, use one instance per function instance or the instance
+ * shared by all functions of the current task, see {@link #getTaskInstance}.
+ *
+ * Within a store session (see {@link SimilarityStore}), property similarities
+ * of the current pair are taken from the stored similarities if the hash of
+ * both property values is unchanged, computed similarities are collected.
+ */
+public class CachedStringSimilarity implements Serializable {
+  private static final long serialVersionUID = 42L;
+
+  private static final int MAX_CACHE_SIZE = 50000;
+
+  private static final Tokenizer TRIGRAM_TOKENIZER = Tokenizers.qGramWithPadding(3);
+  private static final CosineSimilarity<String> COSINE = new CosineSimilarity<>();
+  /**
+   * simmetrics JaroWinkler defaults, prefix scale 0.1 for max 4 prefix chars
+   */
+  private static final double JARO_WINKLER_MAX_BOOST = 0.4;
+  /**
+   * Flink runs each task in its own thread, one instance per metric and task
+   */
+  private static final ThreadLocal<Map<String, CachedStringSimilarity>> TASK_INSTANCES
+      = ThreadLocal.withInitial(HashMap::new);
+
+  private final String metric;
+  private transient StringMetric stringMetric;
+  private transient Map<String, PreparedValue> cache;
+  private transient Map<String, Tuple2<Long, Double>> storedSimilarities;
+  private transient List<Tuple3<String, Long, Double>> newSimilarities;
+
+  public CachedStringSimilarity(String metric) {
+    if (!metric.equals(Constants.JARO_WINKLER)
+        && !metric.equals(Constants.COSINE_TRIGRAM)
+        && !metric.equals(Constants.COSINE_TRIGRAM_PACKED)) {
+      throw new IllegalArgumentException("Unsupported metric: " + metric);
+    }
+    this.metric = metric;
+  }
+
+  /**
+   * Get the instance for the metric shared by all functions running in the
+   * current task, e.g., short-lived operations created for each triplet.
+   */
+  public static CachedStringSimilarity getTaskInstance(String metric) {
+    return TASK_INSTANCES.get().computeIfAbsent(metric, CachedStringSimilarity::new);
+  }
+
+  public String getMetric() {
+    return metric;
+  }
+
+  /**
+   * Get similarity for two property values.
+   * @return exact similarity or null if one of the values is not sane
+   */
+  public Double compare(String left, String right) {
+    Preconditions.checkNotNull(left);
+    Preconditions.checkNotNull(right);
+
+    if (!Utils.isSane(left) || !Utils.isSane(right)) {
+      return null;
+    }
+
+    PreparedValue preparedLeft = prepare(left);
+    PreparedValue preparedRight = prepare(right);
+
+    double similarity;
+    if (metric.equals(Constants.COSINE_TRIGRAM)) {
+      similarity = COSINE.compare(preparedLeft.trigrams, preparedRight.trigrams);
+    } else if (metric.equals(Constants.COSINE_TRIGRAM_PACKED)) {
+      similarity = TrigramVector.cosine(preparedLeft.vector, preparedRight.vector);
+    } else {
+      if (stringMetric == null) {
+        stringMetric = Utils.getMetric(metric);
+      }
+      similarity = stringMetric.compare(preparedLeft.simplified, preparedRight.simplified);
+    }
+
+    return Utils.getExactDoubleResult(similarity);
+  }
+
+  /**
+   * Upper bound of the similarity of two property values without comparing them.
+   *
+   * Cosine trigram: the dot product is at most the trigram count of one value
+   * times the max trigram count of the other one, i.e., sqrt(min/max trigram
+   * count) for values without repeated trigrams.
+   * Jaro-Winkler: at most min length matching chars and full prefix boost.
+   * @return upper bound or 0 if one of the values is not sane
+   */
+  public double getUpperBound(String left, String right) {
+    if (left == null || right == null || !Utils.isSane(left) || !Utils.isSane(right)) {
+      return 0D;
+    }
+
+    PreparedValue preparedLeft = prepare(left);
+    PreparedValue preparedRight = prepare(right);
+
+    if (metric.equals(Constants.JARO_WINKLER)) {
+      double minLength = Math.min(preparedLeft.simplified.length(),
+          preparedRight.simplified.length());
+      double maxLength = Math.max(preparedLeft.simplified.length(),
+          preparedRight.simplified.length());
+      if (minLength == 0) {
+        return 1D;
+      }
+      double jaro = (2 + minLength / maxLength) / 3;
+
+      return jaro + JARO_WINKLER_MAX_BOOST * (1 - jaro);
+    } else {
+      if (preparedLeft.squaredMagnitude == 0 || preparedRight.squaredMagnitude == 0) {
+        return 1D;
+      }
+      double dotProduct = Math.min(
+          (double) preparedLeft.maxCount * preparedRight.trigramCount,
+          (double) preparedRight.maxCount * preparedLeft.trigramCount);
+
+      return Math.min(1D, dotProduct / Math.sqrt(
+          (double) preparedLeft.squaredMagnitude * preparedRight.squaredMagnitude));
+    }
+  }
+
+  /**
+   * Get similarity for two values of a property, within a store session the
+   * stored similarity is used if the values are unchanged.
+   * @return exact similarity or null if one of the values is not sane
+   */
+  public Double compare(String property, String left, String right) {
+    if (newSimilarities == null) {
+      return compare(left, right);
+    }
+
+    long valueHash = getValueHash(left, right);
+    Tuple2<Long, Double> stored = storedSimilarities.get(property);
+    if (stored != null && stored.f0 == valueHash) {
+      return stored.f1;
+    }
+
+    Double similarity = compare(left, right);
+    if (similarity != null) {
+      newSimilarities.add(new Tuple3<>(property, valueHash, similarity));
+    }
+
+    return similarity;
+  }
+
+  /**
+   * Start a store session for a single pair.
+   * @param storedSimilarities property to (value hash, similarity)
+   */
+  public void startStoreSession(Map<String, Tuple2<Long, Double>> storedSimilarities) {
+    this.storedSimilarities = storedSimilarities;
+    this.newSimilarities = new ArrayList<>();
+  }
+
+  /**
+   * End the store session.
+   * @return computed (property, value hash, similarity) entries of the pair
+   */
+  public List<Tuple3<String, Long, Double>> finishStoreSession() {
+    List<Tuple3<String, Long, Double>> result = newSimilarities;
+    this.storedSimilarities = null;
+    this.newSimilarities = null;
+
+    return result;
+  }
+
+  /**
+   * Hash of both property values, changed values invalidate stored similarities.
+   */
+  public static long getValueHash(String left, String right) {
+    return Hashing.murmur3_128().newHasher()
+        .putInt(left.length())
+        .putString(left, StandardCharsets.UTF_8)
+        .putString(right, StandardCharsets.UTF_8)
+        .hash()
+        .asLong();
+  }
+
+  private PreparedValue prepare(String value) {
+    if (cache == null) {
+      cache = new LinkedHashMap<String, PreparedValue>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedValue> eldest) {
+          return size() > MAX_CACHE_SIZE;
+        }
+      };
+    }
+
+    PreparedValue prepared = cache.get(value);
+    if (prepared == null) {
+      String simplified = Utils.simplify(value);
+      Multiset<String> trigrams = metric.equals(Constants.COSINE_TRIGRAM)
+          ? TRIGRAM_TOKENIZER.tokenizeToMultiset(simplified)
+          : null;
+      TrigramVector vector = metric.equals(Constants.COSINE_TRIGRAM_PACKED)
+          ? TrigramVector.create(simplified)
+          : null;
+      prepared = new PreparedValue(simplified, trigrams, vector);
+      if (trigrams != null) {
+        prepared.trigramCount = trigrams.size();
+        for (Multiset.Entry<String> entry : trigrams.entrySet()) {
+          prepared.maxCount = Math.max(prepared.maxCount, entry.getCount());
+          prepared.squaredMagnitude += entry.getCount() * entry.getCount();
+        }
+      } else if (vector != null) {
+        prepared.trigramCount = vector.getTrigramCount();
+        prepared.maxCount = vector.getMaxCount();
+        prepared.squaredMagnitude = vector.getSquaredMagnitude();
+      }
+      cache.put(value, prepared);
+    }
+
+    return prepared;
+  }
+
+  /**
+   * Normalized form of a single property value.
+   */
+  private static class PreparedValue {
+    private final String simplified;
+    private final Multiset<String> trigrams;
+    private final TrigramVector vector;
+    private int trigramCount = 0;
+    private int maxCount = 0;
+    private int squaredMagnitude = 0;
+
+    PreparedValue(String simplified, Multiset<String> trigrams, TrigramVector vector) {
+      this.simplified = simplified;
+      this.trigrams = trigrams;
+      this.vector = vector;
+    }
+  }
+}
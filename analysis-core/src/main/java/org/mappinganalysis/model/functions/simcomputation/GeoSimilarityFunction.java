@@ -38,10 +38,10 @@ public class GeoSimilarityFunction
     ObjectMap trgProps = triplet.getTrgVertex().getValue();
     Triplet<Long, ObjectMap, ObjectMap> result = initResultTriplet(triplet);
 
-    Double labelSimilarity = Utils.getSimilarityAndSimplifyForMetric(
+    Double labelSimilarity = getStringSimilarity().compare(
+        Constants.LABEL,
         srcProps.getLabel(),
-        trgProps.getLabel(),
-        metric);
+        trgProps.getLabel());
     result.getEdge().getValue().put(Constants.SIM_LABEL, labelSimilarity);
 
     // TODO remove dirty solution, check if needed
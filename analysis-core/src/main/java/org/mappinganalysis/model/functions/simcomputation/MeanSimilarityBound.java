@@ -0,0 +1,72 @@
+package org.mappinganalysis.model.functions.simcomputation;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Threshold check for the mean similarity of a pair while its property
+ * similarities are computed one after another.
+ *
+ * Like in {@link MeanAggregationFunction}, missing property similarities are
+ * not part of the mean. The achievable mean is the best mean of the computed
+ * similarities together with any subset of the pending upper bounds.
+ */
+public class MeanSimilarityBound implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * single similarities are rounded to 6 digits
+   */
+  private static final double EPSILON = 0.000001;
+
+  private final double threshold;
+  private double sum;
+  private int count;
+
+  public MeanSimilarityBound(double threshold) {
+    this.threshold = threshold;
+  }
+
+  public double getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Start a new pair.
+   */
+  public void reset() {
+    sum = 0D;
+    count = 0;
+  }
+
+  /**
+   * Add a computed similarity, null for missing values.
+   */
+  public void add(Double similarity) {
+    if (similarity != null) {
+      sum += similarity;
+      ++count;
+    }
+  }
+
+  /**
+   * Check if the threshold can still be reached.
+   * @param pendingBounds upper bounds of all not yet computed similarities
+   * @return false if the pair can be discarded
+   */
+  public boolean isReachable(double... pendingBounds) {
+    double[] bounds = Arrays.copyOf(pendingBounds, pendingBounds.length);
+    Arrays.sort(bounds);
+
+    double currentSum = sum;
+    int currentCount = count;
+    double best = count == 0 ? 0D : sum / count;
+    for (int i = bounds.length - 1; i >= 0; i--) {
+      currentSum += bounds[i];
+      ++currentCount;
+      best = Math.max(best, currentSum / currentCount);
+    }
+
+    return best >= threshold - EPSILON;
+  }
+}
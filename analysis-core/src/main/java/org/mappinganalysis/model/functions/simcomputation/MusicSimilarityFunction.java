@@ -31,7 +31,8 @@ public class MusicSimilarityFunction
 
     result
 //        .runOperation(new SinglePropertySimilarity(Constants.LANGUAGE, metric))
-        .runOperation(new SinglePropertySimilarity(Constants.ARTIST_TITLE_ALBUM, metric))
+        .runOperation(new SinglePropertySimilarity(
+            Constants.ARTIST_TITLE_ALBUM, getStringSimilarity()))
 //        .runOperation(new SinglePropertySimilarity(Constants.YEAR, metric))
 //        .runOperation(new SinglePropertySimilarity(Constants.LENGTH, metric))
     ;
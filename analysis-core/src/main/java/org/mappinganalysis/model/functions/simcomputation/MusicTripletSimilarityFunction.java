@@ -4,7 +4,6 @@ import org.apache.log4j.Logger;
 import org.mappinganalysis.graph.SimilarityFunction;
 import org.mappinganalysis.model.MergeMusicTriplet;
 import org.mappinganalysis.util.Constants;
-import org.mappinganalysis.util.Utils;
 
 import java.io.Serializable;
 /**
@@ -23,10 +22,10 @@ public class MusicTripletSimilarityFunction
   @Override
   public MergeMusicTriplet map(MergeMusicTriplet triplet) throws Exception {
 //    System.out.println(triplet.getSrcTuple().getArtistTitleAlbum() + " second: " + triplet.getTrgTuple().getArtistTitleAlbum());
-    Double similarity = Utils.getSimilarityAndSimplifyForMetric(
+    Double similarity = getStringSimilarity().compare(
+        Constants.ARTIST_TITLE_ALBUM,
         triplet.getSrcTuple().getArtistTitleAlbum(),
-        triplet.getTrgTuple().getArtistTitleAlbum(),
-        metric);
+        triplet.getTrgTuple().getArtistTitleAlbum());
     if (similarity != null) {
       triplet.setSimilarity(similarity);
     } else {
@@ -25,10 +25,10 @@ public class NcSimilarityFunction
       Triplet<Long, ObjectMap, NullValue> triplet) throws Exception {
 
     EdgeObjectMapTriplet result = new EdgeObjectMapTriplet(triplet, Constants.NC);
-    result.runOperation(new SinglePropertySimilarity(Constants.LABEL, metric))
-        .runOperation(new SinglePropertySimilarity(Constants.ARTIST, metric))
-        .runOperation(new SinglePropertySimilarity(Constants.ALBUM, metric))
-        .runOperation(new SinglePropertySimilarity(Constants.NUMBER, metric));
+    result.runOperation(new SinglePropertySimilarity(Constants.LABEL, getStringSimilarity()))
+        .runOperation(new SinglePropertySimilarity(Constants.ARTIST, getStringSimilarity()))
+        .runOperation(new SinglePropertySimilarity(Constants.ALBUM, getStringSimilarity()))
+        .runOperation(new SinglePropertySimilarity(Constants.NUMBER, getStringSimilarity()));
 
     return result;
   }
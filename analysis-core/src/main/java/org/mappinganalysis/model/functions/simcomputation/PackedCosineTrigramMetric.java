@@ -0,0 +1,19 @@
+package org.mappinganalysis.model.functions.simcomputation;
+
+import org.simmetrics.StringMetric;
+
+/**
+ * Cosine similarity on padded trigrams based on {@link TrigramVector}.
+ * Drop in replacement for the simmetrics cosine trigram metric.
+ */
+public class PackedCosineTrigramMetric implements StringMetric {
+  @Override
+  public float compare(String a, String b) {
+    return TrigramVector.cosine(TrigramVector.create(a), TrigramVector.create(b));
+  }
+
+  @Override
+  public String toString() {
+    return "PackedCosineTrigramMetric";
+  }
+}
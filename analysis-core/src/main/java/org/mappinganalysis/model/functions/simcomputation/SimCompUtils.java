@@ -24,13 +24,25 @@ public class SimCompUtils {
     }
   }
 
-  public static Double handleString(String attrName, MergeMusicTriplet triplet, String metric) {
+  public static Double handleString(String attrName, MergeMusicTriplet triplet,
+                                    CachedStringSimilarity similarity) {
 //    System.out.println("simcomputils: " + attrName);
 //    System.out.println(triplet.toString());
     String left = triplet.getSrcTuple().getString(attrName);
     String right = triplet.getTrgTuple().getString(attrName);
 
-    return Utils.getSimilarityAndSimplifyForMetric(left, right, metric);
+    return similarity.compare(attrName, left, right);
+  }
+
+  /**
+   * Upper bound for {@link #handleString}, values are not compared.
+   */
+  public static double getStringUpperBound(String attrName, MergeMusicTriplet triplet,
+                                           CachedStringSimilarity similarity) {
+    String left = triplet.getSrcTuple().getString(attrName);
+    String right = triplet.getTrgTuple().getString(attrName);
+
+    return similarity.getUpperBound(left, right);
   }
 
 
@@ -19,6 +19,7 @@ public abstract class SimilarityComputation<T, O>
   private final Double threshold;
   private final SimilarityFunction<T, O> function;
   private final SimilarityStrategy strategy;
+  private SimilarityStore similarityStore = null;
   private DataSet<T> inputData;
 
   public SimilarityComputation(SimilarityFunction<T, O> function,
@@ -34,6 +35,10 @@ public abstract class SimilarityComputation<T, O>
     this.inputData = inputData;
   }
 
+  void setSimilarityStore(SimilarityStore similarityStore) {
+    this.similarityStore = similarityStore;
+  }
+
   /**
    * Execution of previously defined operators and aggregations to compute similarities.
    */
@@ -43,16 +48,17 @@ public abstract class SimilarityComputation<T, O>
 			throw new IllegalStateException("The input data set has not been set.");
 		}
 
+    DataSet<O> similarities = similarityStore == null
+        ? inputData.map(function)
+        : similarityStore.compute(inputData, function);
+
     if (strategy == SimilarityStrategy.MERGE) {
-      return inputData
-          .map(function)
+      return similarities
           .filter(new MinThresholdFilterFunction<>(threshold));
     } else if (strategy == SimilarityStrategy.EDGE_SIM) {
-      return inputData
-          .map(function);
+      return similarities;
     } else if (strategy == SimilarityStrategy.MUSIC) { // customize?
-      return inputData
-          .map(function);
+      return similarities;
     } else {
       throw new IllegalArgumentException("Unsupported strategy: " + strategy);
     }
@@ -68,6 +74,7 @@ public abstract class SimilarityComputation<T, O>
     private SimilarityFunction<T, O> function;
     private SimilarityStrategy strategy;
     private double threshold;
+    private SimilarityStore similarityStore = null;
 
     public SimilarityComputationBuilder<T, O> setStrategy(
         SimilarityStrategy strategy) {
@@ -90,21 +97,35 @@ public abstract class SimilarityComputation<T, O>
       return this;
     }
 
+    /**
+     * Optional persistent store for property similarities, must not be used
+     * within iterations.
+     */
+    public SimilarityComputationBuilder<T, O> setSimilarityStore(
+        SimilarityStore similarityStore) {
+      this.similarityStore = similarityStore;
+      return this;
+    }
+
     /**
      * Creates similarity computation operator based on the configured parameters.
      * @return similarity computation operator
      */
     public SimilarityComputation<T, O> build() {
       // return different implementation for mergetriplet and normal triple
+      SimilarityComputation<T, O> computation;
       if (strategy == SimilarityStrategy.MERGE) {
-        return new MergeSimilarityComputation<>(function, strategy, threshold);
+        computation = new MergeSimilarityComputation<>(function, strategy, threshold);
       } else if (strategy == SimilarityStrategy.EDGE_SIM) {
-        return new GeoSimilarityComputation<>(function, strategy, threshold);
+        computation = new GeoSimilarityComputation<>(function, strategy, threshold);
       } else if (strategy == SimilarityStrategy.MUSIC) {
-        return new MusicSimilarityComputation<>(function, strategy, threshold);
+        computation = new MusicSimilarityComputation<>(function, strategy, threshold);
       } else {
         throw new IllegalArgumentException("Unsupported strategy: " + strategy);
       }
+      computation.setSimilarityStore(similarityStore);
+
+      return computation;
     }
 
   }
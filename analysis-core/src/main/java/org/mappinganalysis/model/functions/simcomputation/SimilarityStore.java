@@ -0,0 +1,123 @@
+package org.mappinganalysis.model.functions.simcomputation;
+
+import org.apache.flink.api.common.functions.FlatMapFunction;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.tuple.Tuple6;
+import org.apache.flink.api.java.typeutils.EitherTypeInfo;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.core.fs.FileSystem;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.types.Either;
+import org.apache.flink.util.Collector;
+import org.apache.log4j.Logger;
+import org.mappinganalysis.graph.SimilarityFunction;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Persistent property similarities for repeated runs on the same input, e.g.,
+ * threshold sweeps in benchmarks.
+ *
+ * Entries are (src id, trg id, property, metric, value hash, similarity) for
+ * string property similarities. If the store path does not exist, all computed
+ * entries are written there. Otherwise, stored entries are used if the
+ * hash of both property values is unchanged, other similarities are computed
+ * again but not written, delete the store to rebuild it.
+ *
+ * Triplet types need the vertex ids as field 0 and 1.
+ */
+public class SimilarityStore implements Serializable {
+  private static final Logger LOG = Logger.getLogger(SimilarityStore.class);
+  private static final long serialVersionUID = 1L;
+
+  private static final TypeInformation<Tuple6<Long, Long, String, String, Long, Double>>
+      ENTRY_TYPE = TypeInformation.of(
+          new TypeHint<Tuple6<Long, Long, String, String, Long, Double>>() {});
+
+  private final String path;
+
+  public SimilarityStore(String path) {
+    this.path = path;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Check if the store has been written in a previous run.
+   */
+  public boolean isStored() {
+    Path storePath = new Path(path);
+    try {
+      return storePath.getFileSystem().exists(storePath);
+    } catch (IOException e) {
+      throw new IllegalStateException("Similarity store not accessible: " + path, e);
+    }
+  }
+
+  /**
+   * Compute the similarity function, stored property similarities are reused.
+   */
+  public <T, O> DataSet<O> compute(DataSet<T> input, SimilarityFunction<T, O> function) {
+    ExecutionEnvironment env = input.getExecutionEnvironment();
+    boolean isStored = isStored();
+
+    DataSet<Tuple6<Long, Long, String, String, Long, Double>> entries = isStored
+        ? env.readCsvFile(path)
+        .types(Long.class, Long.class, String.class, String.class, Long.class, Double.class)
+        : env.fromCollection(new ArrayList<>(), ENTRY_TYPE);
+    LOG.info((isStored ? "Read" : "Write") + " similarity store: " + path);
+
+    TypeInformation<O> resultType = TypeExtractor.getMapReturnTypes(function, input.getType());
+
+    DataSet<Either<O, Tuple6<Long, Long, String, String, Long, Double>>> computed = input
+        .coGroup(entries)
+        .where(0, 1)
+        .equalTo(0, 1)
+        .with(new SimilarityStoreCoGroupFunction<>(function))
+        .returns(new EitherTypeInfo<>(resultType, ENTRY_TYPE));
+
+    if (!isStored) {
+      computed.flatMap(new EitherSide<>(false, ENTRY_TYPE))
+          .writeAsCsv(path, FileSystem.WriteMode.NO_OVERWRITE);
+    }
+
+    return computed.flatMap(new EitherSide<>(true, resultType));
+  }
+
+  /**
+   * Get left or right values.
+   */
+  private static class EitherSide<L, R, X>
+      implements FlatMapFunction<Either<L, R>, X>, ResultTypeQueryable<X> {
+    private final boolean isLeft;
+    private final TypeInformation<X> type;
+
+    EitherSide(boolean isLeft, TypeInformation<X> type) {
+      this.isLeft = isLeft;
+      this.type = type;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void flatMap(Either<L, R> value, Collector<X> out) throws Exception {
+      if (isLeft && value.isLeft()) {
+        out.collect((X) value.left());
+      } else if (!isLeft && value.isRight()) {
+        out.collect((X) value.right());
+      }
+    }
+
+    @Override
+    public TypeInformation<X> getProducedType() {
+      return type;
+    }
+  }
+}
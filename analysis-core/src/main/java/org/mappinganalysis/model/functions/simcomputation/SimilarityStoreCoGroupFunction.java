@@ -0,0 +1,59 @@
+package org.mappinganalysis.model.functions.simcomputation;
+
+import org.apache.flink.api.common.functions.CoGroupFunction;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.api.java.tuple.Tuple6;
+import org.apache.flink.types.Either;
+import org.apache.flink.util.Collector;
+import org.mappinganalysis.graph.SimilarityFunction;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compute the similarity function for all triplets of a vertex id pair with the
+ * stored property similarities of the pair. Output is the triplet result (left)
+ * and each newly computed property similarity as store entry (right).
+ */
+class SimilarityStoreCoGroupFunction<T, O>
+    implements CoGroupFunction<T, Tuple6<Long, Long, String, String, Long, Double>,
+    Either<O, Tuple6<Long, Long, String, String, Long, Double>>> {
+  private static final long serialVersionUID = 1L;
+
+  private final SimilarityFunction<T, O> function;
+
+  SimilarityStoreCoGroupFunction(SimilarityFunction<T, O> function) {
+    this.function = function;
+  }
+
+  @Override
+  public void coGroup(Iterable<T> triplets,
+                      Iterable<Tuple6<Long, Long, String, String, Long, Double>> entries,
+                      Collector<Either<O, Tuple6<Long, Long, String, String, Long, Double>>> out)
+      throws Exception {
+    HashMap<String, Tuple2<Long, Double>> stored = new HashMap<>();
+    for (Tuple6<Long, Long, String, String, Long, Double> entry : entries) {
+      if (entry.f3.equals(function.metric)) {
+        stored.put(entry.f2, new Tuple2<>(entry.f4, entry.f5));
+      }
+    }
+
+    CachedStringSimilarity stringSimilarity = function.getStringSimilarity();
+    for (T triplet : triplets) {
+      Long srcId = ((Tuple) triplet).getField(0);
+      Long trgId = ((Tuple) triplet).getField(1);
+
+      stringSimilarity.startStoreSession(stored);
+      O result = function.map(triplet);
+      List<Tuple3<String, Long, Double>> computed = stringSimilarity.finishStoreSession();
+
+      out.collect(Either.Left(result));
+      for (Tuple3<String, Long, Double> similarity : computed) {
+        out.collect(Either.Right(new Tuple6<>(srcId, trgId, similarity.f0,
+            function.metric, similarity.f1, similarity.f2)));
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.mappinganalysis.model.functions.simcomputation;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Trigram multiset of a (simplified) string as sorted packed trigrams with counts.
+ *
+ * Trigrams are padded like simmetrics qGramWithPadding(3) ("##" at start and end),
+ * each trigram is packed into a long (3 x 16 bit chars).
+ */
+public class TrigramVector implements Serializable {
+  private static final long serialVersionUID = 42L;
+
+  private static final char PADDING = '#';
+  private static final TrigramVector EMPTY = new TrigramVector(new long[0], new int[0], 0, 0, 0);
+
+  private final long[] trigrams;
+  private final int[] counts;
+  private final int size;
+  private final int squaredMagnitude;
+  private final int maxCount;
+
+  private TrigramVector(long[] trigrams, int[] counts, int size,
+                        int squaredMagnitude, int maxCount) {
+    this.trigrams = trigrams;
+    this.counts = counts;
+    this.size = size;
+    this.squaredMagnitude = squaredMagnitude;
+    this.maxCount = maxCount;
+  }
+
+  /**
+   * Create trigram vector for an already simplified value.
+   */
+  public static TrigramVector create(String value) {
+    if (value.isEmpty()) {
+      return EMPTY;
+    }
+
+    int length = value.length() + 4;
+    long[] packed = new long[length - 2];
+    long previous = pack(PADDING, PADDING);
+    for (int i = 2; i < length; i++) {
+      char current = i < length - 2 ? value.charAt(i - 2) : PADDING;
+      long trigram = ((previous << 16) | current) & 0xFFFFFFFFFFFFL;
+      packed[i - 2] = trigram;
+      previous = trigram;
+    }
+    Arrays.sort(packed);
+
+    long[] trigrams = new long[packed.length];
+    int[] counts = new int[packed.length];
+    int size = 0;
+    for (long trigram : packed) {
+      if (size > 0 && trigrams[size - 1] == trigram) {
+        ++counts[size - 1];
+      } else {
+        trigrams[size] = trigram;
+        counts[size] = 1;
+        ++size;
+      }
+    }
+
+    int squaredMagnitude = 0;
+    int maxCount = 0;
+    for (int i = 0; i < size; i++) {
+      squaredMagnitude += counts[i] * counts[i];
+      maxCount = Math.max(maxCount, counts[i]);
+    }
+
+    return new TrigramVector(trigrams, counts, size, squaredMagnitude, maxCount);
+  }
+
+  private static long pack(char first, char second) {
+    return ((long) first << 16) | second;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Number of trigrams including duplicates.
+   */
+  public int getTrigramCount() {
+    return trigrams.length;
+  }
+
+  public int getMaxCount() {
+    return maxCount;
+  }
+
+  public int getSquaredMagnitude() {
+    return squaredMagnitude;
+  }
+
+  /**
+   * Cosine similarity of two trigram vectors, merge join over both sorted arrays.
+   *
+   * Float computation order is equal to simmetrics CosineSimilarity, all
+   * intermediate sums are integral, results are identical.
+   */
+  public static float cosine(TrigramVector left, TrigramVector right) {
+    if (left.isEmpty() && right.isEmpty()) {
+      return 1.0f;
+    }
+    if (left.isEmpty() || right.isEmpty()) {
+      return 0.0f;
+    }
+
+    int dotProduct = 0;
+    int i = 0;
+    int j = 0;
+    while (i < left.size && j < right.size) {
+      long leftTrigram = left.trigrams[i];
+      long rightTrigram = right.trigrams[j];
+      if (leftTrigram < rightTrigram) {
+        ++i;
+      } else if (leftTrigram > rightTrigram) {
+        ++j;
+      } else {
+        dotProduct += left.counts[i] * right.counts[j];
+        ++i;
+        ++j;
+      }
+    }
+
+    float magnitudeA = left.squaredMagnitude;
+    float magnitudeB = right.squaredMagnitude;
+
+    return (float) ((float) dotProduct / Math.sqrt(magnitudeA * magnitudeB));
+  }
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.Sets;
 import org.apache.log4j.Logger;
 import org.mappinganalysis.model.EdgeObjectMapTriplet;
 import org.mappinganalysis.model.api.CustomOperation;
+import org.mappinganalysis.model.functions.simcomputation.CachedStringSimilarity;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.Utils;
 
@@ -17,6 +18,7 @@ public class SinglePropertySimilarity implements CustomOperation<EdgeObjectMapTr
   private EdgeObjectMapTriplet triplet;
   private String property;
   private String metric;
+  private CachedStringSimilarity stringSimilarity;
   private static final Logger LOG = Logger.getLogger(SinglePropertySimilarity.class);
 
   private static final HashSet<String> LANGUAGES;
@@ -45,11 +47,24 @@ public class SinglePropertySimilarity implements CustomOperation<EdgeObjectMapTr
     LANGUAGES.add(Constants.DA);
   }
 
+  /**
+   * Constructor for single use, string values are prepared by the string
+   * similarity shared within the task.
+   */
   public SinglePropertySimilarity(String property, String metric) {
     this.property = property;
     this.metric = metric;
   }
 
+  /**
+   * Constructor for shared string similarity, prepared property values are reused
+   * across triplets.
+   */
+  public SinglePropertySimilarity(String property, CachedStringSimilarity stringSimilarity) {
+    this(property, stringSimilarity.getMetric());
+    this.stringSimilarity = stringSimilarity;
+  }
+
   @Override
   public void setInput(EdgeObjectMapTriplet inputData) {
     this.triplet = inputData;
@@ -184,7 +199,10 @@ public class SinglePropertySimilarity implements CustomOperation<EdgeObjectMapTr
       trgProperty = triplet.getTrgVertex().getValue().get(property).toString();
     }
 
-    Double similarity = Utils.getSimilarityAndSimplifyForMetric(srcProperty, trgProperty, metric);
+    if (stringSimilarity == null) {
+      stringSimilarity = CachedStringSimilarity.getTaskInstance(metric);
+    }
+    Double similarity = stringSimilarity.compare(property, srcProperty, trgProperty);
     if (similarity != null) {
       switch (property) {
         case Constants.ARTIST_TITLE_ALBUM:
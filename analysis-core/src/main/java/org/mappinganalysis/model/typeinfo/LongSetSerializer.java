@@ -0,0 +1,138 @@
+package org.mappinganalysis.model.typeinfo;
+
+import org.apache.flink.api.common.typeutils.base.TypeSerializerSingleton;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.mappinganalysis.model.LongSet;
+
+import java.io.IOException;
+
+/**
+ * Serializer for {@link LongSet}. Ids are sorted, the first id is written zig zag
+ * var length encoded, all following ids as var length delta to the predecessor.
+ */
+public class LongSetSerializer extends TypeSerializerSingleton<LongSet> {
+  private static final long serialVersionUID = 42L;
+
+  public static final LongSetSerializer INSTANCE = new LongSetSerializer();
+
+  @Override
+  public boolean isImmutableType() {
+    return false;
+  }
+
+  @Override
+  public LongSet createInstance() {
+    return new LongSet();
+  }
+
+  @Override
+  public LongSet copy(LongSet from) {
+    return new LongSet(from);
+  }
+
+  @Override
+  public LongSet copy(LongSet from, LongSet reuse) {
+    reuse.clear();
+    reuse.addAll(from);
+
+    return reuse;
+  }
+
+  @Override
+  public int getLength() {
+    return -1;
+  }
+
+  @Override
+  public void serialize(LongSet record, DataOutputView target) throws IOException {
+    writeLongSet(record, target);
+  }
+
+  @Override
+  public LongSet deserialize(DataInputView source) throws IOException {
+    return readLongSet(new LongSet(), source);
+  }
+
+  @Override
+  public LongSet deserialize(LongSet reuse, DataInputView source) throws IOException {
+    reuse.clear();
+
+    return readLongSet(reuse, source);
+  }
+
+  @Override
+  public void copy(DataInputView source, DataOutputView target) throws IOException {
+    int size = readVarInt(source);
+    writeVarInt(size, target);
+    for (int i = 0; i < size; i++) {
+      writeVarLong(readVarLong(source), target);
+    }
+  }
+
+  @Override
+  public boolean canEqual(Object obj) {
+    return obj instanceof LongSetSerializer;
+  }
+
+  /**
+   * Write id set, also used for cluster vertices within {@link ObjectMapSerializer}.
+   */
+  static void writeLongSet(LongSet record, DataOutputView target) throws IOException {
+    int size = record.size();
+    writeVarInt(size, target);
+    if (size > 0) {
+      long previous = record.get(0);
+      writeVarLong((previous << 1) ^ (previous >> 63), target);
+      for (int i = 1; i < size; i++) {
+        long current = record.get(i);
+        writeVarLong(current - previous, target);
+        previous = current;
+      }
+    }
+  }
+
+  static LongSet readLongSet(LongSet result, DataInputView source) throws IOException {
+    int size = readVarInt(source);
+    if (size > 0) {
+      long zigZag = readVarLong(source);
+      long previous = (zigZag >>> 1) ^ -(zigZag & 1);
+      result.add(previous);
+      for (int i = 1; i < size; i++) {
+        previous += readVarLong(source);
+        result.add(previous);
+      }
+    }
+
+    return result;
+  }
+
+  private static void writeVarInt(int value, DataOutputView target) throws IOException {
+    writeVarLong(value & 0xFFFFFFFFL, target);
+  }
+
+  private static int readVarInt(DataInputView source) throws IOException {
+    return (int) readVarLong(source);
+  }
+
+  private static void writeVarLong(long value, DataOutputView target) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      target.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    target.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputView source) throws IOException {
+    long result = 0L;
+    int shift = 0;
+    byte current;
+    do {
+      current = source.readByte();
+      result |= (long) (current & 0x7F) << shift;
+      shift += 7;
+    } while ((current & 0x80) != 0);
+
+    return result;
+  }
+}
@@ -0,0 +1,69 @@
+package org.mappinganalysis.model.typeinfo;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.mappinganalysis.model.LongSet;
+
+/**
+ * Type information for {@link LongSet}, creates the delta encoding
+ * {@link LongSetSerializer} instead of the generic Kryo serializer.
+ */
+public class LongSetTypeInfo extends TypeInformation<LongSet> {
+  private static final long serialVersionUID = 42L;
+
+  @Override
+  public boolean isBasicType() {
+    return false;
+  }
+
+  @Override
+  public boolean isTupleType() {
+    return false;
+  }
+
+  @Override
+  public int getArity() {
+    return 1;
+  }
+
+  @Override
+  public int getTotalFields() {
+    return 1;
+  }
+
+  @Override
+  public Class<LongSet> getTypeClass() {
+    return LongSet.class;
+  }
+
+  @Override
+  public boolean isKeyType() {
+    return false;
+  }
+
+  @Override
+  public TypeSerializer<LongSet> createSerializer(ExecutionConfig config) {
+    return LongSetSerializer.INSTANCE;
+  }
+
+  @Override
+  public String toString() {
+    return "LongSetTypeInfo";
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof LongSetTypeInfo && ((LongSetTypeInfo) obj).canEqual(this);
+  }
+
+  @Override
+  public int hashCode() {
+    return LongSet.class.hashCode();
+  }
+
+  @Override
+  public boolean canEqual(Object obj) {
+    return obj instanceof LongSetTypeInfo;
+  }
+}
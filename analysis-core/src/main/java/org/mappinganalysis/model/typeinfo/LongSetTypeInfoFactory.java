@@ -0,0 +1,19 @@
+package org.mappinganalysis.model.typeinfo;
+
+import org.apache.flink.api.common.typeinfo.TypeInfoFactory;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.mappinganalysis.model.LongSet;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Registers {@link LongSetTypeInfo} for {@link LongSet} in the Flink type extraction.
+ */
+public class LongSetTypeInfoFactory extends TypeInfoFactory<LongSet> {
+  @Override
+  public TypeInformation<LongSet> createTypeInfo(
+      Type t, Map<String, TypeInformation<?>> genericParameters) {
+    return new LongSetTypeInfo();
+  }
+}
@@ -0,0 +1,404 @@
+package org.mappinganalysis.model.typeinfo;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.CompatibilityResult;
+import org.apache.flink.api.common.typeutils.ParameterlessTypeSerializerConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerConfigSnapshot;
+import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+import org.apache.flink.types.StringValue;
+import org.mappinganalysis.model.LongSet;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.util.Constants;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schema aware serializer for {@link ObjectMap} vertex and edge values.
+ *
+ * Well known property keys (see {@link #SLOTS}) get a fixed slot, only a bit mask of
+ * the used slots is written instead of the key strings. Values are written with a
+ * one byte type tag and a primitive payload, only unknown value types fall back to Kryo.
+ * Sets of vertex ids are always read back as {@link LongSet}.
+ *
+ * Layout: mode, slot mask (long), slot values in slot order, count of other keys,
+ * (key, value) for all other keys.
+ */
+public class ObjectMapSerializer extends TypeSerializer<ObjectMap> {
+  private static final long serialVersionUID = 42L;
+
+  private static final String FORMAT_IDENTIFIER = ObjectMapSerializer.class.getCanonicalName();
+
+  /**
+   * Property keys with a fixed slot. Never reorder, only append (max 64 slots).
+   */
+  public static final String[] SLOTS = {
+      Constants.LABEL,
+      Constants.LAT,
+      Constants.LON,
+      Constants.TYPE,
+      Constants.TYPE_INTERN,
+      Constants.COMP_TYPE,
+      Constants.DATA_SOURCE,
+      Constants.DATA_SOURCES,
+      Constants.CL_VERTICES,
+      Constants.CC_ID,
+      Constants.HASH_CC,
+      Constants.OLD_HASH_CC,
+      Constants.VERTEX_ID,
+      Constants.REFINE_ID,
+      Constants.BLOCKING_LABEL,
+      Constants.ARTIST_TITLE_ALBUM,
+      Constants.ARTIST,
+      Constants.ALBUM,
+      Constants.NUMBER,
+      Constants.YEAR,
+      Constants.LENGTH,
+      Constants.LANGUAGE,
+      Constants.IDF_LABEL,
+      Constants.IDF_VALUES,
+      Constants.AGGREGATED_SIM_VALUE,
+      Constants.VERTEX_AGG_SIM_VALUE,
+      Constants.VERTEX_STATUS,
+      Constants.SIM_LABEL,
+      Constants.SIM_TYPE,
+      Constants.SIM_DISTANCE,
+      Constants.SIM_ARTIST,
+      Constants.SIM_ALBUM,
+      Constants.SIM_LANG,
+      Constants.SIM_YEAR,
+      Constants.SIM_LENGTH,
+      Constants.SIM_NUMBER,
+      Constants.SIM_ARTIST_LABEL_ALBUM,
+      Constants.DS_COUNT,
+      Constants.DB_URL_FIELD,
+      Constants.REC_ID,
+      Constants.CLS_ID
+  };
+
+  private static final HashMap<String, Integer> SLOT_INDEX;
+  static {
+    SLOT_INDEX = Maps.newHashMapWithExpectedSize(SLOTS.length);
+    for (int i = 0; i < SLOTS.length; i++) {
+      SLOT_INDEX.put(SLOTS[i], i);
+    }
+  }
+
+  /**
+   * Value type tags.
+   */
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte STRING_SET = 6;
+  private static final byte LONG_SET = 7;
+  private static final byte STRING_DOUBLE_MAP = 8;
+  private static final byte GENERIC = 9;
+
+  /**
+   * Fallback for property values which have no own type tag.
+   */
+  private final TypeSerializer<Object> genericSerializer;
+
+  public ObjectMapSerializer(ExecutionConfig config) {
+    this(new KryoSerializer<>(Object.class, config));
+  }
+
+  private ObjectMapSerializer(TypeSerializer<Object> genericSerializer) {
+    this.genericSerializer = genericSerializer;
+  }
+
+  @Override
+  public boolean isImmutableType() {
+    return false;
+  }
+
+  @Override
+  public TypeSerializer<ObjectMap> duplicate() {
+    return new ObjectMapSerializer(genericSerializer.duplicate());
+  }
+
+  @Override
+  public ObjectMap createInstance() {
+    return new ObjectMap();
+  }
+
+  @Override
+  public ObjectMap copy(ObjectMap from) {
+    ObjectMap result = new ObjectMap(from.getMode());
+    for (Map.Entry<String, Object> entry : from.entrySet()) {
+      result.put(entry.getKey(), copyValue(entry.getValue()));
+    }
+
+    return result;
+  }
+
+  @Override
+  public ObjectMap copy(ObjectMap from, ObjectMap reuse) {
+    return copy(from);
+  }
+
+  @Override
+  public int getLength() {
+    return -1;
+  }
+
+  @Override
+  public void serialize(ObjectMap record, DataOutputView target) throws IOException {
+    writeNullableString(record.getMode(), target);
+
+    long slotMask = 0L;
+    int otherCount = 0;
+    for (String key : record.keySet()) {
+      Integer slot = SLOT_INDEX.get(key);
+      if (slot == null) {
+        ++otherCount;
+      } else {
+        slotMask |= 1L << slot;
+      }
+    }
+
+    target.writeLong(slotMask);
+    for (int slot = 0; slot < SLOTS.length; slot++) {
+      if ((slotMask & (1L << slot)) != 0) {
+        writeValue(record.get(SLOTS[slot]), target);
+      }
+    }
+
+    target.writeInt(otherCount);
+    if (otherCount > 0) {
+      for (Map.Entry<String, Object> entry : record.entrySet()) {
+        if (!SLOT_INDEX.containsKey(entry.getKey())) {
+          StringValue.writeString(entry.getKey(), target);
+          writeValue(entry.getValue(), target);
+        }
+      }
+    }
+  }
+
+  @Override
+  public ObjectMap deserialize(DataInputView source) throws IOException {
+    ObjectMap result = new ObjectMap(readNullableString(source));
+
+    long slotMask = source.readLong();
+    for (int slot = 0; slot < SLOTS.length; slot++) {
+      if ((slotMask & (1L << slot)) != 0) {
+        result.put(SLOTS[slot], readValue(source));
+      }
+    }
+
+    int otherCount = source.readInt();
+    for (int i = 0; i < otherCount; i++) {
+      String key = StringValue.readString(source);
+      result.put(key, readValue(source));
+    }
+
+    return result;
+  }
+
+  @Override
+  public ObjectMap deserialize(ObjectMap reuse, DataInputView source) throws IOException {
+    return deserialize(source);
+  }
+
+  @Override
+  public void copy(DataInputView source, DataOutputView target) throws IOException {
+    serialize(deserialize(source), target);
+  }
+
+  private void writeValue(Object value, DataOutputView target) throws IOException {
+    if (value == null) {
+      target.writeByte(NULL);
+    } else if (value instanceof String) {
+      target.writeByte(STRING);
+      StringValue.writeString((String) value, target);
+    } else if (value instanceof Double) {
+      target.writeByte(DOUBLE);
+      target.writeDouble((Double) value);
+    } else if (value instanceof Integer) {
+      target.writeByte(INT);
+      target.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      target.writeByte(LONG);
+      target.writeLong((Long) value);
+    } else if (value instanceof Boolean) {
+      target.writeByte(BOOLEAN);
+      target.writeBoolean((Boolean) value);
+    } else if (value instanceof LongSet) {
+      target.writeByte(LONG_SET);
+      LongSetSerializer.writeLongSet((LongSet) value, target);
+    } else if (value instanceof Set && isSetOf((Set<?>) value, String.class)) {
+      Set<?> set = (Set<?>) value;
+      target.writeByte(STRING_SET);
+      target.writeInt(set.size());
+      for (Object element : set) {
+        StringValue.writeString((String) element, target);
+      }
+    } else if (value instanceof Set && isSetOf((Set<?>) value, Long.class)) {
+      target.writeByte(LONG_SET);
+      @SuppressWarnings("unchecked")
+      Set<Long> set = (Set<Long>) value;
+      LongSetSerializer.writeLongSet(new LongSet(set), target);
+    } else if (value instanceof HashMap && isStringDoubleMap((Map<?, ?>) value)) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      target.writeByte(STRING_DOUBLE_MAP);
+      target.writeInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        StringValue.writeString((String) entry.getKey(), target);
+        target.writeDouble((Double) entry.getValue());
+      }
+    } else {
+      target.writeByte(GENERIC);
+      genericSerializer.serialize(value, target);
+    }
+  }
+
+  private Object readValue(DataInputView source) throws IOException {
+    byte tag = source.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return StringValue.readString(source);
+      case DOUBLE:
+        return source.readDouble();
+      case INT:
+        return source.readInt();
+      case LONG:
+        return source.readLong();
+      case BOOLEAN:
+        return source.readBoolean();
+      case STRING_SET: {
+        int size = source.readInt();
+        HashSet<String> result = Sets.newHashSetWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+          result.add(StringValue.readString(source));
+        }
+        return result;
+      }
+      case LONG_SET:
+        return LongSetSerializer.readLongSet(new LongSet(), source);
+      case STRING_DOUBLE_MAP: {
+        int size = source.readInt();
+        HashMap<String, Double> result = Maps.newHashMapWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+          result.put(StringValue.readString(source), source.readDouble());
+        }
+        return result;
+      }
+      case GENERIC:
+        return genericSerializer.deserialize(source);
+      default:
+        throw new IOException("Unsupported ObjectMap value tag: " + tag);
+    }
+  }
+
+  /**
+   * Strings, boxed primitives and booleans are immutable, collections are copied.
+   */
+  private Object copyValue(Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Number
+        || value instanceof Boolean) {
+      return value;
+    } else if (value instanceof LongSet) {
+      return new LongSet((LongSet) value);
+    } else if (value instanceof Set && isSetOf((Set<?>) value, String.class)) {
+      return Sets.newHashSet((Set<?>) value);
+    } else if (value instanceof Set && isSetOf((Set<?>) value, Long.class)) {
+      @SuppressWarnings("unchecked")
+      Set<Long> set = (Set<Long>) value;
+      return new LongSet(set);
+    } else if (value instanceof HashMap && isStringDoubleMap((Map<?, ?>) value)) {
+      return Maps.newHashMap((Map<?, ?>) value);
+    } else {
+      return genericSerializer.copy(value);
+    }
+  }
+
+  private static boolean isSetOf(Set<?> set, Class<?> elementClass) {
+    for (Object element : set) {
+      if (element == null || element.getClass() != elementClass) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean isStringDoubleMap(Map<?, ?> map) {
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof Double)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static void writeNullableString(String value, DataOutputView target)
+      throws IOException {
+    target.writeBoolean(value != null);
+    if (value != null) {
+      StringValue.writeString(value, target);
+    }
+  }
+
+  private static String readNullableString(DataInputView source) throws IOException {
+    if (source.readBoolean()) {
+      return StringValue.readString(source);
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof ObjectMapSerializer) {
+      ObjectMapSerializer other = (ObjectMapSerializer) obj;
+
+      return other.canEqual(this) && genericSerializer.equals(other.genericSerializer);
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean canEqual(Object obj) {
+    return obj instanceof ObjectMapSerializer;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * ObjectMapSerializer.class.hashCode() + genericSerializer.hashCode();
+  }
+
+  @Override
+  public TypeSerializerConfigSnapshot snapshotConfiguration() {
+    return new ParameterlessTypeSerializerConfig(FORMAT_IDENTIFIER);
+  }
+
+  @Override
+  public CompatibilityResult<ObjectMap> ensureCompatibility(
+      TypeSerializerConfigSnapshot configSnapshot) {
+    if (configSnapshot instanceof ParameterlessTypeSerializerConfig
+        && FORMAT_IDENTIFIER.equals(((ParameterlessTypeSerializerConfig) configSnapshot)
+        .getSerializationFormatIdentifier())) {
+      return CompatibilityResult.compatible();
+    } else {
+      return CompatibilityResult.requiresMigration();
+    }
+  }
+}
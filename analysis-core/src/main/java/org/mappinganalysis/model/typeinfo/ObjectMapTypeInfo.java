@@ -0,0 +1,69 @@
+package org.mappinganalysis.model.typeinfo;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.mappinganalysis.model.ObjectMap;
+
+/**
+ * Type information for {@link ObjectMap}, creates the schema aware
+ * {@link ObjectMapSerializer} instead of the generic Kryo serializer.
+ */
+public class ObjectMapTypeInfo extends TypeInformation<ObjectMap> {
+  private static final long serialVersionUID = 42L;
+
+  @Override
+  public boolean isBasicType() {
+    return false;
+  }
+
+  @Override
+  public boolean isTupleType() {
+    return false;
+  }
+
+  @Override
+  public int getArity() {
+    return 1;
+  }
+
+  @Override
+  public int getTotalFields() {
+    return 1;
+  }
+
+  @Override
+  public Class<ObjectMap> getTypeClass() {
+    return ObjectMap.class;
+  }
+
+  @Override
+  public boolean isKeyType() {
+    return false;
+  }
+
+  @Override
+  public TypeSerializer<ObjectMap> createSerializer(ExecutionConfig config) {
+    return new ObjectMapSerializer(config);
+  }
+
+  @Override
+  public String toString() {
+    return "ObjectMapTypeInfo";
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof ObjectMapTypeInfo && ((ObjectMapTypeInfo) obj).canEqual(this);
+  }
+
+  @Override
+  public int hashCode() {
+    return ObjectMap.class.hashCode();
+  }
+
+  @Override
+  public boolean canEqual(Object obj) {
+    return obj instanceof ObjectMapTypeInfo;
+  }
+}
@@ -0,0 +1,19 @@
+package org.mappinganalysis.model.typeinfo;
+
+import org.apache.flink.api.common.typeinfo.TypeInfoFactory;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.mappinganalysis.model.ObjectMap;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Registers {@link ObjectMapTypeInfo} for {@link ObjectMap} in the Flink type extraction.
+ */
+public class ObjectMapTypeInfoFactory extends TypeInfoFactory<ObjectMap> {
+  @Override
+  public TypeInformation<ObjectMap> createTypeInfo(
+      Type t, Map<String, TypeInformation<?>> genericParameters) {
+    return new ObjectMapTypeInfo();
+  }
+}
@@ -48,6 +48,33 @@ public class Constants {
    * Count basic number of block split triplets.
    */
   public static final String BLOCK_SPLIT_TRIPLET_ACCUMULATOR = "block-split-triplet-counter";
+  /**
+   * Count block split pairs per reducer, the reducer index is appended.
+   */
+  public static final String BLOCK_SPLIT_REDUCER_PAIRS_ACCUMULATOR = "block-split-reducer-pairs-";
+  /**
+   * Count pairs created by sorted neighborhood blocking.
+   */
+  public static final String SORTED_NEIGHBORHOOD_PAIRS_ACCUMULATOR = "sorted-neighborhood-pairs-counter";
+  /**
+   * Count candidate pairs (before verification) created by prefix filtering.
+   */
+  public static final String PREFIX_FILTERING_PAIRS_ACCUMULATOR = "prefix-filtering-pairs-counter";
+  /**
+   * Count vertices whose connected component is computed again in incremental
+   * connected components.
+   */
+  public static final String CC_RECOMPUTED_VERTICES_ACCUMULATOR = "cc-recomputed-vertices-counter";
+  /**
+   * Estimated candidate pairs per blocking strategy in blocking strategy planning,
+   * the strategy name is appended.
+   */
+  public static final String BLOCKING_PLANNER_CANDIDATES_ACCUMULATOR = "blocking-planner-candidates-";
+  /**
+   * Estimated recall per blocking strategy in blocking strategy planning,
+   * the strategy name is appended.
+   */
+  public static final String BLOCKING_PLANNER_RECALL_ACCUMULATOR = "blocking-planner-recall-";
   /**
    * Count triplets after computing triplet similarity.
    */
@@ -93,6 +120,11 @@ public class Constants {
 
   public static final String JARO_WINKLER = "jw";
   public static final String COSINE_TRIGRAM = "ct";
+  /**
+   * Cosine trigram similarity on packed trigram vectors, same results as
+   * {@value #COSINE_TRIGRAM} without per comparison allocation.
+   */
+  public static final String COSINE_TRIGRAM_PACKED = "ctp";
   /**
    * similarity default values.
    * 150000m default distance
@@ -109,10 +141,32 @@ public class Constants {
   public static final String BLOCKING_STRATEGY = "blockingStrategy";
   public static final String BLOCKING_LENGTH = "blockingLength";
   public static final int BLOCKING_LENGTH_DEFAULT_VALUE = 4;
+  public static final String WINDOW_SIZE = "windowSize";
+  public static final int WINDOW_SIZE_DEFAULT_VALUE = 20;
+  public static final String IDF_SUPPORT = "idfSupport";
+  public static final int IDF_SUPPORT_DEFAULT_VALUE = 2;
+  public static final String BLOCKING_RECALL_TARGET = "blockingRecallTarget";
+  public static final double BLOCKING_RECALL_TARGET_DEFAULT_VALUE = 0.95;
+  public static final String BLOCKING_SAMPLE_SIZE = "blockingSampleSize";
+  public static final int BLOCKING_SAMPLE_SIZE_DEFAULT_VALUE = 1000;
+  public static final String PREFIX_FILTERING_THRESHOLD = "prefixFilteringThreshold";
+  public static final String BATCHED_MERGE = "batchedMerge";
+  public static final String EARLY_TERMINATION = "earlyTermination";
+  public static final String HUNGARIAN_MAX_SIZE = "hungarianMaxSize";
+  public static final int HUNGARIAN_MAX_SIZE_DEFAULT_VALUE = 500;
+  public static final String STREAMING_MATCH_DELAY = "streamingMatchDelay";
+  public static final long STREAMING_MATCH_DELAY_DEFAULT_VALUE = 0L;
   public static final String INCREMENTAL_STRATEGY = "incrementalStrategy";
   public static final String DATA_DOMAIN = "dataDomain";
   public static final String STEP = "step";
   public static final String SUBGRAPH_VERTICES_PATH = "subGraphVerticesPath";
+  public static final String SIMILARITY_STORE_PATH = "similarityStorePath";
+  /**
+   * similarity store sub directories
+   */
+  public static final String EDGE_SIMILARITY_STORE = "edge-similarities";
+  public static final String MERGE_SIMILARITY_STORE = "merge-similarities";
+  public static final String MERGE_IDF_FALLBACK_SIMILARITY_STORE = "merge-similarities-idf-fallback";
   public static final String DATA_SOURCES_DATASET = "dataSourcesDataSet";
   public static final String MATCHING_STRATEGY = "matchingStrategy";
   public static final String MIN_RESULT_SIMILARITY = "minResultSimilarity";
@@ -137,6 +191,18 @@ public class Constants {
    * LSH blocking strategy
    */
   public static final String LSHB = "LSHB";
+  /**
+   * sorted neighborhood blocking strategy
+   */
+  public static final String SNB = "SNB";
+  /**
+   * prefix filtering similarity join
+   */
+  public static final String PFB = "PFB";
+  /**
+   * blocking strategy chosen by cost based planner
+   */
+  public static final String AUTOB = "AUTOB";
 
   /**
    * mode for MUSIC domain
@@ -39,6 +39,12 @@ public class ExecutionUtils {
       jobName = jobName.concat("Sb");
     } else if (config.getBlockingStrategy() == BlockingStrategy.BLOCK_SPLIT) {
       jobName = jobName.concat("Bs");
+    } else if (config.getBlockingStrategy() == BlockingStrategy.SORTED_NEIGHBORHOOD) {
+      jobName = jobName.concat("Snb");
+    } else if (config.getBlockingStrategy() == BlockingStrategy.PREFIX_FILTERING) {
+      jobName = jobName.concat("Pfb");
+    } else if (config.getBlockingStrategy() == BlockingStrategy.AUTO) {
+      jobName = jobName.concat("Auto");
     }
 
     jobName = jobName + config.getBlockingLength()
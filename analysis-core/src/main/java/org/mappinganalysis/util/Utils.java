@@ -35,6 +35,7 @@ import org.mappinganalysis.model.MergeGeoTuple;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.CharSet;
 import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
+import org.mappinganalysis.model.functions.simcomputation.PackedCosineTrigramMetric;
 import org.simmetrics.StringMetric;
 import org.simmetrics.metrics.CosineSimilarity;
 import org.simmetrics.metrics.JaroWinkler;
@@ -53,6 +54,10 @@ import static org.simmetrics.builders.StringMetricBuilder.with;
 public class Utils {
   private static final Logger LOG = Logger.getLogger(Utils.class);
   private static final HashFunction HF = Hashing.md5();
+  private static final Pattern PUNCTUATION = Pattern.compile("[\\p{Punct}]");
+  private static final StringMetric JARO_WINKLER_METRIC = getJaroWinklerMetric();
+  private static final StringMetric COSINE_TRIGRAM_METRIC = getCosineTrigramMetric();
+  private static final StringMetric COSINE_TRIGRAM_PACKED_METRIC = new PackedCosineTrigramMetric();
 
   /**
    * Get the hash map value having the highest count of occurrence.
@@ -191,6 +196,18 @@ public class Utils {
       } else {
         throw new IllegalArgumentException("Unsupported strategy: " + strategy);
       }
+    } else if (strategy == BlockingStrategy.SORTED_NEIGHBORHOOD) {
+      // sort key, full value instead of prefix
+      if (bMode.equals(Constants.GEO)) {
+        return label.toLowerCase().trim();
+      } else if (bMode.equals(Constants.MUSIC) || bMode.equals(Constants.NC)) {
+        return simplify(label);
+      } else {
+        throw new IllegalArgumentException("Unsupported strategy: " + strategy);
+      }
+    } else if (strategy == BlockingStrategy.PREFIX_FILTERING) {
+      // no blocking key, candidates are created by similarity join
+      return Constants.EMPTY_STRING;
     } else if (strategy.equals(BlockingStrategy.NO_BLOCKING)) { // DUMMY
 
       throw new IllegalArgumentException("Unsupported strategy: " + strategy);
@@ -264,6 +281,12 @@ public class Utils {
       return Constants.BS;
     } else if (strategy == BlockingStrategy.LSH_BLOCKING) {
       return Constants.LSHB;
+    } else if (strategy == BlockingStrategy.SORTED_NEIGHBORHOOD) {
+      return Constants.SNB;
+    } else if (strategy == BlockingStrategy.PREFIX_FILTERING) {
+      return Constants.PFB;
+    } else if (strategy == BlockingStrategy.AUTO) {
+      return Constants.AUTOB;
     } else {
       throw new IllegalArgumentException("Unsupported blocking strategy: " + strategy);
     }
@@ -831,8 +854,7 @@ public class Utils {
    */
   public static String simplify(String value) {
     return CharMatcher.WHITESPACE.trimAndCollapseFrom(
-        value.toLowerCase()
-            .replaceAll("[\\p{Punct}]", " "),
+        PUNCTUATION.matcher(value.toLowerCase()).replaceAll(" "),
         ' ');
   }
 
@@ -850,12 +872,17 @@ public class Utils {
         value.toLowerCase(),' ');
   }
 
+  /**
+   * Get shared metric instance, simmetrics metrics are stateless.
+   */
   public static StringMetric getMetric(String metric) {
     switch (metric) {
       case Constants.JARO_WINKLER:
-        return getJaroWinklerMetric();
+        return JARO_WINKLER_METRIC;
       case Constants.COSINE_TRIGRAM:
-        return getCosineTrigramMetric();
+        return COSINE_TRIGRAM_METRIC;
+      case Constants.COSINE_TRIGRAM_PACKED:
+        return COSINE_TRIGRAM_PACKED_METRIC;
       default:
         throw new IllegalArgumentException("getMetric(" + metric + "): Unsupported metric: ");
     }
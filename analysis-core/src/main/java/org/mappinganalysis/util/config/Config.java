@@ -68,6 +68,10 @@ public class Config extends Properties {
     return this.getProperty(Constants.MODE);
   }
 
+  /**
+   * Set string similarity metric, {@value Constants#COSINE_TRIGRAM},
+   * {@value Constants#COSINE_TRIGRAM_PACKED} or {@value Constants#JARO_WINKLER}.
+   */
   public void setMetric(String metric) {
     if (metric != null) {
       this.put(Constants.METRIC, metric);
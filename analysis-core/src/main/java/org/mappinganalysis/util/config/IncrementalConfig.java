@@ -21,6 +21,7 @@ public class IncrementalConfig extends Config {
     this.setBlockingStrategy(config.getBlockingStrategy());
     this.setDataDomain(config.getDataDomain());
     this.setBlockingLength(config.getBlockingLength());
+    this.setWindowSize(config.getWindowSize());
   }
 
   public IncrementalConfig(DataDomain domain, ExecutionEnvironment env, boolean isIncremental) {
@@ -55,6 +56,138 @@ public class IncrementalConfig extends Config {
     return (int) get(Constants.BLOCKING_LENGTH);
   }
 
+  /**
+   * Window size for sorted neighborhood blocking.
+   */
+  public void setWindowSize(int windowSize) {
+    this.put(Constants.WINDOW_SIZE, windowSize);
+  }
+
+  public int getWindowSize() {
+    if (get(Constants.WINDOW_SIZE) == null) {
+      setWindowSize(Constants.WINDOW_SIZE_DEFAULT_VALUE);
+    }
+    return (int) get(Constants.WINDOW_SIZE);
+  }
+
+  /**
+   * Min number of shared high idf words for a candidate pair in idf blocking.
+   */
+  public void setIdfSupport(int support) {
+    this.put(Constants.IDF_SUPPORT, support);
+  }
+
+  public int getIdfSupport() {
+    if (get(Constants.IDF_SUPPORT) == null) {
+      setIdfSupport(Constants.IDF_SUPPORT_DEFAULT_VALUE);
+    }
+    return (int) get(Constants.IDF_SUPPORT);
+  }
+
+  /**
+   * Share of cluster pairs above min result similarity which the blocking
+   * strategy chosen by the planner should find.
+   */
+  public void setBlockingRecallTarget(double recallTarget) {
+    this.put(Constants.BLOCKING_RECALL_TARGET, recallTarget);
+  }
+
+  public double getBlockingRecallTarget() {
+    if (get(Constants.BLOCKING_RECALL_TARGET) == null) {
+      setBlockingRecallTarget(Constants.BLOCKING_RECALL_TARGET_DEFAULT_VALUE);
+    }
+    return (double) get(Constants.BLOCKING_RECALL_TARGET);
+  }
+
+  /**
+   * Number of clusters sampled for blocking strategy planning.
+   */
+  public void setBlockingSampleSize(int sampleSize) {
+    this.put(Constants.BLOCKING_SAMPLE_SIZE, sampleSize);
+  }
+
+  public int getBlockingSampleSize() {
+    if (get(Constants.BLOCKING_SAMPLE_SIZE) == null) {
+      setBlockingSampleSize(Constants.BLOCKING_SAMPLE_SIZE_DEFAULT_VALUE);
+    }
+    return (int) get(Constants.BLOCKING_SAMPLE_SIZE);
+  }
+
+  /**
+   * Min trigram set cosine of the artist title album values for prefix
+   * filtering blocking, required for this strategy. There is no exact bound
+   * for the merge similarity, recall of the merge is approximate.
+   */
+  public void setPrefixFilteringThreshold(double threshold) {
+    this.put(Constants.PREFIX_FILTERING_THRESHOLD, threshold);
+  }
+
+  /**
+   * @return prefix filtering threshold, 0 if not set
+   */
+  public double getPrefixFilteringThreshold() {
+    return get(Constants.PREFIX_FILTERING_THRESHOLD) == null
+        ? 0D
+        : (double) get(Constants.PREFIX_FILTERING_THRESHOLD);
+  }
+
+  /**
+   * Merge all mutually best triplets of each block per superstep, default is
+   * to merge only the max similarity triplets of each block.
+   */
+  public void setBatchedMerge(boolean isBatchedMerge) {
+    this.put(Constants.BATCHED_MERGE, isBatchedMerge);
+  }
+
+  public boolean isBatchedMerge() {
+    return get(Constants.BATCHED_MERGE) != null
+        && (boolean) get(Constants.BATCHED_MERGE);
+  }
+
+  /**
+   * Skip string comparisons in merge similarity computation if a triplet can
+   * not reach the min result similarity anymore.
+   */
+  public void setEarlyTermination(boolean isEarlyTermination) {
+    this.put(Constants.EARLY_TERMINATION, isEarlyTermination);
+  }
+
+  public boolean isEarlyTermination() {
+    return get(Constants.EARLY_TERMINATION) != null
+        && (boolean) get(Constants.EARLY_TERMINATION);
+  }
+
+  /**
+   * Max vertices per side of a connected component within a block which is
+   * solved with hungarian algorithm, bigger components are matched greedy.
+   */
+  public void setHungarianMaxSize(int maxSize) {
+    this.put(Constants.HUNGARIAN_MAX_SIZE, maxSize);
+  }
+
+  public int getHungarianMaxSize() {
+    if (get(Constants.HUNGARIAN_MAX_SIZE) == null) {
+      setHungarianMaxSize(Constants.HUNGARIAN_MAX_SIZE_DEFAULT_VALUE);
+    }
+    return (int) get(Constants.HUNGARIAN_MAX_SIZE);
+  }
+
+  /**
+   * Milliseconds new vertices are collected per blocking key in streaming
+   * incremental clustering before they are matched together, 0 matches the
+   * vertices with the next watermark.
+   */
+  public void setStreamingMatchDelay(long delay) {
+    this.put(Constants.STREAMING_MATCH_DELAY, delay);
+  }
+
+  public long getStreamingMatchDelay() {
+    if (get(Constants.STREAMING_MATCH_DELAY) == null) {
+      setStreamingMatchDelay(Constants.STREAMING_MATCH_DELAY_DEFAULT_VALUE);
+    }
+    return (long) get(Constants.STREAMING_MATCH_DELAY);
+  }
+
   public void setNewSource(String newSource) {
     setProperty(Constants.NEW_SOURCE, newSource);
   }
@@ -101,6 +234,18 @@ public class IncrementalConfig extends Config {
     return this.getProperty(Constants.SUBGRAPH_VERTICES_PATH);
   }
 
+  /**
+   * Optional directory for persistent similarities, see
+   * {@link org.mappinganalysis.model.functions.simcomputation.SimilarityStore}.
+   */
+  public void setSimilarityStorePath(String similarityStorePath) {
+    this.setProperty(Constants.SIMILARITY_STORE_PATH, similarityStorePath);
+  }
+
+  public String getSimilarityStorePath() {
+    return this.getProperty(Constants.SIMILARITY_STORE_PATH);
+  }
+
   public void setMatchStrategy(MatchStrategy matchStrategy) {
     this.put(Constants.MATCHING_STRATEGY, matchStrategy);
   }
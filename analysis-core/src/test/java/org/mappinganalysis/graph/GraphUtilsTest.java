@@ -1,6 +1,23 @@
 package org.mappinganalysis.graph;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.apache.flink.types.NullValue;
 import org.junit.Test;
+import org.mappinganalysis.TestBase;
+import org.mappinganalysis.graph.utils.ConnectedComponentIdAdder;
+import org.mappinganalysis.graph.utils.ConnectedComponentStrategy;
+import org.mappinganalysis.graph.utils.IncrementalConnectedComponentIdAdder;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.util.Constants;
+
+import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -13,6 +30,99 @@ public class GraphUtilsTest {
   public void testAddCcIdsToGraph() throws Exception {
   }
 
+  /**
+   * Remove 2-3, add 3-4 and 5-6, component 7-8 is not touched.
+   */
+  @Test
+  public void testIncrementalCcIds() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+    List<Vertex<Long, ObjectMap>> result = runIncrementalCc(env, 1D);
+
+    assertEquals(8, result.size());
+    for (Vertex<Long, ObjectMap> vertex : result) {
+      long expected = vertex.getId() <= 2L ? 1L : vertex.getId() <= 6L ? 3L : 7L;
+      assertEquals(expected, (long) vertex.getValue().getCcId());
+    }
+    // 7-8 keeps its cc id
+    assertEquals(6L, (long) env.getLastJobExecutionResult()
+        .getAccumulatorResult(Constants.CC_RECOMPUTED_VERTICES_ACCUMULATOR));
+
+    // 6 of 8 vertices touched, all components are computed again
+    HashMap<Long, Long> incrementalIds = Maps.newHashMap();
+    for (Vertex<Long, ObjectMap> vertex : result) {
+      incrementalIds.put(vertex.getId(), vertex.getValue().getCcId());
+    }
+    result = runIncrementalCc(env, IncrementalConnectedComponentIdAdder.DEFAULT_MAX_TOUCHED_SHARE);
+    assertEquals(8L, (long) env.getLastJobExecutionResult()
+        .getAccumulatorResult(Constants.CC_RECOMPUTED_VERTICES_ACCUMULATOR));
+    assertEquals(8, result.size());
+    for (Vertex<Long, ObjectMap> vertex : result) {
+      assertEquals(incrementalIds.get(vertex.getId()), vertex.getValue().getCcId());
+    }
+  }
+
+  private static List<Vertex<Long, ObjectMap>> runIncrementalCc(
+      ExecutionEnvironment env, double maxTouchedShare) throws Exception {
+    List<Vertex<Long, ObjectMap>> vertices = Lists.newArrayList();
+    for (long id = 1; id <= 8; id++) {
+      vertices.add(new Vertex<>(id, new ObjectMap()));
+    }
+    DataSet<Edge<Long, NullValue>> previousEdges = env.fromCollection(Lists.newArrayList(
+        createEdge(1L, 2L), createEdge(2L, 3L), createEdge(4L, 5L), createEdge(7L, 8L)));
+    DataSet<Edge<Long, NullValue>> edges = env.fromCollection(Lists.newArrayList(
+        createEdge(1L, 2L), createEdge(3L, 4L), createEdge(4L, 5L),
+        createEdge(5L, 6L), createEdge(7L, 8L)));
+
+    DataSet<Vertex<Long, ObjectMap>> previousVertices = Graph
+        .fromDataSet(env.fromCollection(vertices), previousEdges, env)
+        .run(new ConnectedComponentIdAdder<>(env))
+        .getVertices();
+
+    return Graph.fromDataSet(previousVertices, edges, env)
+        .run(new IncrementalConnectedComponentIdAdder<>(previousEdges, maxTouchedShare, env))
+        .getVertices()
+        .collect();
+  }
+
+  /**
+   * Union-find strategies create the same component ids as GSA connected components.
+   */
+  @Test
+  public void testUnionFindCcIds() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+    env.setParallelism(4);
+    List<Edge<Long, NullValue>> edgeList = Lists.newArrayList();
+    for (long id = 0; id < 1000; id++) {
+      if (id % 10 != 9) { // components of 10 vertices, ids linked out of order
+        edgeList.add(createEdge(id + 1, id % 3 == 0 ? id : id - id % 10));
+      }
+    }
+    edgeList.add(createEdge(9L, 990L)); // merge first and last component
+    DataSet<Edge<Long, NullValue>> edges = env.fromCollection(edgeList).rebalance();
+
+    HashMap<Long, Long> expected = Maps.newHashMap();
+    for (Vertex<Long, Long> vertex : ConnectedComponentIdAdder
+        .getComponentIds(edges, env, ConnectedComponentStrategy.GSA).collect()) {
+      expected.put(vertex.getId(), vertex.getValue());
+    }
+
+    for (ConnectedComponentStrategy strategy : new ConnectedComponentStrategy[] {
+        ConnectedComponentStrategy.UNION_FIND, ConnectedComponentStrategy.LOCAL_UNION_FIND}) {
+      List<Vertex<Long, Long>> result = ConnectedComponentIdAdder
+          .getComponentIds(edges, env, strategy)
+          .collect();
+      assertEquals(expected.size(), result.size());
+      for (Vertex<Long, Long> vertex : result) {
+        assertEquals(expected.get(vertex.getId()), vertex.getValue());
+      }
+    }
+    assertEquals(0L, (long) expected.get(995L));
+  }
+
+  private static Edge<Long, NullValue> createEdge(long source, long target) {
+    return new Edge<>(source, target, NullValue.getInstance());
+  }
+
   @Test
   public void testApplyLinkFilter() throws Exception {
 
@@ -6,12 +6,16 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.flink.api.common.JobExecutionResult;
 import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.ExecutionEnvironment;
 import org.apache.flink.api.java.io.LocalCollectionOutputFormat;
 import org.apache.flink.graph.Edge;
 import org.apache.flink.graph.Graph;
 import org.apache.flink.graph.Vertex;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.sink.SinkFunction;
+import org.apache.flink.streaming.api.functions.source.SourceFunction;
 import org.apache.flink.types.NullValue;
 import org.apache.log4j.Logger;
 import org.junit.Test;
@@ -29,6 +33,7 @@ import org.mappinganalysis.model.functions.blocking.BlockingStrategy;
 import org.mappinganalysis.model.functions.clusterstrategies.ClusteringStep;
 import org.mappinganalysis.model.functions.clusterstrategies.IncrementalClustering;
 import org.mappinganalysis.model.functions.clusterstrategies.IncrementalClusteringStrategy;
+import org.mappinganalysis.model.functions.clusterstrategies.StreamingIncrementalClustering;
 import org.mappinganalysis.model.functions.incremental.MatchStrategy;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.ExecutionUtils;
@@ -39,11 +44,13 @@ import org.mappinganalysis.util.functions.filter.SourceFilterFunction;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.reverseOrder;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class IncrementalMusicClusteringTest {
   private static final Logger LOG = Logger.getLogger(IncrementalMusicClusteringTest.class);
@@ -852,6 +859,161 @@ precision: 0.9892561983471074 recall: 0.8839384615384616 F1: 0.9336366590835229
 
   }
 
+  /**
+   * Add source 3 to the vertices of the other sources as stream, the changed
+   * and new clusters equal the clusters with a source 3 vertex of the batch
+   * source addition on the same input.
+   */
+  @Test
+  public void streamingSourceAdditionTest() throws Exception {
+    final String path = MusicbrainzBenchmarkTest.class
+        .getResource("/data/musicbrainz/").getFile();
+    Graph<Long, ObjectMap, NullValue> baseGraph
+        = new CSVDataSource(path, "basic/music-test.csv", env)
+        .getGraph();
+
+    IncrementalConfig config = new IncrementalConfig(DataDomain.MUSIC, env);
+    config.setBlockingStrategy(BlockingStrategy.STANDARD_BLOCKING);
+    config.setStrategy(IncrementalClusteringStrategy.MULTI);
+    config.setMetric(Constants.COSINE_TRIGRAM);
+    config.setStep(ClusteringStep.SOURCE_ADDITION);
+    config.setMinResultSimilarity(0.5);
+    config.setMatchStrategy(MatchStrategy.MAX_BOTH);
+
+    // batch
+    IncrementalClustering sourceAddition = new IncrementalClustering
+        .IncrementalClusteringBuilder(config)
+        .setMatchElements(baseGraph.getVertices()
+            .filter(new SourceFilterFunction("3")))
+        .setNewSource("3")
+        .build();
+    Set<Set<Long>> expected = Sets.newHashSet();
+    for (Vertex<Long, ObjectMap> representative : baseGraph
+        .filterOnVertices(vertex -> !vertex.getValue().getDataSource().equals("3"))
+        .run(sourceAddition)
+        .collect()) {
+      if (representative.getValue().getDataSourcesList().contains("3")) {
+        expected.add(Sets.newHashSet(representative.getValue().getVerticesList()));
+      }
+    }
+
+    // stream
+    List<Vertex<Long, ObjectMap>> clusters = baseGraph.getVertices()
+        .filter(vertex -> !vertex.getValue().getDataSource().equals("3"))
+        .collect();
+    List<Vertex<Long, ObjectMap>> newVertices = baseGraph.getVertices()
+        .filter(new SourceFilterFunction("3"))
+        .collect();
+
+    StreamExecutionEnvironment streamEnv = StreamExecutionEnvironment.getExecutionEnvironment();
+    streamEnv.setParallelism(1);
+    TypeInformation<Vertex<Long, ObjectMap>> vertexType
+        = TypeInformation.of(new TypeHint<Vertex<Long, ObjectMap>>() {});
+
+    RepresentativeSink.VALUES.clear();
+    new StreamingIncrementalClustering(config)
+        .run(streamEnv.fromCollection(clusters, vertexType),
+            streamEnv.fromCollection(newVertices, vertexType))
+        .addSink(new RepresentativeSink());
+    streamEnv.execute();
+
+    Set<Set<Long>> result = Sets.newHashSet();
+    for (Vertex<Long, ObjectMap> representative : RepresentativeSink.VALUES) {
+      assertEquals(representative.getValue().getVerticesList().size(),
+          representative.getValue().getDataSourcesList().size());
+      result.add(Sets.newHashSet(representative.getValue().getVerticesList()));
+    }
+
+    assertEquals(newVertices.size(), expected.size());
+    assertTrue(expected.stream().anyMatch(cluster -> cluster.size() > 1));
+    assertEquals(expected, result);
+  }
+
+  /**
+   * New vertices come from a source which is kept open until all cluster
+   * updates are emitted, without timestamps and with the default processing
+   * time characteristic.
+   */
+  @Test
+  public void streamingOpenSourceAdditionTest() throws Exception {
+    final String path = MusicbrainzBenchmarkTest.class
+        .getResource("/data/musicbrainz/").getFile();
+    Graph<Long, ObjectMap, NullValue> baseGraph
+        = new CSVDataSource(path, "basic/music-test.csv", env)
+        .getGraph();
+
+    IncrementalConfig config = new IncrementalConfig(DataDomain.MUSIC, env);
+    config.setBlockingStrategy(BlockingStrategy.STANDARD_BLOCKING);
+    config.setMetric(Constants.COSINE_TRIGRAM);
+    config.setMinResultSimilarity(0.5);
+    config.setMatchStrategy(MatchStrategy.MAX_BOTH);
+
+    List<Vertex<Long, ObjectMap>> clusters = baseGraph.getVertices()
+        .filter(vertex -> !vertex.getValue().getDataSource().equals("3"))
+        .collect();
+    List<Vertex<Long, ObjectMap>> newVertices = baseGraph.getVertices()
+        .filter(new SourceFilterFunction("3"))
+        .collect();
+
+    StreamExecutionEnvironment streamEnv = StreamExecutionEnvironment.getExecutionEnvironment();
+    streamEnv.setParallelism(1);
+    TypeInformation<Vertex<Long, ObjectMap>> vertexType
+        = TypeInformation.of(new TypeHint<Vertex<Long, ObjectMap>>() {});
+
+    RepresentativeSink.VALUES.clear();
+    // one update (new or merged cluster) per new vertex
+    RepresentativeSink.updates = new CountDownLatch(newVertices.size());
+    OpenVertexSource.isReleased = false;
+    new StreamingIncrementalClustering(config)
+        .run(streamEnv.fromCollection(clusters, vertexType),
+            streamEnv.addSource(new OpenVertexSource(newVertices), vertexType))
+        .addSink(new RepresentativeSink());
+    streamEnv.execute();
+
+    assertTrue(OpenVertexSource.isReleased);
+    assertEquals(newVertices.size(), RepresentativeSink.VALUES.size());
+  }
+
+  /**
+   * Emits the vertices and stays open until all updates are received by the
+   * {@link RepresentativeSink} or the timeout is reached.
+   */
+  private static class OpenVertexSource implements SourceFunction<Vertex<Long, ObjectMap>> {
+    static volatile boolean isReleased = false;
+
+    private final ArrayList<Vertex<Long, ObjectMap>> vertices;
+
+    OpenVertexSource(List<Vertex<Long, ObjectMap>> vertices) {
+      this.vertices = new ArrayList<>(vertices);
+    }
+
+    @Override
+    public void run(SourceContext<Vertex<Long, ObjectMap>> ctx) throws Exception {
+      for (Vertex<Long, ObjectMap> vertex : vertices) {
+        synchronized (ctx.getCheckpointLock()) {
+          ctx.collect(vertex);
+        }
+      }
+      isReleased = RepresentativeSink.updates.await(60, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void cancel() {
+    }
+  }
+
+  private static class RepresentativeSink implements SinkFunction<Vertex<Long, ObjectMap>> {
+    static final List<Vertex<Long, ObjectMap>> VALUES
+        = Collections.synchronizedList(new ArrayList<>());
+    static volatile CountDownLatch updates = new CountDownLatch(0);
+
+    @Override
+    public void invoke(Vertex<Long, ObjectMap> value, Context context) throws Exception {
+      VALUES.add(value);
+      updates.countDown();
+    }
+  }
+
   @Test
   public void listTest() throws Exception {
     List<String> sourcesList = Lists.newArrayList("1", "2", "3", "4", "5");
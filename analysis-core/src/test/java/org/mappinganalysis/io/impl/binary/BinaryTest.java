@@ -0,0 +1,113 @@
+package org.mappinganalysis.io.impl.binary;
+
+import com.google.common.collect.Maps;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.graph.Edge;
+import org.apache.flink.graph.Graph;
+import org.apache.flink.graph.Vertex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mappinganalysis.TestBase;
+import org.mappinganalysis.io.impl.json.JSONDataSource;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.util.Constants;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  /**
+   * Write JSON input graph to binary step files and read again,
+   * with and without compression.
+   */
+  @Test
+  public void readWriteBinaryTest() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+    String path = BinaryTest.class
+        .getResource("/data/preprocessing/general/")
+        .getFile();
+    Graph<Long, ObjectMap, ObjectMap> graph
+        = new JSONDataSource(path, true, env).getGraph();
+    HashMap<Long, ObjectMap> expected = Maps.newHashMap();
+    for (Vertex<Long, ObjectMap> vertex : graph.getVertices().collect()) {
+      expected.put(vertex.getId(), vertex.getValue());
+    }
+    long edgeCount = graph.getEdges().count();
+
+    String tmpDir = temporaryFolder.getRoot().toString();
+    for (boolean isCompressed : new boolean[] {false, true}) {
+      String step = "binaryStep" + isCompressed;
+      new BinaryDataSink(tmpDir, step, isCompressed).writeGraph(graph);
+      env.execute();
+
+      Graph<Long, ObjectMap, ObjectMap> inOutGraph
+          = new BinaryDataSource(tmpDir, step, env).getGraph();
+
+      List<Vertex<Long, ObjectMap>> vertices = inOutGraph.getVertices().collect();
+      assertEquals(expected.size(), vertices.size());
+      for (Vertex<Long, ObjectMap> vertex : vertices) {
+        ObjectMap properties = expected.get(vertex.getId());
+        assertEquals(properties.getMode(), vertex.getValue().getMode());
+        assertEquals(Maps.newHashMap(properties), Maps.newHashMap(vertex.getValue()));
+      }
+
+      List<Edge<Long, ObjectMap>> edges = inOutGraph.getEdges().collect();
+      assertEquals(edgeCount, edges.size());
+      for (Edge<Long, ObjectMap> edge : edges) {
+        assertTrue(edge.getValue().containsKey(Constants.AGGREGATED_SIM_VALUE));
+      }
+    }
+  }
+
+  /**
+   * Build a memory mapped graph file and read it with more splits than blocks.
+   */
+  @Test
+  public void mappedGraphTest() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+    env.setParallelism(2);
+    String path = BinaryTest.class
+        .getResource("/data/preprocessing/general/")
+        .getFile();
+    Graph<Long, ObjectMap, ObjectMap> graph
+        = new JSONDataSource(path, true, env).getGraph();
+    String file = temporaryFolder.newFile("graph.bin").toString();
+    MappedGraphFile.write(graph, file);
+
+    MappedGraphFile graphFile = MappedGraphFile.open(file);
+    assertEquals(7, graphFile.getVertexCount());
+    assertEquals(12, graphFile.getEdgeCount());
+    assertTrue(graphFile.indexOf(60190L) >= 0);
+    assertTrue(graphFile.indexOf(42L) < 0);
+    assertEquals(0, graphFile.getOutDegree(1268005L));
+    assertEquals(4, graphFile.getOutDegree(60190L));
+
+    Graph<Long, ObjectMap, ObjectMap> mappedGraph
+        = new MappedGraphDataSource(file, env).getGraph();
+    List<Vertex<Long, ObjectMap>> vertices = mappedGraph.getVertices().collect();
+    assertEquals(7, vertices.size());
+    for (Vertex<Long, ObjectMap> vertex : vertices) {
+      assertTrue(vertex.getValue().containsKey(Constants.LABEL));
+    }
+    long outDegree = 0;
+    for (Edge<Long, ObjectMap> edge : mappedGraph.getEdges().collect()) {
+      outDegree += edge.getSource() == 60190L ? 1 : 0;
+    }
+    assertEquals(graphFile.getOutDegree(60190L), outDegree);
+  }
+
+  @Test
+  public void pathTest() {
+    ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+    BinaryDataSource source = new BinaryDataSource("path", "step", env);
+    assertEquals("path/output/step/vertices/", source.getVertexPath());
+    assertEquals("path/output/step/edges/", source.getEdgePath());
+  }
+}
@@ -12,8 +12,22 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mappinganalysis.TestBase;
 import org.mappinganalysis.model.ObjectMap;
-
+import org.mappinganalysis.util.Constants;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class JSONTest {
   private static final Logger LOG = Logger.getLogger(JSONTest.class);
@@ -44,6 +58,84 @@ public class JSONTest {
     assertTrue(jsonDataSource.getVertexPath().equals("path/vertices/"));
   }
 
+  /**
+   * Streaming parser creates the same properties as the jettison based formatter.
+   */
+  @Test
+  public void streamingParserTest() throws Exception {
+    String path = JSONTest.class
+        .getResource("/data/preprocessing/general/vertices/vertices.json")
+        .getFile();
+    List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8);
+    lines.add("{\"id\":1,\"data\":{\"label\":\"Caf\\u00e9 \\\"Zur Post\\\"\","
+        + "\"url\":\"http:\\/\\/example.org\",\"clusteredVertices\":[3,2],"
+        + "\"hashCc\":\"-12\",\"year\":1999,\"flag\":true}}");
+
+    JSONToVertexFormatter<ObjectMap> formatter = new JSONToVertexFormatter<>(ObjectMap.class);
+    JSONEntityParser parser = new JSONEntityParser(ObjectMap.class);
+    for (String line : lines) {
+      Vertex<Long, ObjectMap> expected = formatter.map(line);
+      byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+      @SuppressWarnings("unchecked")
+      Vertex<Long, ObjectMap> vertex
+          = (Vertex<Long, ObjectMap>) parser.parse(bytes, 0, bytes.length, 1);
+
+      assertEquals(expected.getId(), vertex.getId());
+      assertEquals(new HashMap<>(expected.getValue()), new HashMap<>(vertex.getValue()));
+    }
+    assertTrue(parser.parse(new byte[] {' ', '\r'}, 0, 2, 1) == null);
+  }
+
+  /**
+   * Lines without vertex id or without edge source and target are rejected.
+   */
+  @Test
+  public void streamingParserMissingIdTest() throws Exception {
+    JSONEntityParser parser = new JSONEntityParser(ObjectMap.class);
+    assertMalformed(parser, "{\"data\":{\"label\":\"a\"}}", 1);
+    assertMalformed(parser, "{\"source\":1,\"data\":{}}", 2);
+    assertMalformed(parser, "{\"target\":2,\"data\":{}}", 2);
+
+    byte[] bytes = "{\"source\":1,\"target\":2}".getBytes(StandardCharsets.UTF_8);
+    @SuppressWarnings("unchecked")
+    Edge<Long, ObjectMap> edge = (Edge<Long, ObjectMap>) parser.parse(bytes, 0, bytes.length, 2);
+    assertEquals(1L, (long) edge.getSource());
+    assertEquals(2L, (long) edge.getTarget());
+  }
+
+  private static void assertMalformed(JSONEntityParser parser, String line, int idCount) {
+    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+    try {
+      parser.parse(bytes, 0, bytes.length, idCount);
+      fail("malformed line accepted: " + line);
+    } catch (IOException e) {
+      assertTrue(e.getMessage().startsWith("Malformed JSON"));
+    }
+  }
+
+  /**
+   * Gzip input is decompressed by the input format.
+   */
+  @Test
+  public void compressedInputTest() throws Exception {
+    env = TestBase.setupLocalEnvironment();
+    String path = JSONTest.class
+        .getResource("/data/preprocessing/general/edges/edges.json")
+        .getFile();
+    File file = temporaryFolder.newFile("edges.json.gz");
+    try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+      out.write(Files.readAllBytes(Paths.get(path)));
+    }
+
+    List<Edge<Long, ObjectMap>> edges = env.createInput(
+        JSONEntityInputFormat.createEdgeFormat(file.toString(), ObjectMap.class))
+        .collect();
+    assertEquals(12, edges.size());
+    for (Edge<Long, ObjectMap> edge : edges) {
+      assertTrue(edge.getValue().get(Constants.AGGREGATED_SIM_VALUE) instanceof Double);
+    }
+  }
+
   /**
    * Simple JSON input reader test
    */
@@ -2,8 +2,13 @@ package org.mappinganalysis.model;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
 import org.apache.log4j.Logger;
 import org.junit.Test;
+import org.mappinganalysis.model.typeinfo.LongSetSerializer;
+import org.mappinganalysis.model.typeinfo.ObjectMapSerializer;
 import org.mappinganalysis.util.Constants;
 
 import java.util.HashMap;
@@ -100,4 +105,54 @@ public class ObjectMapTest {
     map.addProperty(Constants.DATA_SOURCES, Constants.NYT_NS);
     assertEquals(3, map.getDataSourcesList().size());
   }
+
+  @Test
+  public void testSerializer() throws Exception {
+    ObjectMap map = new ObjectMap(Constants.MUSIC);
+    map.setLabel("label");
+    map.put(Constants.YEAR, 1999);
+    map.put(Constants.AGGREGATED_SIM_VALUE, 0.75);
+    map.put(Constants.CC_ID, 23L);
+    map.setClusterVertices(Sets.newHashSet(1L, 2L, 3L));
+    map.setClusterDataSources(Sets.newHashSet(Constants.DBP_NS, Constants.FB_NS));
+    HashMap<String, Double> idfs = Maps.newHashMap();
+    idfs.put("foo", 0.5);
+    map.put(Constants.IDF_VALUES, idfs);
+    map.put("unknownKey", "value");
+
+    ObjectMapSerializer serializer = new ObjectMapSerializer(new ExecutionConfig());
+    DataOutputSerializer out = new DataOutputSerializer(64);
+    serializer.serialize(map, out);
+    byte[] bytes = out.getCopyOfBuffer();
+    ObjectMap result = serializer.deserialize(
+        new DataInputDeserializer(bytes, 0, bytes.length));
+
+    assertEquals(Constants.MUSIC, result.getMode());
+    assertEquals(map.entrySet(), result.entrySet());
+    assertEquals(3, result.getVerticesList().size());
+    assertEquals(map.entrySet(), serializer.copy(map).entrySet());
+  }
+
+  @Test
+  public void testLongSet() throws Exception {
+    LongSet left = new LongSet(Sets.newHashSet(5L, 1L, 3L));
+    LongSet right = new LongSet(4L);
+    right.add(3L);
+    right.add(-2L);
+
+    assertTrue(left.addAll(right));
+    assertEquals(Sets.newHashSet(-2L, 1L, 3L, 4L, 5L), left);
+    assertFalse(left.addAll(right));
+    assertEquals("-2;1;3;4;5", left.toString());
+
+    DataOutputSerializer out = new DataOutputSerializer(16);
+    LongSetSerializer.INSTANCE.serialize(left, out);
+    byte[] bytes = out.getCopyOfBuffer();
+    LongSet result = LongSetSerializer.INSTANCE.deserialize(
+        new DataInputDeserializer(bytes, 0, bytes.length));
+
+    assertEquals(left, result);
+    assertTrue(result.remove(3L));
+    assertEquals(4, result.size());
+  }
 }
@@ -1,14 +1,26 @@
 package org.mappinganalysis.model.functions;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.base.Strings;
 import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.api.java.tuple.Tuple3;
 import org.apache.log4j.Logger;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mappinganalysis.BasicTest;
+import org.mappinganalysis.TestBase;
 import org.mappinganalysis.io.impl.json.JSONDataSource;
+import org.mappinganalysis.model.MergeGeoTriplet;
 import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.merge.MergeGeoSimilarity;
+import org.mappinganalysis.model.functions.simcomputation.CachedStringSimilarity;
 import org.mappinganalysis.model.functions.simcomputation.MeanAggregationFunction;
+import org.mappinganalysis.model.functions.simcomputation.MeanSimilarityBound;
 import org.mappinganalysis.model.functions.simcomputation.SimilarityComputation;
+import org.mappinganalysis.model.functions.simcomputation.SimilarityStore;
+import org.mappinganalysis.model.impl.SimilarityStrategy;
 import org.mappinganalysis.util.Constants;
 import org.mappinganalysis.util.Utils;
 import org.simmetrics.StringMetric;
@@ -16,7 +28,19 @@ import org.simmetrics.metrics.CosineSimilarity;
 import org.simmetrics.metrics.StringMetrics;
 import org.simmetrics.tokenizers.Tokenizers;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.simmetrics.builders.StringMetricBuilder.with;
 
 /**
@@ -25,6 +49,10 @@ import static org.simmetrics.builders.StringMetricBuilder.with;
 public class SimilarityMapperTest extends BasicTest {
   private static final Logger LOG = Logger.getLogger(SimilarityMapperTest.class);
   private static final ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+  private static final double STORE_MARKER = 0.5;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   /**
    * check simmetrics metric, check for utf8 support
@@ -57,6 +85,211 @@ public class SimilarityMapperTest extends BasicTest {
     assertEquals(0.7071067, metric.compare(arabic1, arabic2), 0.00001);
   }
 
+  /**
+   * cached similarity has to return the same values as the uncached computation
+   */
+  @Test
+  public void cachedStringSimilarityTest() throws Exception {
+    String[] values = {"Long Island (NY)", "long island, NY", "Pułaczów", "Pulaczow",
+        "安市", "ł市", "ﻚﻓﺭ ﺐﻬﻣ", "ﻚﻓﺭ ﺐﻬ", "...", Constants.NO_VALUE};
+
+    for (String metric : new String[] {
+        Constants.COSINE_TRIGRAM, Constants.COSINE_TRIGRAM_PACKED, Constants.JARO_WINKLER}) {
+      CachedStringSimilarity similarity = new CachedStringSimilarity(metric);
+      for (String left : values) {
+        for (String right : values) {
+          assertEquals(Utils.getSimilarityAndSimplifyForMetric(left, right, metric),
+              similarity.compare(left, right));
+        }
+      }
+    }
+
+    // task instance is shared within a thread only
+    CachedStringSimilarity taskSimilarity
+        = CachedStringSimilarity.getTaskInstance(Constants.COSINE_TRIGRAM);
+    assertTrue(taskSimilarity == CachedStringSimilarity.getTaskInstance(Constants.COSINE_TRIGRAM));
+    assertFalse(taskSimilarity == CachedStringSimilarity.getTaskInstance(Constants.JARO_WINKLER));
+    CachedStringSimilarity[] otherTask = new CachedStringSimilarity[1];
+    Thread thread = new Thread(() ->
+        otherTask[0] = CachedStringSimilarity.getTaskInstance(Constants.COSINE_TRIGRAM));
+    thread.start();
+    thread.join();
+    assertFalse(taskSimilarity == otherTask[0]);
+  }
+
+  /**
+   * upper bounds never underestimate the similarity, unreachable thresholds are detected
+   */
+  @Test
+  public void similarityUpperBoundTest() throws Exception {
+    String[] values = {"Long Island (NY)", "long island, NY", "Pułaczów", "Pulaczow",
+        "安市", "ł市", "aaaaaaa", "aaab", "Leipzig (Sachsen)", "Leipzig", "...", Constants.NO_VALUE};
+
+    for (String metric : new String[] {
+        Constants.COSINE_TRIGRAM, Constants.COSINE_TRIGRAM_PACKED, Constants.JARO_WINKLER}) {
+      CachedStringSimilarity similarity = new CachedStringSimilarity(metric);
+      for (String left : values) {
+        for (String right : values) {
+          Double exact = similarity.compare(left, right);
+          if (exact != null) {
+            assertTrue(left + " - " + right + " " + metric,
+                exact <= similarity.getUpperBound(left, right) + 0.000001);
+          }
+        }
+      }
+    }
+
+    MeanSimilarityBound bound = new MeanSimilarityBound(0.7);
+    bound.add(0.5D);
+    bound.add(null);
+    assertTrue(bound.isReachable(1D));
+    assertFalse(bound.isReachable(0.8));
+    assertTrue(bound.isReachable(0.8, 1D));
+    bound.reset();
+    assertTrue(bound.isReachable(0.7));
+    assertFalse(bound.isReachable());
+  }
+
+  /**
+   * stored similarity is used for unchanged values only, computed ones are collected
+   */
+  @Test
+  public void similarityStoreSessionTest() throws Exception {
+    CachedStringSimilarity similarity = new CachedStringSimilarity(Constants.COSINE_TRIGRAM);
+    HashMap<String, Tuple2<Long, Double>> stored = new HashMap<>();
+    stored.put(Constants.LABEL, new Tuple2<>(
+        CachedStringSimilarity.getValueHash("long island", "long island ny"), 0.123));
+
+    similarity.startStoreSession(stored);
+    assertEquals(0.123, similarity.compare(Constants.LABEL, "long island", "long island ny"), 0d);
+    Double changed = similarity.compare(Constants.LABEL, "long island", "long beach");
+    List<Tuple3<String, Long, Double>> computed = similarity.finishStoreSession();
+
+    assertEquals(similarity.compare("long island", "long beach"), changed);
+    assertEquals(1, computed.size());
+    assertEquals(CachedStringSimilarity.getValueHash("long island", "long beach"),
+        (long) computed.get(0).f1);
+    assertEquals(changed, computed.get(0).f2);
+  }
+
+  /**
+   * first run writes the store, second run reuses stored similarities of
+   * unchanged values and computes changed values again
+   */
+  @Test
+  public void similarityStoreRoundTripTest() throws Exception {
+    ExecutionEnvironment localEnv = TestBase.setupLocalEnvironment();
+    String storePath = new File(temporaryFolder.getRoot(), Constants.MERGE_SIMILARITY_STORE)
+        .getAbsolutePath();
+    SimilarityStore store = new SimilarityStore(storePath);
+    assertFalse(store.isStored());
+
+    List<MergeGeoTriplet> firstRun = runStoreComputation(localEnv, store,
+        createGeoTriplet(1L, 2L, "long island", "long island ny"),
+        createGeoTriplet(3L, 4L, "long island", "long island (ny)"));
+    assertTrue(store.isStored());
+    assertEquals(2, firstRun.size());
+
+    // stored similarities are replaced by a marker to detect reuse
+    List<Path> storeFiles = getStoreFiles(storePath);
+    for (Path file : storeFiles) {
+      List<String> entries = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+          .map(line -> line.substring(0, line.lastIndexOf(',') + 1) + STORE_MARKER)
+          .collect(Collectors.toList());
+      Files.write(file, entries, StandardCharsets.UTF_8);
+    }
+    List<String> storedEntries = getStoreEntries(storeFiles);
+    assertEquals(2, storedEntries.size());
+
+    MergeGeoTriplet changed = createGeoTriplet(3L, 4L, "long island", "long beach");
+    Double expected = new MergeGeoSimilarity(Constants.COSINE_TRIGRAM)
+        .map(createGeoTriplet(3L, 4L, "long island", "long beach"))
+        .getSimilarity();
+
+    List<MergeGeoTriplet> secondRun = runStoreComputation(localEnv, store,
+        createGeoTriplet(1L, 2L, "long island", "long island ny"),
+        changed);
+    assertEquals(2, secondRun.size());
+    for (MergeGeoTriplet triplet : secondRun) {
+      if (triplet.getSrcId() == 1L) {
+        assertEquals(STORE_MARKER, triplet.getSimilarity(), 0d);
+      } else {
+        assertEquals(expected, triplet.getSimilarity());
+        assertTrue(triplet.getSimilarity() != STORE_MARKER);
+      }
+    }
+    // existing store is not written again
+    assertEquals(storedEntries, getStoreEntries(getStoreFiles(storePath)));
+  }
+
+  private static List<MergeGeoTriplet> runStoreComputation(
+      ExecutionEnvironment env, SimilarityStore store, MergeGeoTriplet... triplets)
+      throws Exception {
+    SimilarityComputation<MergeGeoTriplet, MergeGeoTriplet> computation
+        = new SimilarityComputation
+        .SimilarityComputationBuilder<MergeGeoTriplet, MergeGeoTriplet>()
+        .setSimilarityFunction(new MergeGeoSimilarity(Constants.COSINE_TRIGRAM))
+        .setStrategy(SimilarityStrategy.MERGE)
+        .setThreshold(0D)
+        .setSimilarityStore(store)
+        .build();
+
+    return env.fromElements(triplets)
+        .runOperation(computation)
+        .collect();
+  }
+
+  /**
+   * geo triplet without valid coordinates, similarity is based on the label only
+   */
+  private static MergeGeoTriplet createGeoTriplet(Long srcId, Long trgId,
+                                                  String srcLabel, String trgLabel) {
+    MergeGeoTriplet triplet = new MergeGeoTriplet(srcId, trgId);
+    triplet.getSrcTuple().setLabel(srcLabel);
+    triplet.getTrgTuple().setLabel(trgLabel);
+
+    return triplet;
+  }
+
+  /**
+   * store is a single file or a directory of files, depending on the parallelism
+   */
+  private static List<Path> getStoreFiles(String storePath) throws Exception {
+    try (Stream<Path> files = Files.walk(new File(storePath).toPath())) {
+      return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static List<String> getStoreEntries(List<Path> storeFiles) throws Exception {
+    List<String> entries = new ArrayList<>();
+    for (Path file : storeFiles) {
+      entries.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+    entries.sort(String::compareTo);
+
+    return entries;
+  }
+
+  /**
+   * packed trigram cosine has to be bit for bit equal to simmetrics cosine trigram
+   */
+  @Test
+  public void packedCosineTrigramTest() throws Exception {
+    StringMetric metric = Utils.getMetric(Constants.COSINE_TRIGRAM);
+    StringMetric packed = Utils.getMetric(Constants.COSINE_TRIGRAM_PACKED);
+    String longValue = Strings.repeat("abc abd ", 500);
+    String[] values = {"", "a", "ab", "aaaa", "long island ny", "long island", "pułaczów",
+        "pulaczow", "安市", "ł市", "ﻚﻓﺭ ﺐﻬﻣ", "##a##", longValue, longValue + "x"};
+
+    for (String left : values) {
+      for (String right : values) {
+        assertEquals(left + " - " + right,
+            Float.floatToIntBits(metric.compare(left, right)),
+            Float.floatToIntBits(packed.compare(left, right)));
+      }
+    }
+  }
+
   @Test
   public void doubleValueTest() throws Exception {
     String graphPath = SimilarityMapperTest.class
@@ -1,7 +1,12 @@
 package org.mappinganalysis.model.functions.blocking;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.common.JobExecutionResult;
 import org.apache.flink.api.java.DataSet;
 import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.io.DiscardingOutputFormat;
+import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.graph.Graph;
 import org.apache.flink.graph.Vertex;
 import org.apache.flink.types.NullValue;
@@ -11,10 +16,35 @@ import org.mappinganalysis.benchmark.MusicbrainzBenchmarkTest;
 import org.mappinganalysis.io.impl.DataDomain;
 import org.mappinganalysis.io.impl.csv.CSVDataSource;
 import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
 import org.mappinganalysis.model.ObjectMap;
 import org.mappinganalysis.model.functions.blocking.blocksplit.BlockSplitTripletCreator;
+import org.mappinganalysis.model.functions.blocking.planner.BlockingCostEstimator;
+import org.mappinganalysis.model.functions.blocking.planner.BlockingEstimate;
+import org.mappinganalysis.model.functions.blocking.planner.BlockingStrategyPlanner;
+import org.mappinganalysis.model.functions.blocking.prefixfiltering.PrefixFilteringTripletCreator;
+import org.mappinganalysis.model.functions.blocking.sortedneighborhood.SortedNeighborhoodTripletCreator;
+import org.mappinganalysis.model.functions.merge.MergeExecution;
+import org.mappinganalysis.model.functions.merge.MergeMusicSimilarity;
 import org.mappinganalysis.model.functions.merge.MergeTupleCreator;
+import org.mappinganalysis.util.AbstractionUtils;
+import org.mappinganalysis.util.Constants;
+import org.mappinganalysis.util.Utils;
+import org.mappinganalysis.util.config.IncrementalConfig;
 import org.mappinganalysis.util.functions.filter.SourceFilterFunction;
+import org.simmetrics.tokenizers.Tokenizer;
+import org.simmetrics.tokenizers.Tokenizers;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class BlockingTest {
   private static ExecutionEnvironment env = TestBase.setupLocalEnvironment();
@@ -38,6 +68,338 @@ public class BlockingTest {
     triplets.print();
   }
 
+  /**
+   * block split has to create exactly the pairs of the unsplit blocks, for any
+   * number of pair ranges
+   */
+  @Test
+  public void blockSplitRangesTest() throws Exception {
+    final String path = MusicbrainzBenchmarkTest.class
+        .getResource("/data/musicbrainz/").getFile();
+    final String vertexFileName = "basic/music-test.csv";
+    Graph<Long, ObjectMap, NullValue> baseGraph
+        = new CSVDataSource(path, vertexFileName, env)
+        .getGraph();
+
+    ExecutionEnvironment parallelEnv = TestBase.setupLocalEnvironment();
+    parallelEnv.setParallelism(Math.max(2, parallelEnv.getParallelism()));
+    DataSet<MergeTuple> tuples = baseGraph.getVertices()
+        .map(new MergeTupleCreator(
+            BlockingStrategy.STANDARD_BLOCKING,
+            DataDomain.MUSIC,
+            1));
+    List<MergeTuple> tupleList = tuples.collect();
+
+    Set<Tuple2<Long, Long>> expected = Sets.newHashSet();
+    for (MergeTuple left : tupleList) {
+      for (MergeTuple right : tupleList) {
+        if (left.getId() < right.getId()
+            && left.getBlockingLabel().equals(right.getBlockingLabel())
+            && !AbstractionUtils.hasOverlap(left.getIntSources(), right.getIntSources())) {
+          expected.add(new Tuple2<>(left.getId(), right.getId()));
+        }
+      }
+    }
+    assertTrue(expected.size() > 7);
+
+    for (int ranges : new int[] {1, 3, 7, 1000}) {
+      List<MergeMusicTriplet> triplets = parallelEnv
+          .fromCollection(tupleList)
+          .runOperation(new BlockSplitTripletCreator(ranges))
+          .collect();
+
+      Set<Tuple2<Long, Long>> pairs = Sets.newHashSet();
+      for (MergeMusicTriplet triplet : triplets) {
+        pairs.add(new Tuple2<>(Math.min(triplet.getSrcId(), triplet.getTrgId()),
+            Math.max(triplet.getSrcId(), triplet.getTrgId())));
+      }
+      assertEquals("ranges: " + ranges, expected.size(), triplets.size());
+      assertEquals("ranges: " + ranges, expected, pairs);
+    }
+  }
+
+  /**
+   * sorted neighborhood pairs each tuple with its (window size - 1) predecessors
+   * in global sort order, also across range partitions and pairing buckets
+   */
+  @Test
+  public void sortedNeighborhoodTest() throws Exception {
+    ExecutionEnvironment parallelEnv = TestBase.setupLocalEnvironment();
+    parallelEnv.setParallelism(4);
+    int windowSize = 3;
+
+    // sorted by blocking label, equal labels by id
+    String[] labels = {"aa", "ab", "ba", "bb", "ca", "ca", "da", "db", "ea", "eb"};
+    long[] ids = {17L, 12L, 19L, 10L, 11L, 15L, 18L, 13L, 16L, 14L};
+    List<MergeTuple> tupleList = Lists.newArrayList();
+    for (int i = 0; i < ids.length; i++) {
+      MergeTuple tuple = new MergeTuple(ids[i]);
+      tuple.setBlockingLabel(labels[i]);
+      tuple.setIntSources(1 << i);
+      tupleList.add(tuple);
+    }
+    // reverse input order
+    Collections.reverse(tupleList);
+
+    Set<Tuple2<Long, Long>> expected = Sets.newHashSet();
+    long[][] expectedPairs = {{17, 12}, {17, 19}, {12, 19}, {12, 10}, {19, 10},
+        {19, 11}, {10, 11}, {10, 15}, {11, 15}, {11, 18}, {15, 18}, {15, 13},
+        {18, 13}, {18, 16}, {13, 16}, {13, 14}, {16, 14}};
+    for (long[] pair : expectedPairs) {
+      expected.add(new Tuple2<>(Math.min(pair[0], pair[1]), Math.max(pair[0], pair[1])));
+    }
+
+    // default (single bucket), bucket boundaries at every rank and within windows
+    for (SortedNeighborhoodTripletCreator creator : Lists.newArrayList(
+        new SortedNeighborhoodTripletCreator(windowSize),
+        new SortedNeighborhoodTripletCreator(windowSize, 2),
+        new SortedNeighborhoodTripletCreator(windowSize, 3))) {
+      List<MergeMusicTriplet> triplets = parallelEnv
+          .fromCollection(tupleList)
+          .rebalance()
+          .runOperation(creator)
+          .collect();
+
+      Set<Tuple2<Long, Long>> pairs = Sets.newHashSet();
+      for (MergeMusicTriplet triplet : triplets) {
+        pairs.add(new Tuple2<>(Math.min(triplet.getSrcId(), triplet.getTrgId()),
+            Math.max(triplet.getSrcId(), triplet.getTrgId())));
+      }
+      assertEquals(expectedPairs.length, triplets.size());
+      assertEquals(expected, pairs);
+    }
+  }
+
+  /**
+   * prefix filtering has to find all pairs found by brute force comparison
+   */
+  @Test
+  public void prefixFilteringTest() throws Exception {
+    final String path = MusicbrainzBenchmarkTest.class
+        .getResource("/data/musicbrainz/").getFile();
+    final String vertexFileName = "basic/music-test.csv";
+    Graph<Long, ObjectMap, NullValue> baseGraph
+        = new CSVDataSource(path, vertexFileName, env)
+        .getGraph();
+    double threshold = 0.5;
+
+    DataSet<MergeTuple> tuples = baseGraph.getVertices()
+        .map(new MergeTupleCreator(
+            BlockingStrategy.PREFIX_FILTERING,
+            DataDomain.MUSIC,
+            4));
+    List<MergeMusicTriplet> triplets = tuples
+        .runOperation(new PrefixFilteringTripletCreator(threshold, env))
+        .collect();
+
+    List<MergeTuple> tupleList = tuples.collect();
+    Tokenizer tokenizer = Tokenizers.qGramWithPadding(3);
+    int expected = 0;
+    for (MergeTuple left : tupleList) {
+      for (MergeTuple right : tupleList) {
+        if (left.getId() < right.getId()
+            && Utils.isSane(left.getArtistTitleAlbum())
+            && Utils.isSane(right.getArtistTitleAlbum())
+            && !AbstractionUtils.hasOverlap(left.getIntSources(), right.getIntSources())) {
+          Set<String> leftSet = tokenizer.tokenizeToSet(Utils.simplify(left.getArtistTitleAlbum()));
+          Set<String> rightSet = tokenizer.tokenizeToSet(Utils.simplify(right.getArtistTitleAlbum()));
+          int overlap = Sets.intersection(leftSet, rightSet).size();
+          if (!leftSet.isEmpty() && !rightSet.isEmpty()
+              && overlap / Math.sqrt((double) leftSet.size() * rightSet.size()) >= threshold) {
+            ++expected;
+          }
+        }
+      }
+    }
+
+    assertTrue(expected > 0);
+    assertEquals(expected, triplets.size());
+    for (MergeMusicTriplet triplet : triplets) {
+      assertFalse(triplet.getBlockingLabel().isEmpty());
+    }
+  }
+
+  /**
+   * Prefix filtering is exact for the artist title album trigram sets, not for
+   * the merge similarity: a pair whose title values are below the merge
+   * threshold but whose year, length and number are equal is only found with a
+   * configured threshold below the merge threshold. Without a configured
+   * threshold prefix filtering is rejected.
+   */
+  @Test
+  public void prefixFilteringMergeThresholdTest() throws Exception {
+    double mergeThreshold = 0.8;
+    MergeTuple left = createMusicTuple(1L, 1,
+        "southern star", "uriah heep southern star into the wild");
+    MergeTuple right = createMusicTuple(2L, 2,
+        "southern star live in concert", "southern star");
+    DataSet<MergeTuple> tuples = env.fromElements(left, right);
+
+    double prefixThreshold = 0.2;
+
+    List<MergeMusicTriplet> triplets = tuples
+        .runOperation(new PrefixFilteringTripletCreator(prefixThreshold, env))
+        .collect();
+    assertEquals(1, triplets.size());
+
+    // title values alone are below the merge threshold
+    assertTrue(Utils.getSimilarityAndSimplifyForMetric(
+        left.getLabel(), right.getLabel(), Constants.COSINE_TRIGRAM) < mergeThreshold);
+    assertTrue(tuples
+        .runOperation(new PrefixFilteringTripletCreator(mergeThreshold, env))
+        .collect()
+        .isEmpty());
+    assertTrue(new MergeMusicSimilarity(Constants.COSINE_TRIGRAM)
+        .map(triplets.get(0))
+        .getSimilarity() >= mergeThreshold);
+
+    IncrementalConfig config = new IncrementalConfig(DataDomain.MUSIC, env);
+    config.setBlockingStrategy(BlockingStrategy.PREFIX_FILTERING);
+    config.setMetric(Constants.COSINE_TRIGRAM);
+    config.setMinResultSimilarity(mergeThreshold);
+    config.setExistingSourcesCount(5);
+    try {
+      new MergeExecution(config);
+      fail("prefix filtering without threshold accepted");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("prefix filtering threshold"));
+    }
+    config.setPrefixFilteringThreshold(prefixThreshold);
+    new MergeExecution(config);
+  }
+
+  /**
+   * Prefix filtering creates far less candidate pairs than the blocking free
+   * block split (all tuples share the empty prefix filtering blocking key) on
+   * the same input.
+   */
+  @Test
+  public void prefixFilteringCandidatePairsTest() throws Exception {
+    final String path = MusicbrainzBenchmarkTest.class
+        .getResource("/data/musicbrainz/").getFile();
+    final String vertexFileName = "musicbrainz-20000-A01.csv.dapo";
+    List<Vertex<Long, ObjectMap>> vertices = new CSVDataSource(path, vertexFileName, env)
+        .getGraph()
+        .getVertices()
+        .collect();
+    vertices.sort(Comparator.comparing(Vertex::getId));
+
+    DataSet<MergeTuple> tuples = env.fromCollection(vertices.subList(0, 1000))
+        .map(new MergeTupleCreator(
+            BlockingStrategy.PREFIX_FILTERING,
+            DataDomain.MUSIC,
+            4));
+    tuples.runOperation(new PrefixFilteringTripletCreator(0.8, env))
+        .output(new DiscardingOutputFormat<>());
+    tuples.runOperation(new BlockSplitTripletCreator())
+        .output(new DiscardingOutputFormat<>());
+    JobExecutionResult result = env.execute();
+
+    long prefixPairs = result.getAccumulatorResult(Constants.PREFIX_FILTERING_PAIRS_ACCUMULATOR);
+    long blockSplitPairs = 0L;
+    for (Map.Entry<String, Object> entry : result.getAllAccumulatorResults().entrySet()) {
+      if (entry.getKey().startsWith(Constants.BLOCK_SPLIT_REDUCER_PAIRS_ACCUMULATOR)) {
+        blockSplitPairs += (Long) entry.getValue();
+      }
+    }
+
+    assertEquals(1000L * 999 / 2, blockSplitPairs);
+    assertTrue(prefixPairs > 0L);
+    assertTrue(prefixPairs * 5 < blockSplitPairs);
+  }
+
+  @Test
+  public void blockingStrategyPlannerTest() throws Exception {
+    final String path = MusicbrainzBenchmarkTest.class
+        .getResource("/data/musicbrainz/").getFile();
+    final String vertexFileName = "basic/music-test.csv";
+    Graph<Long, ObjectMap, NullValue> baseGraph
+        = new CSVDataSource(path, vertexFileName, env)
+        .getGraph();
+    double threshold = 0.5;
+    double recallTarget = 0.95;
+
+    DataSet<MergeTuple> tuples = baseGraph.getVertices()
+        .map(new MergeTupleCreator(
+            BlockingStrategy.STANDARD_BLOCKING,
+            DataDomain.MUSIC,
+            4));
+    List<MergeTuple> tupleList = tuples.collect();
+
+    double prefixThreshold = 0.3;
+
+    // true pairs by merge similarity, found by standard blocking if the keys are equal
+    MergeMusicSimilarity similarity = new MergeMusicSimilarity(Constants.COSINE_TRIGRAM);
+    long truePairs = 0L;
+    long sameKeyTruePairs = 0L;
+    for (int i = 0; i < tupleList.size(); i++) {
+      for (int j = i + 1; j < tupleList.size(); j++) {
+        MergeTuple left = tupleList.get(i);
+        MergeTuple right = tupleList.get(j);
+        if (!AbstractionUtils.hasOverlap(left.getIntSources(), right.getIntSources())
+            && similarity.map(new MergeMusicTriplet(left, right)).getSimilarity() >= threshold) {
+          ++truePairs;
+          if (left.getBlockingLabel().equals(right.getBlockingLabel())) {
+            ++sameKeyTruePairs;
+          }
+        }
+      }
+    }
+    assertTrue(truePairs > 0L);
+
+    // complete input as sample
+    List<BlockingEstimate> estimates = new BlockingCostEstimator(DataDomain.MUSIC,
+        Constants.COSINE_TRIGRAM, 4, 20, threshold, prefixThreshold, recallTarget, 2, false, 1)
+        .estimate(tupleList, tupleList.size());
+    assertEquals(6, estimates.size());
+    for (BlockingEstimate estimate : estimates) {
+      assertTrue(estimate.getRecall() >= 0d && estimate.getRecall() <= 1d);
+      if (estimate.getStrategy() == BlockingStrategy.STANDARD_BLOCKING) {
+        assertEquals((double) sameKeyTruePairs / truePairs, estimate.getRecall(), 0.000001);
+      }
+    }
+
+    BlockingStrategyPlanner planner = new BlockingStrategyPlanner(DataDomain.MUSIC,
+        Constants.COSINE_TRIGRAM, 4, 20, threshold, prefixThreshold, recallTarget,
+        1000, 2, false, 1);
+    BlockingStrategy chosen = planner.choose(estimates);
+    for (BlockingEstimate estimate : estimates) {
+      if (estimate.getStrategy() == chosen) {
+        assertTrue(estimate.getRecall() >= recallTarget);
+      }
+    }
+
+    /*
+      12 pairs of equal songs from source 1 and 2, each pair has its own blocking
+      key: standard blocking finds all true pairs with 12 candidates (cost 24 + 12),
+      block split, sorted neighborhood (all 276 pairs), idf and prefix filtering
+      (at least 2 * 24 records) and LSH (24 keys per family, 12 true pair
+      candidates and more) cost more
+     */
+    DataSet<MergeTuple> duplicateTuples = new CSVDataSource(path,
+        "basic/music-duplicates-test.csv", env)
+        .getVertices()
+        .map(new MergeTupleCreator(
+            BlockingStrategy.STANDARD_BLOCKING,
+            DataDomain.MUSIC,
+            4));
+    List<MergeTuple> duplicateList = duplicateTuples.collect();
+    assertEquals(24, duplicateList.size());
+
+    assertEquals(BlockingStrategy.STANDARD_BLOCKING, planner.plan(duplicateTuples));
+    List<BlockingEstimate> duplicateEstimates = new BlockingCostEstimator(DataDomain.MUSIC,
+        Constants.COSINE_TRIGRAM, 4, 20, threshold, prefixThreshold, recallTarget, 2, false, 1)
+        .estimate(duplicateList, duplicateList.size());
+    assertEquals(BlockingStrategy.STANDARD_BLOCKING, planner.choose(duplicateEstimates));
+    for (BlockingEstimate estimate : duplicateEstimates) {
+      if (estimate.getStrategy() == BlockingStrategy.STANDARD_BLOCKING) {
+        assertEquals(12d, estimate.getCandidates(), 0d);
+        assertEquals(1d, estimate.getRecall(), 0d);
+        assertTrue(estimate.getRecall() >= recallTarget);
+      }
+    }
+  }
+
   @Test
   public void fullMusicBlockSplitTest() throws Exception {
     final String path = MusicbrainzBenchmarkTest.class
@@ -69,4 +431,23 @@ public class BlockingTest {
     // dutch,[geco2],11819,сергей,true,,
     // 0.0,)
   }
+
+  private static MergeTuple createMusicTuple(Long id, int intSources,
+                                             String label, String artistTitleAlbum) {
+    MergeTuple tuple = new MergeTuple();
+    tuple.setId(id);
+    tuple.setLabel(label);
+    tuple.setAlbum(Constants.EMPTY_STRING);
+    tuple.setArtist(Constants.EMPTY_STRING);
+    tuple.setNumber("3");
+    tuple.setYear(2011);
+    tuple.setLength(300000);
+    tuple.setLang(Constants.EMPTY_STRING);
+    tuple.setIntSources(intSources);
+    tuple.addClusteredElements(Sets.newHashSet(id));
+    tuple.setBlockingLabel(Constants.EMPTY_STRING);
+    tuple.setArtistTitleAlbum(artistTitleAlbum);
+
+    return tuple;
+  }
 }
@@ -0,0 +1,54 @@
+package org.mappinganalysis.model.functions.clusterstrategies;
+
+import com.google.common.collect.Sets;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.graph.Triplet;
+import org.junit.Test;
+import org.mappinganalysis.TestBase;
+import org.mappinganalysis.model.ObjectMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MaxBothSelectionTest {
+
+  /**
+   * Only links which are the best one of both vertices are selected:
+   * 1 prefers 11, but 11 prefers 2, 12 prefers 1. Equal similarities are
+   * decided by the min id of the other vertex, 3 and 13 prefer each other.
+   */
+  @Test
+  public void maxBothSelectionTest() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+    List<Triplet<Long, ObjectMap, ObjectMap>> triplets = new ArrayList<>();
+    triplets.add(createTriplet(1L, 11L, 0.9));
+    triplets.add(createTriplet(2L, 11L, 0.95));
+    triplets.add(createTriplet(1L, 12L, 0.8));
+    triplets.add(createTriplet(2L, 12L, 0.7));
+    // ties
+    triplets.add(createTriplet(4L, 13L, 0.5));
+    triplets.add(createTriplet(3L, 14L, 0.5));
+    triplets.add(createTriplet(3L, 13L, 0.5));
+
+    HashSet<Tuple2<Long, Long>> result = new HashSet<>();
+    for (Triplet<Long, ObjectMap, ObjectMap> triplet : env.fromCollection(triplets)
+        .runOperation(new MaxBothSelection())
+        .collect()) {
+      result.add(new Tuple2<>(triplet.getSrcVertex().getId(), triplet.getTrgVertex().getId()));
+    }
+
+    assertEquals(Sets.newHashSet(new Tuple2<>(2L, 11L), new Tuple2<>(3L, 13L)), result);
+  }
+
+  private static Triplet<Long, ObjectMap, ObjectMap> createTriplet(
+      long src, long trg, double similarity) {
+    ObjectMap edgeValue = new ObjectMap();
+    edgeValue.setEdgeSimilarity(similarity);
+
+    return new Triplet<>(src, trg, new ObjectMap(), new ObjectMap(), edgeValue);
+  }
+}
@@ -0,0 +1,109 @@
+package org.mappinganalysis.model.functions.merge;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.operators.DeltaIteration;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.junit.Test;
+import org.mappinganalysis.TestBase;
+import org.mappinganalysis.io.impl.DataDomain;
+import org.mappinganalysis.model.LongSet;
+import org.mappinganalysis.model.MergeMusicTriplet;
+import org.mappinganalysis.model.MergeTuple;
+import org.mappinganalysis.model.functions.simcomputation.SimilarityComputation;
+import org.mappinganalysis.model.impl.SimilarityStrategy;
+import org.mappinganalysis.util.Constants;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Music merge delta iteration on the (src id, trg id, sim, blocking label) workset.
+ */
+public class MergeMusicIterationTest {
+  private static final String TITLE = "uriah heep southern star into the wild";
+  private static final String OTHER_TITLE = "deep purple smoke on the water";
+
+  /**
+   * Merged clusters get the blocking label of the merged triplet (like lsh,
+   * idf, prefix or cc blocking labels) instead of the standard blocking label
+   * of the solution set tuples. Expected result is the one of the previous
+   * workset, whose triplets carried tuples with the triplet blocking label:
+   * superstep 1 merges (1, 2) and (4, 5), (2, 3) is changed to (1, 3) and
+   * merged in superstep 2.
+   */
+  @Test
+  public void idWorksetBlockingLabelTest() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+
+    DataSet<MergeTuple> clusters = env.fromCollection(Lists.newArrayList(
+        createTuple(1L, 1, TITLE),
+        createTuple(2L, 2, TITLE),
+        createTuple(3L, 4, TITLE),
+        createTuple(4L, 1, OTHER_TITLE),
+        createTuple(5L, 2, OTHER_TITLE),
+        createTuple(6L, 4, OTHER_TITLE)));
+
+    List<Tuple4<Long, Long, Double, String>> triplets = Lists.newArrayList(
+        new Tuple4<>(1L, 2L, 0.9, "lsh-a"),
+        new Tuple4<>(2L, 3L, 0.8, "lsh-a"),
+        new Tuple4<>(4L, 5L, 0.95, "lsh-b"));
+
+    SimilarityComputation<MergeMusicTriplet, MergeMusicTriplet> similarityComputation
+        = new SimilarityComputation
+        .SimilarityComputationBuilder<MergeMusicTriplet, MergeMusicTriplet>()
+        .setSimilarityFunction(new MergeMusicSimilarity(Constants.COSINE_TRIGRAM))
+        .setStrategy(SimilarityStrategy.MERGE)
+        .setThreshold(0.5)
+        .build();
+
+    DeltaIteration<MergeTuple, Tuple4<Long, Long, Double, String>> iteration = clusters
+        .iterateDelta(env.fromCollection(triplets), Integer.MAX_VALUE, 0);
+    DeltaIterateMergeMusicStepFunction stepFunction = new DeltaIterateMergeMusicStepFunction(
+        iteration.getWorkset(),
+        iteration.getSolutionSet(),
+        similarityComputation,
+        3,
+        DataDomain.MUSIC,
+        false);
+
+    HashMap<Long, MergeTuple> result = new HashMap<>();
+    for (MergeTuple tuple : iteration
+        .closeWith(stepFunction.getDelta(), stepFunction.getWorkset())
+        .filter(MergeTuple::isActive)
+        .collect()) {
+      result.put(tuple.getId(), tuple);
+    }
+
+    assertEquals(3, result.size());
+    assertEquals(Sets.newHashSet(1L, 2L, 3L), result.get(1L).getClusteredElements());
+    assertEquals("lsh-a", result.get(1L).getBlockingLabel());
+    assertEquals(Sets.newHashSet(4L, 5L), result.get(4L).getClusteredElements());
+    assertEquals("lsh-b", result.get(4L).getBlockingLabel());
+    // not merged
+    assertEquals(Sets.newHashSet(6L), result.get(6L).getClusteredElements());
+    assertEquals("standard", result.get(6L).getBlockingLabel());
+  }
+
+  private static MergeTuple createTuple(Long id, int intSources, String artistTitleAlbum) {
+    MergeTuple tuple = new MergeTuple();
+    tuple.setId(id);
+    tuple.setLabel(artistTitleAlbum);
+    tuple.setAlbum(Constants.EMPTY_STRING);
+    tuple.setArtist(Constants.EMPTY_STRING);
+    tuple.setNumber("1");
+    tuple.setYear(2011);
+    tuple.setLength(300000);
+    tuple.setLang(Constants.EMPTY_STRING);
+    tuple.setIntSources(intSources);
+    tuple.addClusteredElements(new LongSet(id));
+    tuple.setBlockingLabel("standard");
+    tuple.setArtistTitleAlbum(artistTitleAlbum);
+
+    return tuple;
+  }
+}
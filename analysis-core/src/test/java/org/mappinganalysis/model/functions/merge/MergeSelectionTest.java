@@ -0,0 +1,156 @@
+package org.mappinganalysis.model.functions.merge;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.flink.api.common.functions.GroupReduceFunction;
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.api.common.operators.Order;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.ExecutionEnvironment;
+import org.apache.flink.api.java.tuple.Tuple4;
+import org.apache.flink.util.Collector;
+import org.junit.Test;
+import org.mappinganalysis.TestBase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Selection of the triplets to merge in each superstep of the delta iteration.
+ */
+public class MergeSelectionTest {
+
+  /**
+   * Max similarity ties are selected ordered by src id, trg id, a triplet
+   * sharing an id with an already selected one is skipped, also if the
+   * ties are split over several combine calls.
+   */
+  @Test
+  public void maxSimBlockGroupReducerTest() throws Exception {
+    MaxSimBlockGroupReducer reducer = new MaxSimBlockGroupReducer();
+    List<Tuple4<Long, Long, Double, String>> combined = new ArrayList<>();
+    reducer.combine(Lists.newArrayList(
+        triplet(3L, 4L, 0.9, "a"),
+        triplet(5L, 6L, 0.5, "a"),
+        triplet(2L, 3L, 0.9, "a")),
+        new ListCollector<>(combined));
+    reducer.combine(Lists.newArrayList(
+        triplet(1L, 4L, 0.9, "a"),
+        triplet(1L, 2L, 0.9, "a"),
+        triplet(5L, 7L, 0.7, "a")),
+        new ListCollector<>(combined));
+    assertEquals(4, combined.size());
+
+    List<Tuple4<Long, Long, Double, String>> result = new ArrayList<>();
+    reducer.reduce(combined, new ListCollector<>(result));
+
+    // (1, 4), (2, 3) share ids with (1, 2)
+    assertEquals(Sets.newHashSet(triplet(1L, 2L, 0.9, "a"), triplet(3L, 4L, 0.9, "a")),
+        Sets.newHashSet(result));
+    assertEquals(2, result.size());
+  }
+
+  /**
+   * Combinable selection returns the same triplets as the previous max
+   * similarity join and sorted group reduce.
+   */
+  @Test
+  public void maxSimBlockSelectionEqualsSortedGroupTest() throws Exception {
+    ExecutionEnvironment env = TestBase.setupLocalEnvironment();
+    Random random = new Random(23);
+    List<Tuple4<Long, Long, Double, String>> triplets = new ArrayList<>();
+    HashSet<String> pairs = new HashSet<>();
+    while (triplets.size() < 2000) {
+      long srcId = random.nextInt(300);
+      long trgId = random.nextInt(300);
+      if (srcId < trgId && pairs.add(srcId + "," + trgId)) {
+        // few distinct similarities for many max similarity ties
+        triplets.add(triplet(srcId, trgId,
+            0.5 + random.nextInt(4) / 10d, "block" + random.nextInt(25)));
+      }
+    }
+    DataSet<Tuple4<Long, Long, Double, String>> workset = env.fromCollection(triplets)
+        .rebalance();
+
+    List<Tuple4<Long, Long, Double, String>> expected = workset
+        .join(workset.groupBy(3).max(2))
+        .where(2, 3)
+        .equalTo(2, 3)
+        .with((first, second) -> first)
+        .returns(new TypeHint<Tuple4<Long, Long, Double, String>>() {})
+        .groupBy(3)
+        .sortGroup(0, Order.ASCENDING)
+        .sortGroup(1, Order.ASCENDING)
+        .reduceGroup(new SortedGroupSelection())
+        .collect();
+
+    List<Tuple4<Long, Long, Double, String>> result = workset
+        .groupBy(3)
+        .reduceGroup(new MaxSimBlockGroupReducer())
+        .collect();
+
+    assertEquals(expected.size(), result.size());
+    assertEquals(Sets.newHashSet(expected), Sets.newHashSet(result));
+  }
+
+  /**
+   * Batched merge selects only triplets which are the best one for both ids,
+   * (3, 4) is skipped although a greedy matching would take it, the best
+   * triplet of 3 is (2, 3).
+   */
+  @Test
+  public void mutualBestBlockMatchReducerTest() throws Exception {
+    List<Tuple4<Long, Long, Double, String>> result = new ArrayList<>();
+    new MutualBestBlockMatchReducer().reduce(Lists.newArrayList(
+        triplet(4L, 5L, 0.5, "a"),
+        triplet(3L, 4L, 0.7, "a"),
+        triplet(1L, 2L, 0.9, "a"),
+        triplet(5L, 6L, 0.6, "a"),
+        triplet(2L, 3L, 0.8, "a")),
+        new ListCollector<>(result));
+
+    assertEquals(Lists.newArrayList(triplet(1L, 2L, 0.9, "a"), triplet(5L, 6L, 0.6, "a")),
+        result);
+
+    // equal similarity, lower src id is the best triplet of 3
+    result.clear();
+    new MutualBestBlockMatchReducer().reduce(Lists.newArrayList(
+        triplet(3L, 4L, 0.9, "b"),
+        triplet(2L, 3L, 0.9, "b"),
+        triplet(4L, 5L, 0.8, "b")),
+        new ListCollector<>(result));
+
+    assertEquals(Lists.newArrayList(triplet(2L, 3L, 0.9, "b")), result);
+  }
+
+  private static Tuple4<Long, Long, Double, String> triplet(
+      Long srcId, Long trgId, Double sim, String blockingKey) {
+    return new Tuple4<>(srcId, trgId, sim, blockingKey);
+  }
+
+  /**
+   * Previous selection on the sorted max similarity triplets of a block.
+   */
+  private static class SortedGroupSelection
+      implements GroupReduceFunction<Tuple4<Long, Long, Double, String>,
+      Tuple4<Long, Long, Double, String>> {
+    @Override
+    public void reduce(Iterable<Tuple4<Long, Long, Double, String>> values,
+                       Collector<Tuple4<Long, Long, Double, String>> out) throws Exception {
+      HashSet<Long> processedSet = Sets.newHashSet();
+      for (Tuple4<Long, Long, Double, String> value : values) {
+        if (!processedSet.contains(value.f0) && !processedSet.contains(value.f1)) {
+          processedSet.add(value.f1);
+          processedSet.add(value.f0);
+
+          out.collect(value);
+        }
+      }
+    }
+  }
+}
@@ -1,7 +1,17 @@
 package org.mappinganalysis.util;
 
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.flink.graph.Triplet;
 import org.junit.Test;
+import org.mappinganalysis.model.ObjectMap;
+import org.mappinganalysis.model.functions.incremental.HungarianAlgorithmReduceFunction;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class HungarianAlgorithmTest {
@@ -56,4 +66,75 @@ public class HungarianAlgorithmTest {
 
     assertTrue(execute[0] == 0);
   }
-}
\ No newline at end of file
+
+  /**
+   * Components are solved independently, big components are matched greedy,
+   * vertices without match are returned as single vertex triplets.
+   */
+  @Test
+  public void hungarianReduceFunctionTest() throws Exception {
+    List<Triplet<Long, ObjectMap, ObjectMap>> triplets = new ArrayList<>();
+    // component 1: greedy picks 1-11 (0.9), hungarian picks 1-12, 2-11
+    triplets.add(createTriplet(1L, 11L, 0.9));
+    triplets.add(createTriplet(1L, 12L, 0.8));
+    triplets.add(createTriplet(2L, 11L, 0.8));
+    // component 2: single triplet
+    triplets.add(createTriplet(3L, 13L, 0.5));
+
+    HashMap<Long, Long> hungarian = reduce(new HungarianAlgorithmReduceFunction(), triplets);
+    assertEquals(12L, (long) hungarian.get(1L));
+    assertEquals(11L, (long) hungarian.get(2L));
+    assertEquals(13L, (long) hungarian.get(3L));
+    assertEquals(3, hungarian.size());
+
+    HashMap<Long, Long> greedy = reduce(new HungarianAlgorithmReduceFunction(1), triplets);
+    assertEquals(11L, (long) greedy.get(1L));
+    assertEquals(2L, (long) greedy.get(2L)); // single vertex
+    assertEquals(12L, (long) greedy.get(12L)); // single vertex
+    assertEquals(13L, (long) greedy.get(3L));
+    assertEquals(4, greedy.size());
+  }
+
+  /**
+   * Greedy matching of equal similarities does not depend on the input order,
+   * lowest left id is matched first, then lowest right id.
+   */
+  @Test
+  public void greedyTieBreakTest() throws Exception {
+    List<Triplet<Long, ObjectMap, ObjectMap>> triplets = new ArrayList<>();
+    triplets.add(createTriplet(2L, 11L, 0.8));
+    triplets.add(createTriplet(1L, 12L, 0.8));
+    triplets.add(createTriplet(1L, 11L, 0.8));
+    triplets.add(createTriplet(2L, 12L, 0.7));
+
+    for (int i = 0; i < triplets.size(); i++) {
+      HashMap<Long, Long> greedy = reduce(new HungarianAlgorithmReduceFunction(1), triplets);
+      assertEquals(11L, (long) greedy.get(1L));
+      assertEquals(12L, (long) greedy.get(2L));
+      assertEquals(2, greedy.size());
+
+      Collections.rotate(triplets, 1);
+    }
+  }
+
+  private static HashMap<Long, Long> reduce(
+      HungarianAlgorithmReduceFunction function,
+      List<Triplet<Long, ObjectMap, ObjectMap>> triplets) throws Exception {
+    List<Triplet<Long, ObjectMap, ObjectMap>> result = new ArrayList<>();
+    function.reduce(triplets, new ListCollector<>(result));
+
+    HashMap<Long, Long> pairs = new HashMap<>();
+    for (Triplet<Long, ObjectMap, ObjectMap> triplet : result) {
+      pairs.put(triplet.getSrcVertex().getId(), triplet.getTrgVertex().getId());
+    }
+    return pairs;
+  }
+
+  private static Triplet<Long, ObjectMap, ObjectMap> createTriplet(
+      long src, long trg, double similarity) {
+    ObjectMap edgeValue = new ObjectMap();
+    edgeValue.setEdgeSimilarity(similarity);
+
+    return new Triplet<>(src, trg, new ObjectMap(), new ObjectMap(), edgeValue);
+  }
+}
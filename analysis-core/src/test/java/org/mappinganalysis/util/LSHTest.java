@@ -1,6 +1,7 @@
 package org.mappinganalysis.util;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.collect.Lists;
 import org.apache.flink.api.common.functions.FlatMapFunction;
 import org.apache.flink.api.common.functions.GroupReduceFunction;
 import org.apache.flink.api.common.functions.JoinFunction;
@@ -33,6 +34,9 @@ import org.mappinganalysis.model.functions.blocking.lsh.trigrams.TrigramPosition
 import org.mappinganalysis.model.functions.blocking.lsh.trigrams.TrigramsPerVertexCreatorWithIdfOptimization;
 import org.mappinganalysis.model.functions.blocking.lsh.utils.BitFrequencyCounter;
 import org.mappinganalysis.model.functions.blocking.lsh.utils.CandidateGeoMergeTripletCreator;
+import org.mappinganalysis.model.functions.blocking.lsh.utils.HashStrategy;
+import org.mappinganalysis.model.functions.blocking.lsh.utils.LshKeyCreator;
+import org.mappinganalysis.model.functions.blocking.lsh.utils.LshParameterTuner;
 import org.mappinganalysis.model.functions.blocking.lsh.utils.VertexWithNewObjectMapFunction;
 import org.mappinganalysis.model.functions.blocking.tfidf.TfIdfComputer;
 import org.mappinganalysis.model.functions.merge.MergeGeoSimilarity;
@@ -44,8 +48,12 @@ import org.mappinganalysis.util.functions.LeftMinusRightSideJoinFunction;
 import org.mappinganalysis.util.functions.filter.SourceFilterFunction;
 import org.mappinganalysis.util.functions.keyselector.CcIdKeySelector;
 
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -187,6 +195,156 @@ public class LSHTest {
     }
   }
 
+  @Test
+  public void bloomFilterHashStrategyTest() {
+    for (HashStrategy strategy : HashStrategy.values()) {
+      BloomFilter first = new BloomFilter(1000, 20, strategy);
+      BloomFilter second = new BloomFilter(1000, 20, strategy);
+      for (String element : Lists.newArrayList("lei", "eip", "ipz", "pzi", "zig")) {
+        int[] positions = first.addElement(element);
+        assertEquals(20, positions.length);
+        for (int position : positions) {
+          assertTrue(position >= 0 && position < 1000);
+        }
+        assertTrue(Arrays.equals(positions, second.addElement(element)));
+      }
+      assertEquals(first, second);
+
+      // combined filters keep the hash strategy
+      assertEquals(strategy, first.merge(second).getHashStrategy());
+      assertEquals(strategy, first.and(second).getHashStrategy());
+      assertEquals(strategy, first.xor(second).getHashStrategy());
+    }
+  }
+
+  /**
+   * MD5_SHA has to set exactly the bit positions of the previous
+   * MessageDigest/BigInteger based implementation.
+   */
+  @Test
+  public void bloomFilterMd5ShaPositionTest() throws Exception {
+    int size = 1000;
+    int hashFunctions = 20;
+    BloomFilter filter = new BloomFilter(size, hashFunctions, HashStrategy.MD5_SHA);
+    for (String element : Lists.newArrayList("lei", "eip", "ipz", "pzi", "zig",
+        "##l", "g##", "ß安ł", "")) {
+      int hash1 = Math.abs(new BigInteger(1, MessageDigest.getInstance("MD5")
+          .digest(element.getBytes())).intValue());
+      int hash2 = Math.abs(new BigInteger(1, MessageDigest.getInstance("SHA")
+          .digest(element.getBytes())).intValue());
+      int[] expected = new int[hashFunctions];
+      for (int hashNumber = 0; hashNumber < hashFunctions; hashNumber++) {
+        expected[hashNumber] = (Math.abs(hash1 + hashNumber * hash2)) % size;
+      }
+
+      assertTrue(element, Arrays.equals(expected, filter.addElement(element)));
+    }
+  }
+
+  @Test
+  public void packedLshKeyTest() {
+    BitSet bits = new BitSet();
+    bits.set(3);
+    bits.set(42);
+
+    long key = LshKeyCreator.createKey(bits, new int[] {42, 7, 3}, 2);
+    assertEquals((2L << 56) | 0b101L, key);
+    assertEquals(LshKeyCreator.NO_KEY,
+        LshKeyCreator.createKey(bits, new int[] {1, 2}, 0));
+
+    int[] wide = new int[75];
+    for (int i = 0; i < wide.length; i++) {
+      wide[i] = i;
+    }
+    long wideKey = LshKeyCreator.createKey(bits, wide, 1);
+    assertEquals(1L, wideKey >>> 56);
+    assertEquals(wideKey, LshKeyCreator.createKey((BitSet) bits.clone(), wide, 1));
+
+    int[] frequencies = {0, 5, 1, 3, 2, 9, 4};
+    // ordered by frequency: 2, 4, 3, 6, 1, 5
+    // no pruning: first one skipped like in BitPruner, positions up to bloom filter length 4
+    assertTrue(Arrays.equals(new int[] {3, 4, 6},
+        BitFrequencyCounter.getInfrequentPositions(frequencies, 4, 0)));
+    // 1 bit pruned at each end of length 6: 2, 4 (one more like in BitPruner) and 5 dropped
+    assertTrue(Arrays.equals(new int[] {1, 3, 6},
+        BitFrequencyCounter.getInfrequentPositions(frequencies, 6, 1)));
+  }
+
+  /**
+   * Tuned parameters reach the target recall for the similar pairs of the
+   * sample with the actual key positions.
+   */
+  @Test
+  public void lshParameterTunerTest() {
+    Random random = new Random(42);
+    int valueRange = 2000;
+    List<BitSet> sample = Lists.newArrayList();
+    for (int i = 0; i < 50; i++) {
+      BitSet bits = new BitSet();
+      while (bits.cardinality() < 20) {
+        bits.set(random.nextInt(valueRange));
+      }
+      // similar bloom filter with 2 of 20 bits replaced, cosine 0.9
+      BitSet similar = (BitSet) bits.clone();
+      similar.clear(bits.nextSetBit(0));
+      similar.clear(bits.nextSetBit(bits.nextSetBit(0) + 1));
+      while (similar.cardinality() < 20) {
+        similar.set(random.nextInt(valueRange));
+      }
+      sample.add(bits);
+      sample.add(similar);
+    }
+
+    LshParameterTuner tuner = new LshParameterTuner(0.7, 0.9, true);
+    LshParameters parameters = tuner.tune(sample, valueRange, 100000L);
+    LOG.info(parameters);
+
+    assertEquals(valueRange, parameters.getValueRange());
+    assertTrue(parameters.getNumberOfFamilies() >= 1
+        && parameters.getNumberOfFamilies() <= 100);
+    assertTrue(parameters.getNumberOfHashesPerFamily() >= 1
+        && parameters.getNumberOfHashesPerFamily() <= 56);
+    assertTrue(tuner.getEstimatedRecall() >= 0.9);
+
+    Integer[][] positions = HashFamilyGroup.selectRandomPositions(
+        parameters.getNumberOfFamilies(),
+        parameters.getNumberOfHashesPerFamily(),
+        parameters.getValueRange());
+    int truePairs = 0;
+    int candidates = 0;
+    for (int i = 0; i < sample.size(); i++) {
+      for (int j = i + 1; j < sample.size(); j++) {
+        BitSet left = sample.get(i);
+        BitSet right = sample.get(j);
+        BitSet shared = (BitSet) left.clone();
+        shared.and(right);
+        if (shared.cardinality()
+            / Math.sqrt((double) left.cardinality() * right.cardinality()) < 0.7) {
+          continue;
+        }
+        ++truePairs;
+
+        for (int family = 0; family < positions.length; family++) {
+          int[] familyPositions = Arrays.stream(positions[family])
+              .mapToInt(Integer::intValue)
+              .toArray();
+          long leftKey = LshKeyCreator.createKey(left, familyPositions, family);
+          long rightKey = LshKeyCreator.createKey(right, familyPositions, family);
+          if (leftKey != LshKeyCreator.NO_KEY && rightKey != LshKeyCreator.NO_KEY
+              && (leftKey == rightKey
+              || parameters.isMultiProbe() && Long.bitCount(leftKey ^ rightKey) == 1)) {
+            ++candidates;
+            break;
+          }
+        }
+      }
+    }
+
+    assertEquals(50, truePairs);
+    assertTrue("recall: " + (double) candidates / truePairs,
+        (double) candidates / truePairs >= 0.9);
+  }
+
   @Test
   public void labelCreationTest() throws Exception {
     String label = "Aix-en-Provence San Jose, (Calif)";